@@ -0,0 +1,120 @@
+package de.uni_mannheim.informatik.dws.melt.matching_base;
+
+/**
+ * Immutable snapshot of the statistics of a {@link WeightedLoadingCache}.
+ */
+public class CacheStatistics {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long loadCount;
+    private final long loadFailureCount;
+    private final long totalLoadTime;
+    private final long evictionCount;
+    private final int size;
+    private final long weightedSize;
+
+    public CacheStatistics(long hitCount, long missCount, long loadCount, long loadFailureCount, long totalLoadTime, long evictionCount, int size, long weightedSize) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadCount = loadCount;
+        this.loadFailureCount = loadFailureCount;
+        this.totalLoadTime = totalLoadTime;
+        this.evictionCount = evictionCount;
+        this.size = size;
+        this.weightedSize = weightedSize;
+    }
+
+    /**
+     * Number of requests which were answered by the cache (including requests which waited for a load of another thread).
+     * @return number of hits
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Number of requests which needed to load the value.
+     * @return number of misses
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * Ratio of hits and requests (1.0 if there are no requests).
+     * @return the hit rate
+     */
+    public double getHitRate() {
+        long requestCount = getRequestCount();
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * Number of successful loads.
+     * @return number of successful loads
+     */
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    /**
+     * Number of loads which threw an exception.
+     * @return number of failed loads
+     */
+    public long getLoadFailureCount() {
+        return loadFailureCount;
+    }
+
+    /**
+     * The total time in nanoseconds which was spent for successful loads.
+     * @return total load time in nanoseconds
+     */
+    public long getTotalLoadTime() {
+        return totalLoadTime;
+    }
+
+    /**
+     * The average time in nanoseconds of one successful load.
+     * @return average load time in nanoseconds
+     */
+    public double getAverageLoadTime() {
+        return loadCount == 0 ? 0.0 : (double) totalLoadTime / loadCount;
+    }
+
+    /**
+     * Number of values which were evicted because the maximum weight was exceeded.
+     * @return number of evictions
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Number of values in the cache at the time of the snapshot.
+     * @return number of values
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Sum of the weights of all values in the cache at the time of the snapshot.
+     * @return sum of weights
+     */
+    public long getWeightedSize() {
+        return weightedSize;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatistics{" + "hitCount=" + hitCount + ", missCount=" + missCount + ", hitRate=" + String.format("%.3f", getHitRate()) +
+                ", loadCount=" + loadCount + ", loadFailureCount=" + loadFailureCount +
+                ", averageLoadTime=" + String.format("%.1f", getAverageLoadTime() / 1_000_000) + " ms" +
+                ", evictionCount=" + evictionCount + ", size=" + size + ", weightedSize=" + weightedSize + '}';
+    }
+}
@@ -0,0 +1,180 @@
+package de.uni_mannheim.informatik.dws.melt.matching_base;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Groups concurrent single lookups into batch requests.
+ * <p>
+ * A thread which requests a key executes a batch with its own key (and other pending keys) if fewer than
+ * {@code maximumConcurrentBatches} batches are running. Otherwise it waits: all keys which are requested while
+ * the batches are running are collected and loaded with the next batch. Thus a single thread does not wait for
+ * other requests (no artificial delay) but many concurrent threads share few batch requests.
+ * Each thread executes at most the batches which contain its own key and returns as soon as its value is loaded,
+ * thus no thread keeps executing batches for other threads under sustained load.
+ * Keys which are requested multiple times while waiting are only loaded once.
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+public class RequestCoalescer<K, V> {
+
+    private final Function<List<K>, Map<K, V>> batchLoader;
+    private final int maximumBatchSize;
+    private final int maximumConcurrentBatches;
+    private final Object lock = new Object();
+    /**
+     * Keys which are requested but not yet part of a running batch.
+     */
+    private final Map<K, CompletableFuture<V>> pending;
+    /**
+     * Keys which are part of a running batch (such that a key is not loaded twice at the same time).
+     */
+    private final Map<K, CompletableFuture<V>> loading;
+    private int runningBatches;
+    private long batchCount;
+
+    /**
+     * Constructor
+     * @param batchLoader function which loads the values of all given keys with one request.
+     *                    Keys which are not contained in the returned map get a null value.
+     * @param maximumBatchSize the maximum number of keys in one batch
+     * @param maximumConcurrentBatches the maximum number of batches which are executed at the same time
+     */
+    public RequestCoalescer(Function<List<K>, Map<K, V>> batchLoader, int maximumBatchSize, int maximumConcurrentBatches) {
+        if(maximumBatchSize < 1)
+            throw new IllegalArgumentException("The maximum batch size has to be at least one.");
+        if(maximumConcurrentBatches < 1)
+            throw new IllegalArgumentException("The maximum number of concurrent batches has to be at least one.");
+        this.batchLoader = batchLoader;
+        this.maximumBatchSize = maximumBatchSize;
+        this.maximumConcurrentBatches = maximumConcurrentBatches;
+        this.pending = new LinkedHashMap<>();
+        this.loading = new LinkedHashMap<>();
+        this.runningBatches = 0;
+        this.batchCount = 0;
+    }
+
+    /**
+     * Constructor which executes at most one batch at a time.
+     * @param batchLoader function which loads the values of all given keys with one request.
+     *                    Keys which are not contained in the returned map get a null value.
+     * @param maximumBatchSize the maximum number of keys in one batch
+     */
+    public RequestCoalescer(Function<List<K>, Map<K, V>> batchLoader, int maximumBatchSize) {
+        this(batchLoader, maximumBatchSize, 1);
+    }
+
+    /**
+     * Returns the value of the given key. The key is loaded together with other concurrently requested keys.
+     * @param key the key
+     * @return the value or null if the batch loader did not return a value for it.
+     */
+    public V get(K key){
+        CompletableFuture<V> future;
+        synchronized(lock){
+            future = loading.get(key);
+            if(future == null)
+                future = pending.computeIfAbsent(key, k -> new CompletableFuture<>());
+        }
+        while(!future.isDone()){
+            List<Map.Entry<K, CompletableFuture<V>>> batch = null;
+            synchronized(lock){
+                if(future.isDone())
+                    break;
+                if(runningBatches < maximumConcurrentBatches && pending.containsKey(key)){
+                    batch = takeBatch(key);
+                    runningBatches++;
+                    batchCount++;
+                }else{
+                    try {
+                        lock.wait(); // woken up whenever a batch is finished
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while waiting for a batch request.", ex);
+                    }
+                }
+            }
+            if(batch != null){
+                try{
+                    executeBatch(batch);
+                }finally{
+                    synchronized(lock){
+                        for(Map.Entry<K, CompletableFuture<V>> entry : batch){
+                            loading.remove(entry.getKey());
+                        }
+                        runningBatches--;
+                        lock.notifyAll();
+                    }
+                }
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if(ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            throw ex;
+        }
+    }
+
+    /**
+     * Removes the given key and further pending keys (up to the maximum batch size) from the pending keys.
+     * Has to be called while holding the lock.
+     */
+    private List<Map.Entry<K, CompletableFuture<V>>> takeBatch(K ownKey){
+        List<Map.Entry<K, CompletableFuture<V>>> batch = new ArrayList<>(Math.min(pending.size(), maximumBatchSize));
+        CompletableFuture<V> ownFuture = pending.remove(ownKey);
+        batch.add(new AbstractMap.SimpleImmutableEntry<>(ownKey, ownFuture));
+        loading.put(ownKey, ownFuture);
+        Iterator<Map.Entry<K, CompletableFuture<V>>> iterator = pending.entrySet().iterator();
+        while(batch.size() < maximumBatchSize && iterator.hasNext()){
+            Map.Entry<K, CompletableFuture<V>> entry = iterator.next();
+            batch.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
+            loading.put(entry.getKey(), entry.getValue());
+            iterator.remove();
+        }
+        return batch;
+    }
+
+    private void executeBatch(List<Map.Entry<K, CompletableFuture<V>>> batch){
+        List<K> keys = new ArrayList<>(batch.size());
+        for(Map.Entry<K, CompletableFuture<V>> entry : batch){
+            keys.add(entry.getKey());
+        }
+        try{
+            Map<K, V> values = batchLoader.apply(keys);
+            for(Map.Entry<K, CompletableFuture<V>> entry : batch){
+                entry.getValue().complete(values == null ? null : values.get(entry.getKey()));
+            }
+        }catch(RuntimeException | Error ex){
+            for(Map.Entry<K, CompletableFuture<V>> entry : batch){
+                entry.getValue().completeExceptionally(ex);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of batches which were executed so far.
+     * @return number of batches
+     */
+    public long getBatchCount() {
+        synchronized(lock){
+            return batchCount;
+        }
+    }
+
+    public int getMaximumBatchSize() {
+        return maximumBatchSize;
+    }
+
+    public int getMaximumConcurrentBatches() {
+        return maximumConcurrentBatches;
+    }
+}
@@ -0,0 +1,280 @@
+package de.uni_mannheim.informatik.dws.melt.matching_base;
+
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Thread safe cache which loads values on demand and evicts the least recently used values
+ * as soon as the sum of all weights exceeds a maximum weight.
+ * <p>
+ * Values are loaded per key: while one value is loaded, other keys can be accessed and loaded by other threads.
+ * Threads which request the same key wait for the one load instead of loading the value twice.
+ * It is used e.g. for caching ontologies where the weight is the number of triples or axioms.
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+public class WeightedLoadingCache<K, V> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WeightedLoadingCache.class);
+
+    private final Map<K, CacheEntry<V>> map;
+    private final ToLongFunction<? super V> weigher;
+    private final AtomicLong clock;
+    private volatile long maximumWeight;
+    private long totalWeight;
+
+    private final LongAdder hitCount;
+    private final LongAdder missCount;
+    private final LongAdder loadCount;
+    private final LongAdder loadFailureCount;
+    private final LongAdder totalLoadTime;
+    private final LongAdder evictionCount;
+
+    /**
+     * Constructor
+     * @param maximumWeight the maximum sum of all weights. If it is exceeded, the least recently used values are evicted.
+     * @param weigher function which computes the weight of a value (e.g. number of triples). The weight of a value should not change.
+     */
+    public WeightedLoadingCache(long maximumWeight, ToLongFunction<? super V> weigher) {
+        this.map = new ConcurrentHashMap<>();
+        this.weigher = weigher;
+        this.clock = new AtomicLong();
+        this.maximumWeight = maximumWeight;
+        this.totalWeight = 0;
+        this.hitCount = new LongAdder();
+        this.missCount = new LongAdder();
+        this.loadCount = new LongAdder();
+        this.loadFailureCount = new LongAdder();
+        this.totalLoadTime = new LongAdder();
+        this.evictionCount = new LongAdder();
+    }
+
+    /**
+     * Constructor for a cache without weight limit.
+     */
+    public WeightedLoadingCache() {
+        this(Long.MAX_VALUE, value -> 1);
+    }
+
+    /**
+     * Returns the value for the given key. If it is not cached, it is loaded with the given loader and cached
+     * (if the loader returns a non null value).
+     * If another thread currently loads the same key, this method waits for it.
+     * @param key the key
+     * @param loader the loader which is called if the value is not in the cache
+     * @return the cached or loaded value
+     */
+    public V get(K key, Function<? super K, ? extends V> loader){
+        CacheEntry<V> entry = map.get(key);
+        if(entry == null){
+            CacheEntry<V> newEntry = new CacheEntry<>();
+            entry = map.putIfAbsent(key, newEntry);
+            if(entry == null){
+                return load(key, newEntry, loader);
+            }
+        }
+        hitCount.increment();
+        V value = entry.await();
+        entry.lastAccess = clock.incrementAndGet();
+        return value;
+    }
+
+    private V load(K key, CacheEntry<V> entry, Function<? super K, ? extends V> loader){
+        missCount.increment();
+        long startTime = System.nanoTime();
+        V value;
+        try{
+            value = loader.apply(key);
+        }catch(RuntimeException | Error ex){
+            loadFailureCount.increment();
+            map.remove(key, entry);
+            entry.future.completeExceptionally(ex);
+            throw ex;
+        }
+        long loadTime = System.nanoTime() - startTime;
+        totalLoadTime.add(loadTime);
+        loadCount.increment();
+        if(value == null){
+            map.remove(key, entry);
+            entry.future.complete(null);
+            return null;
+        }
+        entry.weight = Math.max(0, weigher.applyAsLong(value));
+        entry.lastAccess = clock.incrementAndGet();
+        LOGGER.debug("Loaded value for key {} with weight {} in {} ms", key, entry.weight, loadTime / 1_000_000);
+        synchronized(this){
+            if(map.get(key) == entry){
+                totalWeight += entry.weight;
+                entry.counted = true;
+                evict(entry);
+            }
+        }
+        entry.future.complete(value);
+        return value;
+    }
+
+    /**
+     * Returns the value for the given key without loading it.
+     * @param key the key
+     * @return the value or null if it is not (yet) cached.
+     */
+    public V getIfPresent(K key){
+        CacheEntry<V> entry = map.get(key);
+        if(entry == null || !entry.future.isDone()){
+            return null;
+        }
+        V value = entry.await();
+        entry.lastAccess = clock.incrementAndGet();
+        return value;
+    }
+
+    /**
+     * Puts the given value in the cache (replacing any previous value).
+     * @param key the key
+     * @param value the value (not null)
+     */
+    public void put(K key, V value){
+        CacheEntry<V> entry = new CacheEntry<>();
+        entry.weight = Math.max(0, weigher.applyAsLong(value));
+        entry.lastAccess = clock.incrementAndGet();
+        entry.future.complete(value);
+        synchronized(this){
+            CacheEntry<V> old = map.put(key, entry);
+            if(old != null && old.counted){
+                totalWeight -= old.weight;
+            }
+            totalWeight += entry.weight;
+            entry.counted = true;
+            evict(entry);
+        }
+    }
+
+    /**
+     * Removes the value for the given key.
+     * @param key the key
+     */
+    public synchronized void invalidate(K key){
+        CacheEntry<V> old = map.remove(key);
+        if(old != null && old.counted){
+            totalWeight -= old.weight;
+        }
+    }
+
+    /**
+     * Removes all values from the cache. The statistics are not reset.
+     */
+    public synchronized void invalidateAll(){
+        map.clear();
+        totalWeight = 0;
+    }
+
+    /**
+     * Evicts least recently used entries until the total weight is below the maximum weight.
+     * The given entry (which was just added) is never evicted. Thus a single value which is heavier than the maximum weight
+     * stays in the cache until the next value is added.
+     * @param keep the entry which should not be evicted.
+     */
+    private void evict(CacheEntry<V> keep){
+        while(totalWeight > maximumWeight){
+            K lruKey = null;
+            CacheEntry<V> lruEntry = null;
+            for(Entry<K, CacheEntry<V>> e : map.entrySet()){
+                CacheEntry<V> candidate = e.getValue();
+                if(candidate == keep || !candidate.counted)
+                    continue;
+                if(lruEntry == null || candidate.lastAccess < lruEntry.lastAccess){
+                    lruKey = e.getKey();
+                    lruEntry = candidate;
+                }
+            }
+            if(lruEntry == null)
+                return;
+            map.remove(lruKey, lruEntry);
+            totalWeight -= lruEntry.weight;
+            evictionCount.increment();
+            LOGGER.info("Evict {} from cache (weight {}) because the maximum weight {} is exceeded.", lruKey, lruEntry.weight, maximumWeight);
+        }
+    }
+
+    /**
+     * Returns the number of values in the cache (including the ones which are currently loaded).
+     * @return the number of values
+     */
+    public int size(){
+        return map.size();
+    }
+
+    /**
+     * Returns the sum of the weights of all cached values.
+     * @return the total weight
+     */
+    public synchronized long getWeightedSize(){
+        return totalWeight;
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * Sets the maximum weight and directly evicts values if necessary.
+     * @param maximumWeight the maximum sum of all weights.
+     */
+    public synchronized void setMaximumWeight(long maximumWeight) {
+        this.maximumWeight = maximumWeight;
+        evict(null);
+    }
+
+    /**
+     * Returns a snapshot of the statistics of this cache.
+     * @return the statistics
+     */
+    public CacheStatistics getStatistics(){
+        return new CacheStatistics(hitCount.sum(), missCount.sum(), loadCount.sum(), loadFailureCount.sum(),
+                totalLoadTime.sum(), evictionCount.sum(), size(), getWeightedSize());
+    }
+
+    /**
+     * Resets all counters of the statistics.
+     */
+    public void resetStatistics(){
+        hitCount.reset();
+        missCount.reset();
+        loadCount.reset();
+        loadFailureCount.reset();
+        totalLoadTime.reset();
+        evictionCount.reset();
+    }
+
+    private static class CacheEntry<V> {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private volatile long lastAccess;
+        private volatile long weight;
+        /**
+         * True if the weight of this entry is part of the total weight (guarded by the cache lock).
+         */
+        private boolean counted;
+
+        V await(){
+            try {
+                return future.join();
+            } catch (CompletionException ex) {
+                Throwable cause = ex.getCause();
+                if(cause instanceof RuntimeException)
+                    throw (RuntimeException) cause;
+                if(cause instanceof Error)
+                    throw (Error) cause;
+                throw ex;
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package de.uni_mannheim.informatik.dws.melt.matching_base;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescerTest {
+
+    @Test
+    void testConcurrentRequestsAreBatched() throws Exception {
+        AtomicInteger requestedKeys = new AtomicInteger();
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        RequestCoalescer<Integer, String> coalescer = new RequestCoalescer<>(keys -> {
+            batchSizes.add(keys.size());
+            requestedKeys.addAndGet(keys.size());
+            try {
+                Thread.sleep(20); // simulate a slow server
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            Map<Integer, String> values = new HashMap<>();
+            for(Integer key : keys){
+                if(key % 10 != 0)
+                    values.put(key, "value" + key);
+            }
+            return values;
+        }, 50);
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try{
+            List<Future<String>> futures = new ArrayList<>();
+            for(int i = 0; i < 400; i++){
+                int key = i % 200; // every key is requested twice
+                futures.add(executor.submit(() -> coalescer.get(key)));
+            }
+            for(int i = 0; i < 400; i++){
+                int key = i % 200;
+                if(key % 10 == 0){
+                    assertNull(futures.get(i).get());
+                }else{
+                    assertEquals("value" + key, futures.get(i).get());
+                }
+            }
+        }finally{
+            executor.shutdown();
+        }
+        assertTrue(coalescer.getBatchCount() < 400, "Concurrent requests should be grouped into batches.");
+        assertEquals(coalescer.getBatchCount(), batchSizes.size());
+        assertTrue(requestedKeys.get() <= 400);
+        for(int size : batchSizes){
+            assertTrue(size <= 50);
+        }
+    }
+
+    @Test
+    void testSingleThread() {
+        AtomicInteger batches = new AtomicInteger();
+        RequestCoalescer<String, Integer> coalescer = new RequestCoalescer<>(keys -> {
+            batches.incrementAndGet();
+            Map<String, Integer> values = new HashMap<>();
+            keys.forEach(k -> values.put(k, k.length()));
+            return values;
+        }, 10);
+        assertEquals(3, coalescer.get("abc"));
+        assertEquals(1, coalescer.get("a"));
+        assertEquals(2, batches.get());
+        assertEquals(2, coalescer.getBatchCount());
+    }
+
+    @Test
+    void testCallerReturnsAfterOwnBatch() throws Exception {
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+        CountDownLatch releaseSecondBatch = new CountDownLatch(1);
+        RequestCoalescer<String, String> coalescer = new RequestCoalescer<>(keys -> {
+            try {
+                if(keys.contains("first")){
+                    firstBatchStarted.countDown();
+                    releaseFirstBatch.await();
+                }else{
+                    releaseSecondBatch.await();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            Map<String, String> values = new HashMap<>();
+            keys.forEach(k -> values.put(k, k));
+            return values;
+        }, 10);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try{
+            Future<String> first = executor.submit(() -> coalescer.get("first"));
+            firstBatchStarted.await();
+            Future<String> second = executor.submit(() -> coalescer.get("second"));
+            Thread.sleep(50); // the second key is pending while the first batch is running
+            releaseFirstBatch.countDown();
+            //the first caller must not execute the batch of the second key
+            assertEquals("first", first.get(5, TimeUnit.SECONDS));
+            assertFalse(second.isDone());
+            releaseSecondBatch.countDown();
+            assertEquals("second", second.get(5, TimeUnit.SECONDS));
+        }finally{
+            releaseFirstBatch.countDown();
+            releaseSecondBatch.countDown();
+            executor.shutdown();
+        }
+        assertEquals(2, coalescer.getBatchCount());
+    }
+
+    @Test
+    void testConcurrentBatches() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maximumRunning = new AtomicInteger();
+        RequestCoalescer<Integer, Integer> coalescer = new RequestCoalescer<>(keys -> {
+            maximumRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            Map<Integer, Integer> values = new HashMap<>();
+            keys.forEach(k -> values.put(k, k * 2));
+            return values;
+        }, 5, 3);
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try{
+            List<Future<Integer>> futures = new ArrayList<>();
+            for(int i = 0; i < 200; i++){
+                int key = i;
+                futures.add(executor.submit(() -> coalescer.get(key)));
+            }
+            for(int i = 0; i < 200; i++){
+                assertEquals(i * 2, futures.get(i).get());
+            }
+        }finally{
+            executor.shutdown();
+        }
+        assertTrue(maximumRunning.get() <= 3);
+        assertTrue(maximumRunning.get() > 1, "Batches should be executed concurrently.");
+    }
+
+    @Test
+    void testExceptionIsPropagated() {
+        RequestCoalescer<String, String> coalescer = new RequestCoalescer<>(keys -> {
+            throw new IllegalStateException("server down");
+        }, 10);
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> coalescer.get("a"));
+        assertEquals("server down", ex.getMessage());
+        //the coalescer is still usable afterwards
+        assertThrows(IllegalStateException.class, () -> coalescer.get("b"));
+        assertThrows(IllegalArgumentException.class, () -> new RequestCoalescer<String, String>(keys -> null, 0));
+        assertThrows(IllegalArgumentException.class, () -> new RequestCoalescer<String, String>(keys -> null, 10, 0));
+    }
+}
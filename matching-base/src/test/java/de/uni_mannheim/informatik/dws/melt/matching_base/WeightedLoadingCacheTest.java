@@ -0,0 +1,103 @@
+package de.uni_mannheim.informatik.dws.melt.matching_base;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WeightedLoadingCacheTest {
+
+    @Test
+    public void testLoadAndStatistics(){
+        WeightedLoadingCache<String, String> cache = new WeightedLoadingCache<>(100, String::length);
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals("aaa", cache.get("a", key -> { loads.incrementAndGet(); return "aaa"; }));
+        assertEquals("aaa", cache.get("a", key -> { loads.incrementAndGet(); return "other"; }));
+        assertEquals(1, loads.get());
+        assertNull(cache.getIfPresent("b"));
+
+        CacheStatistics stats = cache.getStatistics();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getLoadCount());
+        assertEquals(0.5, stats.getHitRate());
+        assertEquals(1, stats.getSize());
+        assertEquals(3, stats.getWeightedSize());
+    }
+
+    @Test
+    public void testEviction(){
+        WeightedLoadingCache<String, String> cache = new WeightedLoadingCache<>(10, String::length);
+        cache.get("a", key -> "aaaa");
+        cache.get("b", key -> "bbbb");
+        cache.get("a", key -> "unused"); // a is now more recently used than b
+        cache.get("c", key -> "cccc");
+        assertEquals("aaaa", cache.getIfPresent("a"));
+        assertNull(cache.getIfPresent("b"));
+        assertEquals("cccc", cache.getIfPresent("c"));
+        assertEquals(8, cache.getWeightedSize());
+        assertEquals(1, cache.getStatistics().getEvictionCount());
+
+        // a value which is heavier than the maximum weight evicts everything else but stays in the cache
+        cache.get("d", key -> "dddddddddddddddd");
+        assertEquals(1, cache.size());
+        assertEquals(16, cache.getWeightedSize());
+
+        cache.setMaximumWeight(0);
+        cache.put("e", "e");
+        assertEquals(1, cache.size());
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getWeightedSize());
+    }
+
+    @Test
+    public void testFailedLoadIsNotCached(){
+        WeightedLoadingCache<String, String> cache = new WeightedLoadingCache<>();
+        assertThrows(IllegalStateException.class, () -> cache.get("a", key -> { throw new IllegalStateException("test"); }));
+        assertEquals(1, cache.getStatistics().getLoadFailureCount());
+        assertEquals("a", cache.get("a", key -> "a"));
+        assertNull(cache.get("b", key -> null));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testPerKeyLoading() throws Exception {
+        WeightedLoadingCache<String, String> cache = new WeightedLoadingCache<>();
+        CountDownLatch slowLoadStarted = new CountDownLatch(1);
+        CountDownLatch finishSlowLoad = new CountDownLatch(1);
+        AtomicInteger slowLoads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try{
+            Future<String> slow = executor.submit(() -> cache.get("slow", key -> {
+                slowLoads.incrementAndGet();
+                slowLoadStarted.countDown();
+                try {
+                    finishSlowLoad.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return "slowValue";
+            }));
+            assertTrue(slowLoadStarted.await(10, TimeUnit.SECONDS));
+            Future<String> waiting = executor.submit(() -> cache.get("slow", key -> {
+                slowLoads.incrementAndGet();
+                return "secondValue";
+            }));
+            //other keys are not blocked by the slow load
+            assertEquals("fast", executor.submit(() -> cache.get("fast", key -> "fast")).get(10, TimeUnit.SECONDS));
+            assertFalse(slow.isDone());
+
+            finishSlowLoad.countDown();
+            assertEquals("slowValue", slow.get(10, TimeUnit.SECONDS));
+            assertEquals("slowValue", waiting.get(10, TimeUnit.SECONDS));
+            assertEquals(1, slowLoads.get());
+        }finally{
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval;
+
+import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
+import de.uni_mannheim.informatik.dws.melt.matching_data.Track;
+import de.uni_mannheim.informatik.dws.melt.matching_data.TrackRepository;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.refinement.Refiner;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.AlignmentSerializer;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.MalformedURLException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persists each finished {@link ExecutionResult} in a results directory such that an interrupted run can be resumed.
+ * The directory has the same structure as the one written by {@link de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.EvaluatorCSV}:
+ * <pre>
+ * directory
+ * - trackName_trackVersion
+ *   - testCaseName
+ *     - matcherName
+ *       - systemAlignment.rdf
+ *       - execution.properties
+ * </pre>
+ * The <code>execution.properties</code> file is written last. Thus a result is only seen as finished if this file exists.
+ * Results which are loaded from the directory parse their system alignment only when it is requested.
+ */
+public class ExecutionCheckpoint {
+
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutionCheckpoint.class);
+
+    static final String ALIGNMENT_FILE_NAME = "systemAlignment.rdf";
+    static final String PROPERTIES_FILE_NAME = "execution.properties";
+
+    private final File directory;
+
+    /**
+     * Constructor
+     * @param directory the directory where the results are stored. It is created if it does not exist.
+     */
+    public ExecutionCheckpoint(File directory) {
+        if(directory == null)
+            throw new IllegalArgumentException("The checkpoint directory should not be null.");
+        this.directory = directory;
+        this.directory.mkdirs();
+        if(!this.directory.isDirectory())
+            throw new IllegalArgumentException("The checkpoint directory is not a directory: " + directory);
+    }
+
+    /**
+     * Checks if the given matcher was already executed on the given test case.
+     * @param testCase the test case
+     * @param matcherName the name of the matcher
+     * @return true, if a result is stored for the given combination.
+     */
+    public boolean isFinished(TestCase testCase, String matcherName){
+        return new File(getResultDirectory(testCase, matcherName), PROPERTIES_FILE_NAME).isFile();
+    }
+
+    /**
+     * Stores the given execution result. The system alignment is copied to the checkpoint directory
+     * because the original file is usually deleted on exit.
+     * This method can be called from multiple threads as long as they store different results.
+     * @param result the result to store
+     */
+    public void save(ExecutionResult result){
+        File resultDirectory = getResultDirectory(result.getTestCase(), result.getMatcherName());
+        resultDirectory.mkdirs();
+        File alignmentFile = new File(resultDirectory, ALIGNMENT_FILE_NAME);
+        File propertiesFile = new File(resultDirectory, PROPERTIES_FILE_NAME);
+        try{
+            if(propertiesFile.exists())
+                Files.delete(propertiesFile.toPath());
+            if(result.getOriginalSystemAlignment() != null){
+                try(InputStream in = result.getOriginalSystemAlignment().openStream()){
+                    Files.copy(in, alignmentFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }else{
+                AlignmentSerializer.serialize(result.getSystemAlignment(), alignmentFile);
+            }
+
+            Properties properties = new Properties();
+            properties.setProperty("matcherName", result.getMatcherName());
+            properties.setProperty("testCase", result.getTestCase().getName());
+            properties.setProperty("track", result.getTestCase().getTrack().getName());
+            properties.setProperty("trackVersion", result.getTestCase().getTrack().getVersion());
+            properties.setProperty("runtime", Long.toString(result.getRuntime()));
+            properties.setProperty("queueTime", Long.toString(result.getQueueTime()));
+            if(result.getOriginalSystemAlignment() != null)
+                properties.setProperty("originalSystemAlignment", result.getOriginalSystemAlignment().toString());
+            properties.setProperty("refinements", result.getRefinements().stream()
+                    .map(Refiner::toString).sorted().collect(Collectors.joining(",")));
+
+            File tmpFile = new File(resultDirectory, PROPERTIES_FILE_NAME + ".tmp");
+            try(OutputStream out = Files.newOutputStream(tmpFile.toPath())){
+                properties.store(out, "MELT execution result");
+            }
+            try{
+                Files.move(tmpFile.toPath(), propertiesFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            }catch(AtomicMoveNotSupportedException ex){
+                Files.move(tmpFile.toPath(), propertiesFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }catch(IOException ex){
+            LOGGER.error("Could not store the execution result of matcher {} on test case {} in directory {}",
+                    result.getMatcherName(), result.getTestCase().getName(), resultDirectory, ex);
+        }
+    }
+
+    /**
+     * Loads the stored result of the given matcher and test case.
+     * The system alignment is parsed when it is requested the first time.
+     * @param testCase the test case
+     * @param matcherName the name of the matcher
+     * @return the execution result or null if no result is stored.
+     */
+    public ExecutionResult load(TestCase testCase, String matcherName){
+        File resultDirectory = getResultDirectory(testCase, matcherName);
+        File propertiesFile = new File(resultDirectory, PROPERTIES_FILE_NAME);
+        if(!propertiesFile.isFile())
+            return null;
+        Properties properties = new Properties();
+        try(InputStream in = Files.newInputStream(propertiesFile.toPath())){
+            properties.load(in);
+        }catch(IOException ex){
+            LOGGER.error("Could not read the execution properties in {}", propertiesFile, ex);
+            return null;
+        }
+        if(!properties.getProperty("refinements", "").isEmpty()){
+            LOGGER.warn("The stored result in {} was refined ({}). It is loaded without refinements - use ExecutionResultSet.get to refine it again.",
+                    resultDirectory, properties.getProperty("refinements"));
+        }
+        try {
+            ExecutionResult result = new ExecutionResult(testCase, matcherName, new File(resultDirectory, ALIGNMENT_FILE_NAME).toURI().toURL(),
+                    parseLong(properties.getProperty("runtime")), null);
+            result.setQueueTime(parseLong(properties.getProperty("queueTime")));
+            return result;
+        } catch (MalformedURLException ex) {
+            LOGGER.error("Could not build URL for the system alignment in {}", resultDirectory, ex);
+            return null;
+        }
+    }
+
+    /**
+     * Loads all stored results. The test cases are resolved with the tracks in the {@link TrackRepository}.
+     * @return all stored results
+     */
+    public ExecutionResultSet loadAll(){
+        return loadAll(null);
+    }
+
+    /**
+     * Loads all stored results.
+     * The test cases are resolved with the given tracks and the tracks in the {@link TrackRepository}.
+     * System alignments are parsed when they are requested the first time.
+     * @param tracks additional tracks (like local tracks) which are used to resolve the stored test cases. Can be null.
+     * @return all stored results
+     */
+    public ExecutionResultSet loadAll(Collection<? extends Track> tracks){
+        Map<String, Track> trackMap = new HashMap<>(TrackRepository.getMapFromTrackNameAndVersionToTrack());
+        if(tracks != null){
+            for(Track track : tracks){
+                trackMap.put(track.getNameAndVersionString(), track);
+            }
+        }
+        ExecutionResultSet results = new ExecutionResultSet();
+        File[] trackDirectories = directory.listFiles(File::isDirectory);
+        if(trackDirectories == null)
+            return results;
+        for(File trackDirectory : trackDirectories){
+            Track track = trackMap.get(trackDirectory.getName());
+            if(track == null){
+                LOGGER.warn("Cannot load results from directory {} because the track is not known.", trackDirectory.getName());
+                continue;
+            }
+            for(File testCaseDirectory : trackDirectory.listFiles(File::isDirectory)){
+                TestCase testCase = track.getTestCase(decode(testCaseDirectory.getName()));
+                if(testCase == null){
+                    LOGGER.warn("Cannot load results from directory {} because the test case does not exist in track {}.", testCaseDirectory.getName(), track.getName());
+                    continue;
+                }
+                for(File matcherDirectory : testCaseDirectory.listFiles(File::isDirectory)){
+                    ExecutionResult result = load(testCase, decode(matcherDirectory.getName()));
+                    if(result != null)
+                        results.add(result);
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns the directory where all results are stored.
+     * @return the checkpoint directory
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    private File getResultDirectory(TestCase testCase, String matcherName){
+        File trackDirectory = new File(directory, testCase.getTrack().getNameAndVersionString());
+        return new File(new File(trackDirectory, encode(testCase.getName())), encode(matcherName));
+    }
+
+    private static String encode(String text){
+        try {
+            return URLEncoder.encode(text, "UTF-8");
+        } catch (UnsupportedEncodingException ex) {
+            throw new IllegalStateException("UTF-8 is not supported.", ex);
+        }
+    }
+
+    private static String decode(String text){
+        try {
+            return URLDecoder.decode(text, "UTF-8");
+        } catch (UnsupportedEncodingException ex) {
+            throw new IllegalStateException("UTF-8 is not supported.", ex);
+        }
+    }
+
+    private static long parseLong(String text){
+        if(text == null)
+            return 0;
+        try{
+            return Long.parseLong(text);
+        }catch(NumberFormatException ex){
+            return 0;
+        }
+    }
+}
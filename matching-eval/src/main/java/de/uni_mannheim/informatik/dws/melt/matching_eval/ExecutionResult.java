@@ -40,6 +40,11 @@ public class ExecutionResult {
      * The runtime in nanoseconds
      */
     private long runtime;
+    
+    /**
+     * The time in nanoseconds the execution waited to be scheduled (only set by {@link ExecutorParallel}).
+     */
+    private long queueTime;
     private Alignment systemAlignment;
     private Alignment referenceAlignment;
     private IOntologyMatchingToolBridge matcher;
@@ -112,6 +117,7 @@ public class ExecutionResult {
      */
     public ExecutionResult(ExecutionResult base, Alignment systemAlignment, Alignment referenceAlignment, Refiner refinement) {
         this(base.testCase, base.matcherName, base.originalSystemAlignment, base.runtime, systemAlignment, referenceAlignment, base.matcher, addRefinementToNewSet(base.refinements, refinement));
+        this.queueTime = base.queueTime;
     }
     
     /**
@@ -163,6 +169,19 @@ public class ExecutionResult {
         return runtime;
     }
 
+    /**
+     * Returns the time in nanoseconds the execution waited until it was started.
+     * This is only set if the matcher was executed with {@link ExecutorParallel} and zero otherwise.
+     * @return the queue time in nanoseconds
+     */
+    public long getQueueTime() {
+        return queueTime;
+    }
+
+    void setQueueTime(long queueTime) {
+        this.queueTime = queueTime;
+    }
+
     public IOntologyMatchingToolBridge getMatcher() {
         return matcher;
     }    
@@ -24,17 +24,50 @@ class ExecutionRunner implements Callable<ExecutionResult> {
     private TestCase testCase;
     private IOntologyMatchingToolBridge matcher;        
     private String matcherName;
+    /**
+     * The point in time (System.nanoTime) when this runner was created / scheduled.
+     */
+    private long creationTime;
 
     public ExecutionRunner(TestCase testCase, IOntologyMatchingToolBridge matcher, String matcherName){
         this.testCase = testCase;
         this.matcher = matcher;
         this.matcherName = matcherName;
+        this.creationTime = System.nanoTime();
     }
 
     @Override
     public ExecutionResult call() {
+        long queueTime = System.nanoTime() - creationTime;
         Thread.currentThread().setName(matcherName + "-" + testCase.getName());
-        return runMatcher(testCase, matcher, matcherName);
+        ExecutionResult result = runMatcher(testCase, matcher, matcherName);
+        if(result != null)
+            result.setQueueTime(queueTime);
+        return result;
+    }
+
+    /**
+     * Run an individual matcher on an individual test case if the result is not already stored in the checkpoint.
+     * A new result is stored in the checkpoint directly after the matcher is finished.
+     * @param testCase Test case to be used for run.
+     * @param matcher Matcher to be run.
+     * @param matcherName Name of the matcher.
+     * @param checkpoint The checkpoint where results are loaded from and stored to. If null, the matcher is always executed.
+     * @return ExecutionResult Object
+     */
+    public static ExecutionResult runMatcher(TestCase testCase, IOntologyMatchingToolBridge matcher, String matcherName, ExecutionCheckpoint checkpoint){
+        if(checkpoint == null)
+            return runMatcher(testCase, matcher, matcherName);
+        ExecutionResult stored = checkpoint.load(testCase, matcherName);
+        if(stored != null){
+            LOGGER.info("Skip matcher {} on testcase {} (track {}) because the result is already stored in {}.",
+                    matcherName, testCase.getName(), testCase.getTrack().getName(), checkpoint.getDirectory());
+            return stored;
+        }
+        ExecutionResult result = runMatcher(testCase, matcher, matcherName);
+        if(result != null)
+            checkpoint.save(result);
+        return result;
     }
 
     /**
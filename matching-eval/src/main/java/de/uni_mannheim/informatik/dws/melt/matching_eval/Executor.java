@@ -172,6 +172,37 @@ public class Executor {
         return r;
     }
     
+    /**
+     * Run a set of matchers on a set of test cases and store each result in the given directory as soon as it is finished.
+     * Combinations of test case and matcher which are already stored in the directory are not executed again but loaded
+     * from the directory. Thus an interrupted run can be resumed by calling this method again with the same directory.
+     *
+     * @param testCases The test cases on which all the specified matchers shall be run.
+     * @param matchers  A map of matchers from unique_name to matcher instance.
+     * @param checkpointDirectory The directory where the results are stored (see {@link ExecutionCheckpoint}).
+     * @return The matching result as {@link ExecutionResultSet} instance (including the already stored results).
+     */
+    public static ExecutionResultSet run(List<TestCase> testCases, Map<String, IOntologyMatchingToolBridge> matchers, File checkpointDirectory) {
+        if(testCases == null){
+            LOGGER.error("The testCases list is null. Resolution: Returning empty resultSet.");
+            return new ExecutionResultSet();
+        }
+        if(matchers == null){
+            LOGGER.error("The matchers are null. Resolution: Returning empty resultSet.");
+            return new ExecutionResultSet();
+        }
+        ExecutionCheckpoint checkpoint = new ExecutionCheckpoint(checkpointDirectory);
+        ExecutionResultSet r = new ExecutionResultSet();
+        for (TestCase tc : testCases) {
+            for (Entry<String, IOntologyMatchingToolBridge> matcher : matchers.entrySet()) {
+                ExecutionResult er = ExecutionRunner.runMatcher(tc, matcher.getValue(), matcher.getKey(), checkpoint);
+                if(er != null)
+                    r.add(er);
+            }
+        }
+        return r;
+    }
+    
     /**
      * Run a set of matchers on a specific test cases.
      *
@@ -580,6 +611,35 @@ public class Executor {
         return results;
     }
     
+    /**
+     * Load results that were stored by a run with a checkpoint directory
+     * (e.g. {@link #run(java.util.List, java.util.Map, java.io.File)}).
+     * The system alignments are only parsed when they are requested.
+     *
+     * @param folder The checkpoint directory.
+     * @return {@link ExecutionResultSet} instance with the loaded results.
+     */
+    public static ExecutionResultSet loadFromCheckpointDirectory(File folder) {
+        return loadFromCheckpointDirectory(folder, null);
+    }
+
+    /**
+     * Load results that were stored by a run with a checkpoint directory
+     * (e.g. {@link #run(java.util.List, java.util.Map, java.io.File)}).
+     * The system alignments are only parsed when they are requested.
+     *
+     * @param folder The checkpoint directory.
+     * @param tracks Tracks (like local tracks) which are not part of the TrackRepository but contained in the directory. Can be null.
+     * @return {@link ExecutionResultSet} instance with the loaded results.
+     */
+    public static ExecutionResultSet loadFromCheckpointDirectory(File folder, Collection<? extends Track> tracks) {
+        if(folder == null || !folder.isDirectory()){
+            LOGGER.error("The specified folder is not a directory. Returning empty ResultSet.");
+            return new ExecutionResultSet();
+        }
+        return new ExecutionCheckpoint(folder).loadAll(tracks);
+    }
+    
     private static long getTimeFromPerformanceCSV(File performanceCSV){
         if(performanceCSV.exists() == false){
             LOGGER.warn("Could not extract runtime from performance.csv because it is not existent: ", performanceCSV.getPath());
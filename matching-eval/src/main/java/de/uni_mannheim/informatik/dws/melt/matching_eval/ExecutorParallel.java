@@ -3,55 +3,120 @@ package de.uni_mannheim.informatik.dws.melt.matching_eval;
 import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
 import de.uni_mannheim.informatik.dws.melt.matching_data.Track;
 import eu.sealsproject.platform.res.domain.omt.IOntologyMatchingToolBridge;
+import java.io.File;
+import java.net.URI;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.function.ToLongFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Executor to run matchers in parallel.
+ * <p>
+ * The tasks (test case and matcher combinations) are scheduled such that:
+ * <ul>
+ * <li>large tasks are started first (the cost is estimated with the runtime of previous results, see {@link #setPreviousResults(ExecutionResultSet)},
+ *     or with the file size of the ontologies)</li>
+ * <li>the estimated memory of all running tasks does not exceed the memory budget (see {@link #setMemoryBudget(long)}).
+ *     A task which alone exceeds the budget is only started when no other task is running.
+ *     If the largest pending task does not fit into the remaining budget, no smaller task is started before it
+ *     (the budget is reserved for it), thus large tasks cannot be starved by a steady supply of small tasks.</li>
+ * <li>a matcher is not executed more often in parallel than its concurrency limit (see {@link #setMatcherConcurrencyLimit(String, int)}).
+ *     A limit of one can be used for matchers which are not thread safe.</li>
+ * </ul>
+ * The time a task waited to be started is available in {@link ExecutionResult#getQueueTime()}.
+ * <p>
+ * If a checkpoint directory is set (see {@link #setCheckpointDirectory(File)}), each result is stored as soon as it is finished
+ * and results which are already stored are not computed again.
  */
 public class ExecutorParallel {
 
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ExecutorParallel.class);
-    
+
+    /**
+     * Default factor which is multiplied with the file size of the ontologies to estimate the memory consumption of a task.
+     */
+    public static final long DEFAULT_MEMORY_FACTOR = 10;
+
     private int numberOfThreads;
-    
+    private long memoryBudget;
+    private ToLongFunction<TestCase> memoryEstimator;
+    private Map<String, Integer> matcherConcurrencyLimits;
+    private ExecutionResultSet previousResults;
+    private ExecutionCheckpoint checkpoint;
+
     public ExecutorParallel(){
-        this.numberOfThreads = Runtime.getRuntime().availableProcessors();
+        this(Runtime.getRuntime().availableProcessors());
     }
-    
+
     public ExecutorParallel(int numberOfThreads){
         this.numberOfThreads = numberOfThreads;
+        this.memoryBudget = Runtime.getRuntime().maxMemory();
+        this.memoryEstimator = testCase -> DEFAULT_MEMORY_FACTOR * (getFileSize(testCase.getSource()) + getFileSize(testCase.getTarget()));
+        this.matcherConcurrencyLimits = new HashMap<>();
+        this.previousResults = null;
+        this.checkpoint = null;
     }
 
     /**
-     * Run the given matchers in parallel. Make sure the matcher can be run in parallel.
+     * Run the given matchers in parallel. Make sure the matcher can be run in parallel (or set a concurrency limit for it).
      * @param testCases the testcases on which the matcher should be run
      * @param matchers The matchers in a map where the key represents the name of the matcher, and the value is the
      *                 matcher instance.
      * @return ExecutionResultSet
      */
     public ExecutionResultSet run(List<TestCase> testCases, Map<String, IOntologyMatchingToolBridge> matchers) {
+        ExecutionResultSet results = new ExecutionResultSet();
+        List<ScheduledTask> pending = createSortedTasks(testCases, matchers, results);
         ExecutorService exec = Executors.newFixedThreadPool(numberOfThreads);
-
-        List<Future<ExecutionResult>> futures = new ArrayList<>(testCases.size() * matchers.size());
-        for (TestCase tc : testCases) {
-            for (Map.Entry<String, IOntologyMatchingToolBridge> matcher : matchers.entrySet()) {
-                futures.add(exec.submit(new ExecutionRunner(tc, matcher.getValue(), matcher.getKey())));
+        SchedulerState state = new SchedulerState();
+        List<Future<ExecutionResult>> futures = new ArrayList<>(pending.size());
+        try {
+            while(!pending.isEmpty()){
+                ScheduledTask task;
+                synchronized(state){
+                    while((task = state.admitNext(pending)) == null){
+                        state.wait();
+                    }
+                }
+                LOGGER.debug("Schedule matcher {} on testcase {} (estimated memory: {} MB)",
+                        task.getMatcherName(), task.getTestCase().getName(), task.getEstimatedMemory() / 1_000_000);
+                ScheduledTask admitted = task;
+                futures.add(exec.submit(() -> {
+                    try{
+                        ExecutionResult result = admitted.getRunner().call();
+                        if(result != null && checkpoint != null)
+                            checkpoint.save(result);
+                        return result;
+                    }finally{
+                        synchronized(state){
+                            state.release(admitted);
+                            state.notifyAll();
+                        }
+                    }
+                }));
             }
+        } catch (InterruptedException ex) {
+            LOGGER.warn("Interrupted while scheduling the matcher executions. {} executions are not started.", pending.size());
+            Thread.currentThread().interrupt();
         }
 
-        ExecutionResultSet results = new ExecutionResultSet();
         for (Future<ExecutionResult> f : futures) {
             try {
-                results.add(f.get());// wait for a MatcherRunner to complete
+                ExecutionResult result = f.get();// wait for a MatcherRunner to complete
+                if(result != null)
+                    results.add(result);
             } catch (InterruptedException | ExecutionException ex) {
                 LOGGER.warn("Error when waiting for parallel results of matcher execution.", ex);
             }
@@ -59,11 +124,11 @@ public class ExecutorParallel {
         exec.shutdown();
         return results;
     }
-    
+
     public ExecutionResultSet run(Track track, Map<String, IOntologyMatchingToolBridge> matchers) {
         return run(track.getTestCases(), matchers);
     }
-    
+
     public ExecutionResultSet runTracks(List<Track> tracks, Map<String, IOntologyMatchingToolBridge> matchers) {
         List<TestCase> testCases = new ArrayList<>();
         for(Track t : tracks){
@@ -71,8 +136,215 @@ public class ExecutorParallel {
         }
         return run(testCases, matchers);
     }
+
+    /**
+     * Creates all tasks and sorts them by estimated cost (largest first).
+     * The cost is the runtime of a previous execution or - if not available - the estimated memory
+     * converted to runtime by the average runtime per byte of all tasks which have a previous runtime.
+     * Tasks whose results are already stored in the checkpoint are not created but the stored results are added to finishedResults.
+     * @param testCases the test cases
+     * @param matchers the matchers
+     * @param finishedResults the set where already finished results are added to
+     * @return list of tasks sorted descending by cost
+     */
+    List<ScheduledTask> createSortedTasks(List<TestCase> testCases, Map<String, IOntologyMatchingToolBridge> matchers, ExecutionResultSet finishedResults){
+        List<ScheduledTask> tasks = new ArrayList<>(testCases.size() * matchers.size());
+        for (TestCase tc : testCases) {
+            long estimatedMemory = Math.max(0, memoryEstimator.applyAsLong(tc));
+            for (Map.Entry<String, IOntologyMatchingToolBridge> matcher : matchers.entrySet()) {
+                if(checkpoint != null){
+                    ExecutionResult stored = checkpoint.load(tc, matcher.getKey());
+                    if(stored != null){
+                        LOGGER.info("Skip matcher {} on testcase {} because the result is already stored.", matcher.getKey(), tc.getName());
+                        finishedResults.add(stored);
+                        continue;
+                    }
+                }
+                ExecutionRunner runner = new ExecutionRunner(tc, matcher.getValue(), matcher.getKey());
+                tasks.add(new ScheduledTask(tc, matcher.getKey(), runner, estimatedMemory, getPreviousRuntime(tc, matcher.getKey())));
+            }
+        }
+
+        double runtimeSum = 0;
+        double memorySum = 0;
+        for(ScheduledTask task : tasks){
+            if(task.getPreviousRuntime() >= 0){
+                runtimeSum += task.getPreviousRuntime();
+                memorySum += task.getEstimatedMemory();
+            }
+        }
+        double runtimePerByte = (runtimeSum > 0 && memorySum > 0) ? runtimeSum / memorySum : 1.0;
+        for(ScheduledTask task : tasks){
+            task.setCost(task.getPreviousRuntime() >= 0 ? task.getPreviousRuntime() : task.getEstimatedMemory() * runtimePerByte);
+        }
+        tasks.sort(Comparator.comparingDouble(ScheduledTask::getCost).reversed());
+        return new LinkedList<>(tasks);
+    }
+
+    private long getPreviousRuntime(TestCase testCase, String matcherName){
+        if(previousResults == null)
+            return -1;
+        ExecutionResult result = previousResults.get(testCase, matcherName);
+        if(result == null)
+            return -1;
+        return result.getRuntime();
+    }
+
+    private static long getFileSize(URI uri){
+        if(uri == null || !"file".equalsIgnoreCase(uri.getScheme()))
+            return 0;
+        try{
+            return new File(uri).length();
+        }catch(IllegalArgumentException ex){
+            return 0;
+        }
+    }
+
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Sets the memory budget in bytes. Tasks are only started if the sum of the estimated memory of all running tasks
+     * stays below this budget. The default is the maximum heap size.
+     * @param memoryBudget the memory budget in bytes
+     */
+    public void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Sets the function which estimates the memory (in bytes) needed to match one test case.
+     * The default multiplies the file size of source and target ontology with {@link #DEFAULT_MEMORY_FACTOR}.
+     * @param memoryEstimator the memory estimator
+     */
+    public void setMemoryEstimator(ToLongFunction<TestCase> memoryEstimator) {
+        this.memoryEstimator = memoryEstimator;
+    }
+
+    /**
+     * Sets the maximum number of parallel executions of the given matcher.
+     * Use one for matchers which are not thread safe.
+     * @param matcherName the name of the matcher (key in the matchers map)
+     * @param limit the maximum number of parallel executions
+     */
+    public void setMatcherConcurrencyLimit(String matcherName, int limit) {
+        if(limit < 1)
+            throw new IllegalArgumentException("The concurrency limit has to be at least one.");
+        this.matcherConcurrencyLimits.put(matcherName, limit);
+    }
+
+    /**
+     * Sets the results of a previous execution. Their runtimes are used to start the longest running tasks first.
+     * @param previousResults the results of a previous execution
+     */
+    public void setPreviousResults(ExecutionResultSet previousResults) {
+        this.previousResults = previousResults;
+    }
+
+    /**
+     * Sets the directory where each result is stored as soon as it is finished (see {@link ExecutionCheckpoint}).
+     * Combinations of test case and matcher which are already stored in this directory are not executed again.
+     * @param checkpointDirectory the checkpoint directory or null to not store any results.
+     */
+    public void setCheckpointDirectory(File checkpointDirectory) {
+        this.checkpoint = checkpointDirectory == null ? null : new ExecutionCheckpoint(checkpointDirectory);
+    }
+
+    /**
+     * One combination of test case and matcher which should be executed.
+     */
+    static class ScheduledTask {
+        private final TestCase testCase;
+        private final String matcherName;
+        private final ExecutionRunner runner;
+        private final long estimatedMemory;
+        private final long previousRuntime;
+        private double cost;
+
+        ScheduledTask(TestCase testCase, String matcherName, ExecutionRunner runner, long estimatedMemory, long previousRuntime) {
+            this.testCase = testCase;
+            this.matcherName = matcherName;
+            this.runner = runner;
+            this.estimatedMemory = estimatedMemory;
+            this.previousRuntime = previousRuntime;
+            this.cost = 0;
+        }
+
+        TestCase getTestCase() {
+            return testCase;
+        }
+
+        String getMatcherName() {
+            return matcherName;
+        }
+
+        ExecutionRunner getRunner() {
+            return runner;
+        }
+
+        long getEstimatedMemory() {
+            return estimatedMemory;
+        }
+
+        long getPreviousRuntime() {
+            return previousRuntime;
+        }
+
+        double getCost() {
+            return cost;
+        }
+
+        void setCost(double cost) {
+            this.cost = cost;
+        }
+    }
+
+    /**
+     * Book keeping of running tasks. All methods have to be called while holding the lock of this object.
+     */
+    class SchedulerState {
+        private int running = 0;
+        private long usedMemory = 0;
+        private final Map<String, Integer> runningPerMatcher = new HashMap<>();
+
+        /**
+         * Removes and returns the first (largest) pending task which can be started now or null if no task can be started.
+         * Tasks which are blocked by the concurrency limit of their matcher are skipped. If the first other task does not fit
+         * into the memory budget, no further task is started until enough memory is released for it.
+         */
+        ScheduledTask admitNext(List<ScheduledTask> pending){
+            if(running >= numberOfThreads)
+                return null;
+            Iterator<ScheduledTask> iterator = pending.iterator();
+            while(iterator.hasNext()){
+                ScheduledTask task = iterator.next();
+                int limit = matcherConcurrencyLimits.getOrDefault(task.getMatcherName(), Integer.MAX_VALUE);
+                if(runningPerMatcher.getOrDefault(task.getMatcherName(), 0) >= limit)
+                    continue;
+                if(running > 0 && usedMemory + task.getEstimatedMemory() > memoryBudget)
+                    return null; // reserve the budget for this task instead of starting smaller ones
+                iterator.remove();
+                running++;
+                usedMemory += task.getEstimatedMemory();
+                runningPerMatcher.merge(task.getMatcherName(), 1, Integer::sum);
+                return task;
+            }
+            return null;
+        }
+
+        void release(ScheduledTask task){
+            running--;
+            usedMemory -= task.getEstimatedMemory();
+            runningPerMatcher.merge(task.getMatcherName(), -1, Integer::sum);
+        }
+    }
 }
-//to run in parallel use ExecutorService 
+//to run in parallel use ExecutorService
 //https://stackoverflow.com/questions/21156599/javas-fork-join-vs-executorservice-when-to-use-which
 //https://stackoverflow.com/questions/30585064/grid-search-better-performance-using-threads
 //https://stackoverflow.com/questions/30646474/process-list-of-n-items-with-multiple-threads
@@ -60,6 +60,11 @@ public abstract class Evaluator {
      */
     protected ExecutionResultSet results;
 
+    /**
+     * The number of threads which are used to compute the metrics (if the evaluator supports it).
+     */
+    protected int numberOfThreads = Runtime.getRuntime().availableProcessors();
+
     /**
      * Constructor.
      * @param results The results of the matching process.
@@ -157,4 +162,19 @@ public abstract class Evaluator {
     public ExecutionResultSet getResults() {
         return results;
     }
+
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Sets the number of threads which are used to compute the metrics (if the evaluator supports it).
+     * Use one to compute everything sequentially.
+     * @param numberOfThreads the number of threads
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        if(numberOfThreads < 1)
+            throw new IllegalArgumentException("The number of threads has to be at least one.");
+        this.numberOfThreads = numberOfThreads;
+    }
 }
@@ -230,6 +230,7 @@ public class EvaluatorCSV extends Evaluator {
         initializePrinters(baseDirectory);
         for (String matcher : this.results.getDistinctMatchers()) {
             LOGGER.info("Evaluate matcher {}", matcher);
+            List<ExecutionResult> evaluated = computeConfusionMatrices(matcher);
             // individual evaluation per test case
             for (TestCase testCase : this.results.getDistinctTestCases(matcher)) {
                 writeOverviewFileMatcherTestCase(testCase, matcher, baseDirectory, false);
@@ -237,12 +238,40 @@ public class EvaluatorCSV extends Evaluator {
             for (Track track : this.results.getDistinctTracks(matcher)) {
                 writeAggregatedFileMatcherTrack(track, matcher, baseDirectory);
             }
+            // the confusion matrices of this matcher are written and are not kept for the whole run
+            confusionMatrixMetric.removeFromCache(evaluated);
         }
         LOGGER.info("Writing alignment cube");
+        alignmentsCube.setNumberOfThreads(this.numberOfThreads);
         alignmentsCube.write(baseDirectory);
         closePrinters();
     }
 
+    /**
+     * Creates all refined execution results of one matcher (sequentially) and computes their confusion matrices in
+     * parallel (see {@link #setNumberOfThreads(int) }). The confusion matrices are cached in the confusion matrix
+     * metric until they are removed with {@link ConfusionMatrixMetric#removeFromCache(java.util.Collection) }.
+     * @param matcher the matcher for which the confusion matrices shall be computed
+     * @return the execution results for which a confusion matrix was computed
+     */
+    private List<ExecutionResult> computeConfusionMatrices(String matcher) {
+        List<ExecutionResult> toBeEvaluated = new ArrayList<>();
+        for (TestCase testCase : this.results.getDistinctTestCases(matcher)) {
+            toBeEvaluated.add(results.get(testCase, matcher));
+            toBeEvaluated.add(results.get(testCase, matcher, classRefiner));
+            toBeEvaluated.add(results.get(testCase, matcher, propertyRefiner));
+            toBeEvaluated.add(results.get(testCase, matcher, instanceRefiner));
+            toBeEvaluated.add(results.get(testCase, matcher, residualRefiner));
+            toBeEvaluated.add(results.get(testCase, matcher, classRefiner, residualRefiner));
+            toBeEvaluated.add(results.get(testCase, matcher, propertyRefiner, residualRefiner));
+            toBeEvaluated.add(results.get(testCase, matcher, instanceRefiner, residualRefiner));
+        }
+        toBeEvaluated.removeIf(Objects::isNull);
+        LOGGER.info("Compute {} confusion matrices with {} threads", toBeEvaluated.size(), this.numberOfThreads);
+        confusionMatrixMetric.get(toBeEvaluated, this.numberOfThreads);
+        return toBeEvaluated;
+    }
+
     /**
      * This method initializes global writers for the performance KPI CSV files.
      *
@@ -401,27 +430,27 @@ public class EvaluatorCSV extends Evaluator {
 
         // evaluate system result
         ExecutionResult allExecutionResult = results.get(testCase, matcher);
-        ConfusionMatrix allCm = confusionMatrixMetric.compute(results.get(testCase, matcher));
-        ConfusionMatrix classCm = confusionMatrixMetric.compute(results.get(testCase, matcher, classRefiner));
-        ConfusionMatrix propertiesCm = confusionMatrixMetric.compute(results.get(testCase, matcher, propertyRefiner));
-        ConfusionMatrix instanceCm = confusionMatrixMetric.compute(results.get(testCase, matcher, instanceRefiner));
-        ConfusionMatrix allResidualCm = confusionMatrixMetric.compute(results.get(testCase, matcher, residualRefiner));
-        ConfusionMatrix classResidualCm = confusionMatrixMetric.compute(results.get(testCase, matcher, classRefiner, residualRefiner));
-        ConfusionMatrix propertiesResidualCm = confusionMatrixMetric.compute(results.get(testCase, matcher, propertyRefiner, residualRefiner));
-        ConfusionMatrix instanceResidualCm = confusionMatrixMetric.compute(results.get(testCase, matcher, instanceRefiner, residualRefiner));
+        ConfusionMatrix allCm = confusionMatrixMetric.get(results.get(testCase, matcher));
+        ConfusionMatrix classCm = confusionMatrixMetric.get(results.get(testCase, matcher, classRefiner));
+        ConfusionMatrix propertiesCm = confusionMatrixMetric.get(results.get(testCase, matcher, propertyRefiner));
+        ConfusionMatrix instanceCm = confusionMatrixMetric.get(results.get(testCase, matcher, instanceRefiner));
+        ConfusionMatrix allResidualCm = confusionMatrixMetric.get(results.get(testCase, matcher, residualRefiner));
+        ConfusionMatrix classResidualCm = confusionMatrixMetric.get(results.get(testCase, matcher, classRefiner, residualRefiner));
+        ConfusionMatrix propertiesResidualCm = confusionMatrixMetric.get(results.get(testCase, matcher, propertyRefiner, residualRefiner));
+        ConfusionMatrix instanceResidualCm = confusionMatrixMetric.get(results.get(testCase, matcher, instanceRefiner, residualRefiner));
 
         // evaluation result
-        if (allCm.getTruePositive() != null)
+        if (!allCm.isCountOnly() && allCm.getTruePositive() != null)
             alignmentsCube.getAnalyticalMappingInformation(testCase, matcher).addAll(allCm.getTruePositive(), AnalyticalAlignmentInformation.DefaultFeatures.EVALUATION_RESULT.toString(), "true positive");
-        if (allCm.getFalsePositive() != null)
+        if (!allCm.isCountOnly() && allCm.getFalsePositive() != null)
             alignmentsCube.getAnalyticalMappingInformation(testCase, matcher).addAll(allCm.getFalsePositive(), AnalyticalAlignmentInformation.DefaultFeatures.EVALUATION_RESULT.toString(), "false positive");
-        if (allCm.getFalseNegative() != null)
+        if (!allCm.isCountOnly() && allCm.getFalseNegative() != null)
             alignmentsCube.getAnalyticalMappingInformation(testCase, matcher).addAll(allCm.getFalseNegative(), AnalyticalAlignmentInformation.DefaultFeatures.EVALUATION_RESULT.toString(), "false negative");
 
         // residuals (true)
-        if (allResidualCm.getTruePositive() != null)
+        if (!allResidualCm.isCountOnly() && allResidualCm.getTruePositive() != null)
             alignmentsCube.getAnalyticalMappingInformation(testCase, matcher).addAll(allResidualCm.getTruePositive(), AnalyticalAlignmentInformation.DefaultFeatures.RESIDUAL.toString(), "true");
-        if (allResidualCm.getFalseNegative() != null)
+        if (!allResidualCm.isCountOnly() && allResidualCm.getFalseNegative() != null)
             alignmentsCube.getAnalyticalMappingInformation(testCase, matcher).addAll(allResidualCm.getFalseNegative(), AnalyticalAlignmentInformation.DefaultFeatures.RESIDUAL.toString(), "true");
 
         // residuals (false) -> all correspondences that are not true are false
@@ -640,6 +669,18 @@ public class EvaluatorCSV extends Evaluator {
         alignmentsCube.setResourceExplainers(resourceExplainers);
     }
 
+    public boolean isCompressAlignmentsCube() {
+        return alignmentsCube.isCompressOutput();
+    }
+
+    /**
+     * If set to true, the alignment cube is written as gzip compressed file alignmentCube.csv.gz.
+     * @param compressAlignmentsCube true if the alignment cube should be compressed
+     */
+    public void setCompressAlignmentsCube(boolean compressAlignmentsCube) {
+        this.alignmentsCube.setCompressOutput(compressAlignmentsCube);
+    }
+
     public boolean isPrintAsShortenedString() {
         return isPrintAsShortenedString;
     }
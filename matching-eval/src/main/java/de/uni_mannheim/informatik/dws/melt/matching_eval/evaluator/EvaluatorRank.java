@@ -105,6 +105,20 @@ public class EvaluatorRank extends Evaluator {
             }
             printer.printRecord(columnHeaders);
 
+            // compute the metrics in parallel (the refined results are created sequentially)
+            List<ExecutionResult> toBeEvaluated = new ArrayList<>();
+            for (ExecutionResult executionResult : results.getUnrefinedResults()) {
+                toBeEvaluated.add(executionResult);
+                if (refinerList != null) {
+                    for (Refiner[] refiners : refinerList) {
+                        toBeEvaluated.add(results.get(executionResult, refiners));
+                    }
+                }
+            }
+            for (RankingMetric metric : metrics) {
+                metric.get(toBeEvaluated, this.numberOfThreads);
+            }
+
             // now calculate the performance numbers
             for (ExecutionResult executionResult : results.getUnrefinedResults()) {
                  runMetricAndPrintToFile(metrics, executionResult, "-", printer);
@@ -2,18 +2,31 @@ package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric;
 
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
 
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Abstract class which represents a metric.
+ * The results are cached. The cache can be used by multiple threads and each result is computed only once
+ * (other threads which request the same execution result wait for the computation).
  * @author Sven Hertling, Jan Portisch
  */
 public abstract class Metric<MetricResult> {
 
 
-    protected Map<ExecutionResult, MetricResult> cache = new HashMap<>();
-        
+    protected Map<ExecutionResult, MetricResult> cache = new ConcurrentHashMap<>();
+
+    /**
+     * The computations which are currently running.
+     */
+    private final Map<ExecutionResult, CompletableFuture<MetricResult>> runningComputations = new ConcurrentHashMap<>();
+
     /**
      * Triggers the computation of the metric for an individual execution result.
      * The metric should always use the {@link ExecutionResult#getSystemAlignment()} and {@link ExecutionResult#getReferenceAlignment()} methods.
@@ -22,12 +35,78 @@ public abstract class Metric<MetricResult> {
      */
     public MetricResult get(ExecutionResult executionResult){
         MetricResult result = cache.get(executionResult);
-        if(result == null){
-            result = compute(executionResult);
-            this.cache.put(executionResult, result);
+        if(result != null)
+            return result;
+        CompletableFuture<MetricResult> future = new CompletableFuture<>();
+        CompletableFuture<MetricResult> running = this.runningComputations.putIfAbsent(executionResult, future);
+        if(running != null){
+            try{
+                return running.join();
+            }catch(CompletionException ex){
+                if(ex.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) ex.getCause();
+                throw ex;
+            }
+        }
+        try{
+            result = cache.get(executionResult);
+            if(result == null){
+                result = compute(executionResult);
+                if(result != null)
+                    this.cache.put(executionResult, result);
+            }
+            future.complete(result);
+            return result;
+        }catch(RuntimeException | Error ex){
+            future.completeExceptionally(ex);
+            throw ex;
+        }finally{
+            this.runningComputations.remove(executionResult, future);
         }
-        return result;
     }
-    
+
+    /**
+     * Computes the metric for all given execution results in parallel.
+     * The results are cached such that subsequent calls of {@link #get(ExecutionResult) } return immediately.
+     * @param executionResults Execution results for which the calculation shall be performed.
+     * @param numberOfThreads the number of threads to use
+     * @return The metric results in the order of the given execution results.
+     */
+    public Map<ExecutionResult, MetricResult> get(Collection<ExecutionResult> executionResults, int numberOfThreads){
+        if(numberOfThreads < 1)
+            throw new IllegalArgumentException("The number of threads has to be at least one.");
+        if(numberOfThreads > 1 && executionResults.size() > 1){
+            ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+            try {
+                pool.submit(() -> executionResults.parallelStream().forEach(this::get)).get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while computing the metric.", ex);
+            } catch (ExecutionException ex) {
+                if(ex.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) ex.getCause();
+                throw new IllegalStateException("Could not compute the metric.", ex.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        }
+        Map<ExecutionResult, MetricResult> results = new LinkedHashMap<>();
+        for(ExecutionResult executionResult : executionResults){
+            results.put(executionResult, get(executionResult));
+        }
+        return results;
+    }
+
+    /**
+     * Removes the cached results of the given execution results such that they can be garbage collected.
+     * A subsequent call of {@link #get(ExecutionResult) } computes the result again.
+     * @param executionResults Execution results whose cached results shall be removed.
+     */
+    public void removeFromCache(Collection<ExecutionResult> executionResults){
+        for(ExecutionResult executionResult : executionResults){
+            this.cache.remove(executionResult);
+        }
+    }
+
     protected abstract MetricResult compute(ExecutionResult executionResult);
 }
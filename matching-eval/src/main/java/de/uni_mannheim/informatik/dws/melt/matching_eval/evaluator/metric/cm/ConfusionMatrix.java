@@ -4,6 +4,8 @@ import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 
 /**
  * Data Structure for an individual confusion matrix.
+ * A confusion matrix can also contain only the number of true positives, false positives, and false negatives
+ * (see {@link #isCountOnly() }) in case the alignments are not needed.
  *
  * @author Sven Hertling, Jan Portisch
  */
@@ -14,6 +16,13 @@ public class ConfusionMatrix {
     private Alignment falsePositive;
     private Alignment falseNegative;
     
+    /**
+     * The sizes are only used if the alignments are not available (count only).
+     */
+    private int truePositiveSize;
+    private int falsePositiveSize;
+    private int falseNegativeSize;
+    
     private double precision;
     private double recall;
 
@@ -60,16 +69,39 @@ public class ConfusionMatrix {
         this.numberOfCorrespondences = numberOfCorrespondences;
     }
 
+    /**
+     * Constructor for a confusion matrix which only contains the sizes and no alignments.
+     * @param truePositiveSize Number of true positives.
+     * @param falsePositiveSize Number of false positives.
+     * @param falseNegativeSize Number of false negatives.
+     * @param numberOfCorrespondences The number of correspondences. Note that this number can deviate from {@code truePositive + falsePositive}
+     *                                in case of partial gold standards.
+     * @param precision Precision as double [0, 1].
+     * @param recall Recall as double [0, 1].
+     */
+    public ConfusionMatrix(int truePositiveSize, int falsePositiveSize, int falseNegativeSize, int numberOfCorrespondences, double precision, double recall){
+        this.truePositive = null;
+        this.falsePositive = null;
+        this.falseNegative = null;
+        this.truePositiveSize = truePositiveSize;
+        this.falsePositiveSize = falsePositiveSize;
+        this.falseNegativeSize = falseNegativeSize;
+        this.precision = precision;
+        this.recall = recall;
+        this.numberOfCorrespondences = numberOfCorrespondences;
+    }
+
     /**
      * Alignments which are in the reference mapping and are also found by the matcher.
      * @return found and correct mappings (correct)
      */
     public Alignment getTruePositive() {
+        assertAlignments();
         return truePositive;
     }
     
     public int getTruePositiveSize() {
-        return truePositive.size();
+        return truePositive == null ? truePositiveSize : truePositive.size();
     }
 
     /**
@@ -77,11 +109,12 @@ public class ConfusionMatrix {
      * @return found but not correct mappings (too much)
      */
     public Alignment getFalsePositive() {
+        assertAlignments();
         return falsePositive;
     }
     
     public int getFalsePositiveSize() {
-        return falsePositive.size();
+        return falsePositive == null ? falsePositiveSize : falsePositive.size();
     }
 
     /**
@@ -89,11 +122,26 @@ public class ConfusionMatrix {
      * @return correct but not found by the matcher (should be found)
      */
     public Alignment getFalseNegative() {
+        assertAlignments();
         return falseNegative;
     }
     
     public int getFalseNegativeSize() {
-        return falseNegative.size();
+        return falseNegative == null ? falseNegativeSize : falseNegative.size();
+    }
+
+    /**
+     * Returns true if this confusion matrix contains only the sizes and no alignments
+     * (see {@link ConfusionMatrixMetric#setCountOnly(boolean) }).
+     * @return true if only the sizes are available
+     */
+    public boolean isCountOnly() {
+        return truePositive == null;
+    }
+    
+    private void assertAlignments(){
+        if(isCountOnly())
+            throw new IllegalStateException("The confusion matrix contains only the number of correspondences and no alignments (count only mode).");
     }
 
     public double getPrecision() {
@@ -133,6 +181,8 @@ public class ConfusionMatrix {
      * @return a new confusion matrix which is the set difference.
      */
     public ConfusionMatrix subtract(ConfusionMatrix other){
+        assertAlignments();
+        other.assertAlignments();
         
         Alignment subTruePositive = new Alignment(this.truePositive);
         subTruePositive.removeAll(other.truePositive);
@@ -151,8 +201,8 @@ public class ConfusionMatrix {
 
     @Override
     public String toString() {
-        return "ConfusionMatrix: TP:" + truePositive.size() + 
-                ", FP=" + falsePositive.size() + ", FN=" + falseNegative.size() + 
+        return "ConfusionMatrix: TP:" + getTruePositiveSize() + 
+                ", FP=" + getFalsePositiveSize() + ", FN=" + getFalseNegativeSize() + 
                 ", PREC=" + String.format("%.4f", precision) + 
                 ", REC=" + String.format("%.4f", recall) + 
                 ", F1=" + String.format("%.4f", getF1measure());
@@ -9,12 +9,15 @@ import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.Metric
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
 import java.util.HashSet;
 
 
 /**
  * Confusion Matrix Metric.
  * Can handle full and partial gold standards as well as explict null mappings (there is no match for one entity).
+ * In count only mode (see {@link #setCountOnly(boolean) }), only the sizes of the confusion matrix are computed
+ * and no true positive, false positive, and false negative alignments are created.
  *
  * @author Sven Hertling, Jan Portisch
  * @see <a href="https://github.com/DanFaria/OAEI_SealsClient/blob/020d97bbfb6816dcca55de5ce178c716da15b711/SealsClientSource/src/main/java/eu/sealsproject/omt/client/Client.java#L322">https://github.com/DanFaria/OAEI_SealsClient/blob/020d97bbfb6816dcca55de5ce178c716da15b711/SealsClientSource/src/main/java/eu/sealsproject/omt/client/Client.java#L322</a>
@@ -29,6 +32,27 @@ public class ConfusionMatrixMetric extends Metric<ConfusionMatrix> {
      */
     private Logger LOGGER = LoggerFactory.getLogger(ConfusionMatrixMetric.class);
 
+    /**
+     * If true, only the sizes of the confusion matrices are computed.
+     */
+    private boolean countOnly;
+
+    /**
+     * Constructor which computes confusion matrices with true positive, false positive, and false negative alignments.
+     */
+    public ConfusionMatrixMetric(){
+        this(false);
+    }
+
+    /**
+     * Constructor
+     * @param countOnly if true, only the sizes of the confusion matrices are computed (which is faster and needs less memory).
+     *                  Use it if only precision, recall, and F-measure are needed.
+     */
+    public ConfusionMatrixMetric(boolean countOnly){
+        this.countOnly = countOnly;
+    }
+
     @Override
     public ConfusionMatrix compute(ExecutionResult executionResult) {
         if (executionResult.getTestCase().getGoldStandardCompleteness().isGoldStandardComplete()) {
@@ -63,9 +87,9 @@ public class ConfusionMatrixMetric extends Metric<ConfusionMatrix> {
     private ConfusionMatrix computeForPartialGoldStandard(Alignment referenceAlignment,
                                                           Alignment systemAlignment,
                                                           GoldStandardCompleteness gsCompleteness) {
-        Alignment truePositives = new Alignment();
-        Alignment falsePositives = new Alignment();
-        Alignment falseNegatives = new Alignment();
+        Collection<Correspondence> truePositives = createCollection();
+        Collection<Correspondence> falsePositives = createCollection();
+        Collection<Correspondence> falseNegatives = createCollection();
 
         int numberOfCorrespondences = systemAlignment.size();
 
@@ -135,7 +159,7 @@ public class ConfusionMatrixMetric extends Metric<ConfusionMatrix> {
         // the TPs are removed from the FPs.
         falsePositives.removeAll(truePositives);
 
-        return calculateConfusionMatrixFromMappings(truePositives, falsePositives, falseNegatives, numberOfCorrespondences);
+        return createConfusionMatrix(truePositives, falsePositives, falseNegatives, numberOfCorrespondences);
     }
 
     /**
@@ -153,14 +177,15 @@ public class ConfusionMatrixMetric extends Metric<ConfusionMatrix> {
     private ConfusionMatrix computeForCompleteGoldStandard(Alignment referenceAlignment,
                                                            Alignment systemAlignment) {
         //TODO: what happens when referenceAlignment is empty and systemAlignment contains 200 mappings?
-        Alignment truePositives = new Alignment();
-        Alignment falsePositives = new Alignment(systemAlignment);
-        Alignment falseNegatives = new Alignment();
+        Collection<Correspondence> truePositives = createCollection();
+        Collection<Correspondence> falsePositives = this.countOnly ? new HashSet<>(systemAlignment) : new Alignment(systemAlignment);
+        Collection<Correspondence> falseNegatives = createCollection();
 
         for (Correspondence referenceCell : referenceAlignment) {
             if (referenceCell.getRelation() == CorrespondenceRelation.UNKNOWN) {
                 //see http://www.cs.ox.ac.uk/isg/projects/SEALS/oaei/2017/oaei2017_umls_reference.html
-                falsePositives.removeCorrespondencesSourceTarget(referenceCell.getEntityOne(), referenceCell.getEntityTwo());
+                for (Correspondence c : systemAlignment.getCorrespondencesSourceTarget(referenceCell.getEntityOne(), referenceCell.getEntityTwo()))
+                    falsePositives.remove(c);
             }//incompat should not appear in gold standard if it is a complete gold standard
             else {
                 Correspondence systemCell = systemAlignment.getCorrespondence(referenceCell.getEntityOne(),
@@ -175,9 +200,26 @@ public class ConfusionMatrixMetric extends Metric<ConfusionMatrix> {
             }
         }
         int numberOfCorrespondences = systemAlignment.size();
-        return calculateConfusionMatrixFromMappings(truePositives, falsePositives, falseNegatives, numberOfCorrespondences);
+        return createConfusionMatrix(truePositives, falsePositives, falseNegatives, numberOfCorrespondences);
+    }
+
+
+    private Collection<Correspondence> createCollection(){
+        if(this.countOnly)
+            return new HashSet<>();
+        return new Alignment();
     }
 
+    private ConfusionMatrix createConfusionMatrix(Collection<Correspondence> truePositives, Collection<Correspondence> falsePositives,
+                                                  Collection<Correspondence> falseNegatives, int numberOfCorrespondences){
+        if(this.countOnly){
+            double tpSize = truePositives.size();
+            double precision = divideWithTwoDenominators(tpSize, tpSize, falsePositives.size());
+            double recall = divideWithTwoDenominators(tpSize, tpSize, falseNegatives.size());
+            return new ConfusionMatrix(truePositives.size(), falsePositives.size(), falseNegatives.size(), numberOfCorrespondences, precision, recall);
+        }
+        return calculateConfusionMatrixFromMappings((Alignment) truePositives, (Alignment) falsePositives, (Alignment) falseNegatives, numberOfCorrespondences);
+    }
 
     /**
      * Calculation method which calculates the confusion matrix given three mappings: tp, fp, and fn.
@@ -209,7 +251,7 @@ public class ConfusionMatrixMetric extends Metric<ConfusionMatrix> {
     public ConfusionMatrix getMicroAveragesForResults(Iterable<ExecutionResult> resultsForCalculation) {
         HashSet<ConfusionMatrix> confusionMatrices = new HashSet<>();
         for (ExecutionResult result : resultsForCalculation) {
-            confusionMatrices.add(compute(result));
+            confusionMatrices.add(get(result));
         }
         return getMicroAverages(confusionMatrices);
     }
@@ -224,7 +266,7 @@ public class ConfusionMatrixMetric extends Metric<ConfusionMatrix> {
     public ConfusionMatrix getMacroAveragesForResults(Iterable<ExecutionResult> resultsForCalculation) {
         HashSet<ConfusionMatrix> confusionMatrices = new HashSet<>();
         for (ExecutionResult result : resultsForCalculation) {
-            confusionMatrices.add(compute(result));
+            confusionMatrices.add(get(result));
         }
         return getMacroAverages(confusionMatrices);
     }
@@ -239,7 +281,23 @@ public class ConfusionMatrixMetric extends Metric<ConfusionMatrix> {
     public ConfusionMatrix getMacroAveragesForResults(Iterable<ExecutionResult> resultsForCalculation, int numberOfTestCases) {
         HashSet<ConfusionMatrix> confusionMatrices = new HashSet<>();
         for (ExecutionResult result : resultsForCalculation) {
-            confusionMatrices.add(compute(result));
+            confusionMatrices.add(get(result));
+        }
+        if (containsCountOnly(confusionMatrices)) {
+            int tpSize = 0;
+            int fpSize = 0;
+            int fnSize = 0;
+            double aggregatedPrecision = 0.0;
+            double aggregatedRecall = 0.0;
+            for (ConfusionMatrix individualConfusionMatrix : confusionMatrices) {
+                tpSize += individualConfusionMatrix.getTruePositiveSize();
+                fpSize += individualConfusionMatrix.getFalsePositiveSize();
+                fnSize += individualConfusionMatrix.getFalseNegativeSize();
+                aggregatedPrecision = aggregatedPrecision + individualConfusionMatrix.getPrecision();
+                aggregatedRecall = aggregatedRecall + individualConfusionMatrix.getRecall();
+            }
+            return new ConfusionMatrix(tpSize, fpSize, fnSize, tpSize + fpSize,
+                    aggregatedPrecision / numberOfTestCases, aggregatedRecall / numberOfTestCases);
         }
         Alignment truePositive = new Alignment();
         Alignment falsePositive = new Alignment();
@@ -306,6 +364,10 @@ public class ConfusionMatrixMetric extends Metric<ConfusionMatrix> {
             aggregationMode = ConfusionMatrixAggregationMode.MICRO;
         }
 
+        if (containsCountOnly(confusionMatrices)) {
+            return executeCountOnlyAggregation(confusionMatrices, aggregationMode);
+        }
+
         Alignment truePositive = new Alignment();
         Alignment falsePositive = new Alignment();
         Alignment falseNegative = new Alignment();
@@ -356,6 +418,71 @@ public class ConfusionMatrixMetric extends Metric<ConfusionMatrix> {
     }
 
 
+    /**
+     * Aggregation of confusion matrices where at least one contains only the sizes.
+     * In this case the sizes are summed up (correspondences which appear in multiple confusion matrices are counted multiple times).
+     *
+     * @param confusionMatrices ConfusionMatrices that shall be used for the aggregation.
+     * @param aggregationMode   The kind of aggregation that is to be performed (MICRO or MACRO).
+     * @return Resulting confusion matrix which contains only the sizes.
+     */
+    private ConfusionMatrix executeCountOnlyAggregation(Iterable<ConfusionMatrix> confusionMatrices, ConfusionMatrixAggregationMode aggregationMode) {
+        int tpSize = 0;
+        int fpSize = 0;
+        int fnSize = 0;
+        int numberOfCorrespondences = 0;
+        double aggregatedPrecision = 0.0;
+        double aggregatedRecall = 0.0;
+        double numberOfElementsInConfusionMatrices = 0.0;
+        for (ConfusionMatrix individualConfusionMatrix : confusionMatrices) {
+            tpSize += individualConfusionMatrix.getTruePositiveSize();
+            fpSize += individualConfusionMatrix.getFalsePositiveSize();
+            fnSize += individualConfusionMatrix.getFalseNegativeSize();
+            numberOfCorrespondences += individualConfusionMatrix.getNumberOfCorrespondences();
+            aggregatedPrecision += individualConfusionMatrix.getPrecision();
+            aggregatedRecall += individualConfusionMatrix.getRecall();
+            numberOfElementsInConfusionMatrices++;
+        }
+        double precision;
+        double recall;
+        if (aggregationMode == ConfusionMatrixAggregationMode.MACRO) {
+            precision = aggregatedPrecision / numberOfElementsInConfusionMatrices;
+            recall = aggregatedRecall / numberOfElementsInConfusionMatrices;
+        } else {
+            precision = divideWithTwoDenominators(tpSize, tpSize, fpSize);
+            recall = divideWithTwoDenominators(tpSize, tpSize, fnSize);
+        }
+        return new ConfusionMatrix(tpSize, fpSize, fnSize, numberOfCorrespondences, precision, recall);
+    }
+
+    private static boolean containsCountOnly(Iterable<ConfusionMatrix> confusionMatrices) {
+        for (ConfusionMatrix confusionMatrix : confusionMatrices) {
+            if (confusionMatrix.isCountOnly())
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if only the sizes of the confusion matrices are computed (no alignments).
+     * @return true if count only mode is enabled
+     */
+    public boolean isCountOnly() {
+        return countOnly;
+    }
+
+    /**
+     * If set to true, only the sizes of the confusion matrices are computed (no true positive, false positive,
+     * and false negative alignments) which is faster and needs less memory. Use it if only precision, recall,
+     * and F-measure are needed. Already cached confusion matrices are removed.
+     * @param countOnly true to enable count only mode
+     */
+    public void setCountOnly(boolean countOnly) {
+        if(this.countOnly != countOnly)
+            this.cache.clear();
+        this.countOnly = countOnly;
+    }
+
     /**
      * Simple division that is to be performed. The two denominators will be added.
      *
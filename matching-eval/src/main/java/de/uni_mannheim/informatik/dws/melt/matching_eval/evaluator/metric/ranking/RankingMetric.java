@@ -70,15 +70,16 @@ public class RankingMetric extends Metric<RankingResult> {
         }
         Alignment referenceAlignment = executionResult.getReferenceAlignment();
 
-        // determine kOfHitsAtK
+        // determine kOfHitsAtK (local variable such that the metric can be computed in parallel)
+        int kOfHitsAtK = this.kOfHitsAtK;
         if(this.isKofHitsAtKmanuallySet == false) {
             if (referenceAlignment != null && referenceAlignment.size() > 0) {
-                this.kOfHitsAtK = referenceAlignment.size();
-                LOGGER.info("Inferring K for HITS@K as size of the reference alignment: " + this.kOfHitsAtK);
+                kOfHitsAtK = referenceAlignment.size();
+                LOGGER.info("Inferring K for HITS@K as size of the reference alignment: " + kOfHitsAtK);
             } else {
                 LOGGER.warn("Could not determine the K for HITS@K as size of the reference alignment. Therefore, using 10" +
                         "as fallback X.");
-                this.kOfHitsAtK = 10;
+                kOfHitsAtK = 10;
             }
         }
 
@@ -86,7 +87,7 @@ public class RankingMetric extends Metric<RankingResult> {
 
         if (correspondenceRanking.isEmpty()) {
             LOGGER.info("List of System result is empty. Rank metrics are zero.");
-            return new RankingResult(0, 0, 0, 0, 0, 0, 0, 0, this.kOfHitsAtK);
+            return new RankingResult(0, 0, 0, 0, 0, 0, 0, 0, kOfHitsAtK);
         }
 
         //average precision
@@ -133,7 +134,7 @@ public class RankingMetric extends Metric<RankingResult> {
             dcg += LOG_OF_2 / Math.log(i + 2); //because rank = i + 1;
 
             // HITS@K
-            if(i < this.kOfHitsAtK){
+            if(i < kOfHitsAtK){
                 hitsAtK++;
             }
         }
@@ -161,7 +162,7 @@ public class RankingMetric extends Metric<RankingResult> {
         result.rPrecision = rPrecision;
         result.hitsAtK = hitsAtK;
         result.precisionAtK = precisionAtK;
-        result.kOfHitsAtK = this.kOfHitsAtK;
+        result.kOfHitsAtK = kOfHitsAtK;
         result.recallAtK = recallAtK;
         return result;
     }
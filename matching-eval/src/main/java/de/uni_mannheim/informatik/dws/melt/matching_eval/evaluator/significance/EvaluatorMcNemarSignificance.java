@@ -11,9 +11,15 @@ import org.slf4j.LoggerFactory;
 import java.io.*;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 
 import static de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.significance.TestType.ASYMPTOTIC_CONTINUITY_CORRECTION_EXACT_FALLBACK;
 
@@ -49,6 +55,12 @@ public class EvaluatorMcNemarSignificance extends Evaluator {
 
     public static final double DEFAULT_TRACK_SIGNIFICANCE_SHARE = 0.5;
 
+    /**
+     * The numbers n01 and n10 for each pair of execution results. They are independent of the test type
+     * and therefore computed only once.
+     */
+    private final Map<List<ExecutionResult>, int[]> disagreementCounts = new ConcurrentHashMap<>();
+
 
     // Default file names (files will be created in baseDirectory.
 
@@ -365,7 +377,7 @@ public class EvaluatorMcNemarSignificance extends Evaluator {
     }
 
     public Map<McNemarIndividualResult, Double> calculatePvalues(double alpha, TestType testType) {
-        Map<McNemarIndividualResult, Double> result = new HashMap<>();
+        List<ExecutionResult[]> pairs = new ArrayList<>();
         for (ExecutionResult result1 : results) {
             if (result1.getRefinements().size() > 0) {
                 // for now we only work with raw results
@@ -377,18 +389,42 @@ public class EvaluatorMcNemarSignificance extends Evaluator {
                     continue;
                 }
                 if (result1.getTestCase().getName().equals(result2.getTestCase().getName()) && result1.getTrack().getName().equals(result2.getTrack().getName())) {
-                    McNemarIndividualResult mr = new McNemarIndividualResult(result1.getMatcherName(), result2.getMatcherName(), result1.getTestCase().getName(), result1.getTrack().getName(), alpha);
-                    double pValue;
-                    try {
-                        pValue = pValueConsideringFalsePositives(result1, result2, testType);
-                        result.put(mr, pValue);
-                    } catch (ArithmeticException ae) {
-                        ae.printStackTrace();
-                    }
+                    pairs.add(new ExecutionResult[]{result1, result2});
                 }
             }
         }
-        return result;
+        // the system alignments are parsed lazily and one execution result is part of many pairs,
+        // thus all alignments are loaded (sequentially) before the pairs are evaluated in parallel
+        for (ExecutionResult[] pair : pairs) {
+            pair[0].getSystemAlignment();
+        }
+        // the pairs are independent of each other and are therefore evaluated in parallel
+        Map<McNemarIndividualResult, Double> result = new ConcurrentHashMap<>();
+        ForkJoinPool pool = new ForkJoinPool(this.numberOfThreads);
+        try {
+            pool.submit(() -> pairs.parallelStream().forEach(pair -> {
+                ExecutionResult result1 = pair[0];
+                ExecutionResult result2 = pair[1];
+                McNemarIndividualResult mr = new McNemarIndividualResult(result1.getMatcherName(), result2.getMatcherName(), result1.getTestCase().getName(), result1.getTrack().getName(), alpha);
+                double pValue;
+                try {
+                    pValue = pValueConsideringFalsePositives(result1, result2, testType);
+                    result.put(mr, pValue);
+                } catch (ArithmeticException ae) {
+                    ae.printStackTrace();
+                }
+            })).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while computing the p values.", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            throw new IllegalStateException("Could not compute the p values.", ex.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return new HashMap<>(result);
     }
 
     /**
@@ -417,19 +453,9 @@ public class EvaluatorMcNemarSignificance extends Evaluator {
         // initialize the chi square distribution
         ChiSquaredDistribution distribution = new ChiSquaredDistribution(1);
 
-        // n01
-        Alignment A2_intersects_R = Alignment.intersection(executionResult2.getSystemAlignment(), executionResult2.getReferenceAlignment());
-        Alignment A2_intersects_R_minus_A1 = Alignment.subtraction(A2_intersects_R, executionResult1.getSystemAlignment());
-        int summand_01a = A2_intersects_R_minus_A1.size();
-        int summand_01b = Alignment.subtraction(Alignment.subtraction(executionResult1.getSystemAlignment(), executionResult2.getSystemAlignment()), executionResult1.getReferenceAlignment()).size();
-        int n01 = summand_01a + summand_01b;
-
-        // n10
-        Alignment A1_intersects_R = Alignment.intersection(executionResult1.getSystemAlignment(), executionResult1.getReferenceAlignment());
-        Alignment A1_intersects_R_minus_A2 = Alignment.subtraction(A1_intersects_R, executionResult2.getSystemAlignment());
-        int summand_10a = A1_intersects_R_minus_A2.size();
-        int summand_10b = Alignment.subtraction(Alignment.subtraction(executionResult2.getSystemAlignment(), executionResult1.getSystemAlignment()), executionResult1.getReferenceAlignment()).size();
-        int n10 = summand_10a + summand_10b;
+        int[] counts = getDisagreementCounts(executionResult1, executionResult2);
+        int n01 = counts[0];
+        int n10 = counts[1];
 
         if (testType == TestType.ASYMPTOTIC) {
             if (n01 == 0 && n10 == 0) {
@@ -533,6 +559,32 @@ public class EvaluatorMcNemarSignificance extends Evaluator {
         return res;
     }
 
+    /**
+     * Returns the numbers n01 and n10 of the contingency table for the given execution results (cached).
+     *
+     * @param executionResult1 Result 1.
+     * @param executionResult2 Result 2.
+     * @return array with n01 and n10
+     */
+    private int[] getDisagreementCounts(ExecutionResult executionResult1, ExecutionResult executionResult2) {
+        return disagreementCounts.computeIfAbsent(Arrays.asList(executionResult1, executionResult2), key -> {
+            // n01
+            Alignment A2_intersects_R = Alignment.intersection(executionResult2.getSystemAlignment(), executionResult2.getReferenceAlignment());
+            Alignment A2_intersects_R_minus_A1 = Alignment.subtraction(A2_intersects_R, executionResult1.getSystemAlignment());
+            int summand_01a = A2_intersects_R_minus_A1.size();
+            int summand_01b = Alignment.subtraction(Alignment.subtraction(executionResult1.getSystemAlignment(), executionResult2.getSystemAlignment()), executionResult1.getReferenceAlignment()).size();
+            int n01 = summand_01a + summand_01b;
+
+            // n10
+            Alignment A1_intersects_R = Alignment.intersection(executionResult1.getSystemAlignment(), executionResult1.getReferenceAlignment());
+            Alignment A1_intersects_R_minus_A2 = Alignment.subtraction(A1_intersects_R, executionResult2.getSystemAlignment());
+            int summand_10a = A1_intersects_R_minus_A2.size();
+            int summand_10b = Alignment.subtraction(Alignment.subtraction(executionResult2.getSystemAlignment(), executionResult1.getSystemAlignment()), executionResult1.getReferenceAlignment()).size();
+            int n10 = summand_10a + summand_10b;
+            return new int[]{n01, n10};
+        });
+    }
+
     public double getTrackSignificanceShare() {
         return trackSignificanceShare;
     }
@@ -12,12 +12,21 @@ import org.apache.jena.ontology.OntModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Analytical Store for alignments.
@@ -60,6 +69,16 @@ public class AlignmentsCube {
      */
     private boolean isPrintCorrespondenceExtensions = true;
 
+    /**
+     * If true, the alignment cube is written gzip compressed.
+     */
+    private boolean isCompressOutput = false;
+
+    /**
+     * The number of threads which are used to compute the resource features.
+     */
+    private int numberOfThreads = Runtime.getRuntime().availableProcessors();
+
 
     /**
      * Add analytical alignment information.
@@ -104,104 +123,174 @@ public class AlignmentsCube {
 
 
     /**
-     * Write the Alignment Cube as CSV.
+     * Write the Alignment Cube as CSV (file alignmentCube.csv or alignmentCube.csv.gz if {@link #isCompressOutput()} is set).
      *
      * @param baseDirectory The base directory to which the alignment cube shall be written.
      */
     public void write(File baseDirectory) {
+        File fileToBeWritten = new File(baseDirectory, isCompressOutput ? "alignmentCube.csv.gz" : "alignmentCube.csv");
+        fileToBeWritten.getParentFile().mkdirs();
+        try (Writer writer = createWriter(fileToBeWritten)) {
+            LOGGER.info("Writing alignment cube [to file: " + fileToBeWritten.getCanonicalPath() + "]");
+            write(writer);
+        } catch (IOException ioe) {
+            LOGGER.error("Could not write alignments cube.", ioe);
+        }
+    }
 
-        try {
-            File fileToBeWritten = new File(baseDirectory, "alignmentCube.csv");
-            fileToBeWritten.getParentFile().mkdirs();
-            CSVPrinter printer = CSVFormat.DEFAULT.print(fileToBeWritten, StandardCharsets.UTF_8);
-            List<String> header = getHeader();
-            printer.printRecord(header);
-
-            for (HashMap.Entry<TestCaseMatcher, AnalyticalAlignmentInformation> cubeComponent : this.alignmentDataCube.entrySet()) {
-                String trackName = cubeComponent.getKey().testCase.getTrack().getName();
-                String testCaseName = cubeComponent.getKey().testCase.getName();
-                String matcherName = (cubeComponent.getKey().matcher);
-                LOGGER.info("Writing " + trackName + " | " + testCaseName + " | " + matcherName + " [to file: " + fileToBeWritten.getCanonicalPath() + "]");
-
-                for (HashMap.Entry<Correspondence, HashMap<String, String>> mappingInformationEntry : cubeComponent.getValue().getMappingInformation().entrySet()) {
-                    List<String> record = new LinkedList<>();
-                    record.add(cutAfterThirtyTwoThousandCharacters(trackName));
-                    record.add(cutAfterThirtyTwoThousandCharacters(testCaseName));
-                    record.add(cutAfterThirtyTwoThousandCharacters(matcherName));
-
-                    // resource feature uri1
-                    for (IExplainerResource explainer : resourceExplainers) {
-                        if (explainer instanceof IExplainerResourceWithJenaOntology) {
-                            ((IExplainerResourceWithJenaOntology) explainer).setOntModel(cubeComponent.getKey().testCase.getSourceOntology(OntModel.class));
-                            Map<String, String> resourceFeatures = explainer.getResourceFeatures(mappingInformationEntry.getKey().getEntityOne());
-                            if(resourceFeatures == null) {
-                                LOGGER.warn("No resource features for " + mappingInformationEntry.getKey().getEntityOne());
-                            } else {
-                                for (String resourceFeatureName : explainer.getResourceFeatureNames()) {
-                                    String feature = resourceFeatures.get(resourceFeatureName);
-                                    if (feature == null) {
-                                        LOGGER.info("Could not find feature " + resourceFeatureName + " ignoring it.");
-                                        record.add("");
-                                    } else record.add(cutAfterThirtyTwoThousandCharacters(feature));
-                                }
-                            }
-                        }
-                    }
 
-                    record.add(cutAfterThirtyTwoThousandCharacters(mappingInformationEntry.getKey().getEntityOne()));
-                    record.add(cutAfterThirtyTwoThousandCharacters(mappingInformationEntry.getKey().getRelation().toString()));
-                    record.add(cutAfterThirtyTwoThousandCharacters(Double.toString(mappingInformationEntry.getKey().getConfidence())));
-                    record.add(cutAfterThirtyTwoThousandCharacters(mappingInformationEntry.getKey().getEntityTwo()));
-
-                    // resource feature uri2
-                    for (IExplainerResource explainer : resourceExplainers) {
-                        if (explainer instanceof IExplainerResourceWithJenaOntology) {
-                            ((IExplainerResourceWithJenaOntology) explainer).setOntModel(cubeComponent.getKey().testCase.getTargetOntology(OntModel.class));
-                            Map<String, String> resourceFeatures = explainer.getResourceFeatures(mappingInformationEntry.getKey().getEntityTwo());
-                            if(resourceFeatures == null) {
-                                LOGGER.warn("No resource features for " + mappingInformationEntry.getKey().getEntityTwo());
-                            } else {
-                                for (String resourceFeatureName : explainer.getResourceFeatureNames()) {
-                                    String feature = resourceFeatures.get(resourceFeatureName);
-                                    if (feature == null) {
-                                        LOGGER.info("Could not find feature " + resourceFeatureName + " ignoring it.");
-                                        record.add("");
-                                    } else record.add(cutAfterThirtyTwoThousandCharacters(feature));
-                                }
-                            }
-                        }
-                    }
+    /**
+     * Write the Alignment Cube as CSV to the given writer. The records are streamed to the writer, only the resource
+     * features are kept in memory. They are computed once per ontology and URI (in parallel for the different
+     * ontologies, see {@link #setNumberOfThreads(int)}).
+     * The writer is flushed but not closed.
+     *
+     * @param writer The writer to which the alignment cube shall be written.
+     * @throws IOException In case of an error when writing.
+     */
+    public void write(Writer writer) throws IOException {
+        Map<String, Map<String, List<String>>> resourceFeatures = computeResourceFeatures();
+        List<String> emptyResourceFeatures = Collections.nCopies(getNumberOfResourceFeatures(), "");
+        List<String> featureNames = getFeatureNames();
+
+        CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT);
+        printer.printRecord(getHeader());
+        List<String> record = new ArrayList<>();
+        for (HashMap.Entry<TestCaseMatcher, AnalyticalAlignmentInformation> cubeComponent : this.alignmentDataCube.entrySet()) {
+            TestCase testCase = cubeComponent.getKey().testCase;
+            String trackName = cutAfterThirtyTwoThousandCharacters(testCase.getTrack().getName());
+            String testCaseName = cutAfterThirtyTwoThousandCharacters(testCase.getName());
+            String matcherName = cutAfterThirtyTwoThousandCharacters(cubeComponent.getKey().matcher);
+            LOGGER.info("Writing " + trackName + " | " + testCaseName + " | " + matcherName);
 
-                    // add feature values
-                    for(String featureName : getFeatureNames()){
-                        String featureValue = mappingInformationEntry.getValue().get(featureName);
-                        if(featureValue == null){
-                            record.add("");
-                        } else record.add(cutAfterThirtyTwoThousandCharacters(featureValue));
-                    }
+            Map<String, List<String>> sourceFeatures = resourceFeatures.getOrDefault(testCase.getSource().toString(), Collections.emptyMap());
+            Map<String, List<String>> targetFeatures = resourceFeatures.getOrDefault(testCase.getTarget().toString(), Collections.emptyMap());
 
-                    // add correspondence extensions
-                    if(isPrintCorrespondenceExtensions) {
-                        Map<String, Object> extensionsForCorrespondence = mappingInformationEntry.getKey().getExtensions();
-                        if (extensionsForCorrespondence != null) {
-                            for (String extensionValue : correspondenceExtensions) {
-                                Object value = extensionsForCorrespondence.get(extensionValue);
-                                if (value != null) {
-                                    record.add(cutAfterThirtyTwoThousandCharacters(value.toString()));
-                                } else record.add("");
-                            }
+            for (HashMap.Entry<Correspondence, HashMap<String, String>> mappingInformationEntry : cubeComponent.getValue().getMappingInformation().entrySet()) {
+                Correspondence correspondence = mappingInformationEntry.getKey();
+                record.clear();
+                record.add(trackName);
+                record.add(testCaseName);
+                record.add(matcherName);
+
+                // resource feature uri1
+                record.addAll(sourceFeatures.getOrDefault(correspondence.getEntityOne(), emptyResourceFeatures));
+
+                record.add(cutAfterThirtyTwoThousandCharacters(correspondence.getEntityOne()));
+                record.add(cutAfterThirtyTwoThousandCharacters(correspondence.getRelation().toString()));
+                record.add(cutAfterThirtyTwoThousandCharacters(Double.toString(correspondence.getConfidence())));
+                record.add(cutAfterThirtyTwoThousandCharacters(correspondence.getEntityTwo()));
+
+                // resource feature uri2
+                record.addAll(targetFeatures.getOrDefault(correspondence.getEntityTwo(), emptyResourceFeatures));
+
+                // add feature values
+                for(String featureName : featureNames){
+                    String featureValue = mappingInformationEntry.getValue().get(featureName);
+                    if(featureValue == null){
+                        record.add("");
+                    } else record.add(cutAfterThirtyTwoThousandCharacters(featureValue));
+                }
+
+                // add correspondence extensions
+                if(isPrintCorrespondenceExtensions) {
+                    Map<String, Object> extensionsForCorrespondence = correspondence.getExtensions();
+                    if (extensionsForCorrespondence != null) {
+                        for (String extensionValue : correspondenceExtensions) {
+                            Object value = extensionsForCorrespondence.get(extensionValue);
+                            if (value != null) {
+                                record.add(cutAfterThirtyTwoThousandCharacters(value.toString()));
+                            } else record.add("");
                         }
                     }
+                }
+
+                printer.printRecord(record);
+            } // end of loop over mapping information entry
+        } // end of loop over mapping information entries a.k.a. cubeComponent
+        printer.flush();
+    }
 
-                    printer.printRecord(record);
-                } // end of loop over mapping information entry
-            } // end of loop over mapping information entries a.k.a. cubeComponent
 
-            printer.flush();
-            printer.close();
+    /**
+     * Creates a buffered UTF-8 writer for the given file which is gzip compressed if {@link #isCompressOutput()} is set.
+     * @param file The file to be written.
+     * @return The writer.
+     * @throws IOException In case the file cannot be opened.
+     */
+    private Writer createWriter(File file) throws IOException {
+        OutputStream outputStream = new FileOutputStream(file);
+        try {
+            if (isCompressOutput)
+                outputStream = new GZIPOutputStream(outputStream, 65536);
         } catch (IOException ioe) {
-            LOGGER.error("Could not write alignments cube.", ioe);
+            outputStream.close();
+            throw ioe;
+        }
+        return new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 65536);
+    }
+
+
+    /**
+     * Computes the features of all resources which appear in the cube.
+     * The features are computed only once per ontology (identified by its URI) and resource URI even if the ontology
+     * is used in multiple test cases or by multiple matchers. The ontologies are processed in parallel.
+     * Because the explainers are stateful (see {@link IExplainerResourceWithJenaOntology#setOntModel(OntModel)}),
+     * each explainer is used by one thread at a time.
+     *
+     * @return Map from ontology URI to a map from resource URI to the cells of all resource explainers.
+     */
+    private Map<String, Map<String, List<String>>> computeResourceFeatures() {
+        Map<String, Map<String, List<String>>> result = new ConcurrentHashMap<>();
+        if (resourceExplainers == null || resourceExplainers.isEmpty())
+            return result;
+
+        Map<String, OntologyResources> ontologies = new HashMap<>();
+        for (TestCaseMatcher testCaseMatcher : this.alignmentDataCube.keySet()) {
+            TestCase testCase = testCaseMatcher.testCase;
+            OntologyResources source = ontologies.computeIfAbsent(testCase.getSource().toString(), key -> new OntologyResources(testCase, true));
+            OntologyResources target = ontologies.computeIfAbsent(testCase.getTarget().toString(), key -> new OntologyResources(testCase, false));
+            for (Correspondence correspondence : this.alignmentDataCube.get(testCaseMatcher).getMappingInformation().keySet()) {
+                source.uris.add(correspondence.getEntityOne());
+                target.uris.add(correspondence.getEntityTwo());
+            }
         }
+
+        if (numberOfThreads > 1 && ontologies.size() > 1) {
+            LOGGER.info("Compute resource features of {} ontologies with {} threads.", ontologies.size(), numberOfThreads);
+            ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+            try {
+                pool.submit(() -> ontologies.entrySet().parallelStream()
+                        .forEach(entry -> result.put(entry.getKey(), entry.getValue().computeFeatures()))).get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while computing the resource features.", ex);
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) ex.getCause();
+                throw new IllegalStateException("Could not compute the resource features.", ex.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            for (Entry<String, OntologyResources> entry : ontologies.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().computeFeatures());
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Number of cells which are written for the resource features of one resource.
+     * @return Number of resource feature cells.
+     */
+    private int getNumberOfResourceFeatures() {
+        int numberOfFeatures = 0;
+        for (IExplainerResource explainer : resourceExplainers) {
+            numberOfFeatures += explainer.getResourceFeatureNames().size();
+        }
+        return numberOfFeatures;
     }
 
 
@@ -540,6 +629,65 @@ public class AlignmentsCube {
     }
 
 
+    /**
+     * The resources of one ontology (source or target of a test case) for which the features are computed.
+     */
+    private class OntologyResources {
+        TestCase testCase;
+        boolean isSource;
+        Set<String> uris;
+
+        OntologyResources(TestCase testCase, boolean isSource) {
+            this.testCase = testCase;
+            this.isSource = isSource;
+            this.uris = new HashSet<>();
+        }
+
+        /**
+         * Computes the features of all resources with all explainers.
+         * @return Map from resource URI to the cells of all resource explainers.
+         */
+        Map<String, List<String>> computeFeatures() {
+            OntModel ontModel = null;
+            for (IExplainerResource explainer : resourceExplainers) {
+                if (explainer instanceof IExplainerResourceWithJenaOntology) {
+                    ontModel = isSource ? testCase.getSourceOntology(OntModel.class) : testCase.getTargetOntology(OntModel.class);
+                    break;
+                }
+            }
+            Map<String, List<String>> features = new HashMap<>();
+            for (String uri : uris) {
+                features.put(uri, new ArrayList<>());
+            }
+            for (IExplainerResource explainer : resourceExplainers) {
+                synchronized (explainer) {
+                    if (explainer instanceof IExplainerResourceWithJenaOntology)
+                        ((IExplainerResourceWithJenaOntology) explainer).setOntModel(ontModel);
+                    for (String uri : uris) {
+                        List<String> cells = features.get(uri);
+                        Map<String, String> resourceFeatures = explainer.getResourceFeatures(uri);
+                        if (resourceFeatures == null) {
+                            LOGGER.warn("No resource features for " + uri);
+                            for (String resourceFeatureName : explainer.getResourceFeatureNames()) {
+                                cells.add("");
+                            }
+                        } else {
+                            for (String resourceFeatureName : explainer.getResourceFeatureNames()) {
+                                String feature = resourceFeatures.get(resourceFeatureName);
+                                if (feature == null) {
+                                    LOGGER.info("Could not find feature " + resourceFeatureName + " ignoring it.");
+                                    cells.add("");
+                                } else cells.add(cutAfterThirtyTwoThousandCharacters(feature));
+                            }
+                        }
+                    }
+                }
+            }
+            return features;
+        }
+    }
+
+
     //-------------------------------------------------------------------------------------------
     // Getters and Setters
     //-------------------------------------------------------------------------------------------
@@ -567,5 +715,30 @@ public class AlignmentsCube {
     public void setPrintCorrespondenceExtensions(boolean printCorrespondenceExtensions) {
         this.isPrintCorrespondenceExtensions = printCorrespondenceExtensions;
     }
-}
 
+    public boolean isCompressOutput() {
+        return isCompressOutput;
+    }
+
+    /**
+     * If set to true, the alignment cube is written as gzip compressed file alignmentCube.csv.gz.
+     * @param compressOutput true if the output should be compressed
+     */
+    public void setCompressOutput(boolean compressOutput) {
+        this.isCompressOutput = compressOutput;
+    }
+
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Sets the number of threads which are used to compute the resource features of the different ontologies.
+     * @param numberOfThreads the number of threads (at least one)
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        if(numberOfThreads < 1)
+            throw new IllegalArgumentException("The number of threads has to be at least one.");
+        this.numberOfThreads = numberOfThreads;
+    }
+}
@@ -3,11 +3,16 @@ package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.visualizatio
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResultSet;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.Evaluator;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.EvaluatorCSV;
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -59,6 +64,16 @@ public class DashboardBuilder extends Evaluator {
     protected String additionalText;
     
     protected boolean dataLoadingIndicator;
+    
+    /**
+     * The csv file if the builder is created with a file. In this case the data is aggregated in a streaming fashion.
+     */
+    protected File csvFile;
+    
+    /**
+     * Creates the aggregator for {@link #writeToFileAggregated(java.io.File) } and {@link #writeToChunkedFiles(java.io.File, java.io.File, int) }.
+     */
+    protected Supplier<DashboardDataAggregator> dataAggregatorSupplier;
 
     public DashboardBuilder(Supplier<String> csvSupplier, ExecutionResultSet executionResultSet, String titleOfPage, String additionalText){
         super(executionResultSet);
@@ -72,6 +87,7 @@ public class DashboardBuilder extends Evaluator {
         this.title = titleOfPage;
         this.additionalText = additionalText;
         this.dataLoadingIndicator = false;
+        this.dataAggregatorSupplier = DashboardDataAggregator::new;
         
         addDefaultDashboard();
     }
@@ -131,6 +147,7 @@ public class DashboardBuilder extends Evaluator {
                 return "";
             }
         },null, titleOfPage, additionalText);
+        this.csvFile = csvFile;
     } 
     
     public DashboardBuilder addDefaultDashboard(){
@@ -175,6 +192,7 @@ public class DashboardBuilder extends Evaluator {
         e.setGroup(groupConfidenceBoxPlot);       
         e.addJsMethod(
                 "elasticX(true)",
+                "valueAccessor(function(d) { return sortedAttributeBoxPlotValues(d.value); })",
                 "y(d3.scaleLinear().domain([0.0,1.05]))",
                 "on(\"renderlet\", function(chart) { chart.select('.axis.x').attr(\"text-anchor\", \"end\").selectAll(\"text\").attr(\"transform\", \"rotate(-60)\").attr(\"dy\", \"0.1em\").attr(\"dx\", \"-1em\");})",
                 "margins({top: 10, right: 50, bottom: 80, left: 40})"
@@ -267,9 +285,11 @@ public class DashboardBuilder extends Evaluator {
     
     public DashboardBuilder addDataCount(){
         DcjsElement e = new DcjsElement("dc.dataCount", "dataCount");
-        e.createGroupDefinition("allGroup", "ndx.groupAll();");
+        e.createGroupDefinition("allGroup", "ndx.groupAll().reduceSum(record_weight);");
+        //dc.dataCount only calls size() for the total which would count aggregated rows and not correspondences
+        e.createGroupDefinition("allRecords", "{size: function(){ return d3.sum(ndx.all(), record_weight); }};");
         e.addJsMethod(
-                "crossfilter(ndx)",
+                "crossfilter(allRecords)",
                 "groupAll(allGroup)",
                 "html({" + 
                   "some: '<strong>%filter-count</strong> selected out of <strong>%total-count</strong> records | <a href=\\'javascript:dc.filterAll(); dc.redrawAll();\\'>Reset All</a>', " +
@@ -467,7 +487,7 @@ public class DashboardBuilder extends Evaluator {
         e.createDimensionDefinitionCsvFieldString(dimName, "Matcher");
         e.setDimension(dimName);
         e.addJsMethod(
-                "columns(d3.keys(experiments[0]))",
+                "columns(experiments.length > 0 ? d3.keys(experiments[0]) : [])",
                 "showSections(false)",
                 "size(Infinity)",
                 "order(d3.ascending)",
@@ -535,6 +555,17 @@ public class DashboardBuilder extends Evaluator {
         this.dataLoadingIndicator = newState;
         return this;
     }
+    
+    /**
+     * Sets the supplier which creates the aggregator for the aggregated dashboard data (e.g. to change the dimensions,
+     * the confidence buckets or the sample size).
+     * @param dataAggregatorSupplier the supplier of the aggregator
+     * @return the dashboard builder
+     */
+    public DashboardBuilder setDataAggregatorSupplier(Supplier<DashboardDataAggregator> dataAggregatorSupplier){
+        this.dataAggregatorSupplier = dataAggregatorSupplier;
+        return this;
+    }
 
     @Override
     public void writeResultsToDirectory(File baseDirectory) {
@@ -622,8 +653,87 @@ public class DashboardBuilder extends Evaluator {
         }
     }
     
+    /**
+     * Writes the HTML content to one file. The data is aggregated (see {@link DashboardDataAggregator}) such that
+     * the HTML file only contains one row for each combination of track, test case, matcher, evaluation result,
+     * confidence bucket etc. together with the number of correspondences. Additionally a sample of the raw correspondences
+     * is included. This is useful for results with many correspondences where the file written by {@link #writeToFile(java.io.File) }
+     * would be too large for the browser.
+     * @param htmlFile the file where all html data should be written to
+     */
+    public void writeToFileAggregated(File htmlFile){
+        if(htmlFile == null) {
+            LOGGER.error("The specified file is NULL. ABORT.");
+            return;
+        }
+        newRow();
+        DashboardDataAggregator aggregator = aggregateData();
+        VelocityContext context = prepareVelocityContext(aggregator);
+        context.put("csvData", aggregator.getAggregatedRowsAsCsv());
+        try(Writer writer = new FileWriter(htmlFile)){
+            template.merge( context, writer );
+        } catch (IOException ex) {
+            LOGGER.error("Could not write to file.", ex);
+        }
+    }
+    
+    /**
+     * Writes the HTML content to htmlFile and the aggregated data (see {@link DashboardDataAggregator}) as JSON chunks
+     * to the data directory. The HTML page loads the chunks one after another and updates the charts after each chunk.
+     * Only a sample of the raw correspondences is included in the HTML file.
+     * This is for publishing the dashboard to a server.
+     * @param htmlFile the file where all html code should be written to
+     * @param dataDirectory the directory where the chunks and the manifest (dashboardData.json) should be written to
+     * @param chunkSize the maximum number of aggregated rows per chunk
+     */
+    public void writeToChunkedFiles(File htmlFile, File dataDirectory, int chunkSize){
+        newRow();
+        DashboardDataAggregator aggregator = aggregateData();
+        File manifest;
+        try {
+            manifest = aggregator.writeChunks(dataDirectory, chunkSize);
+        } catch (IOException ex) {
+            LOGGER.error("Could not write the data chunks.", ex);
+            return;
+        }
+        VelocityContext context = prepareVelocityContext(aggregator);
+        context.put("chunkedRemoteLocation", getRelativeLocation(htmlFile, manifest));
+        try(Writer writer = new FileWriter(htmlFile)){
+            template.merge( context, writer );
+        } catch (IOException ex) {
+            LOGGER.error("Could not write to file.", ex);
+        }
+    }
+    
     //Private helper methods
     
+    private DashboardDataAggregator aggregateData(){
+        DashboardDataAggregator aggregator = this.dataAggregatorSupplier.get();
+        try(Reader reader = this.csvFile == null ? new StringReader(this.csvSupplier.get()) : 
+                new BufferedReader(new InputStreamReader(new FileInputStream(this.csvFile), StandardCharsets.UTF_8))){
+            aggregator.aggregate(reader);
+        } catch (IOException ex) {
+            LOGGER.error("Could not aggregate the csv data.", ex);
+        }
+        return aggregator;
+    }
+    
+    private static String getRelativeLocation(File htmlFile, File file){
+        File htmlDirectory = htmlFile.getAbsoluteFile().getParentFile();
+        if(htmlDirectory == null)
+            return file.getName();
+        return htmlDirectory.toPath().relativize(file.getAbsoluteFile().toPath()).toString().replace(File.separatorChar, '/');
+    }
+    
+    private VelocityContext prepareVelocityContext(DashboardDataAggregator aggregator){
+        VelocityContext context = prepareVelocityContext();
+        context.put("sampleData", aggregator.getSampleAsCsv());
+        context.put("sampleSize", aggregator.getSample().size());
+        context.put("numberOfCorrespondences", aggregator.getNumberOfCorrespondences());
+        return context;
+    }
+    
+    
     private byte[] getGzippedByteArray(String text){
         try(ByteArrayOutputStream byteStream = new ByteArrayOutputStream()){            
             try(GZIPOutputStream gzipStream = new GZIPOutputStream(byteStream)){
@@ -0,0 +1,315 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.visualization.dashboard;
+
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.util.AnalyticalAlignmentInformation;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Aggregates the correspondences of the alignment cube csv (see {@link de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.EvaluatorCSV})
+ * for the dashboard. All correspondences which have the same values for the dimensions (track, test case, matcher,
+ * evaluation result etc.) and the same confidence bucket are represented by one row with an additional
+ * count column. The dashboard charts sum up this count instead of counting the rows.
+ * Furthermore a sample of the raw correspondences is kept for the data table.
+ * The csv is read in a streaming fashion, thus only the aggregated rows and the sample are kept in memory.
+ */
+public class DashboardDataAggregator {
+
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DashboardDataAggregator.class);
+
+    /**
+     * The name of the column which contains the number of correspondences represented by one aggregated row.
+     */
+    public static final String COUNT_COLUMN = "Count";
+
+    /**
+     * The name of the confidence column which is bucketed.
+     */
+    public static final String CONFIDENCE_COLUMN = "Confidence (Matcher)";
+
+    /**
+     * The columns which are used by the default dashboard.
+     */
+    public static final List<String> DEFAULT_DIMENSIONS = Collections.unmodifiableList(Arrays.asList(
+            "Track", "TestCase", "Matcher", "Relation",
+            AnalyticalAlignmentInformation.DefaultFeatures.EVALUATION_RESULT.toString(),
+            AnalyticalAlignmentInformation.DefaultFeatures.RESIDUAL.toString(),
+            "Type Left", "Type Right"));
+
+    private final List<String> dimensions;
+    private final int confidenceDecimals;
+    private final int sampleSize;
+    private final Random random;
+
+    private List<String> columns;
+    private Map<List<String>, long[]> aggregatedRows;
+    private List<String> sampleHeader;
+    private List<List<String>> sample;
+    private long numberOfCorrespondences;
+
+    /**
+     * Constructor
+     * @param dimensions the csv columns which are kept in the aggregated rows (columns which do not appear in the csv are ignored)
+     * @param confidenceDecimals the number of decimals of the confidence buckets (2 means buckets of size 0.01)
+     * @param sampleSize the number of raw correspondences which are sampled
+     * @param seed the seed for sampling the raw correspondences
+     */
+    public DashboardDataAggregator(List<String> dimensions, int confidenceDecimals, int sampleSize, long seed) {
+        if(confidenceDecimals < 0)
+            throw new IllegalArgumentException("The number of confidence decimals has to be at least zero.");
+        if(sampleSize < 0)
+            throw new IllegalArgumentException("The sample size has to be at least zero.");
+        this.dimensions = dimensions;
+        this.confidenceDecimals = confidenceDecimals;
+        this.sampleSize = sampleSize;
+        this.random = new Random(seed);
+        this.columns = new ArrayList<>();
+        this.aggregatedRows = new LinkedHashMap<>();
+        this.sampleHeader = new ArrayList<>();
+        this.sample = new ArrayList<>();
+        this.numberOfCorrespondences = 0;
+    }
+
+    /**
+     * Constructor which uses the default dimensions, confidence buckets of size 0.01 and a sample of 1000 correspondences.
+     */
+    public DashboardDataAggregator() {
+        this(DEFAULT_DIMENSIONS, 2, 1000, 1234);
+    }
+
+    /**
+     * Reads the csv (with header) and aggregates all records.
+     * This method can be called multiple times (the header of all csv files has to be the same).
+     * @param csv the reader which provides the csv
+     * @throws IOException in case the csv cannot be read
+     */
+    public void aggregate(Reader csv) throws IOException {
+        try(CSVParser parser = CSVFormat.DEFAULT.withFirstRecordAsHeader().parse(csv)){
+            Map<String, Integer> headerMap = parser.getHeaderMap();
+            List<String> header = new ArrayList<>(headerMap.keySet());
+            if(this.numberOfCorrespondences > 0 && !header.equals(this.sampleHeader)){
+                throw new IllegalArgumentException("The header of the csv differs from the header of the csv which was aggregated before.");
+            }
+            this.sampleHeader = header;
+
+            List<Integer> dimensionIndices = new ArrayList<>();
+            this.columns = new ArrayList<>();
+            for(String dimension : this.dimensions){
+                Integer index = headerMap.get(dimension);
+                if(index == null){
+                    LOGGER.debug("Column {} is not available in the csv and not used for the aggregation.", dimension);
+                    continue;
+                }
+                dimensionIndices.add(index);
+                this.columns.add(dimension);
+            }
+            Integer confidenceIndex = headerMap.get(CONFIDENCE_COLUMN);
+            if(confidenceIndex != null)
+                this.columns.add(CONFIDENCE_COLUMN);
+            this.columns.add(COUNT_COLUMN);
+
+            for(CSVRecord record : parser){
+                List<String> key = new ArrayList<>(dimensionIndices.size() + 1);
+                for(Integer index : dimensionIndices){
+                    key.add(getValue(record, index));
+                }
+                if(confidenceIndex != null)
+                    key.add(getConfidenceBucket(getValue(record, confidenceIndex)));
+                long[] count = this.aggregatedRows.get(key);
+                if(count == null){
+                    count = new long[1];
+                    this.aggregatedRows.put(key, count);
+                }
+                count[0]++;
+                addToSample(record);
+                this.numberOfCorrespondences++;
+            }
+        }
+        LOGGER.info("Aggregated {} correspondences to {} rows.", this.numberOfCorrespondences, this.aggregatedRows.size());
+    }
+
+    /**
+     * Reservoir sampling of the raw records such that each record has the same probability to be in the sample.
+     * @param record the record
+     */
+    private void addToSample(CSVRecord record){
+        if(this.sample.size() < this.sampleSize){
+            this.sample.add(toList(record));
+        }else if(this.sampleSize > 0){
+            long position = (long)(this.random.nextDouble() * (this.numberOfCorrespondences + 1));
+            if(position < this.sampleSize)
+                this.sample.set((int)position, toList(record));
+        }
+    }
+
+    private String getConfidenceBucket(String confidence){
+        try{
+            return String.format(Locale.ENGLISH, "%." + this.confidenceDecimals + "f", Double.parseDouble(confidence));
+        }catch(NumberFormatException ex){
+            return confidence;
+        }
+    }
+
+    private static String getValue(CSVRecord record, int index){
+        return index < record.size() ? record.get(index) : "";
+    }
+
+    private static List<String> toList(CSVRecord record){
+        List<String> list = new ArrayList<>(record.size());
+        for(String value : record){
+            list.add(value);
+        }
+        return list;
+    }
+
+    /**
+     * Writes the aggregated rows as JSON chunks and a manifest file (dashboardData.json) which lists the chunks.
+     * Each chunk is stored column wise: it contains the column names and for each column an array of values.
+     * @param directory the directory in which the files are written
+     * @param chunkSize the maximum number of aggregated rows per chunk
+     * @return the manifest file
+     * @throws IOException in case a file cannot be written
+     */
+    public File writeChunks(File directory, int chunkSize) throws IOException {
+        if(chunkSize < 1)
+            throw new IllegalArgumentException("The chunk size has to be at least one.");
+        directory.mkdirs();
+        JSONArray chunkNames = new JSONArray();
+        List<List<String>> chunk = new ArrayList<>(Math.min(chunkSize, this.aggregatedRows.size()));
+        List<Long> chunkCounts = new ArrayList<>(chunk.size());
+        for(Map.Entry<List<String>, long[]> row : this.aggregatedRows.entrySet()){
+            chunk.add(row.getKey());
+            chunkCounts.add(row.getValue()[0]);
+            if(chunk.size() >= chunkSize){
+                chunkNames.put(writeChunk(directory, chunkNames.length(), chunk, chunkCounts));
+                chunk.clear();
+                chunkCounts.clear();
+            }
+        }
+        if(!chunk.isEmpty())
+            chunkNames.put(writeChunk(directory, chunkNames.length(), chunk, chunkCounts));
+
+        JSONObject manifest = new JSONObject();
+        manifest.put("columns", new JSONArray(this.columns));
+        manifest.put("chunks", chunkNames);
+        manifest.put("numberOfRows", this.aggregatedRows.size());
+        manifest.put("numberOfCorrespondences", this.numberOfCorrespondences);
+        File manifestFile = new File(directory, "dashboardData.json");
+        writeJson(manifestFile, manifest);
+        return manifestFile;
+    }
+
+    private String writeChunk(File directory, int chunkNumber, List<List<String>> rows, List<Long> counts) throws IOException {
+        JSONArray values = new JSONArray();
+        for(int column = 0; column < this.columns.size() - 1; column++){
+            JSONArray columnValues = new JSONArray();
+            for(List<String> row : rows){
+                columnValues.put(row.get(column));
+            }
+            values.put(columnValues);
+        }
+        values.put(new JSONArray(counts));
+
+        JSONObject chunk = new JSONObject();
+        chunk.put("columns", new JSONArray(this.columns));
+        chunk.put("values", values);
+        String chunkName = "dashboardData_" + chunkNumber + ".json";
+        writeJson(new File(directory, chunkName), chunk);
+        return chunkName;
+    }
+
+    private static void writeJson(File file, JSONObject object) throws IOException {
+        try(Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))){
+            object.write(writer);
+        }
+    }
+
+    /**
+     * Returns the aggregated rows as csv (with the count column at the end).
+     * @return the aggregated rows as csv
+     */
+    public String getAggregatedRowsAsCsv(){
+        try {
+            StringWriter writer = new StringWriter();
+            CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT);
+            printer.printRecord(this.columns);
+            for(Map.Entry<List<String>, long[]> row : this.aggregatedRows.entrySet()){
+                List<String> record = new ArrayList<>(row.getKey());
+                record.add(Long.toString(row.getValue()[0]));
+                printer.printRecord(record);
+            }
+            return writer.toString().trim();
+        } catch (IOException ex) {
+            LOGGER.error("Could not write the aggregated rows.", ex);
+            return "";
+        }
+    }
+
+    /**
+     * Returns the sample of the raw correspondences as csv (with all columns of the input csv).
+     * @return the sample as csv
+     */
+    public String getSampleAsCsv(){
+        try {
+            StringWriter writer = new StringWriter();
+            CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT);
+            printer.printRecord(this.sampleHeader);
+            for(List<String> record : this.sample){
+                printer.printRecord(record);
+            }
+            return writer.toString().trim();
+        } catch (IOException ex) {
+            LOGGER.error("Could not write the sample.", ex);
+            return "";
+        }
+    }
+
+    /**
+     * Returns the aggregated rows. The key contains the values of the columns (see {@link #getColumns() } without the count column)
+     * and the value is the number of correspondences.
+     * @return the aggregated rows
+     */
+    public Map<List<String>, Long> getAggregatedRows(){
+        Map<List<String>, Long> rows = new HashMap<>();
+        for(Map.Entry<List<String>, long[]> row : this.aggregatedRows.entrySet()){
+            rows.put(row.getKey(), row.getValue()[0]);
+        }
+        return rows;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public List<List<String>> getSample() {
+        return sample;
+    }
+
+    public long getNumberOfCorrespondences() {
+        return numberOfCorrespondences;
+    }
+}
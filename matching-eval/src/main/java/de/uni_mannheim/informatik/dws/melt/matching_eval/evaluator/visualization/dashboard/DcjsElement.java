@@ -109,7 +109,7 @@ public class DcjsElement {
     }
     
     public String createGroupDefinitionBasedOnDimension(String dimensionName){
-        return createGroupDefinition(removeDimensionText(dimensionName) + "Group" ,dimensionName + ".group();");
+        return createGroupDefinition(removeDimensionText(dimensionName) + "Group" ,dimensionName + ".group().reduceSum(record_weight);");
     }
     
     public String createGroupDefinitionReduceField(String dimensionName, String reduceField){
@@ -123,8 +123,8 @@ public class DcjsElement {
     public String createGroupDefinitionReduceSortedAttribute(String dimensionName, String field, String fieldEvaluationResult){
         this.jsHelperFileNames.add("reduceSortedAttribute.js");
         return createGroupDefinition(removeDimensionText(dimensionName) + "ReduceSortedAttribute" + makeJsIdentifier(field) + "Group", 
-                String.format("%s.group().reduce(reduceSortedAttributeAdd(\"%s\", \"%s\"), reduceSortedAttributeRemove(\"%s\"), reduceSortedAttributeInit());", 
-                dimensionName, field, fieldEvaluationResult, field)
+                String.format("%s.group().reduce(reduceSortedAttributeAdd(\"%s\", \"%s\"), reduceSortedAttributeRemove(\"%s\", \"%s\"), reduceSortedAttributeInit());", 
+                dimensionName, field, fieldEvaluationResult, field, fieldEvaluationResult)
         );
     }
     
@@ -6,10 +6,13 @@ import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTra
 import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResultSet;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrix;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrixMetric;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.ReflexiveCorrespondenceFilter;
-import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.TransitiveClosure;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.UnionFind;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -63,22 +66,15 @@ public class ExecutionResultMultiSource {
     }
     
     public ExecutionResultSet toExecutionResultSet(){
-        Alignment fullAlignment;
-        try {
-            fullAlignment = TypeTransformerRegistry.getTransformedObject(this.alignment, Alignment.class);
-        } catch (TypeTransformationException ex) {
-            LOGGER.error("Could not transform alignemnt to Alignment class. Return empty ExecutionResultSet.", ex);
+        Alignment fullAlignment = getFullAlignment();
+        if(fullAlignment == null){
+            LOGGER.error("Could not transform alignemnt to Alignment class. Return empty ExecutionResultSet.");
             return new ExecutionResultSet();
         }
-        //remove reflexive edges
-        fullAlignment = ReflexiveCorrespondenceFilter.removeReflexiveCorrespondences(fullAlignment);
         
         Map<TestCase, Alignment> testcaseToAlignment = new HashMap<>();
         if(computeTransitiveClosure){
-            TransitiveClosure<String> alignmentClosure = new TransitiveClosure<>();
-            for(Correspondence c : fullAlignment){
-                alignmentClosure.add(c.getEntityOne(), c.getEntityTwo());
-            }
+            UnionFind<String> alignmentClosure = computeClosure(fullAlignment);
             for(Set<String> sameAs : alignmentClosure.getClosure()){
                 Map<TestCase, SourceTargetURIs> map = partitioner.partition(sameAs);
                 for(Map.Entry<TestCase, SourceTargetURIs> entry : map.entrySet()){
@@ -128,6 +124,113 @@ public class ExecutionResultMultiSource {
         }
         return resultSet;
     }
+    
+    /**
+     * Computes the confusion matrix (only counts, see {@link ConfusionMatrix#isCountOnly() }) for each test case.
+     * In case the transitive closure is computed and the gold standards are complete, the counts are computed directly
+     * from the clusters without creating all pairwise correspondences:
+     * a cluster which contains s source URIs and t target URIs of a test case corresponds to s*t correspondences.
+     * A reference correspondence is a true positive if source and target are in the same cluster.
+     * The runtime is thus linear in the size of the alignment and reference alignments even for large clusters.
+     * In all other cases, the system alignments are created with {@link #toExecutionResultSet() }.
+     * @return map from test case to confusion matrix
+     */
+    public Map<TestCase, ConfusionMatrix> computeConfusionMatrices(){
+        Map<TestCase, ConfusionMatrix> confusionMatrices = new HashMap<>();
+        boolean completeGoldStandards = true;
+        for(TestCase testCase : testCases){
+            if(testCase.getGoldStandardCompleteness().isGoldStandardComplete() == false){
+                completeGoldStandards = false;
+                break;
+            }
+        }
+        if(computeTransitiveClosure == false || completeGoldStandards == false){
+            ConfusionMatrixMetric metric = new ConfusionMatrixMetric(true);
+            for(ExecutionResult result : toExecutionResultSet()){
+                confusionMatrices.put(result.getTestCase(), metric.compute(result.getReferenceAlignment(), 
+                        result.getSystemAlignment(), result.getTestCase().getGoldStandardCompleteness()));
+            }
+            return confusionMatrices;
+        }
+        
+        Alignment fullAlignment = getFullAlignment();
+        if(fullAlignment == null){
+            LOGGER.error("Could not transform alignemnt to Alignment class. Return no confusion matrices.");
+            return confusionMatrices;
+        }
+        UnionFind<String> alignmentClosure = computeClosure(fullAlignment);
+        
+        Map<TestCase, Long> numberOfSystemCorrespondences = new HashMap<>();
+        Map<TestCase, SourceTargetURIs> matchedURIs = new HashMap<>();
+        for(Set<String> sameAs : alignmentClosure.getClosure()){
+            Map<TestCase, SourceTargetURIs> map = partitioner.partition(sameAs);
+            for(Map.Entry<TestCase, SourceTargetURIs> entry : map.entrySet()){
+                SourceTargetURIs sourceTargetUris = entry.getValue();
+                if(sourceTargetUris.containsSourceAndTarget() == false)
+                    continue;
+                long pairs = (long) sourceTargetUris.getSourceURIs().size() * sourceTargetUris.getTargetURIs().size();
+                numberOfSystemCorrespondences.merge(entry.getKey(), pairs, Long::sum);
+                SourceTargetURIs uris = matchedURIs.computeIfAbsent(entry.getKey(), __ -> new SourceTargetURIs());
+                uris.getSourceURIs().addAll(sourceTargetUris.getSourceURIs());
+                uris.getTargetURIs().addAll(sourceTargetUris.getTargetURIs());
+            }
+        }
+        
+        for(TestCase testCase : testCases){
+            long systemSize = numberOfSystemCorrespondences.getOrDefault(testCase, 0L);
+            SourceTargetURIs uris = matchedURIs.getOrDefault(testCase, new SourceTargetURIs());
+            long truePositives = 0;
+            long falseNegatives = 0;
+            long ignored = 0;
+            for(Correspondence reference : testCase.getParsedReferenceAlignment()){
+                boolean found = uris.getSourceURIs().contains(reference.getEntityOne()) &&
+                        uris.getTargetURIs().contains(reference.getEntityTwo()) &&
+                        alignmentClosure.belongToTheSameCluster(reference.getEntityOne(), reference.getEntityTwo());
+                if(reference.getRelation() == CorrespondenceRelation.UNKNOWN){
+                    //silently ignored - same as in ConfusionMatrixMetric
+                    if(found)
+                        ignored++;
+                }else if(found && reference.getRelation() == CorrespondenceRelation.EQUIVALENCE){
+                    truePositives++;
+                }else{
+                    falseNegatives++;
+                }
+            }
+            long falsePositives = systemSize - truePositives - ignored;
+            double precision = (truePositives + falsePositives) > 0 ? (double) truePositives / (truePositives + falsePositives) : 0.0;
+            double recall = (truePositives + falseNegatives) > 0 ? (double) truePositives / (truePositives + falseNegatives) : 0.0;
+            confusionMatrices.put(testCase, new ConfusionMatrix(toInt(truePositives), toInt(falsePositives), 
+                    toInt(falseNegatives), toInt(systemSize), precision, recall));
+        }
+        return confusionMatrices;
+    }
+    
+    private static int toInt(long value){
+        return (int) Math.min(Integer.MAX_VALUE, value);
+    }
+    
+    /**
+     * Returns the alignment as {@link Alignment} without reflexive correspondences.
+     * @return the alignment or null if it cannot be transformed
+     */
+    private Alignment getFullAlignment(){
+        try {
+            Alignment fullAlignment = TypeTransformerRegistry.getTransformedObject(this.alignment, Alignment.class);
+            //remove reflexive edges
+            return ReflexiveCorrespondenceFilter.removeReflexiveCorrespondences(fullAlignment);
+        } catch (TypeTransformationException ex) {
+            LOGGER.error("Could not transform alignemnt to Alignment class.", ex);
+            return null;
+        }
+    }
+    
+    private static UnionFind<String> computeClosure(Alignment alignment){
+        UnionFind<String> alignmentClosure = new UnionFind<>();
+        for(Correspondence c : alignment){
+            alignmentClosure.add(c.getEntityOne(), c.getEntityTwo());
+        }
+        return alignmentClosure;
+    }
 
     public Object getAlignment() {
         return alignment;
@@ -4,17 +4,23 @@ import de.uni_mannheim.informatik.dws.melt.matching_data.GoldStandardCompletenes
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResultSet;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.refinement.ConfidenceRefiner;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
-import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrix;
-import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrixMetric;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrixAggregationMode;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -109,56 +115,16 @@ public class ConfidenceFinder {
             return systemAlignment.getMinimalConfidence();
         }
 
-        ConfusionMatrix m = new ConfusionMatrixMetric().compute(reference, systemAlignment, gsCompleteness);
+        ConfidenceSweep sweep = new ConfidenceSweep(reference, systemAlignment, gsCompleteness);
         LOGGER.info("Search for best confidence (optimizing F-Measure) given {} reference and {} system " +
                         "correspondences. Without thresholding: tp: {} fp: {} fn: {}",
-                reference.size(), systemAlignment.size(), m.getTruePositiveSize(), m.getFalsePositiveSize(),
-                m.getFalseNegativeSize());
-        List<Double> systemConfidences = new ArrayList<>(getOccurringConfidences(systemAlignment, 2));
-        Collections.sort(systemConfidences);
-        double bestConf = 1.0d;
-        double bestValue = 0.0d;
-        for(Double conf : systemConfidences){
-            int tpSize = m.getTruePositive().cut(conf).size();
-            int fpSize = m.getFalsePositive().cut(conf).size();
-            int fnSize = m.getFalseNegativeSize() + (m.getTruePositiveSize() - tpSize);
-
-            /*
-            ExecutionResult er = new ExecutionResult(executionResult.getTestCase(),
-                    executionResult.getMatcherName(),
-                    executionResult.getSystemAlignment().cut(conf),
-                    executionResult.getReferenceAlignment());
-            ConfusionMatrix m2 = new ConfusionMatrixMetric().compute(er);
-
-            System.out.println("TP");
-            System.out.println(m2.getTruePositiveSize());
-            System.out.println(tpSize);
-
-            System.out.println("FP");
-            System.out.println(m2.getFalsePositiveSize());
-            System.out.println(fpSize);
-
-            System.out.println("FN");
-            System.out.println(m2.getFalseNegativeSize());
-            System.out.println(fnSize);
-             */
-
-            double precision = divideWithTwoDenominators(tpSize, tpSize, fpSize);
-            double recall = divideWithTwoDenominators(tpSize, tpSize, fnSize);
-            double f1measure = divideWithTwoDenominators(2*precision*recall, precision, recall);
-
-            if(f1measure >= bestValue){
-                bestConf = conf;
-                bestValue = f1measure;
-            }
-        }
-        int tpSize = m.getTruePositive().cut(bestConf).size();
-        int fpSize = m.getFalsePositive().cut(bestConf).size();
-        int fnSize = m.getFalseNegativeSize() + (m.getTruePositiveSize() - tpSize);
+                reference.size(), systemAlignment.size(), sweep.getTruePositiveSize(), sweep.getFalsePositiveSize(),
+                sweep.getFalseNegativeSize());
+        ConfidenceSweep.Point best = getBestPoint(sweep, ConfidenceSweep.Point::getF1measure);
         LOGGER.info("Found best confidence of {} which leads to F-Measure of {} (tp: {} fp: {} fn: {})",
-            bestConf, bestValue, tpSize, fpSize, fnSize);
+            best.getThreshold(), best.getF1measure(), best.getTruePositiveSize(), best.getFalsePositiveSize(), best.getFalseNegativeSize());
         
-        return bestConf;
+        return best.getThreshold();
     }
     
     /**
@@ -199,34 +165,14 @@ public class ConfidenceFinder {
             return systemAlignment.getMinimalConfidence();
         }
 
-        ConfusionMatrix m = new ConfusionMatrixMetric().compute(reference, systemAlignment, gsCompleteness);
+        ConfidenceSweep sweep = new ConfidenceSweep(reference, systemAlignment, gsCompleteness);
         LOGGER.info("Search for best confidence (optimizing F_{}) given {} reference and {} system correspondences. Without thresholding: tp: {} fp: {} fn: {}",
-                beta, reference.size(), systemAlignment.size(), m.getTruePositiveSize(), m.getFalsePositiveSize(), m.getFalseNegativeSize());
-        List<Double> systemConfidences = new ArrayList<>(getOccurringConfidences(systemAlignment, 2));
-        Collections.sort(systemConfidences);
-        double bestConf = 1.0d;
-        double bestValue = 0.0d;
-        for(Double conf : systemConfidences){
-            int tpSize = m.getTruePositive().cut(conf).size();
-            int fpSize = m.getFalsePositive().cut(conf).size();
-            int fnSize = m.getFalseNegativeSize() + (m.getTruePositiveSize() - tpSize);
-            
-            double precision = divideWithTwoDenominators(tpSize, tpSize, fpSize);
-            double recall = divideWithTwoDenominators(tpSize, tpSize, fnSize);
-            double fbeta = getFbetaMeasure(precision, recall, beta);
-
-            if(fbeta >= bestValue){
-                bestConf = conf;
-                bestValue = fbeta;
-            }
-        }
-        int tpSize = m.getTruePositive().cut(bestConf).size();
-        int fpSize = m.getFalsePositive().cut(bestConf).size();
-        int fnSize = m.getFalseNegativeSize() + (m.getTruePositiveSize() - tpSize);
+                beta, reference.size(), systemAlignment.size(), sweep.getTruePositiveSize(), sweep.getFalsePositiveSize(), sweep.getFalseNegativeSize());
+        ConfidenceSweep.Point best = getBestPoint(sweep, p -> p.getFbetaMeasure(beta));
         LOGGER.info("Found best confidence of {} which leads to F_{} of {} (tp: {} fp: {} fn: {})",
-            bestConf, beta, bestValue, tpSize, fpSize, fnSize);
+            best.getThreshold(), beta, best.getFbetaMeasure(beta), best.getTruePositiveSize(), best.getFalsePositiveSize(), best.getFalseNegativeSize());
         
-        return bestConf;
+        return best.getThreshold();
     }
     
     /**
@@ -263,66 +209,134 @@ public class ConfidenceFinder {
             return systemAlignment.getMinimalConfidence();
         }
 
-        ConfusionMatrix m = new ConfusionMatrixMetric().compute(reference, systemAlignment, gsCompleteness);
+        ConfidenceSweep sweep = new ConfidenceSweep(reference, systemAlignment, gsCompleteness);
         LOGGER.info("Search for best confidence (optimizing precision) given {} reference and {} system correspondences. Without thresholding: tp: {} fp: {} fn: {}",
-                reference.size(), systemAlignment.size(), m.getTruePositiveSize(), m.getFalsePositiveSize(), m.getFalseNegativeSize());
-        List<Double> systemConfidences = new ArrayList<>(getOccurringConfidences(systemAlignment, 2));
-        Collections.sort(systemConfidences);
-        double bestConf = 1.0d;
-        double bestValue = 0.0d;
-        for(Double conf : systemConfidences){
-            int tpSize = m.getTruePositive().cut(conf).size();
-            int fpSize = m.getFalsePositive().cut(conf).size();
-            double precision = divideWithTwoDenominators(tpSize, tpSize, fpSize);
-
-            if(precision >= bestValue){
-                bestConf = conf;
-                bestValue = precision;
-            }
-        }
-        int tpSize = m.getTruePositive().cut(bestConf).size();
-        int fpSize = m.getFalsePositive().cut(bestConf).size();
+                reference.size(), systemAlignment.size(), sweep.getTruePositiveSize(), sweep.getFalsePositiveSize(), sweep.getFalseNegativeSize());
+        ConfidenceSweep.Point best = getBestPoint(sweep, ConfidenceSweep.Point::getPrecision);
         LOGGER.info("Found best confidence of {} which leads to precision of {} (tp: {} fp: {})",
-                bestConf, bestValue, tpSize, fpSize);
-        return bestConf;
+                best.getThreshold(), best.getPrecision(), best.getTruePositiveSize(), best.getFalsePositiveSize());
+        return best.getThreshold();
     }
     
+    /**
+     * Returns an execution result set which contains the given execution result and one refined execution result
+     * (see {@link ConfidenceRefiner}) for each occurring confidence (rounded to two decimal places).
+     * The system alignment is sorted once and the cut alignments are built from its prefixes.
+     * @param executionResult the execution result
+     * @return execution result set with all thresholded execution results
+     */
     public static ExecutionResultSet getConfidenceResultSet(ExecutionResult executionResult){
         ExecutionResultSet s = new ExecutionResultSet();
         s.add(executionResult);
-        List<Double> systemConfidences = new ArrayList<>(getOccurringConfidences(executionResult.getSystemAlignment(), 2));
-        Collections.sort(systemConfidences);
+        Alignment systemAlignment = executionResult.getSystemAlignment();
+        List<Correspondence> sortedCorrespondences = new ArrayList<>(systemAlignment);
+        sortedCorrespondences.sort(Comparator.comparingDouble(Correspondence::getConfidence).reversed());
+        List<Double> systemConfidences = new ArrayList<>(getOccurringConfidences(systemAlignment, 2));
+        systemConfidences.sort(Collections.reverseOrder());
+        int end = 0;
         for(Double conf : systemConfidences){
-            s.get(executionResult, new ConfidenceRefiner(conf));
+            while(end < sortedCorrespondences.size() && sortedCorrespondences.get(end).getConfidence() >= conf)
+                end++;
+            Alignment cut = new Alignment(systemAlignment, false);
+            cut.addAll(sortedCorrespondences.subList(0, end));
+            s.add(new ExecutionResult(executionResult, cut, executionResult.getReferenceAlignment(), new ConfidenceRefiner(conf)));
         }
         return s;
     }
-
+    
+    /**
+     * Returns precision, recall and F-measure for each occurring confidence (rounded to two decimal places) of the system alignment.
+     * @param executionResult the execution result
+     * @return the curve ordered by ascending threshold
+     */
+    public static List<ConfidenceSweep.Point> getConfidenceCurve(ExecutionResult executionResult){
+        return new ConfidenceSweep(executionResult).getCurve();
+    }
+    
+    /**
+     * Returns the aggregated precision, recall and F-measure of multiple execution results
+     * (e.g. all test cases of a track) for each occurring confidence of the system alignments.
+     * The confusion matrices of the execution results are computed in parallel.
+     * @param executionResults the execution results
+     * @param aggregationMode MICRO or MACRO average
+     * @param numberOfThreads the number of threads to use
+     * @return the aggregated curve ordered by ascending threshold
+     */
+    public static List<ConfidenceSweep.Point> getConfidenceCurve(Collection<ExecutionResult> executionResults,
+                                                                 ConfusionMatrixAggregationMode aggregationMode, int numberOfThreads){
+        return ConfidenceSweep.aggregate(getSweeps(executionResults, numberOfThreads), aggregationMode);
+    }
+    
     /**
-     * Simple division that is to be performed. The two denominators will be added.
-     *
-     * @param numerator      Numerator of fraction
-     * @param denominatorOne Denominator 1
-     * @param denominatorTwo Denominator 2
-     * @return Result as double.
+     * Returns the aggregated precision, recall and F-measure of multiple execution results
+     * (e.g. all test cases of a track) for each occurring confidence of the system alignments.
+     * The confusion matrices of the execution results are computed in parallel with all available processors.
+     * @param executionResults the execution results
+     * @param aggregationMode MICRO or MACRO average
+     * @return the aggregated curve ordered by ascending threshold
      */
-    private static double divideWithTwoDenominators(double numerator, double denominatorOne, double denominatorTwo) {
-        if ((denominatorOne + denominatorTwo) > 0.0) {
-            return numerator / (denominatorOne + denominatorTwo);
-        } else {
-            return 0.0;
+    public static List<ConfidenceSweep.Point> getConfidenceCurve(Collection<ExecutionResult> executionResults,
+                                                                 ConfusionMatrixAggregationMode aggregationMode){
+        return getConfidenceCurve(executionResults, aggregationMode, Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * Determines one threshold for multiple execution results (e.g. all test cases of a track) which optimizes
+     * the aggregated F1-score.
+     * @param executionResults the execution results
+     * @param aggregationMode MICRO or MACRO average
+     * @return The optimal confidence threshold for an optimal aggregated F1 measure.
+     */
+    public static double getBestConfidenceForFmeasure(Collection<ExecutionResult> executionResults,
+                                                      ConfusionMatrixAggregationMode aggregationMode){
+        ConfidenceSweep.Point best = getBestPoint(getConfidenceCurve(executionResults, aggregationMode), ConfidenceSweep.Point::getF1measure);
+        if(best == null)
+            return 1.0d;
+        LOGGER.info("Found best confidence of {} which leads to {} F-Measure of {} (tp: {} fp: {} fn: {})",
+            best.getThreshold(), aggregationMode, best.getF1measure(), best.getTruePositiveSize(), best.getFalsePositiveSize(), best.getFalseNegativeSize());
+        return best.getThreshold();
+    }
+    
+    private static List<ConfidenceSweep> getSweeps(Collection<ExecutionResult> executionResults, int numberOfThreads){
+        if(numberOfThreads < 1)
+            throw new IllegalArgumentException("The number of threads has to be at least one.");
+        ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+        try {
+            return pool.submit(() -> executionResults.parallelStream()
+                    .map(ConfidenceSweep::new)
+                    .collect(Collectors.toList())).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while computing the confusion matrices.", ex);
+        } catch (ExecutionException ex) {
+            if(ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            throw new IllegalStateException("Could not compute the confusion matrices.", ex.getCause());
+        } finally {
+            pool.shutdown();
         }
     }
     
-    private static double getFbetaMeasure(double precision, double recall, double beta){
-        double betaSquared = Math.pow(beta, 2);
-        double numerator = (1 + betaSquared) * (precision * recall);
-        double denominator = ((betaSquared * precision) + recall);
-        if(denominator == 0){
-            return 0;
-        }else{
-            return numerator / denominator;
+    /**
+     * Returns the point with the highest value. In case of ties, the highest threshold is chosen.
+     * If the sweep has no thresholds, the point for threshold 1.0 is returned.
+     */
+    private static ConfidenceSweep.Point getBestPoint(ConfidenceSweep sweep, ToDoubleFunction<ConfidenceSweep.Point> value){
+        ConfidenceSweep.Point best = getBestPoint(sweep.getCurve(), value);
+        return best == null ? sweep.getPoint(1.0d) : best;
+    }
+    
+    private static ConfidenceSweep.Point getBestPoint(List<ConfidenceSweep.Point> curve, ToDoubleFunction<ConfidenceSweep.Point> value){
+        ConfidenceSweep.Point best = null;
+        double bestValue = 0.0d;
+        for(ConfidenceSweep.Point point : curve){
+            double v = value.applyAsDouble(point);
+            if(v >= bestValue){
+                best = point;
+                bestValue = v;
+            }
         }
+        return best;
     }
     
 }
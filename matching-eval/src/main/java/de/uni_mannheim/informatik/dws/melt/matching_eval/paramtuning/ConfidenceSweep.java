@@ -0,0 +1,352 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval.paramtuning;
+
+import de.uni_mannheim.informatik.dws.melt.matching_data.GoldStandardCompleteness;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrix;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrixAggregationMode;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrixMetric;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Precision, recall and F-measure of a system alignment for many confidence thresholds.
+ * The confusion matrix is computed only once. The confidences of the true and false positives are sorted
+ * and the sizes of the confusion matrix for all thresholds are computed in one pass over the sorted confidences
+ * (instead of cutting the alignments for every threshold).
+ * As in {@link Alignment#cut(double)}, all correspondences with a confidence greater or equal to the threshold are kept.
+ */
+public class ConfidenceSweep {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConfidenceSweep.class);
+
+    /**
+     * Sorted (ascending) confidences of the true positives.
+     */
+    private final double[] truePositiveConfidences;
+
+    /**
+     * Sorted (ascending) confidences of the false positives.
+     */
+    private final double[] falsePositiveConfidences;
+
+    /**
+     * Number of false negatives without any threshold.
+     */
+    private final int falseNegativeSize;
+
+    /**
+     * Sorted (ascending) thresholds which are tested by default (the occurring confidences of the system alignment).
+     */
+    private final double[] thresholds;
+
+    /**
+     * Constructor
+     * @param confusionMatrix the confusion matrix of the system alignment without any threshold
+     * @param thresholds the thresholds which should be tested by default
+     */
+    public ConfidenceSweep(ConfusionMatrix confusionMatrix, Collection<Double> thresholds){
+        this.truePositiveConfidences = getSortedConfidences(confusionMatrix.getTruePositive());
+        this.falsePositiveConfidences = getSortedConfidences(confusionMatrix.getFalsePositive());
+        this.falseNegativeSize = confusionMatrix.getFalseNegativeSize();
+        this.thresholds = toSortedArray(thresholds);
+    }
+
+    /**
+     * Constructor which tests all confidences of the system alignment (rounded to two decimal places).
+     * @param reference the reference alignment to use
+     * @param systemAlignment the system alignment
+     * @param gsCompleteness What gold standard completeness is given.
+     */
+    public ConfidenceSweep(Alignment reference, Alignment systemAlignment, GoldStandardCompleteness gsCompleteness){
+        this(new ConfusionMatrixMetric().compute(reference, systemAlignment, gsCompleteness),
+                ConfidenceFinder.getOccurringConfidences(systemAlignment, 2));
+    }
+
+    /**
+     * Constructor which tests all confidences of the system alignment (rounded to two decimal places).
+     * @param executionResult the execution result
+     */
+    public ConfidenceSweep(ExecutionResult executionResult){
+        this(executionResult.getReferenceAlignment(), executionResult.getSystemAlignment(),
+                executionResult.getTestCase().getGoldStandardCompleteness());
+    }
+
+    /**
+     * Returns the precision, recall and F-measure for all default thresholds (ascending).
+     * @return the curve ordered by ascending threshold
+     */
+    public List<Point> getCurve(){
+        return getCurve(this.thresholds);
+    }
+
+    /**
+     * Returns the precision, recall and F-measure for the given thresholds.
+     * @param thresholds the thresholds
+     * @return the curve ordered by ascending threshold (duplicate thresholds are removed)
+     */
+    public List<Point> getCurve(Collection<Double> thresholds){
+        return getCurve(toSortedArray(thresholds));
+    }
+
+    private List<Point> getCurve(double[] sortedThresholds){
+        List<Point> curve = new ArrayList<>(sortedThresholds.length);
+        int truePositiveIndex = 0;
+        int falsePositiveIndex = 0;
+        for(double threshold : sortedThresholds){
+            while(truePositiveIndex < truePositiveConfidences.length && truePositiveConfidences[truePositiveIndex] < threshold)
+                truePositiveIndex++;
+            while(falsePositiveIndex < falsePositiveConfidences.length && falsePositiveConfidences[falsePositiveIndex] < threshold)
+                falsePositiveIndex++;
+            int tpSize = truePositiveConfidences.length - truePositiveIndex;
+            int fpSize = falsePositiveConfidences.length - falsePositiveIndex;
+            int fnSize = falseNegativeSize + truePositiveIndex;
+            curve.add(new Point(threshold, tpSize, fpSize, fnSize));
+        }
+        return curve;
+    }
+
+    /**
+     * Returns the precision, recall and F-measure for one threshold.
+     * @param threshold the threshold
+     * @return the point of the curve for this threshold
+     */
+    public Point getPoint(double threshold){
+        int tpSize = truePositiveConfidences.length - lowerBound(truePositiveConfidences, threshold);
+        int fpSize = falsePositiveConfidences.length - lowerBound(falsePositiveConfidences, threshold);
+        int fnSize = falseNegativeSize + (truePositiveConfidences.length - tpSize);
+        return new Point(threshold, tpSize, fpSize, fnSize);
+    }
+
+    /**
+     * Returns the thresholds which are tested by default.
+     * @return sorted (ascending) thresholds
+     */
+    public List<Double> getThresholds(){
+        List<Double> list = new ArrayList<>(thresholds.length);
+        for(double d : thresholds){
+            list.add(d);
+        }
+        return list;
+    }
+
+    /**
+     * Returns the number of true positives without any threshold.
+     * @return number of true positives
+     */
+    public int getTruePositiveSize(){
+        return truePositiveConfidences.length;
+    }
+
+    /**
+     * Returns the number of false positives without any threshold.
+     * @return number of false positives
+     */
+    public int getFalsePositiveSize(){
+        return falsePositiveConfidences.length;
+    }
+
+    /**
+     * Returns the number of false negatives without any threshold.
+     * @return number of false negatives
+     */
+    public int getFalseNegativeSize(){
+        return falseNegativeSize;
+    }
+
+    /**
+     * Aggregates the curves of multiple sweeps (e.g. one for each test case).
+     * All thresholds of all sweeps are tested.
+     * @param sweeps the sweeps to aggregate
+     * @param aggregationMode MICRO sums up the sizes of the confusion matrices, MACRO averages precision and recall.
+     * @return the aggregated curve ordered by ascending threshold
+     */
+    public static List<Point> aggregate(Collection<ConfidenceSweep> sweeps, ConfusionMatrixAggregationMode aggregationMode){
+        if (aggregationMode == ConfusionMatrixAggregationMode.NONE) {
+            LOGGER.warn("Invalid Aggregation Mode: NONE; Fallback: Micro-Average.");
+            aggregationMode = ConfusionMatrixAggregationMode.MICRO;
+        }
+        TreeSet<Double> allThresholds = new TreeSet<>();
+        for(ConfidenceSweep sweep : sweeps){
+            for(double d : sweep.thresholds){
+                allThresholds.add(d);
+            }
+        }
+        double[] sortedThresholds = toSortedArray(allThresholds);
+        int[] tpSizes = new int[sortedThresholds.length];
+        int[] fpSizes = new int[sortedThresholds.length];
+        int[] fnSizes = new int[sortedThresholds.length];
+        double[] precisions = new double[sortedThresholds.length];
+        double[] recalls = new double[sortedThresholds.length];
+        for(ConfidenceSweep sweep : sweeps){
+            List<Point> curve = sweep.getCurve(sortedThresholds);
+            for(int i = 0; i < sortedThresholds.length; i++){
+                Point p = curve.get(i);
+                tpSizes[i] += p.getTruePositiveSize();
+                fpSizes[i] += p.getFalsePositiveSize();
+                fnSizes[i] += p.getFalseNegativeSize();
+                precisions[i] += p.getPrecision();
+                recalls[i] += p.getRecall();
+            }
+        }
+        List<Point> aggregated = new ArrayList<>(sortedThresholds.length);
+        for(int i = 0; i < sortedThresholds.length; i++){
+            if(aggregationMode == ConfusionMatrixAggregationMode.MACRO){
+                aggregated.add(new Point(sortedThresholds[i], tpSizes[i], fpSizes[i], fnSizes[i],
+                        precisions[i] / sweeps.size(), recalls[i] / sweeps.size()));
+            }else{
+                aggregated.add(new Point(sortedThresholds[i], tpSizes[i], fpSizes[i], fnSizes[i]));
+            }
+        }
+        return aggregated;
+    }
+
+    private static double[] getSortedConfidences(Alignment alignment){
+        double[] confidences = new double[alignment.size()];
+        int i = 0;
+        for(Correspondence c : alignment){
+            confidences[i++] = c.getConfidence();
+        }
+        Arrays.sort(confidences);
+        return confidences;
+    }
+
+    private static double[] toSortedArray(Collection<Double> values){
+        TreeSet<Double> sorted = new TreeSet<>(values);
+        double[] array = new double[sorted.size()];
+        int i = 0;
+        for(Double d : sorted){
+            array[i++] = d;
+        }
+        return array;
+    }
+
+    /**
+     * Returns the index of the first element which is greater or equal to the given value.
+     */
+    private static int lowerBound(double[] sorted, double value){
+        int low = 0;
+        int high = sorted.length;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            if(sorted[mid] < value){
+                low = mid + 1;
+            }else{
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Simple division that is to be performed. The two denominators will be added.
+     *
+     * @param numerator      Numerator of fraction
+     * @param denominatorOne Denominator 1
+     * @param denominatorTwo Denominator 2
+     * @return Result as double.
+     */
+    private static double divideWithTwoDenominators(double numerator, double denominatorOne, double denominatorTwo) {
+        if ((denominatorOne + denominatorTwo) > 0.0) {
+            return numerator / (denominatorOne + denominatorTwo);
+        } else {
+            return 0.0;
+        }
+    }
+
+    /**
+     * One point of the curve: the sizes of the confusion matrix as well as precision and recall for one threshold.
+     */
+    public static class Point {
+        private final double threshold;
+        private final int truePositiveSize;
+        private final int falsePositiveSize;
+        private final int falseNegativeSize;
+        private final double precision;
+        private final double recall;
+
+        /**
+         * Constructor which computes precision and recall from the given sizes.
+         * @param threshold the threshold
+         * @param truePositiveSize number of true positives
+         * @param falsePositiveSize number of false positives
+         * @param falseNegativeSize number of false negatives
+         */
+        public Point(double threshold, int truePositiveSize, int falsePositiveSize, int falseNegativeSize) {
+            this(threshold, truePositiveSize, falsePositiveSize, falseNegativeSize,
+                    divideWithTwoDenominators(truePositiveSize, truePositiveSize, falsePositiveSize),
+                    divideWithTwoDenominators(truePositiveSize, truePositiveSize, falseNegativeSize));
+        }
+
+        /**
+         * Constructor
+         * @param threshold the threshold
+         * @param truePositiveSize number of true positives
+         * @param falsePositiveSize number of false positives
+         * @param falseNegativeSize number of false negatives
+         * @param precision the precision (can differ from the sizes in case of macro averages)
+         * @param recall the recall (can differ from the sizes in case of macro averages)
+         */
+        public Point(double threshold, int truePositiveSize, int falsePositiveSize, int falseNegativeSize, double precision, double recall) {
+            this.threshold = threshold;
+            this.truePositiveSize = truePositiveSize;
+            this.falsePositiveSize = falsePositiveSize;
+            this.falseNegativeSize = falseNegativeSize;
+            this.precision = precision;
+            this.recall = recall;
+        }
+
+        public double getThreshold() {
+            return threshold;
+        }
+
+        public int getTruePositiveSize() {
+            return truePositiveSize;
+        }
+
+        public int getFalsePositiveSize() {
+            return falsePositiveSize;
+        }
+
+        public int getFalseNegativeSize() {
+            return falseNegativeSize;
+        }
+
+        public double getPrecision() {
+            return precision;
+        }
+
+        public double getRecall() {
+            return recall;
+        }
+
+        public double getF1measure() {
+            return getFbetaMeasure(1.0);
+        }
+
+        public double getFbetaMeasure(double beta){
+            double betaSquared = Math.pow(beta, 2);
+            double numerator = (1 + betaSquared) * (precision * recall);
+            double denominator = ((betaSquared * precision) + recall);
+            if(denominator == 0){
+                return 0;
+            }else{
+                return numerator / denominator;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Point{threshold=" + threshold + ", tp=" + truePositiveSize + ", fp=" + falsePositiveSize +
+                    ", fn=" + falseNegativeSize + ", precision=" + precision + ", recall=" + recall + '}';
+        }
+    }
+}
@@ -0,0 +1,34 @@
+            //loading of the aggregated data which is split into json chunks (see DashboardDataAggregator)
+            function chunk_to_rows(chunk) {
+                var rows = [];
+                var numberOfRows = chunk.values.length > 0 ? chunk.values[0].length : 0;
+                for (var i = 0; i < numberOfRows; i++) {
+                    var row = {};
+                    for (var c = 0; c < chunk.columns.length; c++) {
+                        row[chunk.columns[c]] = chunk.values[c][i];
+                    }
+                    rows.push(row);
+                }
+                return rows;
+            }
+            function load_chunked_data(manifestLocation, callback) {
+                var base = manifestLocation.substring(0, manifestLocation.lastIndexOf('/') + 1);
+                d3.json(manifestLocation).then(function(manifest) {
+                    var loadRemainingChunks = function(index) {
+                        if (index >= manifest.chunks.length)
+                            return;
+                        d3.json(base + manifest.chunks[index]).then(function(chunk) {
+                            ndx.add(chunk_to_rows(chunk));
+                            dc.redrawAll();
+                            loadRemainingChunks(index + 1);
+                        });
+                    };
+                    if (manifest.chunks.length === 0) {
+                        callback([], function() {});
+                        return;
+                    }
+                    d3.json(base + manifest.chunks[0]).then(function(chunk) {
+                        callback(chunk_to_rows(chunk), function() { loadRemainingChunks(1); });
+                    });
+                });
+            }
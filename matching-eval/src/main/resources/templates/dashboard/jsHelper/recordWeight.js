@@ -0,0 +1,4 @@
+            //weight of a record: aggregated rows (see DashboardDataAggregator) represent multiple correspondences
+            function record_weight(d) {
+                return d.Count === undefined ? 1 : +d.Count;
+            }
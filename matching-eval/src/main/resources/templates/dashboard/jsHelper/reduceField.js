@@ -1,13 +1,13 @@
             //reducer functions for crossfilter
             function reduceFieldAdd(attr) {
               return function(p,v) {
-                p[v[attr]] = (p[v[attr]] || 0) + 1;
+                p[v[attr]] = (p[v[attr]] || 0) + record_weight(v);
                 return p;
               };
             }
             function reduceFieldRemove(attr) {
               return function(p,v) {
-                p[v[attr]] = (p[v[attr]] || 0) - 1;//--p[v[attr]] || 0;
+                p[v[attr]] = (p[v[attr]] || 0) - record_weight(v);//--p[v[attr]] || 0;
                 return p;
               };
             }
@@ -1,19 +1,101 @@
             //reducer functions for crossfilter
+            //the group value is an array of [value, weight] pairs sorted by value
+            //aggregated rows (see record_weight) only increase the weight, thus the array has one entry per distinct value
+            function bisectSortedAttribute(p, value) {
+                var lo = 0, hi = p.length;
+                while (lo < hi) {
+                    var mid = (lo + hi) >>> 1;
+                    if (p[mid][0] < value) lo = mid + 1;
+                    else hi = mid;
+                }
+                return lo;
+            }
             function reduceSortedAttributeAdd(attr, evalResultAttr) {
               return function(p,v) {
-                // keep array sorted for efficiency
                 if(v[evalResultAttr] !== "false negative"){
-                    p.splice(d3.bisectLeft(p, +v[attr]), 0, +v[attr]);
+                    var value = +v[attr];
+                    var index = bisectSortedAttribute(p, value);
+                    if(index < p.length && p[index][0] === value){
+                        p[index][1] += record_weight(v);
+                    }else{
+                        p.splice(index, 0, [value, record_weight(v)]);
+                    }
                 }
                 return p;
               };
             }
-            function reduceSortedAttributeRemove(attr) {
+            function reduceSortedAttributeRemove(attr, evalResultAttr) {
               return function(p,v) {
-                p.splice(d3.bisectLeft(p, +v[attr]), 1);
+                if(v[evalResultAttr] !== "false negative"){
+                    var value = +v[attr];
+                    var index = bisectSortedAttribute(p, value);
+                    if(index < p.length && p[index][0] === value){
+                        p[index][1] -= record_weight(v);
+                        if(p[index][1] <= 0)
+                            p.splice(index, 1);
+                    }
+                }
                 return p;
               };
             }
             function reduceSortedAttributeInit() {
               return function(){return [];};
-            }
\ No newline at end of file
+            }
+            //value at the given position of the (not materialized) array in which each value is repeated weight times
+            function sortedAttributeValueAt(p, position) {
+                var end = 0;
+                for (var i = 0; i < p.length; i++) {
+                    end += p[i][1];
+                    if (position < end)
+                        return p[i][0];
+                }
+                return p[p.length - 1][0];
+            }
+            //weighted quantile which is equal to d3.quantile on the array in which each value is repeated weight times
+            function sortedAttributeQuantile(p, total, q) {
+                var h = (total - 1) * q;
+                var lower = Math.floor(h);
+                var a = sortedAttributeValueAt(p, lower);
+                if (lower + 1 >= total)
+                    return a;
+                return a + (sortedAttributeValueAt(p, lower + 1) - a) * (h - lower);
+            }
+            //dc.boxPlot only supports plain value arrays. This returns a small array (linear in the number of distinct values)
+            //which has the same quartiles and outliers as the array in which each value is repeated weight times.
+            function sortedAttributeBoxPlotValues(p) {
+                var total = 0;
+                for (var i = 0; i < p.length; i++)
+                    total += p[i][1];
+                if (total <= 0)
+                    return [];
+                var quartiles = [
+                    sortedAttributeQuantile(p, total, 0.25),
+                    sortedAttributeQuantile(p, total, 0.5),
+                    sortedAttributeQuantile(p, total, 0.75)
+                ];
+                //distinct values between the quartiles: below q1, q1 to median, median to q3, above q3
+                var parts = [[], [], [], []];
+                for (var j = 0; j < p.length; j++) {
+                    var value = p[j][0];
+                    if (value < quartiles[0]) parts[0].push(value);
+                    else if (value < quartiles[1]) parts[1].push(value);
+                    else if (value < quartiles[2]) parts[2].push(value);
+                    else parts[3].push(value);
+                }
+                //an array of length 4m+1 has its quartiles exactly at the positions m, 2m and 3m
+                var m = 1 + Math.max(parts[0].length, parts[1].length, parts[2].length, parts[3].length);
+                var values = [];
+                for (var k = 0; k < 4; k++) {
+                    var padding = k < 3 ? quartiles[k] : quartiles[2];
+                    if (k === 3) {
+                        //values above q3 are padded at the front to keep the array sorted
+                        for (var l = parts[3].length; l < m; l++) values.push(padding);
+                        values.push.apply(values, parts[3]);
+                    } else {
+                        values.push.apply(values, parts[k]);
+                        for (var n = parts[k].length; n < (k === 0 ? m : m - 1); n++) values.push(padding);
+                        values.push(quartiles[k]);
+                    }
+                }
+                return values;
+            }
@@ -0,0 +1,12 @@
+            //table which shows the sample of raw correspondences (not filtered by the charts)
+            function render_sample_table(selector, records) {
+                var columns = records.columns;
+                var table = d3.select(selector);
+                table.append('thead').append('tr').selectAll('th')
+                    .data(columns).enter().append('th').text(function(d) { return d; });
+                table.append('tbody').selectAll('tr')
+                    .data(records).enter().append('tr')
+                    .selectAll('td')
+                    .data(function(row) { return columns.map(function(column) { return row[column]; }); })
+                    .enter().append('td').text(function(d) { return d; });
+            }
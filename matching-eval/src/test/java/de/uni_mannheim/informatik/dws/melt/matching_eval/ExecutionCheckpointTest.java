@@ -0,0 +1,111 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.MatcherURL;
+import de.uni_mannheim.informatik.dws.melt.matching_data.LocalTrack;
+import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
+import de.uni_mannheim.informatik.dws.melt.matching_data.TestCaseType;
+import eu.sealsproject.platform.res.domain.omt.IOntologyMatchingToolBridge;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExecutionCheckpointTest {
+
+    private static final File REFERENCE = new File("src/test/resources/cmt-conference.rdf");
+
+    /**
+     * Matcher which counts its executions and returns a copy of the cmt-conference reference.
+     */
+    static class CountingMatcher extends MatcherURL {
+        private final AtomicInteger executions = new AtomicInteger();
+
+        @Override
+        public URL match(URL source, URL target, URL inputAlignment) throws Exception {
+            executions.incrementAndGet();
+            File alignment = File.createTempFile("alignment", ".rdf");
+            Files.copy(REFERENCE.toPath(), alignment.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return alignment.toURI().toURL();
+        }
+    }
+
+    private static LocalTrack createTrack(Path directory) throws IOException {
+        for(String testCase : Arrays.asList("cmt-conference", "conference-cmt")){
+            File testCaseDirectory = directory.resolve(testCase).toFile();
+            testCaseDirectory.mkdirs();
+            Files.copy(new File("src/test/resources/cmt.owl").toPath(), new File(testCaseDirectory, TestCaseType.SOURCE.toFileName()).toPath());
+            Files.copy(new File("src/test/resources/conference.owl").toPath(), new File(testCaseDirectory, TestCaseType.TARGET.toFileName()).toPath());
+            Files.copy(REFERENCE.toPath(), new File(testCaseDirectory, TestCaseType.REFERENCE.toFileName()).toPath());
+        }
+        return new LocalTrack("checkpoint track", "1.0", directory.toFile());
+    }
+
+    @Test
+    public void testResumeRun(@TempDir Path tempDir) throws IOException {
+        LocalTrack track = createTrack(tempDir.resolve("track"));
+        List<TestCase> testCases = track.getTestCases();
+        assertEquals(2, testCases.size());
+        File checkpointDirectory = tempDir.resolve("checkpoint").toFile();
+
+        //simulate an interrupted run where only one result is stored
+        CountingMatcher matcher = new CountingMatcher();
+        Map<String, IOntologyMatchingToolBridge> matchers = new HashMap<>();
+        matchers.put("counting/matcher", matcher);
+        assertEquals(1, Executor.run(testCases.subList(0, 1), matchers, checkpointDirectory).size());
+        assertEquals(1, matcher.executions.get());
+
+        ExecutionResultSet results = Executor.run(testCases, matchers, checkpointDirectory);
+        assertEquals(2, results.size());
+        assertEquals(2, matcher.executions.get());
+
+        //nothing is executed any more
+        ExecutorParallel executor = new ExecutorParallel(2);
+        executor.setCheckpointDirectory(checkpointDirectory);
+        assertEquals(2, executor.run(testCases, matchers).size());
+        assertEquals(2, matcher.executions.get());
+
+        ExecutionResult original = results.get(testCases.get(1), "counting/matcher");
+        ExecutionResultSet loaded = Executor.loadFromCheckpointDirectory(checkpointDirectory, Arrays.asList(track));
+        assertEquals(2, loaded.size());
+        ExecutionResult loadedResult = loaded.get(testCases.get(1), "counting/matcher");
+        assertNotNull(loadedResult);
+        assertEquals(original.getRuntime(), loadedResult.getRuntime());
+        assertTrue(new File(loadedResult.getOriginalSystemAlignment().getFile()).getAbsolutePath().startsWith(checkpointDirectory.getAbsolutePath()));
+        assertEquals(original.getSystemAlignment(), loadedResult.getSystemAlignment());
+    }
+
+    @Test
+    public void testParallelCheckpoint(@TempDir Path tempDir) throws IOException {
+        LocalTrack track = createTrack(tempDir.resolve("track"));
+        File checkpointDirectory = tempDir.resolve("checkpoint").toFile();
+        CountingMatcher matcher = new CountingMatcher();
+        Map<String, IOntologyMatchingToolBridge> matchers = new HashMap<>();
+        matchers.put("one", matcher);
+        matchers.put("two", matcher);
+
+        ExecutorParallel executor = new ExecutorParallel(2);
+        executor.setCheckpointDirectory(checkpointDirectory);
+        assertEquals(4, executor.run(track, matchers).size());
+        assertEquals(4, matcher.executions.get());
+
+        ExecutionCheckpoint checkpoint = new ExecutionCheckpoint(checkpointDirectory);
+        for(TestCase testCase : track.getTestCases()){
+            assertTrue(checkpoint.isFinished(testCase, "one"));
+            assertTrue(checkpoint.isFinished(testCase, "two"));
+            assertFalse(checkpoint.isFinished(testCase, "three"));
+        }
+        assertEquals(4, checkpoint.loadAll(Arrays.asList(track)).size());
+        //unknown tracks are skipped
+        assertEquals(0, checkpoint.loadAll().size());
+    }
+}
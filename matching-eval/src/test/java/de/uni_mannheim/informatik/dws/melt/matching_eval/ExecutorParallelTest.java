@@ -0,0 +1,158 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.MatcherURL;
+import de.uni_mannheim.informatik.dws.melt.matching_data.LocalTrack;
+import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
+import de.uni_mannheim.informatik.dws.melt.matching_data.Track;
+import eu.sealsproject.platform.res.domain.omt.IOntologyMatchingToolBridge;
+import java.io.File;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExecutorParallelTest {
+
+    private static final URI CMT = new File("src/test/resources/cmt.owl").toURI();
+    private static final URI CONFERENCE = new File("src/test/resources/conference.owl").toURI();
+    private static final URI REFERENCE = new File("src/test/resources/cmt-conference.rdf").toURI();
+
+    /**
+     * Matcher which records the order of the matched test cases and the maximum number of parallel executions.
+     */
+    static class RecordingMatcher extends MatcherURL {
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+        private final List<URL> matchedSources = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public URL match(URL source, URL target, URL inputAlignment) throws Exception {
+            int current = running.incrementAndGet();
+            maxRunning.accumulateAndGet(current, Math::max);
+            matchedSources.add(source);
+            Thread.sleep(100);
+            running.decrementAndGet();
+            //the executor deletes the system alignment on exit, thus return a copy
+            File alignment = File.createTempFile("alignment", ".rdf");
+            Files.copy(new File(REFERENCE).toPath(), alignment.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return alignment.toURI().toURL();
+        }
+    }
+
+    private static List<TestCase> createTestCases(Path tempDir){
+        return createTestCases(tempDir, "");
+    }
+
+    private static List<TestCase> createTestCases(Path tempDir, String suffix){
+        Track track = new LocalTrack("test", "1.0", tempDir.toFile());
+        List<TestCase> testCases = new ArrayList<>();
+        testCases.add(new TestCase("small" + suffix, CMT, CMT, REFERENCE, track));
+        testCases.add(new TestCase("large" + suffix, CONFERENCE, CONFERENCE, REFERENCE, track));
+        testCases.add(new TestCase("medium" + suffix, CMT, CONFERENCE, REFERENCE, track));
+        return testCases;
+    }
+
+    private static IOntologyMatchingToolBridge matcherStub(){
+        return new RecordingMatcher();
+    }
+
+    @Test
+    public void testLargeTasksFirst(@TempDir Path tempDir) throws Exception {
+        RecordingMatcher matcher = new RecordingMatcher();
+        Map<String, IOntologyMatchingToolBridge> matchers = new HashMap<>();
+        matchers.put("recording", matcher);
+
+        ExecutionResultSet results = new ExecutorParallel(1).run(createTestCases(tempDir), matchers);
+        assertEquals(3, results.size());
+        assertEquals(CONFERENCE.toURL(), matcher.matchedSources.get(0)); // conference.owl is larger than cmt.owl
+        assertEquals(CMT.toURL(), matcher.matchedSources.get(2));
+        for(ExecutionResult result : results){
+            assertTrue(result.getQueueTime() >= 0);
+        }
+        //the last task waited for the two other ones
+        long maxQueueTime = results.stream().mapToLong(ExecutionResult::getQueueTime).max().getAsLong();
+        assertTrue(maxQueueTime >= 200_000_000L, "Queue time should include the runtime of previous tasks but was " + maxQueueTime);
+    }
+
+    @Test
+    public void testPreviousRuntimes(@TempDir Path tempDir) throws Exception {
+        List<TestCase> testCases = createTestCases(tempDir);
+        ExecutionResultSet previous = new ExecutionResultSet();
+        previous.add(new ExecutionResult(testCases.get(0), "recording", REFERENCE.toURL(), 5_000_000_000L, matcherStub()));
+        previous.add(new ExecutionResult(testCases.get(1), "recording", REFERENCE.toURL(), 1_000L, matcherStub()));
+
+        RecordingMatcher matcher = new RecordingMatcher();
+        Map<String, IOntologyMatchingToolBridge> matchers = new HashMap<>();
+        matchers.put("recording", matcher);
+
+        ExecutorParallel executor = new ExecutorParallel(1);
+        executor.setPreviousResults(previous);
+        assertEquals(3, executor.run(testCases, matchers).size());
+        //the small test case was the slowest in the previous run
+        assertEquals(CMT.toURL(), matcher.matchedSources.get(0));
+        assertEquals(CONFERENCE.toURL(), matcher.matchedSources.get(2));
+    }
+
+    @Test
+    public void testConcurrencyLimits(@TempDir Path tempDir) {
+        List<TestCase> testCases = new ArrayList<>();
+        for(int i = 0; i < 3; i++){
+            testCases.addAll(createTestCases(tempDir, Integer.toString(i)));
+        }
+        RecordingMatcher limited = new RecordingMatcher();
+        RecordingMatcher unlimited = new RecordingMatcher();
+        Map<String, IOntologyMatchingToolBridge> matchers = new HashMap<>();
+        matchers.put("limited", limited);
+        matchers.put("unlimited", unlimited);
+
+        ExecutorParallel executor = new ExecutorParallel(4);
+        executor.setMatcherConcurrencyLimit("limited", 1);
+        assertEquals(18, executor.run(testCases, matchers).size());
+        assertEquals(1, limited.maxRunning.get());
+        assertTrue(unlimited.maxRunning.get() > 1);
+
+        //memory budget which allows only one task at a time
+        RecordingMatcher budget = new RecordingMatcher();
+        matchers.clear();
+        matchers.put("budget", budget);
+        executor = new ExecutorParallel(4);
+        executor.setMemoryEstimator(testCase -> 100);
+        executor.setMemoryBudget(150);
+        assertEquals(9, executor.run(testCases, matchers).size());
+        assertEquals(1, budget.maxRunning.get());
+
+        assertThrows(IllegalArgumentException.class, () -> new ExecutorParallel().setMatcherConcurrencyLimit("limited", 0));
+    }
+
+    @Test
+    public void testMemoryIsReservedForLargestTask() {
+        ExecutorParallel executor = new ExecutorParallel(4);
+        executor.setMemoryBudget(100);
+        ExecutorParallel.SchedulerState state = executor.new SchedulerState();
+        ExecutorParallel.ScheduledTask running = new ExecutorParallel.ScheduledTask(null, "matcher", null, 50, 0);
+        ExecutorParallel.ScheduledTask large = new ExecutorParallel.ScheduledTask(null, "matcher", null, 80, 0);
+        ExecutorParallel.ScheduledTask small = new ExecutorParallel.ScheduledTask(null, "matcher", null, 10, 0);
+        List<ExecutorParallel.ScheduledTask> pending = new ArrayList<>();
+        pending.add(running);
+        pending.add(large);
+        pending.add(small);
+
+        assertSame(running, state.admitNext(pending));
+        //the large task does not fit, thus the small task has to wait as well
+        assertNull(state.admitNext(pending));
+        state.release(running);
+        assertSame(large, state.admitNext(pending));
+        assertSame(small, state.admitNext(pending));
+        assertTrue(pending.isEmpty());
+    }
+}
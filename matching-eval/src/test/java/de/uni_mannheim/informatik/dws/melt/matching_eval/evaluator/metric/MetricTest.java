@@ -0,0 +1,91 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric;
+
+import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricTest {
+
+    /**
+     * Metric which returns the size of the system alignment and counts how often it is computed.
+     */
+    private static class CountingMetric extends Metric<Integer> {
+        private final AtomicInteger computations = new AtomicInteger();
+
+        @Override
+        protected Integer compute(ExecutionResult executionResult) {
+            computations.incrementAndGet();
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return executionResult.getSystemAlignment().size();
+        }
+    }
+
+    @Test
+    void testEachResultIsComputedOnce() {
+        List<ExecutionResult> distinctResults = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Alignment system = new Alignment();
+            for (int j = 0; j < i; j++) {
+                system.add("http://source/" + j, "http://target/" + j);
+            }
+            distinctResults.add(new ExecutionResult(null, "matcher" + i, system, new Alignment()));
+        }
+        List<ExecutionResult> requested = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            requested.addAll(distinctResults);
+        }
+
+        CountingMetric metric = new CountingMetric();
+        Map<ExecutionResult, Integer> results = metric.get(requested, 8);
+        assertEquals(20, metric.computations.get());
+        assertEquals(20, results.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, results.get(distinctResults.get(i)));
+            assertEquals(i, metric.get(distinctResults.get(i)));
+        }
+        assertEquals(20, metric.computations.get());
+
+        assertThrows(IllegalArgumentException.class, () -> metric.get(requested, 0));
+    }
+
+    @Test
+    void testRemoveFromCache() {
+        ExecutionResult one = new ExecutionResult(null, "one", new Alignment(), new Alignment());
+        ExecutionResult two = new ExecutionResult(null, "two", new Alignment(), new Alignment());
+        CountingMetric metric = new CountingMetric();
+        metric.get(one);
+        metric.get(two);
+        assertEquals(2, metric.computations.get());
+
+        metric.removeFromCache(Arrays.asList(one));
+        metric.get(one);
+        metric.get(two);
+        assertEquals(3, metric.computations.get());
+    }
+
+    @Test
+    void testExceptionsArePropagated() {
+        Metric<Integer> metric = new Metric<Integer>() {
+            @Override
+            protected Integer compute(ExecutionResult executionResult) {
+                throw new IllegalStateException("computation failed");
+            }
+        };
+        List<ExecutionResult> requested = new ArrayList<>();
+        requested.add(new ExecutionResult(null, "one", new Alignment(), new Alignment()));
+        requested.add(new ExecutionResult(null, "two", new Alignment(), new Alignment()));
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> metric.get(requested, 2));
+        assertTrue(ex.getMessage().contains("computation failed"));
+    }
+}
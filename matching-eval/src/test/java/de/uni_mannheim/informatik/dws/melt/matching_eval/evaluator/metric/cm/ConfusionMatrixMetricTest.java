@@ -1,14 +1,17 @@
 package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm;
 
+import de.uni_mannheim.informatik.dws.melt.matching_data.GoldStandardCompleteness;
 import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
 import de.uni_mannheim.informatik.dws.melt.matching_data.TrackRepository;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResultSet;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.Executor;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -216,6 +219,49 @@ class ConfusionMatrixMetricTest {
     }
 
 
+    @Test
+    void computeCountOnly() {
+        Alignment referenceAlignment = new Alignment();
+        referenceAlignment.add("http://www.example.com/entity_1", "http://www.loremIpsum.com/entity_a");
+        referenceAlignment.add("http://www.example.com/entity_2", "http://www.loremIpsum.com/entity_b");
+        referenceAlignment.add("http://www.example.com/entity_3", "http://www.loremIpsum.com/entity_c"); // fn
+        referenceAlignment.add("http://www.example.com/entity_6", "http://www.loremIpsum.com/entity_f", CorrespondenceRelation.UNKNOWN);
+
+        Alignment systemAlignment = new Alignment();
+        systemAlignment.add("http://www.example.com/entity_1", "http://www.loremIpsum.com/entity_a"); // tp
+        systemAlignment.add("http://www.example.com/entity_2", "http://www.loremIpsum.com/entity_b"); // tp
+        systemAlignment.add("http://www.example.com/entity_1", "http://www.loremIpsum.com/entity_c"); // fp (also in partial gold standard)
+        systemAlignment.add("http://www.example.com/entity_5", "http://www.loremIpsum.com/entity_z"); // fp (only in complete gold standard)
+        systemAlignment.add("http://www.example.com/entity_6", "http://www.loremIpsum.com/entity_f"); // ignored
+
+        for (GoldStandardCompleteness completeness : Arrays.asList(GoldStandardCompleteness.COMPLETE,
+                GoldStandardCompleteness.PARTIAL_SOURCE_COMPLETE_TARGET_COMPLETE)) {
+            ConfusionMatrix full = new ConfusionMatrixMetric().compute(referenceAlignment, systemAlignment, completeness);
+            ConfusionMatrix countOnly = new ConfusionMatrixMetric(true).compute(referenceAlignment, systemAlignment, completeness);
+            assertFalse(full.isCountOnly());
+            assertTrue(countOnly.isCountOnly());
+            assertEquals(full.getTruePositiveSize(), countOnly.getTruePositiveSize());
+            assertEquals(full.getFalsePositiveSize(), countOnly.getFalsePositiveSize());
+            assertEquals(full.getFalseNegativeSize(), countOnly.getFalseNegativeSize());
+            assertEquals(full.getNumberOfCorrespondences(), countOnly.getNumberOfCorrespondences());
+            assertEquals(full.getPrecision(), countOnly.getPrecision());
+            assertEquals(full.getRecall(), countOnly.getRecall());
+            assertThrows(IllegalStateException.class, () -> countOnly.getTruePositive());
+        }
+        ConfusionMatrix complete = new ConfusionMatrixMetric(true).compute(referenceAlignment, systemAlignment, GoldStandardCompleteness.COMPLETE);
+        assertEquals(2, complete.getTruePositiveSize());
+        assertEquals(2, complete.getFalsePositiveSize());
+        assertEquals(1, complete.getFalseNegativeSize());
+
+        ConfusionMatrixMetric metric = new ConfusionMatrixMetric(true);
+        ConfusionMatrix micro = metric.getMicroAverages(Arrays.asList(complete, complete));
+        assertTrue(micro.isCountOnly());
+        assertEquals(4, micro.getTruePositiveSize());
+        assertEquals(0.5, micro.getPrecision());
+        ConfusionMatrix macro = metric.getMacroAverages(Arrays.asList(complete, complete));
+        assertEquals(complete.getRecall(), macro.getRecall(), 0.0001);
+    }
+
     /**
      * This tests uses the 2018 alignment files for DOME and ALOD2Vec and evaluates them on the OAEI Anatomy data set
      * and compares the MELT results with those given on the Web Page (http://oaei.ontologymatching.org/2018/results/anatomy/index.html).
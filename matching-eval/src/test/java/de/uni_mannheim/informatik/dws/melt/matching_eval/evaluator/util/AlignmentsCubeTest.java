@@ -1,7 +1,31 @@
 package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.util;
 
+import de.uni_mannheim.informatik.dws.melt.matching_data.LocalTrack;
+import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
+import de.uni_mannheim.informatik.dws.melt.matching_data.Track;
 import de.uni_mannheim.informatik.dws.melt.matching_data.TrackRepository;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.explainer.ExplainerResourceProperty;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.commons.io.IOUtils;
+import org.apache.jena.vocabulary.RDFS;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -36,4 +60,57 @@ class AlignmentsCubeTest {
         String result2 = AlignmentsCube.cutAfterThirtyTwoThousandCharacters(hello);
         assertEquals(hello, result2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void writeComputesResourceFeaturesOnce(@TempDir Path tempDir) throws Exception {
+        URI cmt = new File("src/test/resources/cmt.owl").toURI();
+        URI conference = new File("src/test/resources/conference.owl").toURI();
+        URI reference = new File("src/test/resources/cmt-conference.rdf").toURI();
+        Track track = new LocalTrack("test", "1.0", tempDir.toFile());
+        TestCase first = new TestCase("first", cmt, conference, reference, track);
+        TestCase second = new TestCase("second", cmt, conference, reference, track);
+
+        Alignment alignment = new Alignment();
+        alignment.add("http://cmt#Paper", "http://conference#Paper");
+        alignment.add("http://cmt#Author", "http://conference#Contribution_1th-author");
+        alignment.add("http://cmt#Unknown", "http://conference#Unknown");
+
+        AtomicInteger calls = new AtomicInteger();
+        ExplainerResourceProperty explainer = new ExplainerResourceProperty() {
+            @Override
+            public Map<String, String> getResourceFeatures(String uri) {
+                calls.incrementAndGet();
+                return super.getResourceFeatures(uri);
+            }
+        };
+        explainer.add("Label", RDFS.label);
+
+        AlignmentsCube cube = new AlignmentsCube();
+        cube.setResourceExplainers(Arrays.asList(explainer));
+        for (TestCase testCase : Arrays.asList(first, second)) {
+            for (String matcher : Arrays.asList("matcherOne", "matcherTwo")) {
+                cube.getAnalyticalMappingInformation(testCase, matcher).addAll(alignment, "feature", "value");
+            }
+        }
+        cube.setNumberOfThreads(4);
+
+        StringWriter writer = new StringWriter();
+        cube.write(writer);
+        // 3 source and 3 target resources - each is explained once even though they appear in four cube components
+        assertEquals(6, calls.get());
+        List<CSVRecord> records = CSVParser.parse(writer.toString(), CSVFormat.DEFAULT).getRecords();
+        assertEquals(13, records.size());
+        for (CSVRecord record : records) {
+            assertEquals(cube.getHeader().size(), record.size());
+        }
+
+        File compressedDirectory = tempDir.resolve("compressed").toFile();
+        cube.setCompressOutput(true);
+        cube.write(compressedDirectory);
+        File compressedFile = new File(compressedDirectory, "alignmentCube.csv.gz");
+        assertTrue(compressedFile.exists());
+        try (Reader reader = new InputStreamReader(new GZIPInputStream(new FileInputStream(compressedFile)), StandardCharsets.UTF_8)) {
+            assertEquals(writer.toString(), IOUtils.toString(reader));
+        }
+    }
+}
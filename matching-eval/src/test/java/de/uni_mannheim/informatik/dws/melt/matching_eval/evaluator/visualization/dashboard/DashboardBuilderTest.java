@@ -5,8 +5,12 @@ import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResultSet;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.Executor;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.EvaluatorCSV;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -30,4 +34,31 @@ class DashboardBuilderTest {
         // clean up
         resultFile.delete();
     }
-}
\ No newline at end of file
+
+    @Test
+    void writeToChunkedFiles(@TempDir Path tempDir) throws Exception {
+        File csvFile = tempDir.resolve("alignmentCube.csv").toFile();
+        String csv = "Track,TestCase,Matcher,URI Left,Relation,Confidence (Matcher),URI Right,Evaluation Result\n" +
+                "conference,cmt-conference,matcher,http://cmt#A,=,1.0,http://conference#A,true positive\n" +
+                "conference,cmt-conference,matcher,http://cmt#B,=,1.0,http://conference#B,true positive\n" +
+                "conference,cmt-conference,matcher,http://cmt#C,=,0.5,http://conference#D,false positive\n";
+        Files.write(csvFile.toPath(), csv.getBytes(StandardCharsets.UTF_8));
+
+        DashboardBuilder builder = new DashboardBuilder(csvFile, "MELT Dashboard", "");
+        File htmlFile = tempDir.resolve("dashboard.html").toFile();
+        builder.writeToChunkedFiles(htmlFile, tempDir.resolve("data").toFile(), 1);
+
+        assertTrue(htmlFile.exists(), "No file was written.");
+        String html = new String(Files.readAllBytes(htmlFile.toPath()), StandardCharsets.UTF_8);
+        assertTrue(html.contains("load_chunked_data(\"data/dashboardData.json\""));
+        assertTrue(html.contains("http://cmt#C"), "The sample should be embedded.");
+        assertTrue(new File(tempDir.toFile(), "data/dashboardData.json").exists());
+        assertTrue(new File(tempDir.toFile(), "data/dashboardData_1.json").exists());
+
+        File aggregatedHtmlFile = tempDir.resolve("aggregated.html").toFile();
+        builder.writeToFileAggregated(aggregatedHtmlFile);
+        String aggregatedHtml = new String(Files.readAllBytes(aggregatedHtmlFile.toPath()), StandardCharsets.UTF_8);
+        assertTrue(aggregatedHtml.contains("conference,cmt-conference,matcher,=,true positive,1.00,2"));
+        assertTrue(aggregatedHtml.contains("crossfilter(allRecords)"), "The total count should be weighted.");
+    }
+}
@@ -0,0 +1,92 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.visualization.dashboard;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DashboardDataAggregatorTest {
+
+    private static String createCsv(int numberOfCorrespondences){
+        StringBuilder sb = new StringBuilder();
+        sb.append("Track,TestCase,Matcher,URI Left,Relation,Confidence (Matcher),URI Right,Evaluation Result\n");
+        for(int i = 0; i < numberOfCorrespondences; i++){
+            sb.append("conference,cmt-conference,")
+              .append(i % 2 == 0 ? "matcherOne" : "matcherTwo")
+              .append(",http://cmt#").append(i).append(",=,")
+              .append(i % 3 == 0 ? "0.901" : "0.5")
+              .append(",http://conference#").append(i).append(",")
+              .append(i % 4 == 0 ? "false positive" : "true positive")
+              .append("\n");
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void testAggregate() throws IOException {
+        DashboardDataAggregator aggregator = new DashboardDataAggregator(DashboardDataAggregator.DEFAULT_DIMENSIONS, 1, 10, 1234);
+        aggregator.aggregate(new StringReader(createCsv(120)));
+
+        assertEquals(120, aggregator.getNumberOfCorrespondences());
+        assertEquals(Arrays.asList("Track", "TestCase", "Matcher", "Relation", "Evaluation Result", "Confidence (Matcher)", "Count"),
+                aggregator.getColumns());
+
+        Map<List<String>, Long> rows = aggregator.getAggregatedRows();
+        long sum = 0;
+        for(Long count : rows.values()){
+            sum += count;
+        }
+        assertEquals(120, sum);
+        // i % 2 == 0, i % 3 == 0 and i % 4 == 0 -> i % 12 == 0
+        assertEquals(10L, rows.get(Arrays.asList("conference", "cmt-conference", "matcherOne", "=", "false positive", "0.9")));
+        // i % 2 == 1 and i % 3 != 0 -> 40 correspondences
+        assertEquals(40L, rows.get(Arrays.asList("conference", "cmt-conference", "matcherTwo", "=", "true positive", "0.5")));
+
+        assertEquals(10, aggregator.getSample().size());
+        for(List<String> sampled : aggregator.getSample()){
+            assertEquals(8, sampled.size());
+        }
+        assertTrue(aggregator.getSampleAsCsv().startsWith("Track,TestCase,Matcher,URI Left"));
+    }
+
+    @Test
+    void testWriteChunks(@TempDir Path tempDir) throws IOException {
+        DashboardDataAggregator aggregator = new DashboardDataAggregator();
+        aggregator.aggregate(new StringReader(createCsv(120)));
+        File manifestFile = aggregator.writeChunks(tempDir.toFile(), 3);
+
+        JSONObject manifest = new JSONObject(new String(Files.readAllBytes(manifestFile.toPath()), StandardCharsets.UTF_8));
+        assertEquals(120, manifest.getLong("numberOfCorrespondences"));
+        int numberOfRows = manifest.getInt("numberOfRows");
+        assertEquals(aggregator.getAggregatedRows().size(), numberOfRows);
+        JSONArray chunks = manifest.getJSONArray("chunks");
+        assertEquals((numberOfRows + 2) / 3, chunks.length());
+
+        long sum = 0;
+        int rows = 0;
+        for(int i = 0; i < chunks.length(); i++){
+            File chunkFile = new File(tempDir.toFile(), chunks.getString(i));
+            JSONObject chunk = new JSONObject(new String(Files.readAllBytes(chunkFile.toPath()), StandardCharsets.UTF_8));
+            JSONArray values = chunk.getJSONArray("values");
+            assertEquals(chunk.getJSONArray("columns").length(), values.length());
+            JSONArray counts = values.getJSONArray(values.length() - 1);
+            for(int j = 0; j < counts.length(); j++){
+                sum += counts.getLong(j);
+            }
+            rows += counts.length();
+        }
+        assertEquals(120, sum);
+        assertEquals(numberOfRows, rows);
+    }
+}
@@ -0,0 +1,113 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval.multisource;
+
+import de.uni_mannheim.informatik.dws.melt.matching_data.LocalTrack;
+import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
+import de.uni_mannheim.informatik.dws.melt.matching_data.Track;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrix;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrixMetric;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.AlignmentSerializer;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExecutionResultMultiSourceTest {
+
+    private static final String[] ONTOLOGIES = {"a", "b", "c"};
+
+    /**
+     * Partitioner which assigns a URI to an ontology based on its prefix.
+     */
+    private static class PrefixPartitioner implements Partitioner {
+        private final List<TestCase> testCases;
+
+        PrefixPartitioner(List<TestCase> testCases) {
+            this.testCases = testCases;
+        }
+
+        @Override
+        public Map<TestCase, SourceTargetURIs> partition(Collection<String> uris) {
+            Map<TestCase, SourceTargetURIs> map = new HashMap<>();
+            for(TestCase testCase : testCases){
+                SourceTargetURIs sourceTarget = new SourceTargetURIs();
+                for(String uri : uris){
+                    if(uri.startsWith(getPrefix(testCase.getSource().toString())))
+                        sourceTarget.addSourceURI(uri);
+                    if(uri.startsWith(getPrefix(testCase.getTarget().toString())))
+                        sourceTarget.addTargetURI(uri);
+                }
+                map.put(testCase, sourceTarget);
+            }
+            return map;
+        }
+    }
+
+    private static String getPrefix(String ontology){
+        return "http://" + ontology.substring(ontology.lastIndexOf('/') + 1) + "/";
+    }
+
+    private static String uri(String ontology, int i){
+        return "http://" + ontology + "/" + i;
+    }
+
+    @Test
+    void testClusterConfusionMatricesEqualMaterialized(@TempDir Path tempDir) throws IOException {
+        Random random = new Random(1234);
+        Track track = new LocalTrack("multisource", "1.0", tempDir.toFile());
+        List<TestCase> testCases = new ArrayList<>();
+        for(int i = 0; i < ONTOLOGIES.length; i++){
+            for(int j = i + 1; j < ONTOLOGIES.length; j++){
+                Alignment reference = new Alignment();
+                for(int k = 0; k < 30; k++){
+                    int target = random.nextInt(10) == 0 ? k + 1 : k;
+                    CorrespondenceRelation relation = random.nextInt(10) == 0 ? CorrespondenceRelation.UNKNOWN : CorrespondenceRelation.EQUIVALENCE;
+                    reference.add(uri(ONTOLOGIES[i], k), uri(ONTOLOGIES[j], target), 1.0, relation);
+                }
+                File referenceFile = tempDir.resolve(ONTOLOGIES[i] + "-" + ONTOLOGIES[j] + ".rdf").toFile();
+                AlignmentSerializer.serialize(reference, referenceFile);
+                testCases.add(new TestCase(ONTOLOGIES[i] + "-" + ONTOLOGIES[j],
+                        new File(tempDir.toFile(), ONTOLOGIES[i]).toURI(), new File(tempDir.toFile(), ONTOLOGIES[j]).toURI(),
+                        referenceFile.toURI(), track));
+            }
+        }
+
+        //system alignment which results in large clusters (chains over all ontologies)
+        Alignment system = new Alignment();
+        for(int k = 0; k < 30; k++){
+            system.add(uri("a", k), uri("b", random.nextInt(10) == 0 ? k + 1 : k));
+            system.add(uri("b", k), uri("c", k));
+            if(random.nextBoolean())
+                system.add(uri("a", k), uri("a", k + 2));
+        }
+
+        ExecutionResultMultiSource result = new ExecutionResultMultiSource(system, "matcher", testCases, 0, true, new PrefixPartitioner(testCases));
+        Map<TestCase, ConfusionMatrix> clusterMatrices = result.computeConfusionMatrices();
+        assertEquals(testCases.size(), clusterMatrices.size());
+
+        ConfusionMatrixMetric metric = new ConfusionMatrixMetric();
+        for(ExecutionResult executionResult : result.toExecutionResultSet()){
+            ConfusionMatrix expected = metric.compute(executionResult.getReferenceAlignment(),
+                    executionResult.getSystemAlignment(), executionResult.getTestCase().getGoldStandardCompleteness());
+            ConfusionMatrix actual = clusterMatrices.get(executionResult.getTestCase());
+            assertTrue(actual.isCountOnly());
+            assertEquals(expected.getTruePositiveSize(), actual.getTruePositiveSize());
+            assertEquals(expected.getFalsePositiveSize(), actual.getFalsePositiveSize());
+            assertEquals(expected.getFalseNegativeSize(), actual.getFalseNegativeSize());
+            assertEquals(expected.getNumberOfCorrespondences(), actual.getNumberOfCorrespondences());
+            assertEquals(expected.getPrecision(), actual.getPrecision(), 0.0001);
+            assertEquals(expected.getRecall(), actual.getRecall(), 0.0001);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval.paramtuning;
+
+import de.uni_mannheim.informatik.dws.melt.matching_data.GoldStandardCompleteness;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrix;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrixAggregationMode;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrixMetric;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfidenceSweepTest {
+
+    @Test
+    void testCurveEqualsCutAlignments() {
+        Random random = new Random(1234);
+        Alignment reference = new Alignment();
+        Alignment system = new Alignment();
+        for(int i = 0; i < 200; i++){
+            reference.add("http://source/" + i, "http://target/" + i);
+            if(random.nextBoolean())
+                system.add("http://source/" + i, "http://target/" + i, random.nextDouble());
+            if(random.nextBoolean())
+                system.add("http://source/" + i, "http://target/" + (i + 1), random.nextDouble());
+        }
+        for(GoldStandardCompleteness completeness : Arrays.asList(GoldStandardCompleteness.COMPLETE,
+                GoldStandardCompleteness.PARTIAL_SOURCE_COMPLETE_TARGET_COMPLETE)){
+            ConfidenceSweep sweep = new ConfidenceSweep(reference, system, completeness);
+            ConfusionMatrix full = new ConfusionMatrixMetric().compute(reference, system, completeness);
+            List<ConfidenceSweep.Point> curve = sweep.getCurve();
+            assertEquals(ConfidenceFinder.getOccurringConfidences(system, 2).size(), curve.size());
+            double lastThreshold = -1;
+            for(ConfidenceSweep.Point point : curve){
+                assertTrue(point.getThreshold() > lastThreshold);
+                lastThreshold = point.getThreshold();
+                int tpSize = full.getTruePositive().cut(point.getThreshold()).size();
+                int fpSize = full.getFalsePositive().cut(point.getThreshold()).size();
+                assertEquals(tpSize, point.getTruePositiveSize());
+                assertEquals(fpSize, point.getFalsePositiveSize());
+                assertEquals(full.getFalseNegativeSize() + full.getTruePositiveSize() - tpSize, point.getFalseNegativeSize());
+
+                ConfidenceSweep.Point single = sweep.getPoint(point.getThreshold());
+                assertEquals(point.getTruePositiveSize(), single.getTruePositiveSize());
+                assertEquals(point.getFalsePositiveSize(), single.getFalsePositiveSize());
+                assertEquals(point.getFalseNegativeSize(), single.getFalseNegativeSize());
+            }
+        }
+    }
+
+    @Test
+    void testAggregation() {
+        Alignment referenceOne = new Alignment();
+        referenceOne.add("A", "A");
+        referenceOne.add("B", "B");
+        Alignment systemOne = new Alignment();
+        systemOne.add("A", "A", 0.9);
+        systemOne.add("A", "B", 0.5);
+
+        Alignment referenceTwo = new Alignment();
+        referenceTwo.add("C", "C");
+        Alignment systemTwo = new Alignment();
+        systemTwo.add("C", "C", 0.5);
+
+        List<ConfidenceSweep> sweeps = Arrays.asList(
+                new ConfidenceSweep(referenceOne, systemOne, GoldStandardCompleteness.COMPLETE),
+                new ConfidenceSweep(referenceTwo, systemTwo, GoldStandardCompleteness.COMPLETE));
+
+        List<ConfidenceSweep.Point> micro = ConfidenceSweep.aggregate(sweeps, ConfusionMatrixAggregationMode.MICRO);
+        assertEquals(2, micro.size());
+        assertEquals(0.5, micro.get(0).getThreshold());
+        assertEquals(2, micro.get(0).getTruePositiveSize());
+        assertEquals(1, micro.get(0).getFalsePositiveSize());
+        assertEquals(1, micro.get(0).getFalseNegativeSize());
+        assertEquals(2.0 / 3.0, micro.get(0).getPrecision(), 0.0001);
+        assertEquals(2.0 / 3.0, micro.get(0).getRecall(), 0.0001);
+        assertEquals(0.9, micro.get(1).getThreshold());
+        assertEquals(1, micro.get(1).getTruePositiveSize());
+        assertEquals(0, micro.get(1).getFalsePositiveSize());
+        assertEquals(2, micro.get(1).getFalseNegativeSize());
+
+        List<ConfidenceSweep.Point> macro = ConfidenceSweep.aggregate(sweeps, ConfusionMatrixAggregationMode.MACRO);
+        // threshold 0.5: (0.5 + 1.0) / 2 precision and (0.5 + 1.0) / 2 recall
+        assertEquals(0.75, macro.get(0).getPrecision(), 0.0001);
+        assertEquals(0.75, macro.get(0).getRecall(), 0.0001);
+        // threshold 0.9: (1.0 + 0.0) / 2 precision and (0.5 + 0.0) / 2 recall
+        assertEquals(0.5, macro.get(1).getPrecision(), 0.0001);
+        assertEquals(0.25, macro.get(1).getRecall(), 0.0001);
+    }
+
+    @Test
+    void testEmptySystemAlignment() {
+        Alignment reference = new Alignment();
+        reference.add("A", "A");
+        ConfidenceSweep sweep = new ConfidenceSweep(reference, new Alignment(), GoldStandardCompleteness.COMPLETE);
+        assertTrue(sweep.getCurve().isEmpty());
+        assertEquals(1, sweep.getPoint(0.5).getFalseNegativeSize());
+        assertEquals(1.0, ConfidenceFinder.getBestConfidenceForFmeasure(reference, new Alignment(), GoldStandardCompleteness.COMPLETE));
+    }
+}
@@ -8,6 +8,7 @@ import de.uni_mannheim.informatik.dws.melt.matching_jena.MatcherYAAAJena;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -16,7 +17,12 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.jena.ontology.OntModel;
 import org.apache.jena.rdf.model.Resource;
@@ -52,6 +58,12 @@ public class ScalableStringProcessingMatcher extends MatcherYAAAJena {
     protected boolean earlyStopping = true;
     protected boolean crossIndexMatch = false;
     
+    /**
+     * The number of threads which are used to index the source and probe the target resources.
+     * One (the default) means that everything is computed sequentially in the calling thread.
+     */
+    protected int numberOfThreads = 1;
+    
     /**
      * A list of fucntions which gets an ontModel and returns an iterator over elements which should be matched like classes, instances, proeprties etc.
      */
@@ -102,127 +114,266 @@ public class ScalableStringProcessingMatcher extends MatcherYAAAJena {
     
     
     public void matchResources(Iterator<? extends Resource> sourceResources, Iterator<? extends Resource> targetResources, Alignment alignment) {
+        if(numberOfThreads > 1){
+            matchResourcesParallel(sourceResources, targetResources, alignment);
+            return;
+        }
         //processing -> tokens/ids -> (list of resources)
         Map<PropertySpecificStringProcessingMultipleReturn, Map<Object, Set<String>>> index = new HashMap<>();
         
-
         //source
         while (sourceResources.hasNext()) {
             Resource source = sourceResources.next();
             if(source.isURIResource() == false)
                 continue;
-            String sourceURI = source.getURI();            
-            Map<TextExtractor, Set<String>> valueMap = extractAllValues(source);
-            for(PropertySpecificStringProcessingMultipleReturn processing : this.processingElements){
-                Map<Object, Set<String>> tokenIndex = index.computeIfAbsent(processing, k->new HashMap<>());
-                for(String sourceLabels : getLiterals(processing, valueMap)){
-                    if(StringUtils.isBlank(sourceLabels))
-                        continue;
-                    for(Object o : processing.getProcessing().apply(sourceLabels)){
-                        if(isObjectEmpty(o) == false)
-                            tokenIndex.computeIfAbsent(o, k-> new HashSet<>()).add(sourceURI);
-                    }
-                }
-            }
+            addToIndex(source, index);
         }
         
         Map<PropertySpecificStringProcessingMultipleReturn, ITransducer> levenshteinIndex = buildLevenshteinIndex(index);
         
+        Set<Object> searchObjects = new HashSet<>();
         while (targetResources.hasNext()) {
             Resource target = targetResources.next();
             if(target.isURIResource() == false)
                 continue;
             String targetURI = target.getURI();
+            probe(target, index, levenshteinIndex, searchObjects, (sourceURI, confidence) -> {
+                Correspondence c = alignment.addOrUseHighestConfidence(sourceURI, targetURI, confidence);
+                c.addAdditionalConfidenceIfHigher(this.getClass(), confidence);
+            });
+        }
+    }
+    
+    /**
+     * Parallel version of {@link #matchResources(Iterator, Iterator, Alignment)} which is used if the number of threads is greater than one.
+     * The source resources are split into shards which are indexed concurrently and merged per processing afterwards.
+     * The target resources are probed concurrently and each target collects its candidates in its own buffer.
+     * The candidates are added to the alignment in the order of the target resources, thus the alignment is the same as in the sequential mode.
+     * The values of the resources are extracted concurrently which requires that the models can be read from multiple threads (like Jena in-memory models without inference).
+     * @param sourceResources the source resources
+     * @param targetResources the target resources
+     * @param alignment the alignment to which the correspondences are added
+     */
+    protected void matchResourcesParallel(Iterator<? extends Resource> sourceResources, Iterator<? extends Resource> targetResources, Alignment alignment) {
+        List<Resource> sources = collectURIResources(sourceResources);
+        List<Resource> targets = collectURIResources(targetResources);
+        ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+        try{
+            //source: one index per shard
+            List<List<Resource>> shards = new ArrayList<>();
+            int shardSize = Math.max(1, (sources.size() + numberOfThreads * 4 - 1) / (numberOfThreads * 4));
+            for(int i = 0; i < sources.size(); i += shardSize){
+                shards.add(sources.subList(i, Math.min(sources.size(), i + shardSize)));
+            }
+            List<Map<PropertySpecificStringProcessingMultipleReturn, Map<Object, Set<String>>>> shardIndexes = runInPool(pool, () -> 
+                shards.parallelStream().map(shard -> {
+                    Map<PropertySpecificStringProcessingMultipleReturn, Map<Object, Set<String>>> shardIndex = new HashMap<>();
+                    for(Resource source : shard){
+                        addToIndex(source, shardIndex);
+                    }
+                    return shardIndex;
+                }).collect(Collectors.toList()));
             
-            Map<TextExtractor, Set<String>> valueMap = extractAllValues(target);
+            //merge the shards (one task per processing)
+            List<PropertySpecificStringProcessingMultipleReturn> processings = new ArrayList<>();
             for(PropertySpecificStringProcessingMultipleReturn processing : this.processingElements){
-                Map<Object, Set<String>> tokenIndex = index.get(processing);
-                if(tokenIndex == null)
+                if(shardIndexes.stream().anyMatch(shardIndex -> shardIndex.containsKey(processing)) && processings.contains(processing) == false)
+                    processings.add(processing);
+            }
+            List<Map<Object, Set<String>>> mergedIndexes = runInPool(pool, () -> 
+                processings.parallelStream().map(processing -> {
+                    Map<Object, Set<String>> tokenIndex = new HashMap<>();
+                    for(Map<PropertySpecificStringProcessingMultipleReturn, Map<Object, Set<String>>> shardIndex : shardIndexes){
+                        for(Entry<Object, Set<String>> entry : shardIndex.getOrDefault(processing, Collections.emptyMap()).entrySet()){
+                            tokenIndex.computeIfAbsent(entry.getKey(), k-> new HashSet<>()).addAll(entry.getValue());
+                        }
+                    }
+                    return tokenIndex;
+                }).collect(Collectors.toList()));
+            shardIndexes.clear();
+            Map<PropertySpecificStringProcessingMultipleReturn, Map<Object, Set<String>>> index = new HashMap<>();
+            for(int i = 0; i < processings.size(); i++){
+                index.put(processings.get(i), mergedIndexes.get(i));
+            }
+            
+            List<PropertySpecificStringProcessingMultipleReturn> levenshteinProcessings = getLevenshteinProcessings();
+            List<ITransducer> transducers = runInPool(pool, () -> 
+                levenshteinProcessings.parallelStream()
+                    .map(processing -> buildLevenshteinTransducer(processing, index.getOrDefault(processing, Collections.emptyMap())))
+                    .collect(Collectors.toList()));
+            Map<PropertySpecificStringProcessingMultipleReturn, ITransducer> levenshteinIndex = new HashMap<>();
+            for(int i = 0; i < levenshteinProcessings.size(); i++){
+                levenshteinIndex.put(levenshteinProcessings.get(i), transducers.get(i));
+            }
+            
+            //target: each target collects its candidates (source URI -> highest confidence)
+            ThreadLocal<Set<Object>> searchObjects = ThreadLocal.withInitial(HashSet::new);
+            List<Map<String, Double>> candidates = runInPool(pool, () -> 
+                targets.parallelStream().map(target -> {
+                    Map<String, Double> targetCandidates = new HashMap<>();
+                    probe(target, index, levenshteinIndex, searchObjects.get(), 
+                            (sourceURI, confidence) -> targetCandidates.merge(sourceURI, confidence, Math::max));
+                    return targetCandidates.isEmpty() ? Collections.<String, Double>emptyMap() : targetCandidates;
+                }).collect(Collectors.toList()));
+            
+            for(int i = 0; i < targets.size(); i++){
+                String targetURI = targets.get(i).getURI();
+                for(Entry<String, Double> candidate : candidates.get(i).entrySet()){
+                    Correspondence c = alignment.addOrUseHighestConfidence(candidate.getKey(), targetURI, candidate.getValue());
+                    c.addAdditionalConfidenceIfHigher(this.getClass(), candidate.getValue());
+                }
+            }
+        }finally{
+            pool.shutdown();
+        }
+    }
+    
+    private static List<Resource> collectURIResources(Iterator<? extends Resource> resources){
+        List<Resource> list = new ArrayList<>();
+        while (resources.hasNext()) {
+            Resource r = resources.next();
+            if(r.isURIResource())
+                list.add(r);
+        }
+        return list;
+    }
+    
+    private static <T> T runInPool(ForkJoinPool pool, Callable<T> task){
+        try {
+            return pool.submit(task).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while matching resources in parallel.", ex);
+        } catch (ExecutionException ex) {
+            if(ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            throw new IllegalStateException("Could not match resources in parallel.", ex.getCause());
+        }
+    }
+    
+    /**
+     * Adds the values of the given source resource to the index.
+     * @param source the source resource (needs to be a URI resource)
+     * @param index the index (processing -&gt; tokens/ids -&gt; source URIs)
+     */
+    private void addToIndex(Resource source, Map<PropertySpecificStringProcessingMultipleReturn, Map<Object, Set<String>>> index){
+        String sourceURI = source.getURI();
+        Map<TextExtractor, Set<String>> valueMap = extractAllValues(source);
+        for(PropertySpecificStringProcessingMultipleReturn processing : this.processingElements){
+            Map<Object, Set<String>> tokenIndex = index.computeIfAbsent(processing, k->new HashMap<>());
+            for(String sourceLabels : getLiterals(processing, valueMap)){
+                if(StringUtils.isBlank(sourceLabels))
+                    continue;
+                for(Object o : processing.getProcessing().apply(sourceLabels)){
+                    if(isObjectEmpty(o) == false)
+                        tokenIndex.computeIfAbsent(o, k-> new HashSet<>()).add(sourceURI);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Searches the index for the values of the given target resource.
+     * @param target the target resource (needs to be a URI resource)
+     * @param index the index (processing -&gt; tokens/ids -&gt; source URIs)
+     * @param levenshteinIndex the transducers for all processings with levenshtein distance
+     * @param searchObjects buffer which is reused for the search objects (it is cleared before each use)
+     * @param candidateConsumer gets all matching source URIs together with the confidence
+     */
+    private void probe(Resource target, Map<PropertySpecificStringProcessingMultipleReturn, Map<Object, Set<String>>> index, 
+            Map<PropertySpecificStringProcessingMultipleReturn, ITransducer> levenshteinIndex, Set<Object> searchObjects, 
+            ObjDoubleConsumer<String> candidateConsumer){
+        Map<TextExtractor, Set<String>> valueMap = extractAllValues(target);
+        for(PropertySpecificStringProcessingMultipleReturn processing : this.processingElements){
+            Map<Object, Set<String>> tokenIndex = index.get(processing);
+            if(tokenIndex == null)
+                continue;
+            boolean findMatch = false;
+            for(String targetLabel : getLiterals(processing, valueMap)){
+                if(StringUtils.isBlank(targetLabel))
                     continue;
-                boolean findMatch = false;
-                for(String targetLabel : getLiterals(processing, valueMap)){
-                    if(StringUtils.isBlank(targetLabel))
+                for(Object o : processing.getProcessing().apply(targetLabel)){
+                    searchObjects.clear();
+                    if(o == null)
                         continue;
-                    for(Object o : processing.getProcessing().apply(targetLabel)){
-                        Set<Object> searchObjects = new HashSet<>();
-                        if(o == null)
+                    if(o instanceof String){
+                        String oString = (String)o;
+                        if(StringUtils.isBlank(oString))
                             continue;
-                        if(o instanceof String){
-                            String oString = (String)o;
-                            if(StringUtils.isBlank(oString))
-                                continue;
-                            searchObjects.add(o);
-                            ITransducer transducer = levenshteinIndex.get(processing);
-                            if(transducer != null){
-                                for(Object s : transducer.transduce(oString)){
-                                    searchObjects.add(s);
-                                }
+                        searchObjects.add(o);
+                        ITransducer transducer = levenshteinIndex.get(processing);
+                        if(transducer != null){
+                            for(Object s : transducer.transduce(oString)){
+                                searchObjects.add(s);
                             }
-                        }else{
-                            searchObjects.add(o);
                         }
+                    }else{
+                        searchObjects.add(o);
+                    }
 
-                        if(crossIndexMatch){
-                            for(Entry<PropertySpecificStringProcessingMultipleReturn, Map<Object, Set<String>>> entry: index.entrySet()){
-                                tokenIndex = entry.getValue();
-                                //use min confidence of index processing and query processing
-                                double confidence = Math.min(processing.getConfidence(), entry.getKey().getConfidence());
-                                for(Object object : searchObjects){
-                                    for(String sourceURI : tokenIndex.getOrDefault(object, new HashSet<>())){
-                                        findMatch = true;
-                                        Correspondence c = alignment.addOrUseHighestConfidence(sourceURI, targetURI, confidence);
-                                        c.addAdditionalConfidenceIfHigher(this.getClass(), confidence);
-                                    }
-                                }
-                            }
-                        }else{
+                    if(crossIndexMatch){
+                        for(Entry<PropertySpecificStringProcessingMultipleReturn, Map<Object, Set<String>>> entry: index.entrySet()){
+                            //use min confidence of index processing and query processing
+                            double confidence = Math.min(processing.getConfidence(), entry.getKey().getConfidence());
                             for(Object object : searchObjects){
-                                for(String sourceURI : tokenIndex.getOrDefault(object, new HashSet<>())){
+                                for(String sourceURI : entry.getValue().getOrDefault(object, Collections.emptySet())){
                                     findMatch = true;
-                                    Correspondence c = alignment.addOrUseHighestConfidence(sourceURI, targetURI, processing.getConfidence());
-                                    c.addAdditionalConfidenceIfHigher(this.getClass(), processing.getConfidence());
+                                    candidateConsumer.accept(sourceURI, confidence);
                                 }
                             }
                         }
+                    }else{
+                        for(Object object : searchObjects){
+                            for(String sourceURI : tokenIndex.getOrDefault(object, Collections.emptySet())){
+                                findMatch = true;
+                                candidateConsumer.accept(sourceURI, processing.getConfidence());
+                            }
+                        }
                     }
                 }
-                if(findMatch && earlyStopping)
-                    break;
             }
+            if(findMatch && earlyStopping)
+                break;
         }
     }
     
-    private Map<PropertySpecificStringProcessingMultipleReturn, ITransducer> buildLevenshteinIndex(Map<PropertySpecificStringProcessingMultipleReturn,Map<Object, Set<String>>> index){
+    private List<PropertySpecificStringProcessingMultipleReturn> getLevenshteinProcessings(){
         //choose all processing with levenshtein
-        Set<PropertySpecificStringProcessingMultipleReturn> levenshteinProcessings = new HashSet();
+        List<PropertySpecificStringProcessingMultipleReturn> levenshteinProcessings = new ArrayList<>();
         for(PropertySpecificStringProcessingMultipleReturn processing : this.processingElements){
-            if(processing.getMaxLevenshteinDistance() > 0){
+            if(processing.getMaxLevenshteinDistance() > 0 && levenshteinProcessings.contains(processing) == false){
                 levenshteinProcessings.add(processing);
             }
         }
-        
+        return levenshteinProcessings;
+    }
+    
+    private Map<PropertySpecificStringProcessingMultipleReturn, ITransducer> buildLevenshteinIndex(Map<PropertySpecificStringProcessingMultipleReturn,Map<Object, Set<String>>> index){
         Map<PropertySpecificStringProcessingMultipleReturn, ITransducer> levenshteinIndex = new HashMap<>();
-        for(PropertySpecificStringProcessingMultipleReturn processsing : levenshteinProcessings){
-            List<String> texts = new ArrayList<>();
-            int minLength = processsing.getMinLengthForLevenshtein();
-            for(Object o : index.getOrDefault(processsing, new HashMap()).keySet()){
-                if(o instanceof String){
-                    String text = (String)o;
-                    if(text.length() > minLength){
-                        texts.add(text);
-                    }
+        for(PropertySpecificStringProcessingMultipleReturn processsing : getLevenshteinProcessings()){
+            levenshteinIndex.put(processsing, buildLevenshteinTransducer(processsing, index.getOrDefault(processsing, new HashMap<>())));
+        }
+        return levenshteinIndex;
+    }
+    
+    private ITransducer buildLevenshteinTransducer(PropertySpecificStringProcessingMultipleReturn processsing, Map<Object, Set<String>> tokenIndex){
+        List<String> texts = new ArrayList<>();
+        int minLength = processsing.getMinLengthForLevenshtein();
+        for(Object o : tokenIndex.keySet()){
+            if(o instanceof String){
+                String text = (String)o;
+                if(text.length() > minLength){
+                    texts.add(text);
                 }
             }
-            ITransducer transducer = new TransducerBuilder()
-                .dictionary(texts)
-                .isSorted(false)
-                .algorithm(Algorithm.TRANSPOSITION)
-                .defaultMaxDistance(processsing.getMaxLevenshteinDistance())
-                .includeDistance(false)
-                .build();
-            levenshteinIndex.put(processsing, transducer);
         }
-        return levenshteinIndex;
+        return new TransducerBuilder()
+            .dictionary(texts)
+            .isSorted(false)
+            .algorithm(Algorithm.TRANSPOSITION)
+            .defaultMaxDistance(processsing.getMaxLevenshteinDistance())
+            .includeDistance(false)
+            .build();
     }
     
     
@@ -293,6 +444,24 @@ public class ScalableStringProcessingMatcher extends MatcherYAAAJena {
         this.crossIndexMatch = crossIndexMatch;
     }
     
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Sets the number of threads which are used to index the source and probe the target resources.
+     * The alignment is the same as in the sequential mode (number of threads is one).
+     * If the number of threads is greater than one, the processing functions and the text extractors of all
+     * {@link PropertySpecificStringProcessingMultipleReturn} are called from multiple threads at the same time and thus
+     * need to be thread-safe. The models need to be readable from multiple threads as well (e.g. in-memory models without inference).
+     * @param numberOfThreads the number of threads (at least one)
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        if(numberOfThreads < 1)
+            throw new IllegalArgumentException("The number of threads has to be at least one.");
+        this.numberOfThreads = numberOfThreads;
+    }
+    
     /**
      * Adds a function which gets an ontModel and returns an iterator over elements which should be matched like classes, instances, properties etc.
      * @param f a function which gets an ontModel and returns an iterator over elements which should be matched
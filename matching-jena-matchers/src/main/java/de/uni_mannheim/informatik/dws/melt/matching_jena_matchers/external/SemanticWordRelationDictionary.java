@@ -142,23 +142,11 @@ public abstract class SemanticWordRelationDictionary implements ExternalResource
 			// only if both are null b/c one concept might not have synonyms but still be a synonym of the other concept
 			return false;
 		}
-		if(synonyms1 == null) {
-			synonyms1 = new HashSet<>();
-		}
-		if(synonyms2 == null) {
-			synonyms2 = new HashSet<>();
-		}
-
-		// add the words themselves
-		synonyms1.add(link1);
-		synonyms2.add(link2);
-
-		// remove empty strings to avoid false positives
-		synonyms1.remove("");
-		synonyms2.remove("");
-
-		if(synonyms1.contains(link2)) return true;
-		if(synonyms2.contains(link1)) return true;
+		// the words themselves are synonyms as well; the (possibly buffered) synonym sets are not modified
+		// because they may be shared with other threads
+		if(link1.equals(link2)) return link1.length() > 0;
+		if(synonyms1 != null && link2.length() > 0 && synonyms1.contains(link2)) return true;
+		if(synonyms2 != null && link1.length() > 0 && synonyms2.contains(link1)) return true;
 
 		return false;
 	}
@@ -0,0 +1,20 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external;
+
+import java.util.Set;
+
+/**
+ * Interface for external resources that can compute keys for linked concepts such that two concepts can only be
+ * strong form synonymous (see {@link SynonymCapability#isStrongFormSynonymous(String, String)}) if their key sets
+ * overlap. Matchers can use the keys to build an inverted index instead of comparing all pairs of concepts.
+ */
+public interface SynonymKeyCapability {
+
+
+    /**
+     * Get the synonymy keys of a linked concept. Usually these are the linked concept itself together with its synonyms.
+     *
+     * @param linkedConcept Linked concept.
+     * @return The set of keys (never null).
+     */
+    Set<String> getSynonymKeys(String linkedConcept);
+}
@@ -4,7 +4,10 @@ import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.Label
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.Language;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.SemanticWordRelationDictionary;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence.PersistenceService;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.sparql.SparqlBatchLookup;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.sparql.SparqlServices;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
 import org.apache.jena.query.*;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.shared.Lock;
@@ -14,7 +17,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -38,6 +47,33 @@ public class DBpediaKnowledgeSource extends SemanticWordRelationDictionary {
      */
     private static final String ENDPOINT_URL = "https://dbpedia.org/sparql";
 
+    /**
+     * Pattern for {@link SparqlBatchLookup} to retrieve the lexical synonyms (see {@link #getSynonymsLexicalQuery(String)}).
+     */
+    private static final String SYNONYMS_LEXICAL_PATTERN = "{ ?key <http://www.w3.org/2000/01/rdf-schema#label> ?value }\n" +
+            "  UNION { ?key <http://xmlns.com/foaf/0.1/name> ?value }\n" +
+            "  UNION { ?key <http://dbpedia.org/property/name> ?value }\n" +
+            "  UNION { ?key <http://dbpedia.org/property/otherNames> ?value }\n" +
+            "  UNION { ?key <http://dbpedia.org/ontology/alias> ?value }\n" +
+            "  FILTER(isLiteral(?value))";
+
+    /**
+     * Pattern for {@link SparqlBatchLookup} to retrieve the hypernyms (see {@link #getHypernymsQuery(String)}).
+     */
+    private static final String HYPERNYMS_PATTERN = "{ ?key <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> ?value }\n" +
+            "  UNION { ?key <http://dbpedia.org/ontology/type> ?value }\n" +
+            "  FILTER(isIRI(?value))";
+
+    /**
+     * Batched lookup of synonyms for the SPARQL endpoint (concurrent requests are sent together).
+     */
+    private SparqlBatchLookup synonymsLexicalLookup = new SparqlBatchLookup(SparqlBatchLookup.endpoint(ENDPOINT_URL), SYNONYMS_LEXICAL_PATTERN);
+
+    /**
+     * Batched lookup of hypernyms for the SPARQL endpoint (concurrent requests are sent together).
+     */
+    private SparqlBatchLookup hypernymsLookup = new SparqlBatchLookup(SparqlBatchLookup.endpoint(ENDPOINT_URL), HYPERNYMS_PATTERN);
+
     private String name = "DBpedia";
 
     private DBpediaLinker linker;
@@ -254,25 +290,23 @@ public class DBpediaKnowledgeSource extends SemanticWordRelationDictionary {
         }
         String key = linkedConcept + "_syns_lexical";
         if (synonymyBuffer.containsKey(key)) {
-            return synonymyBuffer.get(key);
+            // a copy such that callers cannot change the buffer
+            return new HashSet<>(synonymyBuffer.get(key));
         }
-        String queryString = getSynonymsLexicalQuery(linkedConcept);
-        QueryExecution queryExecution;
         if(isUseTdb){
+            String queryString = getSynonymsLexicalQuery(linkedConcept);
             tdbModel.enterCriticalSection(Lock.READ);
-            queryExecution = QueryExecutionFactory.create(queryString, tdbModel);
-        } else {
-            queryExecution = QueryExecutionFactory.sparqlService(getEndpointUrl(), queryString);
-        }
-        ResultSet resultSet = SparqlServices.safeExecution(queryExecution);
-        while(resultSet.hasNext()){
-            QuerySolution solution = resultSet.next();
-            String label = solution.getLiteral("l").getLexicalForm();
-            result.add(label);
-        }
-        queryExecution.close();
-        if(isUseTdb){
+            QueryExecution queryExecution = QueryExecutionFactory.create(queryString, tdbModel);
+            ResultSet resultSet = SparqlServices.safeExecution(queryExecution);
+            while(resultSet.hasNext()){
+                QuerySolution solution = resultSet.next();
+                String label = solution.getLiteral("l").getLexicalForm();
+                result.add(label);
+            }
+            queryExecution.close();
             tdbModel.leaveCriticalSection();
+        } else {
+            result.addAll(lookupUris(synonymsLexicalLookup, linker.getUris(linkedConcept)));
         }
         result.remove("");
         synonymyBuffer.put(key, result);
@@ -379,32 +413,120 @@ public class DBpediaKnowledgeSource extends SemanticWordRelationDictionary {
             result.removeAll(getExcludedHypernyms());
             return result;
         }
-        String queryString = getHypernymsQuery(linkedConcept);
-        QueryExecution queryExecution;
-
         if(isUseTdb){
+            String queryString = getHypernymsQuery(linkedConcept);
             tdbModel.enterCriticalSection(Lock.READ);
-            queryExecution = QueryExecutionFactory.create(queryString, tdbModel);
+            QueryExecution queryExecution = QueryExecutionFactory.create(queryString, tdbModel);
+            ResultSet queryResult = SparqlServices.safeExecution(queryExecution);
+            while(queryResult.hasNext()){
+                QuerySolution solution = queryResult.next();
+                String hypernym = solution.getResource("c").getURI();
+                result.add(hypernym);
+            }
+            queryExecution.close();
+            tdbModel.leaveCriticalSection();
         } else {
-            queryExecution = QueryExecutionFactory.sparqlService(getEndpointUrl(), queryString);
+            result.addAll(lookupUris(hypernymsLookup, linker.getUris(linkedConcept)));
+        }
+
+        // we add to the buffer before excluding hypernyms (a copy because the result is changed afterwards)
+        hypernymyBuffer.put(key, new HashSet<>(result));
+        commitAll();
+
+        result.removeAll(getExcludedHypernyms());
+        return result;
+    }
+
+    /**
+     * Obtains the lexical synonyms of many linked concepts. In case of the SPARQL endpoint, all concepts which are not
+     * buffered yet are retrieved with few batched requests and added to the synonymy buffer.
+     * @param linkedConcepts The linked concepts (URIs or multi concept links).
+     * @return A map from each linked concept to its synonyms.
+     */
+    public Map<String, Set<String>> getSynonymsLexical(Collection<String> linkedConcepts) {
+        if(!isUseTdb) {
+            prefetch(linkedConcepts, synonymsLexicalLookup, synonymyBuffer, "_syns_lexical", true);
+        }
+        Map<String, Set<String>> result = new HashMap<>();
+        for(String linkedConcept : linkedConcepts){
+            result.put(linkedConcept, getSynonymsLexical(linkedConcept));
         }
+        return result;
+    }
 
-        ResultSet queryResult = SparqlServices.safeExecution(queryExecution);
-        while(queryResult.hasNext()){
-            QuerySolution solution = queryResult.next();
-            String hypernym = solution.getResource("c").getURI();
-            result.add(hypernym);
+    /**
+     * Obtains the hypernyms of many linked concepts. In case of the SPARQL endpoint, all concepts which are not
+     * buffered yet are retrieved with few batched requests and added to the hypernymy buffer.
+     * @param linkedConcepts The linked concepts (URIs or multi concept links).
+     * @return A map from each linked concept to its hypernyms (without the excluded hypernyms).
+     */
+    public Map<String, Set<String>> getHypernyms(Collection<String> linkedConcepts) {
+        if(!isUseTdb) {
+            prefetch(linkedConcepts, hypernymsLookup, hypernymyBuffer, "", false);
         }
-        queryExecution.close();
-        if(isUseTdb){
-            tdbModel.leaveCriticalSection();
+        Map<String, Set<String>> result = new HashMap<>();
+        for(String linkedConcept : linkedConcepts){
+            result.put(linkedConcept, getHypernyms(linkedConcept));
         }
+        return result;
+    }
 
-        // we add to the buffer before excluding hypernyms
-        hypernymyBuffer.put(key, result);
+    /**
+     * Requests the values of all linked concepts which are not in the buffer with one batched lookup and adds them to the buffer.
+     * @param linkedConcepts The linked concepts (URIs or multi concept links).
+     * @param lookup The lookup to use.
+     * @param buffer The buffer.
+     * @param keySuffix The suffix which is appended to the linked concept to form the buffer key.
+     * @param removeEmptyString True if empty strings shall be removed from the values.
+     */
+    private void prefetch(Collection<String> linkedConcepts, SparqlBatchLookup lookup, ConcurrentMap<String, Set<String>> buffer,
+                          String keySuffix, boolean removeEmptyString){
+        Map<String, Set<String>> urisPerConcept = new HashMap<>();
+        List<Node> uris = new ArrayList<>();
+        for(String linkedConcept : linkedConcepts){
+            if(linkedConcept == null || linkedConcept.equals("") || buffer.containsKey(linkedConcept + keySuffix)
+                    || urisPerConcept.containsKey(linkedConcept))
+                continue;
+            Set<String> conceptUris = linker.getUris(linkedConcept);
+            urisPerConcept.put(linkedConcept, conceptUris);
+            for(String uri : conceptUris){
+                uris.add(NodeFactory.createURI(uri));
+            }
+        }
+        if(urisPerConcept.isEmpty())
+            return;
+        Map<Node, Set<String>> values = lookup.lookupAll(uris);
+        for(Map.Entry<String, Set<String>> entry : urisPerConcept.entrySet()){
+            Set<String> result = new HashSet<>();
+            for(String uri : entry.getValue()){
+                result.addAll(values.getOrDefault(NodeFactory.createURI(uri), Collections.emptySet()));
+            }
+            if(removeEmptyString)
+                result.remove("");
+            buffer.put(entry.getKey() + keySuffix, result);
+        }
         commitAll();
+    }
 
-        result.removeAll(getExcludedHypernyms());
+    /**
+     * Looks up the values of the given URIs and returns the union.
+     * @param lookup The lookup to use.
+     * @param uris The URIs.
+     * @return The union of all values.
+     */
+    private static Set<String> lookupUris(SparqlBatchLookup lookup, Set<String> uris){
+        if(uris.size() == 1){
+            // a single concept is coalesced with concurrent requests
+            return lookup.lookup(NodeFactory.createURI(uris.iterator().next()));
+        }
+        List<Node> nodes = new ArrayList<>();
+        for(String uri : uris){
+            nodes.add(NodeFactory.createURI(uri));
+        }
+        Set<String> result = new HashSet<>();
+        for(Set<String> values : lookup.lookupAll(nodes).values()){
+            result.addAll(values);
+        }
         return result;
     }
 
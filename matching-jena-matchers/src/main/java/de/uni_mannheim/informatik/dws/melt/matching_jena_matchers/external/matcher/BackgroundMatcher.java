@@ -5,6 +5,7 @@ import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.Exter
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.LabelToConceptLinker;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.SemanticWordRelationDictionary;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.SynonymConfidenceCapability;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.SynonymKeyCapability;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.embeddings.GensimEmbeddingModel;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.io.IOoperations;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.stringOperations.StringOperations;
@@ -15,10 +16,16 @@ import org.apache.jena.ontology.OntModel;
 import org.apache.jena.ontology.OntResource;
 import org.apache.jena.util.iterator.ExtendedIterator;
 import org.javatuples.Pair;
+import org.javatuples.Triplet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.matcher.BackgroundMatcherTools.getURIlabelMap;
 import de.uni_mannheim.informatik.dws.melt.matching_jena.TextExtractor;
@@ -100,6 +107,23 @@ public class BackgroundMatcher extends MatcherYAAAJena {
      */
     private final boolean isSynonymyConfidenceAvailable;
 
+    /**
+     * If true and the knowledge source has the {@link SynonymKeyCapability}, the synonymy strategy only compares
+     * resources which share at least one synonymy key (inverted index) instead of comparing all pairs of resources.
+     */
+    private boolean isUseCandidateIndex = true;
+
+    /**
+     * The number of threads which are used to compare the candidate pairs.
+     * Values greater than one require a thread safe knowledge source and linker.
+     */
+    private int numberOfThreads = 1;
+
+    /**
+     * Marker key for empty token or link sets (two empty sets are synonymous).
+     */
+    private static final String EMPTY_SET_KEY = "\u0000empty";
+
     /**
      * Main Constructor
      *
@@ -229,24 +253,28 @@ public class BackgroundMatcher extends MatcherYAAAJena {
         Map<String, Set<String>> uris2linksTarget_2 = convertToUriLinkMap(uri2labelMap_2, false);
         LOGGER.info("BuildingMap finished: Uri -> Link Map");
 
-        for (Map.Entry<String, Set<String>> uri2linksSource_1 : uris2linksSource_1.entrySet()) {
-            for (Map.Entry<String, Set<String>> uri2linksTarget_2 : uris2linksTarget_2.entrySet()) {
-                Pair<Boolean, Double> isMatchConfidencePair =
-                        fullMatchUsingDictionaryWithLinks(uri2linksSource_1.getValue(), uri2linksTarget_2.getValue());
-                if (isMatchConfidencePair.getValue0()) {
-                    Map<String, Object> extensions = new HashMap<>();
-                    extensions.put("http://custom#addedInStep", "performFullStringSynonymyMatching()");
-                    double confidence = isMatchConfidencePair.getValue1();
-                    alignment.add(uri2linksSource_1.getKey(), uri2linksTarget_2.getKey(), confidence,
-                            CorrespondenceRelation.EQUIVALENCE, extensions);
-                    if (isVerboseLoggingOutput) {
-                        LOGGER.info(uri2linksSource_1.getKey() + " " + uri2linksTarget_2.getKey() + " (full word synonymy match)");
-                        LOGGER.info(uri2linksSource_1.getKey() + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_1.get(uri2linksSource_1.getKey())) + ")");
-                        LOGGER.info(uri2linksTarget_2.getKey() + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_2.get(uri2linksTarget_2.getKey())) + ")");
+        List<Triplet<String, String, Double>> matches = findMatches(uris2linksSource_1, uris2linksTarget_2,
+                links -> {
+                    Set<String> keys = new HashSet<>();
+                    for (String link : links) {
+                        if (link.length() < 100) {
+                            keys.addAll(getSynonymKeys(link));
+                        }
                     }
-                }
-            } // end of target ontology loop
-        } // end of source ontology loop
+                    return keys;
+                },
+                this::fullMatchUsingDictionaryWithLinks);
+        for (Triplet<String, String, Double> match : matches) {
+            Map<String, Object> extensions = new HashMap<>();
+            extensions.put("http://custom#addedInStep", "performFullStringSynonymyMatching()");
+            alignment.add(match.getValue0(), match.getValue1(), match.getValue2(),
+                    CorrespondenceRelation.EQUIVALENCE, extensions);
+            if (isVerboseLoggingOutput) {
+                LOGGER.info(match.getValue0() + " " + match.getValue1() + " (full word synonymy match)");
+                LOGGER.info(match.getValue0() + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_1.get(match.getValue0())) + ")");
+                LOGGER.info(match.getValue1() + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_2.get(match.getValue1())) + ")");
+            }
+        }
     }
 
     /**
@@ -291,22 +319,36 @@ public class BackgroundMatcher extends MatcherYAAAJena {
         Map<String, List<Set<String>>> uri2tokensMap_2 = convertToUriTokenMap(uri2labelMap_2, false);
         LOGGER.info("Conversion completed to URI -> Tokens map.");
 
-        for (HashMap.Entry<String, List<Set<String>>> uri2tokenLists_1 : uri2tokensMap_1.entrySet()) {
-            for (HashMap.Entry<String, List<Set<String>>> uri2tokenLists_2 : uri2tokensMap_2.entrySet()) {
-                Pair<Boolean, Double> isSynonymousConfidencePair = isTokenSetSynonymous(uri2tokenLists_1.getValue(), uri2tokenLists_2.getValue());
-                if (isSynonymousConfidencePair.getValue0()) {
-                    String uri1 = uri2tokenLists_1.getKey();
-                    String uri2 = uri2tokenLists_2.getKey();
-                    HashMap<String, Object> extensions = new HashMap<>();
-                    extensions.put("http://custom#addedInStep", "performTokenBasedSynonymyMatching()");
-                    alignment.add(uri1, uri2, isSynonymousConfidencePair.getValue1(), CorrespondenceRelation.EQUIVALENCE,
-                            extensions);
-                    if (isVerboseLoggingOutput) {
-                        LOGGER.info(uri1 + " " + uri2 + " (token based synonymy match)");
-                        LOGGER.info(uri1 + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_1.get(uri1)) + ")");
-                        LOGGER.info(uri2 + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_2.get(uri2)) + ")");
+        List<Triplet<String, String, Double>> matches = findMatches(uri2tokensMap_1, uri2tokensMap_2,
+                tokenSets -> {
+                    // equal tokens or synonymous linked tokens
+                    Set<String> keys = new HashSet<>();
+                    for (Set<String> tokens : tokenSets) {
+                        if (tokens.isEmpty()) {
+                            keys.add(EMPTY_SET_KEY);
+                        }
+                        for (String token : tokens) {
+                            keys.add(token);
+                            String link = linker.linkToSingleConcept(token);
+                            if (link != null) {
+                                keys.addAll(getSynonymKeys(link));
+                            }
+                        }
                     }
-                }
+                    return keys;
+                },
+                this::isTokenSetSynonymous);
+        for (Triplet<String, String, Double> match : matches) {
+            String uri1 = match.getValue0();
+            String uri2 = match.getValue1();
+            HashMap<String, Object> extensions = new HashMap<>();
+            extensions.put("http://custom#addedInStep", "performTokenBasedSynonymyMatching()");
+            alignment.add(uri1, uri2, match.getValue2(), CorrespondenceRelation.EQUIVALENCE,
+                    extensions);
+            if (isVerboseLoggingOutput) {
+                LOGGER.info(uri1 + " " + uri2 + " (token based synonymy match)");
+                LOGGER.info(uri1 + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_1.get(uri1)) + ")");
+                LOGGER.info(uri2 + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_2.get(uri2)) + ")");
             }
         }
     }
@@ -396,23 +438,137 @@ public class BackgroundMatcher extends MatcherYAAAJena {
         Map<String, List<Set<String>>> uri2linksMap_2 = convertToUriLinksMap(uri2labelMap_2, false);
         LOGGER.info("URI 2 n-links map built.");
 
-        for (HashMap.Entry<String, List<Set<String>>> uri2links_1 : uri2linksMap_1.entrySet()) {
-            for (HashMap.Entry<String, List<Set<String>>> uri2links_2 : uri2linksMap_2.entrySet()) {
-                Pair<Boolean, Double> isSynonymousConfidencePair = isLinkListSynonymous(uri2links_1.getValue(),
-                        uri2links_2.getValue());
-                if (isSynonymousConfidencePair.getValue0()) {
-                    HashMap<String, Object> extensions = new HashMap<>();
-                    extensions.put("http://custom#addedInStep", "longsestStringMatch");
-                    alignment.add(uri2links_1.getKey(), uri2links_2.getKey(), isSynonymousConfidencePair.getValue1(),
-                            CorrespondenceRelation.EQUIVALENCE, extensions);
-                    if (isVerboseLoggingOutput) {
-                        LOGGER.info(uri2links_1.getKey() + " " + uri2links_2.getKey() + " (longest string synonymy match)");
-                        LOGGER.info(uri2links_1.getKey() + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_1.get(uri2links_1.getKey())) + ")");
-                        LOGGER.info(uri2links_2.getKey() + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_2.get(uri2links_2.getKey())) + ")");
+        List<Triplet<String, String, Double>> matches = findMatches(uri2linksMap_1, uri2linksMap_2,
+                linkSets -> {
+                    Set<String> keys = new HashSet<>();
+                    for (Set<String> links : linkSets) {
+                        if (links.isEmpty()) {
+                            keys.add(EMPTY_SET_KEY);
+                        }
+                        for (String link : links) {
+                            keys.addAll(getSynonymKeys(link));
+                        }
                     }
+                    return keys;
+                },
+                this::isLinkListSynonymous);
+        for (Triplet<String, String, Double> match : matches) {
+            HashMap<String, Object> extensions = new HashMap<>();
+            extensions.put("http://custom#addedInStep", "longsestStringMatch");
+            alignment.add(match.getValue0(), match.getValue1(), match.getValue2(),
+                    CorrespondenceRelation.EQUIVALENCE, extensions);
+            if (isVerboseLoggingOutput) {
+                LOGGER.info(match.getValue0() + " " + match.getValue1() + " (longest string synonymy match)");
+                LOGGER.info(match.getValue0() + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_1.get(match.getValue0())) + ")");
+                LOGGER.info(match.getValue1() + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_2.get(match.getValue1())) + ")");
+            }
+        }
+    }
+
+    /**
+     * Compares the source and target resources and returns all matching pairs.
+     * If the candidate index can be used (see {@link #isCandidateIndexApplicable()}), the target resources are
+     * indexed by their keys and a source resource is only compared to the target resources which share at least one
+     * key. Otherwise all pairs are compared.
+     * The comparisons are executed with {@link #numberOfThreads} threads.
+     *
+     * @param sourceMap    URI to value map of the source ontology.
+     * @param targetMap    URI to value map of the target ontology.
+     * @param keyFunction  Function which returns the keys of a value. Two values can only match if their keys overlap.
+     * @param comparison   The comparison function which returns whether the values match and the confidence.
+     * @param <T>          The type of the values.
+     * @return List of matches (source URI, target URI, confidence) in the iteration order of the source map.
+     */
+    private <T> List<Triplet<String, String, Double>> findMatches(Map<String, T> sourceMap, Map<String, T> targetMap,
+                                                                  Function<T, Set<String>> keyFunction,
+                                                                  BiFunction<T, T, Pair<Boolean, Double>> comparison) {
+        List<String> sourceUris = new ArrayList<>(sourceMap.keySet());
+        Function<String, Collection<String>> candidateFunction;
+        if (isCandidateIndexApplicable()) {
+            List<String> targetUris = new ArrayList<>(targetMap.keySet());
+            List<Set<String>> targetKeys = map(targetUris, uri -> keyFunction.apply(targetMap.get(uri)));
+            Map<String, Set<String>> index = new HashMap<>();
+            for (int i = 0; i < targetUris.size(); i++) {
+                for (String key : targetKeys.get(i)) {
+                    index.computeIfAbsent(key, k -> new HashSet<>()).add(targetUris.get(i));
                 }
             }
+            LOGGER.info("Built candidate index with {} keys for {} target resources.", index.size(), targetUris.size());
+            candidateFunction = sourceUri -> {
+                Set<String> candidates = new HashSet<>();
+                for (String key : keyFunction.apply(sourceMap.get(sourceUri))) {
+                    candidates.addAll(index.getOrDefault(key, Collections.emptySet()));
+                }
+                return candidates;
+            };
+        } else {
+            Set<String> allTargets = targetMap.keySet();
+            candidateFunction = sourceUri -> allTargets;
         }
+        List<List<Triplet<String, String, Double>>> matchesPerSource = map(sourceUris, sourceUri -> {
+            List<Triplet<String, String, Double>> sourceMatches = new ArrayList<>();
+            T sourceValue = sourceMap.get(sourceUri);
+            for (String targetUri : candidateFunction.apply(sourceUri)) {
+                Pair<Boolean, Double> isMatchConfidencePair = comparison.apply(sourceValue, targetMap.get(targetUri));
+                if (isMatchConfidencePair.getValue0()) {
+                    sourceMatches.add(new Triplet<>(sourceUri, targetUri, isMatchConfidencePair.getValue1()));
+                }
+            }
+            return sourceMatches;
+        });
+        List<Triplet<String, String, Double>> result = new ArrayList<>();
+        for (List<Triplet<String, String, Double>> sourceMatches : matchesPerSource) {
+            result.addAll(sourceMatches);
+        }
+        return result;
+    }
+
+    /**
+     * Applies the function to all elements (in parallel if {@link #numberOfThreads} is greater than one).
+     *
+     * @param elements The elements.
+     * @param function The function to apply.
+     * @param <I>      Input type.
+     * @param <O>      Output type.
+     * @return The results in the order of the elements.
+     */
+    private <I, O> List<O> map(List<I> elements, Function<I, O> function) {
+        if (numberOfThreads <= 1) {
+            List<O> result = new ArrayList<>(elements.size());
+            for (I element : elements) {
+                result.add(function.apply(element));
+            }
+            return result;
+        }
+        ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+        try {
+            return pool.submit(() -> elements.parallelStream().map(function).collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during parallel background matching.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Parallel background matching failed.", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * The candidate index can be used if it is enabled, the strategy is {@link ImplementedBackgroundMatchingStrategies#SYNONYMY}
+     * and the knowledge source can compute synonymy keys ({@link SynonymKeyCapability}).
+     *
+     * @return True if the candidate index is used.
+     */
+    private boolean isCandidateIndexApplicable() {
+        return isUseCandidateIndex && strategy == ImplementedBackgroundMatchingStrategies.SYNONYMY
+                && knowledgeSource instanceof SynonymKeyCapability;
+    }
+
+    private Set<String> getSynonymKeys(String link) {
+        return ((SynonymKeyCapability) knowledgeSource).getSynonymKeys(link);
     }
 
     /**
@@ -759,4 +915,34 @@ public class BackgroundMatcher extends MatcherYAAAJena {
     public boolean isSynonymyConfidenceAvailable() {
         return isSynonymyConfidenceAvailable;
     }
+
+    public boolean isUseCandidateIndex() {
+        return isUseCandidateIndex;
+    }
+
+    /**
+     * Enables or disables the candidate index. If disabled, all pairs of resources are compared.
+     *
+     * @param useCandidateIndex True if the candidate index shall be used (if possible).
+     */
+    public void setUseCandidateIndex(boolean useCandidateIndex) {
+        this.isUseCandidateIndex = useCandidateIndex;
+    }
+
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Sets the number of threads which are used to compare resources.
+     * Values greater than one require that the knowledge source and its linker are thread safe.
+     *
+     * @param numberOfThreads The number of threads (at least one).
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        if (numberOfThreads < 1) {
+            throw new IllegalArgumentException("The number of threads has to be at least one.");
+        }
+        this.numberOfThreads = numberOfThreads;
+    }
 }
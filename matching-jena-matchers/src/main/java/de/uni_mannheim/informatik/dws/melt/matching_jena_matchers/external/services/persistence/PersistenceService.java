@@ -1,332 +1,498 @@
-package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence;
-
-import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.dataStructures.StringString;
-import org.mapdb.DB;
-import org.mapdb.DBMaker;
-import org.mapdb.Serializer;
-import org.mapdb.serializer.GroupSerializer;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.io.File;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.ConcurrentMap;
-
-
-/**
- * A simple persistence service offering stripped-down database operations to other applications.
- */
-public class PersistenceService {
-
-
-    /**
-     * Directory where all persistence database files will be saved.
-     */
-    public final static String PERSISTENCE_DIRECTORY = "." + File.separator + "persistences";
-
-    /**
-     * Logger.
-     */
-    private static final Logger LOGGER = LoggerFactory.getLogger("PersistenceService");
-
-    /**
-     * Singleton instance.
-     */
-    private static PersistenceService service;
-
-    /**
-     * Map of all active databases (required for collective close and for commits).
-     */
-    private Map<PreconfiguredPersistences, DB> activeDatabases;
-
-    /**
-     * Private constructor, singleton pattern.
-     */
-    private PersistenceService() {
-        activeDatabases = new HashMap<>();
-    }
-
-    /**
-     * Singleton pattern: Get persistence service instance.
-     *
-     * @return Persistence service instance.
-     */
-    public static PersistenceService getService() {
-        if (service == null) {
-            service = new PersistenceService();
-        }
-        return service;
-    }
-
-    /**
-     * Obtain a pre-configured persistence.
-     *
-     * @param desiredPersistence The persistence that shall be obtained.
-     * @return Database
-     */
-    public ConcurrentMap getMapDatabase(PreconfiguredPersistences desiredPersistence) {
-        if(activeDatabases.containsKey(desiredPersistence)){
-            return activeDatabases.get(desiredPersistence)
-                    .hashMap("map", desiredPersistence.getKeySerializer(), desiredPersistence.getValueSerializer())
-                    .open();
-        }
-
-        if (new File(desiredPersistence.getFilePath()).getParentFile().mkdir()) {
-            LOGGER.info("Persistence Directory Created");
-        }
-        DB db;
-        db = DBMaker
-                .fileDB(desiredPersistence.getFilePath())
-                .fileMmapEnable()
-                //.fileLockDisable() // ignore file lock
-                .transactionEnable()
-                //.checksumHeaderBypass() // ignore header checksum (should work in *most* cases in which writing was interrupted
-                .closeOnJvmShutdown()
-                .make();
-        activeDatabases.put(desiredPersistence, db);
-        return db
-                .hashMap("map", desiredPersistence.getKeySerializer(), desiredPersistence.getValueSerializer())
-                .createOrOpen();
-    }
-
-    public void commit(PreconfiguredPersistences persistence){
-        if(!activeDatabases.containsKey(persistence)){
-            LOGGER.warn("Cannot commit for " + persistence + " - DB not active.");
-            return;
-        }
-        activeDatabases.get(persistence).commit();
-    }
-
-    /**
-     * Close a single persistence.
-     * @param persistence The persistence to be closed.
-     */
-    public void closeDatabase(PreconfiguredPersistences persistence){
-
-        if(!activeDatabases.containsKey(persistence)){
-            LOGGER.warn("Cannot close persistence " + persistence + " - not active.");
-            return;
-        }
-        if(!activeDatabases.get(persistence).isClosed()){
-            activeDatabases.get(persistence).commit();
-        }
-        activeDatabases.get(persistence).close();
-        activeDatabases.remove(persistence);
-    }
-
-    /**
-     * Close all opened databases and shut down service.
-     * Make sure that dependent services are also closed.
-     */
-    public void closePersistenceService() {
-        // close all databases
-        for (DB db : activeDatabases.values()) {
-            if(!db.isClosed()){
-                db.commit();
-                db.close();
-            }
-        }
-        // remove all active DBs
-        activeDatabases = new HashMap<>();
-    }
-
-    /**
-     * Enum with the preconfigured database persistences.
-     * DEV Remark: Run Unit Test after adding an additional persistence configuration.
-     */
-    public enum PreconfiguredPersistences {
-        WIKIDATA_SYNONYMY_BUFFER,
-        WIKIDATA_HYPERNYMY_BUFFER,
-        WIKIDATA_LABEL_LINK_BUFFER,
-        WIKIDATA_ASK_BUFFER,
-
-        DBPEDIA_LABEL_LINK_BUFFER,
-        DBPEDIA_SYNONYMY_BUFFER,
-        DBPEDIA_HYPERNYMY_BUFFER,
-
-        ALOD_CLASSIC_SYONYMY_BUFFER,
-        ALOD_CLASSIC_LABEL_URI_BUFFER,
-        ALOD_CLASSIC_HYPERNYMY_ASK_BUFFER,
-        ALOD_CLASSIC_HYPERNYM_BUFFER,
-
-        ALOD_XL_SYONYMY_BUFFER,
-        ALOD_XL_LABEL_URI_BUFFER,
-        ALOD_XL_HYPERNYMY_ASK_BUFFER,
-        ALOD_XL_HYPERNYM_BUFFER,
-
-        WIKTIONARY_SYNONYMY_BUFFER,
-        WIKTIONARY_HYPERNYMY_BUFFER,
-        WIKTIONARY_ASK_BUFFER,
-
-        /**
-         * Stores existing and non-existing concepts.
-         * Data Structure: String -&gt; String
-         */
-        BABELNET_SINGLE_CONCEPT_BUFFER,
-
-        /**
-         * Stores 1:n links for BabelNet
-         * Data Structure: String -&gt; {@code HashSet<String>}
-         */
-        BABELNET_MULTI_CONCEPT_BUFFER,
-
-        /**
-         * Stores the synonyms of BabelNet
-         * Data Structure: String -&gt; {@code HashSet<String>}
-         */
-        BABELNET_SYNONYM_BUFFER,
-
-        /**
-         * Stores the synonyms of BabelNet
-         * Data Structure: String -&gt; {@code HashSet<String>}.
-         */
-        BABELNET_HYPERNYMY_BUFFER;
-
-        public Class getKeyClass() {
-            switch (this) {
-                case ALOD_CLASSIC_SYONYMY_BUFFER:
-                case ALOD_XL_SYONYMY_BUFFER:
-                case ALOD_CLASSIC_HYPERNYMY_ASK_BUFFER:
-                case ALOD_XL_HYPERNYMY_ASK_BUFFER:
-                    return StringString.class;
-                case ALOD_CLASSIC_LABEL_URI_BUFFER:
-                case ALOD_XL_LABEL_URI_BUFFER:
-                case ALOD_CLASSIC_HYPERNYM_BUFFER:
-                case ALOD_XL_HYPERNYM_BUFFER:
-                case BABELNET_SYNONYM_BUFFER:
-                case BABELNET_HYPERNYMY_BUFFER:
-                case BABELNET_SINGLE_CONCEPT_BUFFER:
-                case BABELNET_MULTI_CONCEPT_BUFFER:
-                case WIKIDATA_HYPERNYMY_BUFFER:
-                case WIKIDATA_SYNONYMY_BUFFER:
-                case WIKIDATA_LABEL_LINK_BUFFER:
-                case WIKIDATA_ASK_BUFFER:
-                case DBPEDIA_LABEL_LINK_BUFFER:
-                case DBPEDIA_HYPERNYMY_BUFFER:
-                case DBPEDIA_SYNONYMY_BUFFER:
-                case WIKTIONARY_HYPERNYMY_BUFFER:
-                case WIKTIONARY_SYNONYMY_BUFFER:
-                case WIKTIONARY_ASK_BUFFER:
-                    return String.class;
-            }
-            return null;
-        }
-
-        public GroupSerializer getKeySerializer() {
-            switch (this) {
-                case ALOD_CLASSIC_SYONYMY_BUFFER:
-                case ALOD_XL_SYONYMY_BUFFER:
-                case ALOD_CLASSIC_HYPERNYMY_ASK_BUFFER:
-                case ALOD_XL_HYPERNYMY_ASK_BUFFER:
-                    return Serializer.JAVA;
-                case ALOD_CLASSIC_LABEL_URI_BUFFER:
-                case WIKIDATA_HYPERNYMY_BUFFER:
-                case WIKIDATA_SYNONYMY_BUFFER:
-                case ALOD_XL_LABEL_URI_BUFFER:
-                case BABELNET_SYNONYM_BUFFER:
-                case BABELNET_HYPERNYMY_BUFFER:
-                case BABELNET_SINGLE_CONCEPT_BUFFER:
-                case BABELNET_MULTI_CONCEPT_BUFFER:
-                case WIKIDATA_LABEL_LINK_BUFFER:
-                case WIKIDATA_ASK_BUFFER:
-                case ALOD_CLASSIC_HYPERNYM_BUFFER:
-                case ALOD_XL_HYPERNYM_BUFFER:
-                case DBPEDIA_LABEL_LINK_BUFFER:
-                case DBPEDIA_SYNONYMY_BUFFER:
-                case DBPEDIA_HYPERNYMY_BUFFER:
-                case WIKTIONARY_HYPERNYMY_BUFFER:
-                case WIKTIONARY_SYNONYMY_BUFFER:
-                case WIKTIONARY_ASK_BUFFER:
-                    return Serializer.STRING;
-            }
-            return null;
-        }
-
-        public GroupSerializer getValueSerializer() {
-            switch (this) {
-                case ALOD_CLASSIC_SYONYMY_BUFFER:
-                case ALOD_XL_SYONYMY_BUFFER:
-                case ALOD_CLASSIC_HYPERNYMY_ASK_BUFFER:
-                case ALOD_XL_HYPERNYMY_ASK_BUFFER:
-                case WIKIDATA_ASK_BUFFER:
-                case WIKTIONARY_ASK_BUFFER:
-                    return Serializer.BOOLEAN;
-                case BABELNET_SYNONYM_BUFFER:
-                case BABELNET_HYPERNYMY_BUFFER:
-                case BABELNET_MULTI_CONCEPT_BUFFER:
-                case WIKIDATA_HYPERNYMY_BUFFER:
-                case WIKIDATA_SYNONYMY_BUFFER:
-                case WIKIDATA_LABEL_LINK_BUFFER:
-                case ALOD_CLASSIC_HYPERNYM_BUFFER:
-                case ALOD_XL_HYPERNYM_BUFFER:
-                case DBPEDIA_LABEL_LINK_BUFFER:
-                case DBPEDIA_SYNONYMY_BUFFER:
-                case DBPEDIA_HYPERNYMY_BUFFER:
-                case WIKTIONARY_HYPERNYMY_BUFFER:
-                case WIKTIONARY_SYNONYMY_BUFFER:
-                    return Serializer.JAVA;
-                case BABELNET_SINGLE_CONCEPT_BUFFER:
-                case ALOD_CLASSIC_LABEL_URI_BUFFER:
-                case ALOD_XL_LABEL_URI_BUFFER:
-                    return Serializer.STRING;
-            }
-            return null;
-        }
-
-        /**
-         * Get the file path to the persistence.
-         *
-         * @return Path where the persistence file can be found.
-         */
-        public String getFilePath() {
-            switch (this) {
-                case ALOD_CLASSIC_SYONYMY_BUFFER:
-                    return PERSISTENCE_DIRECTORY + File.separator + "webisalod_classic_synonymy_buffer.mapdb";
-                case ALOD_XL_SYONYMY_BUFFER:
-                    return PERSISTENCE_DIRECTORY + File.separator + "webisalod_xl_synonymy_buffer.mapdb";
-                case ALOD_CLASSIC_LABEL_URI_BUFFER:
-                    return PERSISTENCE_DIRECTORY + File.separator + "webisalod_classic_label_uri_buffer.mapdb";
-                case ALOD_XL_LABEL_URI_BUFFER:
-                    return PERSISTENCE_DIRECTORY + File.separator + "webisalod_xl_label_uri_buffer.mapdb";
-                case ALOD_CLASSIC_HYPERNYMY_ASK_BUFFER:
-                    return PERSISTENCE_DIRECTORY + File.separator + "webisalod_classic_hypernymy_buffer.mapdb";
-                case ALOD_XL_HYPERNYMY_ASK_BUFFER:
-                    return PERSISTENCE_DIRECTORY + File.separator + "webisalod_xl_hypernymy_buffer.mapdb";
-                case BABELNET_SYNONYM_BUFFER:
-                    return PERSISTENCE_DIRECTORY + File.separator + "babelnet_synonym_buffer.mapdb";
-                case BABELNET_HYPERNYMY_BUFFER:
-                    return PERSISTENCE_DIRECTORY + File.separator + "babelnet_hypernymy_buffer.mapdb";
-                case BABELNET_SINGLE_CONCEPT_BUFFER:
-                    return PERSISTENCE_DIRECTORY + File.separator + "babelnet_single_concept_buffer.mapdb";
-                case BABELNET_MULTI_CONCEPT_BUFFER:
-                    return PERSISTENCE_DIRECTORY + File.separator + "babelnet_multi_concept_buffer.mapdb";
-                case WIKIDATA_SYNONYMY_BUFFER:
-                    return PERSISTENCE_DIRECTORY + File.separator + "wikidata_synonymy_buffer.mapdb";
-                case WIKIDATA_HYPERNYMY_BUFFER:
-                    return PERSISTENCE_DIRECTORY + File.separator + "wikidata_hypernymy_buffer.mapdb";
-                case WIKIDATA_LABEL_LINK_BUFFER:
-                    return PERSISTENCE_DIRECTORY + File.separator + "wikidata_label_link_buffer.mapdb";
-                case WIKIDATA_ASK_BUFFER:
-                    return PERSISTENCE_DIRECTORY + File.separator + "wikidata_ask_buffer.mapdb";
-                case ALOD_CLASSIC_HYPERNYM_BUFFER:
-                    return PERSISTENCE_DIRECTORY + File.separator + "webisalod_classic_hypernym_buffer.mapdb";
-                case ALOD_XL_HYPERNYM_BUFFER:
-                    return PERSISTENCE_DIRECTORY + File.separator + "webisalod_xl_hypernym_buffer.mapdb";
-                case DBPEDIA_LABEL_LINK_BUFFER:
-                    return PERSISTENCE_DIRECTORY + File.separator + "dbpedia_label_link_buffer.mapdb";
-                case DBPEDIA_SYNONYMY_BUFFER:
-                    return PERSISTENCE_DIRECTORY + File.separator + "dbpedia_synonymy_buffer.mapdb";
-                case DBPEDIA_HYPERNYMY_BUFFER:
-                    return PERSISTENCE_DIRECTORY + File.separator + "dbpedia_hypernymy_buffer.mapdb";
-                case WIKTIONARY_HYPERNYMY_BUFFER:
-                    return PERSISTENCE_DIRECTORY + File.separator + "wiktionary_hypernymy_buffer.mapdb";
-                case WIKTIONARY_SYNONYMY_BUFFER:
-                    return PERSISTENCE_DIRECTORY + File.separator + "wiktionary_synonymy_buffer.mapdb";
-                case WIKTIONARY_ASK_BUFFER:
-                    return PERSISTENCE_DIRECTORY + File.separator + "wiktionary_ask_buffer.mapdb";
-            }
-            return null;
-        }
-    }
-}
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence;
+
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.dataStructures.StringString;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+import org.mapdb.Serializer;
+import org.mapdb.serializer.GroupSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.UnaryOperator;
+
+
+/**
+ * A simple persistence service offering stripped-down database operations to other applications.
+ */
+public class PersistenceService {
+
+
+    /**
+     * Directory where all persistence database files will be saved.
+     */
+    public final static String PERSISTENCE_DIRECTORY = "." + File.separator + "persistences";
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger("PersistenceService");
+
+    /**
+     * Singleton instance.
+     */
+    private static PersistenceService service;
+
+    /**
+     * Map of all active databases (required for collective close and for commits).
+     */
+    private Map<PreconfiguredPersistences, DB> activeDatabases;
+
+    /**
+     * Map of all active maps (in-memory front over the map of the database).
+     */
+    private Map<PreconfiguredPersistences, TieredPersistenceMap> activeMaps;
+
+    /**
+     * Executor which writes the pending changes of all maps.
+     */
+    private final ScheduledExecutorService writeBehindExecutor;
+
+    /**
+     * The maximum number of keys per persistence which are kept in memory.
+     */
+    private int frontCacheSize = 10_000;
+
+    /**
+     * The time in milliseconds after which a key kept in memory expires (zero or less: never).
+     */
+    private long timeToLiveMillis = 0;
+
+    /**
+     * The time in milliseconds in which writes are collected before they are written and committed (zero or less: write through).
+     */
+    private long writeBehindDelayMillis = 1000;
+
+    /**
+     * True if keys which do not exist in a persistence are kept in memory, too.
+     */
+    private boolean negativeCaching = true;
+
+    /**
+     * Private constructor, singleton pattern.
+     */
+    private PersistenceService() {
+        activeDatabases = new HashMap<>();
+        activeMaps = new HashMap<>();
+        writeBehindExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "PersistenceService-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // pending writes are written before the databases are closed
+        Runtime.getRuntime().addShutdownHook(new Thread(this::closePersistenceService));
+    }
+
+    /**
+     * Singleton pattern: Get persistence service instance.
+     *
+     * @return Persistence service instance.
+     */
+    public static synchronized PersistenceService getService() {
+        if (service == null) {
+            service = new PersistenceService();
+        }
+        return service;
+    }
+
+    /**
+     * Obtain a pre-configured persistence.
+     * The returned map keeps recently used keys (and non-existing keys) in memory and writes changes asynchronously
+     * (see {@link TieredPersistenceMap}). Multiple calls for the same persistence return the same map.
+     *
+     * @param desiredPersistence The persistence that shall be obtained.
+     * @return Database
+     */
+    public synchronized ConcurrentMap getMapDatabase(PreconfiguredPersistences desiredPersistence) {
+        if(activeMaps.containsKey(desiredPersistence)){
+            return activeMaps.get(desiredPersistence);
+        }
+
+        if (new File(desiredPersistence.getFilePath()).getParentFile().mkdir()) {
+            LOGGER.info("Persistence Directory Created");
+        }
+        DB db;
+        db = DBMaker
+                .fileDB(desiredPersistence.getFilePath())
+                .fileMmapEnable()
+                //.fileLockDisable() // ignore file lock
+                .transactionEnable()
+                //.checksumHeaderBypass() // ignore header checksum (should work in *most* cases in which writing was interrupted
+                // no closeOnJvmShutdown: the shutdown hook of this service writes the pending changes before closing
+                .make();
+        activeDatabases.put(desiredPersistence, db);
+        ConcurrentMap store = db
+                .hashMap("map", desiredPersistence.getKeySerializer(), desiredPersistence.getValueSerializer())
+                .createOrOpen();
+        TieredPersistenceMap map = new TieredPersistenceMap(desiredPersistence.toString(), store, db::commit,
+                getValueCopier(desiredPersistence.getValueSerializer()), frontCacheSize, timeToLiveMillis, negativeCaching, writeBehindExecutor, writeBehindDelayMillis);
+        activeMaps.put(desiredPersistence, map);
+        return map;
+    }
+
+    /**
+     * Commits the changes of the given persistence. The changes are written asynchronously together with all other
+     * changes within the write-behind delay. Use {@link #flush(PreconfiguredPersistences)} to write them immediately.
+     * @param persistence The persistence whose changes shall be committed.
+     */
+    public synchronized void commit(PreconfiguredPersistences persistence){
+        if(!activeMaps.containsKey(persistence)){
+            LOGGER.warn("Cannot commit for " + persistence + " - DB not active.");
+            return;
+        }
+        activeMaps.get(persistence).scheduleFlush();
+    }
+
+    /**
+     * Writes and commits the changes of the given persistence immediately.
+     * @param persistence The persistence whose changes shall be committed.
+     */
+    public synchronized void flush(PreconfiguredPersistences persistence){
+        if(!activeMaps.containsKey(persistence)){
+            LOGGER.warn("Cannot flush " + persistence + " - DB not active.");
+            return;
+        }
+        activeMaps.get(persistence).flush();
+    }
+
+    /**
+     * Returns the hit, miss and latency statistics of the given persistence.
+     * @param persistence The persistence.
+     * @return The statistics or null if the persistence is not active.
+     */
+    public synchronized TieredPersistenceMap.Statistics getStatistics(PreconfiguredPersistences persistence){
+        TieredPersistenceMap map = activeMaps.get(persistence);
+        return map == null ? null : map.getStatistics();
+    }
+
+    /**
+     * Returns the hit, miss and latency statistics of all active persistences.
+     * @return Map from persistence to its statistics.
+     */
+    public synchronized Map<PreconfiguredPersistences, TieredPersistenceMap.Statistics> getStatistics(){
+        Map<PreconfiguredPersistences, TieredPersistenceMap.Statistics> statistics = new EnumMap<>(PreconfiguredPersistences.class);
+        for(Map.Entry<PreconfiguredPersistences, TieredPersistenceMap> entry : activeMaps.entrySet()){
+            statistics.put(entry.getKey(), entry.getValue().getStatistics());
+        }
+        return statistics;
+    }
+
+    /**
+     * Close a single persistence.
+     * @param persistence The persistence to be closed.
+     */
+    public synchronized void closeDatabase(PreconfiguredPersistences persistence){
+
+        if(!activeDatabases.containsKey(persistence)){
+            LOGGER.warn("Cannot close persistence " + persistence + " - not active.");
+            return;
+        }
+        DB db = activeDatabases.remove(persistence);
+        TieredPersistenceMap map = activeMaps.remove(persistence);
+        close(db, map);
+    }
+
+    /**
+     * Close all opened databases and shut down service.
+     * Make sure that dependent services are also closed.
+     */
+    public synchronized void closePersistenceService() {
+        // close all databases
+        for (Map.Entry<PreconfiguredPersistences, DB> entry : activeDatabases.entrySet()) {
+            close(entry.getValue(), activeMaps.get(entry.getKey()));
+        }
+        // remove all active DBs
+        activeDatabases = new HashMap<>();
+        activeMaps = new HashMap<>();
+    }
+
+    /**
+     * Returns a function which copies values like MapDB does (by serializing and deserializing them).
+     * Strings and booleans are immutable and therefore not copied.
+     * @param serializer the value serializer of the persistence
+     * @return the function which copies a value
+     */
+    static UnaryOperator<Object> getValueCopier(GroupSerializer serializer){
+        if(serializer != Serializer.JAVA)
+            return UnaryOperator.identity();
+        return value -> {
+            try {
+                return serializer.clone(value);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not copy a value of the persistence.", ex);
+            }
+        };
+    }
+
+    private static void close(DB db, TieredPersistenceMap map){
+        if(db.isClosed())
+            return;
+        if(map != null){
+            map.close();
+            LOGGER.debug("Statistics of {}", map.getStatistics());
+        }
+        db.commit();
+        db.close();
+    }
+
+    public int getFrontCacheSize() {
+        return frontCacheSize;
+    }
+
+    /**
+     * Sets the maximum number of keys per persistence which are kept in memory.
+     * Applies to persistences which are opened afterwards.
+     * @param frontCacheSize The maximum number of keys (at least one).
+     */
+    public void setFrontCacheSize(int frontCacheSize) {
+        if(frontCacheSize < 1)
+            throw new IllegalArgumentException("The front cache size has to be at least one.");
+        this.frontCacheSize = frontCacheSize;
+    }
+
+    public long getTimeToLiveMillis() {
+        return timeToLiveMillis;
+    }
+
+    /**
+     * Sets the time in milliseconds after which a key kept in memory expires (zero or less: never, the default).
+     * Applies to persistences which are opened afterwards.
+     * @param timeToLiveMillis The time to live in milliseconds.
+     */
+    public void setTimeToLiveMillis(long timeToLiveMillis) {
+        this.timeToLiveMillis = timeToLiveMillis;
+    }
+
+    public long getWriteBehindDelayMillis() {
+        return writeBehindDelayMillis;
+    }
+
+    /**
+     * Sets the time in milliseconds in which writes are collected before they are written and committed together.
+     * Zero or less writes every change through immediately. Applies to persistences which are opened afterwards.
+     * @param writeBehindDelayMillis The delay in milliseconds.
+     */
+    public void setWriteBehindDelayMillis(long writeBehindDelayMillis) {
+        this.writeBehindDelayMillis = writeBehindDelayMillis;
+    }
+
+    public boolean isNegativeCaching() {
+        return negativeCaching;
+    }
+
+    /**
+     * Sets whether keys which do not exist in a persistence are kept in memory, too.
+     * Applies to persistences which are opened afterwards.
+     * @param negativeCaching True to cache non-existing keys.
+     */
+    public void setNegativeCaching(boolean negativeCaching) {
+        this.negativeCaching = negativeCaching;
+    }
+
+    /**
+     * Enum with the preconfigured database persistences.
+     * DEV Remark: Run Unit Test after adding an additional persistence configuration.
+     */
+    public enum PreconfiguredPersistences {
+        WIKIDATA_SYNONYMY_BUFFER,
+        WIKIDATA_HYPERNYMY_BUFFER,
+        WIKIDATA_LABEL_LINK_BUFFER,
+        WIKIDATA_ASK_BUFFER,
+
+        DBPEDIA_LABEL_LINK_BUFFER,
+        DBPEDIA_SYNONYMY_BUFFER,
+        DBPEDIA_HYPERNYMY_BUFFER,
+
+        ALOD_CLASSIC_SYONYMY_BUFFER,
+        ALOD_CLASSIC_LABEL_URI_BUFFER,
+        ALOD_CLASSIC_HYPERNYMY_ASK_BUFFER,
+        ALOD_CLASSIC_HYPERNYM_BUFFER,
+
+        ALOD_XL_SYONYMY_BUFFER,
+        ALOD_XL_LABEL_URI_BUFFER,
+        ALOD_XL_HYPERNYMY_ASK_BUFFER,
+        ALOD_XL_HYPERNYM_BUFFER,
+
+        WIKTIONARY_SYNONYMY_BUFFER,
+        WIKTIONARY_HYPERNYMY_BUFFER,
+        WIKTIONARY_ASK_BUFFER,
+
+        /**
+         * Stores existing and non-existing concepts.
+         * Data Structure: String -&gt; String
+         */
+        BABELNET_SINGLE_CONCEPT_BUFFER,
+
+        /**
+         * Stores 1:n links for BabelNet
+         * Data Structure: String -&gt; {@code HashSet<String>}
+         */
+        BABELNET_MULTI_CONCEPT_BUFFER,
+
+        /**
+         * Stores the synonyms of BabelNet
+         * Data Structure: String -&gt; {@code HashSet<String>}
+         */
+        BABELNET_SYNONYM_BUFFER,
+
+        /**
+         * Stores the synonyms of BabelNet
+         * Data Structure: String -&gt; {@code HashSet<String>}.
+         */
+        BABELNET_HYPERNYMY_BUFFER;
+
+        public Class getKeyClass() {
+            switch (this) {
+                case ALOD_CLASSIC_SYONYMY_BUFFER:
+                case ALOD_XL_SYONYMY_BUFFER:
+                case ALOD_CLASSIC_HYPERNYMY_ASK_BUFFER:
+                case ALOD_XL_HYPERNYMY_ASK_BUFFER:
+                    return StringString.class;
+                case ALOD_CLASSIC_LABEL_URI_BUFFER:
+                case ALOD_XL_LABEL_URI_BUFFER:
+                case ALOD_CLASSIC_HYPERNYM_BUFFER:
+                case ALOD_XL_HYPERNYM_BUFFER:
+                case BABELNET_SYNONYM_BUFFER:
+                case BABELNET_HYPERNYMY_BUFFER:
+                case BABELNET_SINGLE_CONCEPT_BUFFER:
+                case BABELNET_MULTI_CONCEPT_BUFFER:
+                case WIKIDATA_HYPERNYMY_BUFFER:
+                case WIKIDATA_SYNONYMY_BUFFER:
+                case WIKIDATA_LABEL_LINK_BUFFER:
+                case WIKIDATA_ASK_BUFFER:
+                case DBPEDIA_LABEL_LINK_BUFFER:
+                case DBPEDIA_HYPERNYMY_BUFFER:
+                case DBPEDIA_SYNONYMY_BUFFER:
+                case WIKTIONARY_HYPERNYMY_BUFFER:
+                case WIKTIONARY_SYNONYMY_BUFFER:
+                case WIKTIONARY_ASK_BUFFER:
+                    return String.class;
+            }
+            return null;
+        }
+
+        public GroupSerializer getKeySerializer() {
+            switch (this) {
+                case ALOD_CLASSIC_SYONYMY_BUFFER:
+                case ALOD_XL_SYONYMY_BUFFER:
+                case ALOD_CLASSIC_HYPERNYMY_ASK_BUFFER:
+                case ALOD_XL_HYPERNYMY_ASK_BUFFER:
+                    return Serializer.JAVA;
+                case ALOD_CLASSIC_LABEL_URI_BUFFER:
+                case WIKIDATA_HYPERNYMY_BUFFER:
+                case WIKIDATA_SYNONYMY_BUFFER:
+                case ALOD_XL_LABEL_URI_BUFFER:
+                case BABELNET_SYNONYM_BUFFER:
+                case BABELNET_HYPERNYMY_BUFFER:
+                case BABELNET_SINGLE_CONCEPT_BUFFER:
+                case BABELNET_MULTI_CONCEPT_BUFFER:
+                case WIKIDATA_LABEL_LINK_BUFFER:
+                case WIKIDATA_ASK_BUFFER:
+                case ALOD_CLASSIC_HYPERNYM_BUFFER:
+                case ALOD_XL_HYPERNYM_BUFFER:
+                case DBPEDIA_LABEL_LINK_BUFFER:
+                case DBPEDIA_SYNONYMY_BUFFER:
+                case DBPEDIA_HYPERNYMY_BUFFER:
+                case WIKTIONARY_HYPERNYMY_BUFFER:
+                case WIKTIONARY_SYNONYMY_BUFFER:
+                case WIKTIONARY_ASK_BUFFER:
+                    return Serializer.STRING;
+            }
+            return null;
+        }
+
+        public GroupSerializer getValueSerializer() {
+            switch (this) {
+                case ALOD_CLASSIC_SYONYMY_BUFFER:
+                case ALOD_XL_SYONYMY_BUFFER:
+                case ALOD_CLASSIC_HYPERNYMY_ASK_BUFFER:
+                case ALOD_XL_HYPERNYMY_ASK_BUFFER:
+                case WIKIDATA_ASK_BUFFER:
+                case WIKTIONARY_ASK_BUFFER:
+                    return Serializer.BOOLEAN;
+                case BABELNET_SYNONYM_BUFFER:
+                case BABELNET_HYPERNYMY_BUFFER:
+                case BABELNET_MULTI_CONCEPT_BUFFER:
+                case WIKIDATA_HYPERNYMY_BUFFER:
+                case WIKIDATA_SYNONYMY_BUFFER:
+                case WIKIDATA_LABEL_LINK_BUFFER:
+                case ALOD_CLASSIC_HYPERNYM_BUFFER:
+                case ALOD_XL_HYPERNYM_BUFFER:
+                case DBPEDIA_LABEL_LINK_BUFFER:
+                case DBPEDIA_SYNONYMY_BUFFER:
+                case DBPEDIA_HYPERNYMY_BUFFER:
+                case WIKTIONARY_HYPERNYMY_BUFFER:
+                case WIKTIONARY_SYNONYMY_BUFFER:
+                    return Serializer.JAVA;
+                case BABELNET_SINGLE_CONCEPT_BUFFER:
+                case ALOD_CLASSIC_LABEL_URI_BUFFER:
+                case ALOD_XL_LABEL_URI_BUFFER:
+                    return Serializer.STRING;
+            }
+            return null;
+        }
+
+        /**
+         * Get the file path to the persistence.
+         *
+         * @return Path where the persistence file can be found.
+         */
+        public String getFilePath() {
+            switch (this) {
+                case ALOD_CLASSIC_SYONYMY_BUFFER:
+                    return PERSISTENCE_DIRECTORY + File.separator + "webisalod_classic_synonymy_buffer.mapdb";
+                case ALOD_XL_SYONYMY_BUFFER:
+                    return PERSISTENCE_DIRECTORY + File.separator + "webisalod_xl_synonymy_buffer.mapdb";
+                case ALOD_CLASSIC_LABEL_URI_BUFFER:
+                    return PERSISTENCE_DIRECTORY + File.separator + "webisalod_classic_label_uri_buffer.mapdb";
+                case ALOD_XL_LABEL_URI_BUFFER:
+                    return PERSISTENCE_DIRECTORY + File.separator + "webisalod_xl_label_uri_buffer.mapdb";
+                case ALOD_CLASSIC_HYPERNYMY_ASK_BUFFER:
+                    return PERSISTENCE_DIRECTORY + File.separator + "webisalod_classic_hypernymy_buffer.mapdb";
+                case ALOD_XL_HYPERNYMY_ASK_BUFFER:
+                    return PERSISTENCE_DIRECTORY + File.separator + "webisalod_xl_hypernymy_buffer.mapdb";
+                case BABELNET_SYNONYM_BUFFER:
+                    return PERSISTENCE_DIRECTORY + File.separator + "babelnet_synonym_buffer.mapdb";
+                case BABELNET_HYPERNYMY_BUFFER:
+                    return PERSISTENCE_DIRECTORY + File.separator + "babelnet_hypernymy_buffer.mapdb";
+                case BABELNET_SINGLE_CONCEPT_BUFFER:
+                    return PERSISTENCE_DIRECTORY + File.separator + "babelnet_single_concept_buffer.mapdb";
+                case BABELNET_MULTI_CONCEPT_BUFFER:
+                    return PERSISTENCE_DIRECTORY + File.separator + "babelnet_multi_concept_buffer.mapdb";
+                case WIKIDATA_SYNONYMY_BUFFER:
+                    return PERSISTENCE_DIRECTORY + File.separator + "wikidata_synonymy_buffer.mapdb";
+                case WIKIDATA_HYPERNYMY_BUFFER:
+                    return PERSISTENCE_DIRECTORY + File.separator + "wikidata_hypernymy_buffer.mapdb";
+                case WIKIDATA_LABEL_LINK_BUFFER:
+                    return PERSISTENCE_DIRECTORY + File.separator + "wikidata_label_link_buffer.mapdb";
+                case WIKIDATA_ASK_BUFFER:
+                    return PERSISTENCE_DIRECTORY + File.separator + "wikidata_ask_buffer.mapdb";
+                case ALOD_CLASSIC_HYPERNYM_BUFFER:
+                    return PERSISTENCE_DIRECTORY + File.separator + "webisalod_classic_hypernym_buffer.mapdb";
+                case ALOD_XL_HYPERNYM_BUFFER:
+                    return PERSISTENCE_DIRECTORY + File.separator + "webisalod_xl_hypernym_buffer.mapdb";
+                case DBPEDIA_LABEL_LINK_BUFFER:
+                    return PERSISTENCE_DIRECTORY + File.separator + "dbpedia_label_link_buffer.mapdb";
+                case DBPEDIA_SYNONYMY_BUFFER:
+                    return PERSISTENCE_DIRECTORY + File.separator + "dbpedia_synonymy_buffer.mapdb";
+                case DBPEDIA_HYPERNYMY_BUFFER:
+                    return PERSISTENCE_DIRECTORY + File.separator + "dbpedia_hypernymy_buffer.mapdb";
+                case WIKTIONARY_HYPERNYMY_BUFFER:
+                    return PERSISTENCE_DIRECTORY + File.separator + "wiktionary_hypernymy_buffer.mapdb";
+                case WIKTIONARY_SYNONYMY_BUFFER:
+                    return PERSISTENCE_DIRECTORY + File.separator + "wiktionary_synonymy_buffer.mapdb";
+                case WIKTIONARY_ASK_BUFFER:
+                    return PERSISTENCE_DIRECTORY + File.separator + "wiktionary_ask_buffer.mapdb";
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,514 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * A map with a bounded in-memory front (least recently used, optionally with a time to live) over a persistent store
+ * like a MapDB map. Reads are answered from the front if possible, otherwise from the store and the result is cached
+ * in the front. Keys which do not exist in the store are cached as well (negative caching) such that repeated lookups
+ * of unknown labels do not hit the disk.
+ * <p>
+ * Writes are visible immediately but written to the store asynchronously (write-behind): all writes within the
+ * write-behind delay are written together and committed once. A delay of zero writes through synchronously.
+ * Call {@link #flush()} to write all pending changes and commit them.
+ * <p>
+ * Like MapDB, the map copies the values (see the value copier of the constructor): a value which is changed after
+ * it was put or returned does not change the map and the value which is written to the store in the background.
+ * <p>
+ * This class is thread safe. Null keys and values are not supported (like in MapDB).
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+public class TieredPersistenceMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(TieredPersistenceMap.class);
+
+    /**
+     * Marks a removed key in the pending writes and a key which does not exist in the front.
+     */
+    private static final Object ABSENT = new Object();
+
+    /**
+     * Number of stripes of the write stamps.
+     */
+    private static final int WRITE_STAMP_STRIPES = 64;
+
+    private final String name;
+    private final ConcurrentMap<K, V> store;
+    private final Runnable commit;
+    private final UnaryOperator<V> valueCopier;
+    private final Map<Object, FrontEntry> front;
+    private final ConcurrentMap<Object, Object> pendingWrites;
+    /**
+     * Write counters (striped by the hash of the key). A read only caches its result if no write to a key of the same
+     * stripe happened during the read, thus a concurrent write is never overwritten by an outdated value.
+     * The counters are only modified while holding the lock of the front.
+     */
+    private final AtomicLongArray writeStamps;
+    private final long timeToLiveMillis;
+    private final boolean negativeCaching;
+    private final ScheduledExecutorService writeBehindExecutor;
+    private final long writeBehindDelayMillis;
+    private final AtomicBoolean flushScheduled;
+    private final Object flushLock;
+    private volatile boolean closed;
+
+    private final LongAdder frontHits;
+    private final LongAdder negativeHits;
+    private final LongAdder storeHits;
+    private final LongAdder misses;
+    private final LongAdder storeReadNanos;
+    private final LongAdder writes;
+    private final LongAdder commits;
+
+    /**
+     * Constructor for immutable values (they are not copied).
+     * @param name the name of the map (used for logging)
+     * @param store the persistent store
+     * @param commit commits the changes of the store (executed after pending writes are written)
+     * @param maximumFrontSize the maximum number of keys in the in-memory front
+     * @param timeToLiveMillis the time in milliseconds after which an entry of the front expires (zero or less: never)
+     * @param negativeCaching true if keys which do not exist in the store should be cached in the front
+     * @param writeBehindExecutor executor which writes the pending changes (can be shared by multiple maps)
+     * @param writeBehindDelayMillis the time in milliseconds in which writes are collected before they are written
+     *                               to the store (zero or less: write through)
+     */
+    public TieredPersistenceMap(String name, ConcurrentMap<K, V> store, Runnable commit, int maximumFrontSize, long timeToLiveMillis,
+                                boolean negativeCaching, ScheduledExecutorService writeBehindExecutor, long writeBehindDelayMillis) {
+        this(name, store, commit, UnaryOperator.identity(), maximumFrontSize, timeToLiveMillis, negativeCaching,
+                writeBehindExecutor, writeBehindDelayMillis);
+    }
+
+    /**
+     * Constructor
+     * @param name the name of the map (used for logging)
+     * @param store the persistent store
+     * @param commit commits the changes of the store (executed after pending writes are written)
+     * @param valueCopier creates a copy of a value: applied to values which are put and values which are returned
+     *                    such that the caller and the map never share a mutable value
+     * @param maximumFrontSize the maximum number of keys in the in-memory front
+     * @param timeToLiveMillis the time in milliseconds after which an entry of the front expires (zero or less: never)
+     * @param negativeCaching true if keys which do not exist in the store should be cached in the front
+     * @param writeBehindExecutor executor which writes the pending changes (can be shared by multiple maps)
+     * @param writeBehindDelayMillis the time in milliseconds in which writes are collected before they are written
+     *                               to the store (zero or less: write through)
+     */
+    public TieredPersistenceMap(String name, ConcurrentMap<K, V> store, Runnable commit, UnaryOperator<V> valueCopier,
+                                int maximumFrontSize, long timeToLiveMillis, boolean negativeCaching,
+                                ScheduledExecutorService writeBehindExecutor, long writeBehindDelayMillis) {
+        if(maximumFrontSize < 1)
+            throw new IllegalArgumentException("The maximum size of the front has to be at least one.");
+        this.name = name;
+        this.store = store;
+        this.commit = commit;
+        this.valueCopier = valueCopier;
+        this.front = Collections.synchronizedMap(new LinkedHashMap<Object, FrontEntry>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, FrontEntry> eldest) {
+                return size() > maximumFrontSize;
+            }
+        });
+        this.pendingWrites = new ConcurrentHashMap<>();
+        this.writeStamps = new AtomicLongArray(WRITE_STAMP_STRIPES);
+        this.timeToLiveMillis = timeToLiveMillis;
+        this.negativeCaching = negativeCaching;
+        this.writeBehindExecutor = writeBehindExecutor;
+        this.writeBehindDelayMillis = writeBehindDelayMillis;
+        this.flushScheduled = new AtomicBoolean(false);
+        this.flushLock = new Object();
+        this.closed = false;
+
+        this.frontHits = new LongAdder();
+        this.negativeHits = new LongAdder();
+        this.storeHits = new LongAdder();
+        this.misses = new LongAdder();
+        this.storeReadNanos = new LongAdder();
+        this.writes = new LongAdder();
+        this.commits = new LongAdder();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if(key == null)
+            return null;
+        FrontEntry entry = front.get(key);
+        if(entry != null && !entry.isExpired()){
+            if(entry.value == ABSENT){
+                negativeHits.increment();
+                return null;
+            }
+            frontHits.increment();
+            return valueCopier.apply((V) entry.value);
+        }
+        //the stamp has to be read before the pending writes and the store
+        int stripe = getStripe(key);
+        long stamp = writeStamps.get(stripe);
+        Object pending = pendingWrites.get(key);
+        if(pending != null){
+            frontHits.increment();
+            if(pending == ABSENT)
+                return null;
+            cacheIfNotWritten(key, pending, stripe, stamp);
+            return valueCopier.apply((V) pending);
+        }
+        long start = System.nanoTime();
+        V value = store.get(key);
+        storeReadNanos.add(System.nanoTime() - start);
+        if(value == null){
+            misses.increment();
+            if(negativeCaching)
+                cacheIfNotWritten(key, ABSENT, stripe, stamp);
+        }else{
+            storeHits.increment();
+            cacheIfNotWritten(key, value, stripe, stamp);
+            //the cached instance is never handed out
+            value = valueCopier.apply(value);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public synchronized V put(K key, V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        V previous = get(key);
+        write(key, valueCopier.apply(value));
+        return previous;
+    }
+
+    @Override
+    public synchronized V remove(Object key) {
+        V previous = get(key);
+        if(previous != null)
+            write(key, ABSENT);
+        return previous;
+    }
+
+    @Override
+    public synchronized V putIfAbsent(K key, V value) {
+        V previous = get(key);
+        if(previous == null)
+            put(key, value);
+        return previous;
+    }
+
+    @Override
+    public synchronized boolean remove(Object key, Object value) {
+        V previous = get(key);
+        if(previous == null || !previous.equals(value))
+            return false;
+        write(key, ABSENT);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean replace(K key, V oldValue, V newValue) {
+        V previous = get(key);
+        if(previous == null || !previous.equals(oldValue))
+            return false;
+        put(key, newValue);
+        return true;
+    }
+
+    @Override
+    public synchronized V replace(K key, V value) {
+        V previous = get(key);
+        if(previous != null)
+            put(key, value);
+        return previous;
+    }
+
+    @Override
+    public synchronized void clear() {
+        synchronized (flushLock){
+            pendingWrites.clear();
+            synchronized (front){
+                for(int i = 0; i < WRITE_STAMP_STRIPES; i++){
+                    writeStamps.incrementAndGet(i);
+                }
+                front.clear();
+            }
+            store.clear();
+            commit.run();
+            commits.increment();
+        }
+    }
+
+    /**
+     * Returns the number of keys. All pending writes are written before.
+     * @return number of keys
+     */
+    @Override
+    public int size() {
+        flush();
+        return store.size();
+    }
+
+    /**
+     * Returns an unmodifiable view of the entries of the store. All pending writes are written before.
+     * @return the entries of the store
+     */
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        flush();
+        return Collections.unmodifiableSet(store.entrySet());
+    }
+
+    private void cache(Object key, Object value){
+        front.put(key, new FrontEntry(value, timeToLiveMillis > 0 ? System.currentTimeMillis() + timeToLiveMillis : Long.MAX_VALUE));
+    }
+
+    /**
+     * Caches the value of a read only if no write to the stripe of the key happened since the stamp was read.
+     */
+    private void cacheIfNotWritten(Object key, Object value, int stripe, long stamp){
+        synchronized (front){
+            if(writeStamps.get(stripe) == stamp)
+                cache(key, value);
+        }
+    }
+
+    private static int getStripe(Object key){
+        int hash = key.hashCode();
+        return ((hash ^ (hash >>> 16)) & 0x7fffffff) % WRITE_STAMP_STRIPES;
+    }
+
+    private void write(Object key, Object value){
+        if(closed)
+            throw new IllegalStateException("The persistence " + name + " is already closed.");
+        writes.increment();
+        synchronized (front){
+            writeStamps.incrementAndGet(getStripe(key));
+            pendingWrites.put(key, value);
+            cache(key, value);
+        }
+        if(writeBehindDelayMillis <= 0){
+            flush();
+        }else{
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Schedules writing all pending changes after the write-behind delay (if not already scheduled).
+     * Multiple calls within the delay result in one commit.
+     */
+    public void scheduleFlush(){
+        if(writeBehindDelayMillis <= 0){
+            flush();
+            return;
+        }
+        if(flushScheduled.compareAndSet(false, true)){
+            writeBehindExecutor.schedule(() -> {
+                flushScheduled.set(false);
+                try {
+                    flush();
+                } catch (RuntimeException ex) {
+                    LOGGER.error("Could not write the pending changes of persistence {}. They are retried with the next flush.", name, ex);
+                }
+            }, writeBehindDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes all pending changes to the store and commits them (only if there are pending changes).
+     */
+    @SuppressWarnings("unchecked")
+    public void flush(){
+        synchronized (flushLock){
+            if(pendingWrites.isEmpty())
+                return;
+            List<Entry<Object, Object>> writesToFlush = new ArrayList<>(pendingWrites.entrySet());
+            for(Entry<Object, Object> write : writesToFlush){
+                if(write.getValue() == ABSENT){
+                    store.remove(write.getKey());
+                }else{
+                    store.put((K) write.getKey(), (V) write.getValue());
+                }
+            }
+            commit.run();
+            commits.increment();
+            //only remove the written values - newer values are written with the next flush
+            for(Entry<Object, Object> write : writesToFlush){
+                pendingWrites.remove(write.getKey(), write.getValue());
+            }
+            LOGGER.debug("Persistence {}: wrote {} changes.", name, writesToFlush.size());
+        }
+    }
+
+    /**
+     * Writes all pending changes and rejects further writes. The store itself is not closed.
+     */
+    public void close(){
+        flush();
+        closed = true;
+    }
+
+    /**
+     * Returns the current statistics of this map.
+     * @return the statistics
+     */
+    public Statistics getStatistics(){
+        return new Statistics(name, frontHits.sum(), negativeHits.sum(), storeHits.sum(), misses.sum(),
+                storeReadNanos.sum(), writes.sum(), commits.sum(), pendingWrites.size(), front.size());
+    }
+
+    /**
+     * Value in the front together with its expiry time.
+     */
+    private static class FrontEntry {
+        private final Object value;
+        private final long expiresAt;
+
+        FrontEntry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(){
+            return expiresAt != Long.MAX_VALUE && System.currentTimeMillis() > expiresAt;
+        }
+    }
+
+    /**
+     * Snapshot of the hit, miss and latency counters of a {@link TieredPersistenceMap}.
+     */
+    public static class Statistics {
+        private final String name;
+        private final long frontHits;
+        private final long negativeHits;
+        private final long storeHits;
+        private final long misses;
+        private final long storeReadNanos;
+        private final long writes;
+        private final long commits;
+        private final int pendingWrites;
+        private final int frontSize;
+
+        Statistics(String name, long frontHits, long negativeHits, long storeHits, long misses, long storeReadNanos,
+                   long writes, long commits, int pendingWrites, int frontSize) {
+            this.name = name;
+            this.frontHits = frontHits;
+            this.negativeHits = negativeHits;
+            this.storeHits = storeHits;
+            this.misses = misses;
+            this.storeReadNanos = storeReadNanos;
+            this.writes = writes;
+            this.commits = commits;
+            this.pendingWrites = pendingWrites;
+            this.frontSize = frontSize;
+        }
+
+        /**
+         * Returns the number of reads which were answered with a value from the front (or the pending writes).
+         * @return number of front hits
+         */
+        public long getFrontHits() {
+            return frontHits;
+        }
+
+        /**
+         * Returns the number of reads which were answered by a cached non-existing key.
+         * @return number of negative hits
+         */
+        public long getNegativeHits() {
+            return negativeHits;
+        }
+
+        /**
+         * Returns the number of reads which found the value in the store.
+         * @return number of store hits
+         */
+        public long getStoreHits() {
+            return storeHits;
+        }
+
+        /**
+         * Returns the number of reads which did not find the key in the store.
+         * @return number of misses
+         */
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * Returns the number of reads which accessed the store.
+         * @return number of store reads
+         */
+        public long getStoreReads(){
+            return storeHits + misses;
+        }
+
+        /**
+         * Returns the average time in nanoseconds of one read from the store.
+         * @return average latency of the store in nanoseconds (zero if the store was not read)
+         */
+        public double getAverageStoreReadNanos(){
+            long reads = getStoreReads();
+            return reads == 0 ? 0 : (double) storeReadNanos / reads;
+        }
+
+        /**
+         * Returns the ratio of reads which did not access the store.
+         * @return hit rate between zero and one
+         */
+        public double getHitRate(){
+            long total = frontHits + negativeHits + getStoreReads();
+            return total == 0 ? 0 : (double) (frontHits + negativeHits) / total;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getWrites() {
+            return writes;
+        }
+
+        public long getCommits() {
+            return commits;
+        }
+
+        public int getPendingWrites() {
+            return pendingWrites;
+        }
+
+        public int getFrontSize() {
+            return frontSize;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: front hits %d, negative hits %d, store hits %d, misses %d (hit rate %.3f, avg store read %.1f µs), writes %d, commits %d, pending %d",
+                    name, frontHits, negativeHits, storeHits, misses, getHitRate(), getAverageStoreReadNanos() / 1000.0,
+                    writes, commits, pendingWrites);
+        }
+    }
+}
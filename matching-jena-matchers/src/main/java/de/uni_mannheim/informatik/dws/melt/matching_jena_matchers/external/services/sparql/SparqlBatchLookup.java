@@ -0,0 +1,240 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.sparql;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.RequestCoalescer;
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.QueryExecutionFactory;
+import org.apache.jena.query.QuerySolution;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.sparql.util.FmtUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Executes the same lookup for many keys with few SPARQL requests.
+ * The keys are bound with a {@code VALUES} clause to the variable {@code ?key} and the given pattern binds the variable {@code ?value}.
+ * Example pattern: {@code ?key <http://www.w3.org/2004/02/skos/core#altLabel> ?value .}
+ * <p>
+ * Single lookups of concurrent threads are coalesced into batch requests (see {@link RequestCoalescer}) and
+ * {@link #lookupAll(Collection)} splits the keys into chunks which are requested in parallel.
+ * Both share the same bound: at most {@code maximumRequestsInFlight} requests are executed at the same time
+ * (coalesced batches of single lookups are pipelined up to this bound).
+ * Values are returned as strings: the URI of resources and the lexical form of literals.
+ */
+public class SparqlBatchLookup {
+
+    /**
+     * Default logger
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(SparqlBatchLookup.class);
+
+    /**
+     * Default number of keys in one request.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    /**
+     * Default number of requests which are executed at the same time.
+     */
+    public static final int DEFAULT_MAXIMUM_REQUESTS_IN_FLIGHT = 4;
+
+    private final Function<String, QueryExecution> queryExecutionFactory;
+    private final String pattern;
+    private final int batchSize;
+    private final int maximumRequestsInFlight;
+    private final Semaphore requestsInFlight;
+    private final RequestCoalescer<Node, Set<String>> coalescer;
+    private final AtomicLong requestCount;
+
+    /**
+     * Constructor
+     * @param queryExecutionFactory creates the query execution for a query string, e.g. {@link #endpoint(String)}.
+     * @param pattern the graph pattern which uses the variables {@code ?key} and {@code ?value} (full IRIs, no prefixes).
+     * @param batchSize the maximum number of keys in one request.
+     * @param maximumRequestsInFlight the maximum number of requests which are executed at the same time.
+     */
+    public SparqlBatchLookup(Function<String, QueryExecution> queryExecutionFactory, String pattern, int batchSize, int maximumRequestsInFlight) {
+        if(batchSize < 1)
+            throw new IllegalArgumentException("The batch size has to be at least one.");
+        if(maximumRequestsInFlight < 1)
+            throw new IllegalArgumentException("The maximum number of requests in flight has to be at least one.");
+        this.queryExecutionFactory = queryExecutionFactory;
+        this.pattern = pattern;
+        this.batchSize = batchSize;
+        this.maximumRequestsInFlight = maximumRequestsInFlight;
+        this.requestsInFlight = new Semaphore(maximumRequestsInFlight, true);
+        this.coalescer = new RequestCoalescer<>(this::executeBatch, batchSize, maximumRequestsInFlight);
+        this.requestCount = new AtomicLong();
+    }
+
+    /**
+     * Constructor with default batch size and maximum number of requests in flight.
+     * @param queryExecutionFactory creates the query execution for a query string, e.g. {@link #endpoint(String)}.
+     * @param pattern the graph pattern which uses the variables {@code ?key} and {@code ?value} (full IRIs, no prefixes).
+     */
+    public SparqlBatchLookup(Function<String, QueryExecution> queryExecutionFactory, String pattern) {
+        this(queryExecutionFactory, pattern, DEFAULT_BATCH_SIZE, DEFAULT_MAXIMUM_REQUESTS_IN_FLIGHT);
+    }
+
+    /**
+     * Query execution factory for a remote SPARQL endpoint.
+     * @param endpointUrl the URL of the endpoint
+     * @return function which creates the query execution for a query string.
+     */
+    public static Function<String, QueryExecution> endpoint(String endpointUrl){
+        return query -> QueryExecutionFactory.sparqlService(endpointUrl, query);
+    }
+
+    /**
+     * Returns the values of one key. Concurrent lookups are executed together.
+     * @param key the key (URI or literal node)
+     * @return the values, empty set if there are none.
+     */
+    public Set<String> lookup(Node key){
+        Set<String> values = coalescer.get(key);
+        return values == null ? new HashSet<>() : values;
+    }
+
+    /**
+     * Returns the values of all given keys. The keys are split into chunks which are requested in parallel.
+     * @param keys the keys (URI or literal nodes)
+     * @return map from each key to its values (empty set if there are none)
+     */
+    public Map<Node, Set<String>> lookupAll(Collection<Node> keys){
+        List<Node> distinctKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+        List<Callable<Map<Node, Set<String>>>> chunks = new ArrayList<>();
+        for(int i = 0; i < distinctKeys.size(); i += batchSize){
+            List<Node> chunk = distinctKeys.subList(i, Math.min(i + batchSize, distinctKeys.size()));
+            chunks.add(() -> executeBatch(chunk));
+        }
+        Map<Node, Set<String>> result = new HashMap<>();
+        if(chunks.size() <= 1){
+            for(Callable<Map<Node, Set<String>>> chunk : chunks){
+                result.putAll(call(chunk));
+            }
+            return result;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(chunks.size(), maximumRequestsInFlight));
+        try {
+            for(Future<Map<Node, Set<String>>> future : executor.invokeAll(chunks)){
+                result.putAll(future.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while executing the SPARQL lookups.", ex);
+        } catch (ExecutionException ex) {
+            if(ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            throw new IllegalStateException("Could not execute the SPARQL lookups.", ex.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return result;
+    }
+
+    private static Map<Node, Set<String>> call(Callable<Map<Node, Set<String>>> callable){
+        try {
+            return callable.call();
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new IllegalStateException("Could not execute the SPARQL lookups.", ex);
+        }
+    }
+
+    /**
+     * Executes one request for the given keys.
+     * @param keys the keys
+     * @return map which contains every given key (the values might be empty)
+     */
+    private Map<Node, Set<String>> executeBatch(List<Node> keys){
+        Map<Node, Set<String>> result = new HashMap<>();
+        for(Node key : keys){
+            result.put(key, new HashSet<>());
+        }
+        if(keys.isEmpty())
+            return result;
+        String queryString = buildQuery(keys);
+        try {
+            requestsInFlight.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a SPARQL request.", ex);
+        }
+        try {
+            requestCount.incrementAndGet();
+            QueryExecution queryExecution = queryExecutionFactory.apply(queryString);
+            try {
+                ResultSet resultSet = SparqlServices.safeExecution(queryExecution);
+                while (resultSet.hasNext()) {
+                    QuerySolution solution = resultSet.next();
+                    RDFNode key = solution.get("key");
+                    RDFNode value = solution.get("value");
+                    if(key == null || value == null)
+                        continue;
+                    Set<String> values = result.get(key.asNode());
+                    if(values == null){
+                        LOGGER.debug("The SPARQL lookup returned the key {} which was not requested.", key);
+                        continue;
+                    }
+                    values.add(value.isLiteral() ? value.asLiteral().getLexicalForm() :
+                            value.isURIResource() ? value.asResource().getURI() : value.toString());
+                }
+            } finally {
+                queryExecution.close();
+            }
+        } finally {
+            requestsInFlight.release();
+        }
+        return result;
+    }
+
+    /**
+     * Builds the query for the given keys.
+     * @param keys the keys
+     * @return the query as string
+     */
+    String buildQuery(List<Node> keys){
+        StringBuilder query = new StringBuilder();
+        query.append("SELECT DISTINCT ?key ?value WHERE {\n  VALUES ?key {");
+        for(Node key : keys){
+            query.append(" ").append(FmtUtils.stringForNode(key));
+        }
+        query.append(" }\n  ").append(pattern).append("\n}");
+        return query.toString();
+    }
+
+    /**
+     * Returns the number of requests which were executed so far.
+     * @return number of requests
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getMaximumRequestsInFlight() {
+        return maximumRequestsInFlight;
+    }
+}
@@ -3,6 +3,9 @@ package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.webI
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.dataStructures.StringString;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.stringOperations.StringOperations;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence.PersistenceService;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.sparql.SparqlBatchLookup;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
 import org.apache.jena.query.*;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.tdb.TDBFactory;
@@ -13,8 +16,12 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -55,6 +62,11 @@ public class WebIsAlodSPARQLservice {
      */
     private ConcurrentMap<String, String> labelUriBuffer;
 
+    /**
+     * Batched hypernym lookups for the SPARQL endpoint (one per minimum confidence).
+     */
+    private ConcurrentMap<Double, SparqlBatchLookup> hypernymLookups = new ConcurrentHashMap<>();
+
     /**
      * If the disk-buffer is disabled, no buffers are read/written from/to the disk.
      * Default: true.
@@ -377,6 +389,14 @@ public class WebIsAlodSPARQLservice {
         if (hypernymBuffer.get(key) != null) {
             return hypernymBuffer.get(key);
         }
+        Set<String> result = new HashSet<>();
+        if (!isUseTdb) {
+            // concurrent requests are sent together
+            result.addAll(getHypernymLookup(confidence).lookup(NodeFactory.createURI(uri)));
+            hypernymBuffer.put(key, result);
+            commitHypernymBuffer();
+            return result;
+        }
         boolean isClassic = this.webIsAlodEndpoint.equals(WebIsAlodEndpoint.ALOD_CLASSIC_ENDPOINT);
 
         String queryString;
@@ -400,13 +420,7 @@ public class WebIsAlodSPARQLservice {
             queryString = "SELECT DISTINCT ?hypernym WHERE\n" +
                     "{ <" + uri + "> <http://www.w3.org/2004/02/skos/core#broader> ?hypernym .}";
         }
-        QueryExecution qe;
-        if (isUseTdb) {
-            qe = QueryExecutionFactory.create(queryString, tdbModel);
-        } else {
-            qe = QueryExecutionFactory.sparqlService(this.webIsAlodEndpoint.toString(), queryString);
-        }
-        Set<String> result = new HashSet<>();
+        QueryExecution qe = QueryExecutionFactory.create(queryString, tdbModel);
         ResultSet queryResult = safeExecution(qe);
         while (queryResult.hasNext()) {
             QuerySolution solution = queryResult.next();
@@ -414,12 +428,73 @@ public class WebIsAlodSPARQLservice {
         }
         qe.close();
         hypernymBuffer.put(key, result);
+        commitHypernymBuffer();
+        return result;
+    }
+
+    /**
+     * Obtain isa concepts for many URIs. In case of the SPARQL endpoint, all URIs which are not buffered yet
+     * are retrieved with few batched requests and added to the hypernym buffer.
+     *
+     * @param uris       The URIs for which hypernyms shall be found.
+     * @param confidence Minimum confidence.
+     * @return A map from each URI to its hypernyms.
+     */
+    public Map<String, Set<String>> getHypernyms(Collection<String> uris, double confidence) {
+        if (confidence < 0) {
+            confidence = 0.0;
+        }
+        if (!isUseTdb) {
+            List<Node> missing = new ArrayList<>();
+            for (String uri : uris) {
+                if (uri == null || uri.equals("")) continue;
+                String plainUri = StringOperations.removeTag(uri);
+                if (hypernymBuffer.get(plainUri + "_" + confidence) == null) {
+                    missing.add(NodeFactory.createURI(plainUri));
+                }
+            }
+            if (!missing.isEmpty()) {
+                for (Map.Entry<Node, Set<String>> entry : getHypernymLookup(confidence).lookupAll(missing).entrySet()) {
+                    hypernymBuffer.put(entry.getKey().getURI() + "_" + confidence, new HashSet<>(entry.getValue()));
+                }
+                commitHypernymBuffer();
+            }
+        }
+        Map<String, Set<String>> result = new HashMap<>();
+        for (String uri : uris) {
+            result.put(uri, getHypernyms(uri, confidence));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the batched lookup of hypernyms (skos:broader) for the given minimum confidence.
+     *
+     * @param confidence Minimum confidence.
+     * @return The lookup.
+     */
+    private SparqlBatchLookup getHypernymLookup(double confidence) {
+        return hypernymLookups.computeIfAbsent(confidence, c -> {
+            String pattern;
+            if (c != 0.0) {
+                String confidencePrefix = this.webIsAlodEndpoint.isClassic() ? CLASSIC_CONFIDENCE : XL_CONFIDENCE;
+                String hasConfidence = confidencePrefix.substring(0, confidencePrefix.length() - 1) + "hasConfidence>";
+                pattern = "GRAPH ?g { ?key <http://www.w3.org/2004/02/skos/core#broader> ?value . }\n" +
+                        "  ?g " + hasConfidence + " ?minConfidence .\n" +
+                        "  FILTER(?minConfidence > " + c + ")";
+            } else {
+                pattern = "?key <http://www.w3.org/2004/02/skos/core#broader> ?value .";
+            }
+            return new SparqlBatchLookup(SparqlBatchLookup.endpoint(this.webIsAlodEndpoint.toString()), pattern);
+        });
+    }
+
+    private void commitHypernymBuffer() {
         if (this.webIsAlodEndpoint.equals(WebIsAlodEndpoint.ALOD_CLASSIC_ENDPOINT)) {
             commit(ALOD_CLASSIC_HYPERNYM_BUFFER);
         } else {
             commit(ALOD_XL_HYPERNYM_BUFFER);
         }
-        return result;
     }
 
     /**
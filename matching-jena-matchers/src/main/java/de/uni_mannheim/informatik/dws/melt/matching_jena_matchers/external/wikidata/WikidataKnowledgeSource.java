@@ -4,7 +4,10 @@ import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.Seman
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.LabelToConceptLinker;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.Language;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence.PersistenceService;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.sparql.SparqlBatchLookup;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.stringOperations.StringOperations;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
 import org.apache.jena.query.*;
 import org.javatuples.Pair;
 import org.slf4j.Logger;
@@ -13,6 +16,7 @@ import org.slf4j.LoggerFactory;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 
 import static de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence.PersistenceService.PreconfiguredPersistences.*;
 import static de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.sparql.SparqlServices.safeAsk;
@@ -38,13 +42,30 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
     /**
      * Linker for the Wikidata knowledge source.
      */
-    private WikidataLinker linker = new WikidataLinker();
+    private WikidataLinker linker;
 
     /**
      * The public SPARQL endpoint.
      */
     private static final String ENDPOINT_URL = "https://query.wikidata.org/bigdata/namespace/wdq/sparql/";
 
+    /**
+     * Pattern for {@link SparqlBatchLookup} to retrieve the direct hypernyms (instance of and subclass of).
+     */
+    private static final String HYPERNYM_PATTERN = "{ ?key <http://www.wikidata.org/prop/direct/P31> ?value . }\n" +
+            "  UNION\n" +
+            "  { ?key <http://www.wikidata.org/prop/direct/P279> ?value . }";
+
+    /**
+     * Creates the query executions (by default for the public SPARQL endpoint).
+     */
+    private Function<String, QueryExecution> queryExecutionFactory;
+
+    /**
+     * Batched lookups (one for each query pattern). Concurrent requests with the same pattern are sent together.
+     */
+    private ConcurrentMap<String, SparqlBatchLookup> batchLookups = new ConcurrentHashMap<>();
+
     /**
      * Default logger
      */
@@ -80,10 +101,43 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
      */
     public WikidataKnowledgeSource(boolean isDiskBufferEnabled){
         this.isDiskBufferEnabled = isDiskBufferEnabled;
+        this.queryExecutionFactory = SparqlBatchLookup.endpoint(ENDPOINT_URL);
+        this.linker = new WikidataLinker();
         initializeBuffers();
-        if(this.linker == null){
-            this.linker = new WikidataLinker();
+    }
+
+    /**
+     * Constructor which uses the given query executions instead of the public endpoint.
+     *
+     * @param isDiskBufferEnabled True if the buffer shall be enabled.
+     * @param queryExecutionFactory Creates the query execution for a query string (e.g. for a mirror or a local dataset).
+     */
+    public WikidataKnowledgeSource(boolean isDiskBufferEnabled, Function<String, QueryExecution> queryExecutionFactory){
+        this.isDiskBufferEnabled = isDiskBufferEnabled;
+        this.queryExecutionFactory = queryExecutionFactory;
+        this.linker = new WikidataLinker(isDiskBufferEnabled, queryExecutionFactory);
+        initializeBuffers();
+    }
+
+    /**
+     * Returns the batched lookup for the given pattern.
+     * @param pattern The pattern (see {@link SparqlBatchLookup}).
+     * @return The lookup which is shared by all requests with the same pattern.
+     */
+    private SparqlBatchLookup getBatchLookup(String pattern){
+        return batchLookups.computeIfAbsent(pattern, p -> new SparqlBatchLookup(queryExecutionFactory, p));
+    }
+
+    /**
+     * Returns the number of batched SPARQL requests which were executed so far.
+     * @return Number of requests.
+     */
+    public long getBatchRequestCount(){
+        long count = 0;
+        for(SparqlBatchLookup lookup : batchLookups.values()){
+            count += lookup.getRequestCount();
         }
+        return count;
     }
 
     /**
@@ -166,12 +220,7 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
      * @return True, if a concept has the label as rdfs:label.
      */
     private boolean isInDictionaryWithLabelAskQuery(String word, Language language) {
-        String queryString = "ASK WHERE { ?c <http://www.w3.org/2000/01/rdf-schema#label> \"" + word + "\"@" + language.toSparqlChar2() + " . }";
-        //System.out.println(queryString);
-        Query query = QueryFactory.create(queryString);
-        QueryExecution queryExecution = QueryExecutionFactory.sparqlService(ENDPOINT_URL, query);
-        boolean result = queryExecution.execAsk();
-        return result;
+        return isLabelOfAnyConcept(word, language, "http://www.w3.org/2000/01/rdf-schema#label");
     }
 
     /**
@@ -182,12 +231,21 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
      * @return True, if a concept has the label as skos:altLabel.
      */
     private boolean isInDictionaryWithAltLabelAskQuery(String word, Language language) {
-        String queryString = "ASK WHERE { ?c <http://www.w3.org/2004/02/skos/core#altLabel> \"" + word + "\"@" + language.toSparqlChar2() + " . }";
-        //System.out.println(queryString);
-        Query query = QueryFactory.create(queryString);
-        QueryExecution queryExecution = QueryExecutionFactory.sparqlService(ENDPOINT_URL, query);
-        boolean result = queryExecution.execAsk();
-        return result;
+        return isLabelOfAnyConcept(word, language, "http://www.w3.org/2004/02/skos/core#altLabel");
+    }
+
+    /**
+     * Replacement of an ask query which is coalesced with concurrent requests: the existence of any
+     * concept with the given label is checked for many labels at once.
+     *
+     * @param word     The concept label that shall be looked up.
+     * @param language The language of the label.
+     * @param labelProperty The URI of the label property.
+     * @return True, if a concept has the label.
+     */
+    private boolean isLabelOfAnyConcept(String word, Language language, String labelProperty) {
+        String pattern = "?c <" + labelProperty + "> ?key . BIND(true AS ?value)";
+        return !getBatchLookup(pattern).lookup(NodeFactory.createLiteral(word, language.toSparqlChar2())).isEmpty();
     }
 
     @Override
@@ -205,32 +263,84 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
     public HashSet<String> getSynonyms(String linkedConcept, Language language) {
         String key = linkedConcept + "_" + language.toSparqlChar2();
         if (synonymyBuffer.containsKey(key)) {
-            return synonymyBuffer.get(key);
+            // a copy such that callers cannot change the buffer
+            return new HashSet<>(synonymyBuffer.get(key));
         }
 
         HashSet<String> result = new HashSet<>();
         if (linkedConcept.startsWith(WikidataLinker.MULTI_CONCEPT_PREFIX)) {
             Set<String> individualLinks = this.linker.getUris(linkedConcept);
-            for (String individualLink : individualLinks) {
-                result.addAll(getSynonyms(individualLink, language));
+            for (HashSet<String> synonyms : getSynonyms(individualLinks, language).values()) {
+                result.addAll(synonyms);
             }
         } else {
-            String queryString = "SELECT ?l WHERE { <" + linkedConcept + "> <http://www.w3.org/2004/02/skos/core#altLabel> ?l . FILTER(LANG(?l) = '" + language.toSparqlChar2() + "') }";
-            //System.out.println(queryString);
-            Query query = QueryFactory.create(queryString);
-            QueryExecution queryExecution = QueryExecutionFactory.sparqlService(ENDPOINT_URL, query);
-            ResultSet resultSet = queryExecution.execSelect();
-            while (resultSet.hasNext()) {
-                QuerySolution solution = resultSet.next();
-                result.add(solution.getLiteral("?l").getLexicalForm());
-            }
-            queryExecution.close();
+            // concurrent requests are sent together
+            result.addAll(getBatchLookup(getSynonymPattern(language)).lookup(NodeFactory.createURI(linkedConcept)));
         }
         synonymyBuffer.put(key, result);
         commitAll(WIKIDATA_SYNONYMY_BUFFER);
         return result;
     }
 
+    /**
+     * Language-bound synonymy retrieval for many concepts at once. All concepts which are not buffered yet are
+     * retrieved with few batched SPARQL requests and added to the synonymy buffer.
+     *
+     * @param linkedConcepts The linked concepts (URIs or multi concept links) for which synonyms shall be retrieved.
+     * @param language       The language of the synonyms.
+     * @return A map from each linked concept to its synonyms.
+     */
+    public Map<String, HashSet<String>> getSynonyms(Collection<String> linkedConcepts, Language language) {
+        List<Node> missing = new ArrayList<>();
+        for (String uri : getUrisOfUnbufferedConcepts(linkedConcepts, synonymyBuffer, u -> u + "_" + language.toSparqlChar2())) {
+            missing.add(NodeFactory.createURI(uri));
+        }
+        if (!missing.isEmpty()) {
+            for (Map.Entry<Node, Set<String>> entry : getBatchLookup(getSynonymPattern(language)).lookupAll(missing).entrySet()) {
+                synonymyBuffer.put(entry.getKey().getURI() + "_" + language.toSparqlChar2(), new HashSet<>(entry.getValue()));
+            }
+            commitAll(WIKIDATA_SYNONYMY_BUFFER);
+        }
+        Map<String, HashSet<String>> result = new HashMap<>();
+        for (String linkedConcept : linkedConcepts) {
+            result.put(linkedConcept, getSynonyms(linkedConcept, language));
+        }
+        return result;
+    }
+
+    /**
+     * Pattern for {@link SparqlBatchLookup} to retrieve the alternative labels in the given language.
+     * @param language The language of the labels.
+     * @return The pattern.
+     */
+    private static String getSynonymPattern(Language language){
+        return "?key <http://www.w3.org/2004/02/skos/core#altLabel> ?value . FILTER(LANG(?value) = '" + language.toSparqlChar2() + "')";
+    }
+
+    /**
+     * Determines the URIs which need to be requested because neither the linked concept nor the URI is in the buffer.
+     * @param linkedConcepts The linked concepts (URIs or multi concept links).
+     * @param buffer The buffer to check.
+     * @param keyFunction Creates the buffer key for a URI or link.
+     * @return The URIs which are not buffered.
+     */
+    private Set<String> getUrisOfUnbufferedConcepts(Collection<String> linkedConcepts, Map<String, ?> buffer, Function<String, String> keyFunction){
+        Set<String> result = new HashSet<>();
+        for (String linkedConcept : linkedConcepts) {
+            if (linkedConcept == null || buffer.containsKey(keyFunction.apply(linkedConcept))) continue;
+            if (linkedConcept.startsWith(WikidataLinker.MULTI_CONCEPT_PREFIX)) {
+                Set<String> individualLinks = this.linker.getUris(linkedConcept);
+                if (individualLinks == null) continue;
+                for (String individualLink : individualLinks) {
+                    if (!buffer.containsKey(keyFunction.apply(individualLink))) result.add(individualLink);
+                }
+            } else {
+                result.add(linkedConcept);
+            }
+        }
+        return result;
+    }
+
     /**
      * For multiple words look for all links.
      *
@@ -243,12 +353,12 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
         // result data structure
         ArrayList<String> result = new ArrayList<>();
 
-        // linking mechanism
-        LabelToConceptLinker linker = getLinker();
+        // link all labels with batched requests
+        Map<String, String> links = this.linker.linkToSingleConcepts(Arrays.asList(conceptsToBeLinked), Language.ENGLISH);
 
-        // link each of the given labels in variable 'result'
+        // collect the links of the given labels in variable 'result'
         for (String label : conceptsToBeLinked) {
-            String link = linker.linkToSingleConcept(label);
+            String link = links.get(label);
             if (link == null) {
                 LOGGER.debug("Concept '" + label + "' could not be linked into the given knowledge graph.");
             } else {
@@ -285,6 +395,14 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
 
             LOGGER.debug("\n\nIteration " + (currentHops + 1));
 
+            // retrieve the hypernyms of all concepts of this hop with batched requests (they are buffered afterwards)
+            Set<String> conceptsOfHop = new HashSet<>();
+            for (String link : links) {
+                if (linksForNextIteration.containsKey(link)) conceptsOfHop.addAll(linksForNextIteration.get(link));
+                else conceptsOfHop.add(link);
+            }
+            getHypernyms(conceptsOfHop);
+
             for (String link : links) {
 
                 HashSet<String> nextNextIteration = new HashSet<>();
@@ -567,7 +685,7 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
         if(superIsUri && subIsUri){
             // we have two URIs: end of recursion
             String queryString = buildHypernymDepthQuery(superConcept, subConcept, depth);
-            boolean result = safeAsk(queryString, ENDPOINT_URL);
+            boolean result = safeAsk(queryExecutionFactory.apply(queryString));
             askBuffer.put(key, result);
             commitAll();
             return result;
@@ -652,7 +770,8 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
         String key = linkedConcept + "_hypernym_uris";
 
         if(hypernymyBuffer.containsKey(key)){
-            return hypernymyBuffer.get(key);
+            // a copy such that callers cannot change the buffer
+            return new HashSet<>(hypernymyBuffer.get(key));
         }
 
         if (linkedConcept.startsWith(WikidataLinker.MULTI_CONCEPT_PREFIX)) {
@@ -660,36 +779,43 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
             if (individualLinks == null) {
                 return result;
             }
-            for (String individualLink : individualLinks) {
-                result.addAll(getHypernyms(individualLink));
+            for (HashSet<String> hypernyms : getHypernyms(individualLinks).values()) {
+                result.addAll(hypernyms);
             }
         } else {
-            StringBuilder queryString = new StringBuilder();
-            queryString
-                    .append("PREFIX skos: <http://www.w3.org/2004/02/skos/core#>\n")
-                    .append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#>\n")
-                    .append("PREFIX wdt: <http://www.wikidata.org/prop/direct/>\n")
-                    .append("SELECT DISTINCT ?c WHERE { \n")
-                    .append("  { <" + linkedConcept + "> wdt:P31 ?c . }\n")
-                    .append("  UNION\n")
-                    .append("  { <" + linkedConcept + "> wdt:P279 ?c . }\n")
-                    .append("}");
-            //System.out.println(queryString);
-            Query query = QueryFactory.create(queryString.toString());
-            QueryExecution queryExecution = QueryExecutionFactory.sparqlService(ENDPOINT_URL, query);
-            ResultSet resultSet = queryExecution.execSelect();
-            while (resultSet.hasNext()) {
-                QuerySolution solution = resultSet.next();
-                String uri = solution.getResource("c").getURI();
-                result.add(uri);
-            }
-            queryExecution.close();
+            // concurrent requests are sent together
+            result.addAll(getBatchLookup(HYPERNYM_PATTERN).lookup(NodeFactory.createURI(linkedConcept)));
         }
         hypernymyBuffer.put(key, result);
         commitAll(WIKIDATA_HYPERNYMY_BUFFER);
         return result;
     }
 
+    /**
+     * Retrieves the direct hypernyms of many concepts at once. All concepts which are not buffered yet are
+     * retrieved with few batched SPARQL requests and added to the hypernymy buffer.
+     *
+     * @param linkedConcepts The linked concepts (URIs or multi concept links).
+     * @return A map from each linked concept to its hypernyms (URIs).
+     */
+    public Map<String, HashSet<String>> getHypernyms(Collection<String> linkedConcepts) {
+        List<Node> missing = new ArrayList<>();
+        for (String uri : getUrisOfUnbufferedConcepts(linkedConcepts, hypernymyBuffer, u -> u + "_hypernym_uris")) {
+            missing.add(NodeFactory.createURI(uri));
+        }
+        if (!missing.isEmpty()) {
+            for (Map.Entry<Node, Set<String>> entry : getBatchLookup(HYPERNYM_PATTERN).lookupAll(missing).entrySet()) {
+                hypernymyBuffer.put(entry.getKey().getURI() + "_hypernym_uris", new HashSet<>(entry.getValue()));
+            }
+            commitAll(WIKIDATA_HYPERNYMY_BUFFER);
+        }
+        Map<String, HashSet<String>> result = new HashMap<>();
+        for (String linkedConcept : linkedConcepts) {
+            result.put(linkedConcept, getHypernyms(linkedConcept));
+        }
+        return result;
+    }
+
     /**
      * Uses wdt:P31 (instance of) as well as wdt:P279 (subclass of).
      *
@@ -738,8 +864,7 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
                     "  FILTER(LANG(?l) = '" + language.toSparqlChar2() + "')\n" +
                     "}";
             //System.out.println(queryString);
-            Query query = QueryFactory.create(queryString);
-            QueryExecution queryExecution = QueryExecutionFactory.sparqlService(ENDPOINT_URL, query);
+            QueryExecution queryExecution = queryExecutionFactory.apply(queryString);
             ResultSet resultSet = queryExecution.execSelect();
             while (resultSet.hasNext()) {
                 QuerySolution solution = resultSet.next();
@@ -786,8 +911,7 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
                     "  { <" + linkedConcept + "> skos:altLabel ?l .}\n" +
                     "  FILTER(LANG(?l) = '" + language.toSparqlChar2() + "') }";
             //System.out.println(queryString);
-            Query query = QueryFactory.create(queryString);
-            QueryExecution queryExecution = QueryExecutionFactory.sparqlService(ENDPOINT_URL, query);
+            QueryExecution queryExecution = queryExecutionFactory.apply(queryString);
             ResultSet resultSet = queryExecution.execSelect();
             while (resultSet.hasNext()) {
                 QuerySolution solution = resultSet.next();
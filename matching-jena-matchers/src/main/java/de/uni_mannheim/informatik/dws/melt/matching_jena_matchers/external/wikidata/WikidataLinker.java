@@ -7,7 +7,10 @@ import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.servi
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.labelToConcept.nGramTokenizers.MaxGramLeftToRightTokenizer;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.labelToConcept.stringModifiers.*;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence.PersistenceService;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.sparql.SparqlBatchLookup;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.stringOperations.StringOperations;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
 import org.apache.jena.query.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,6 +18,7 @@ import org.slf4j.LoggerFactory;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 
 import static de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence.PersistenceService.PreconfiguredPersistences.WIKIDATA_LABEL_LINK_BUFFER;
 
@@ -52,6 +56,23 @@ public class WikidataLinker implements LabelToConceptLinker, MultiConceptLinker
      */
     private static final String ENDPOINT_URL = "https://query.wikidata.org/bigdata/namespace/wdq/sparql/";
 
+    /**
+     * Pattern for {@link SparqlBatchLookup} which finds the concepts with the label (key) as rdfs:label or skos:altLabel.
+     */
+    private static final String LABEL_LINK_PATTERN = "{ ?value <http://www.w3.org/2000/01/rdf-schema#label> ?key . }\n" +
+            "  UNION\n" +
+            "  { ?value <http://www.w3.org/2004/02/skos/core#altLabel> ?key . }";
+
+    /**
+     * Creates the query executions (by default for the public SPARQL endpoint).
+     */
+    private Function<String, QueryExecution> queryExecutionFactory;
+
+    /**
+     * Batched lookup of labels which is used to link many labels at once.
+     */
+    private SparqlBatchLookup labelLinkLookup;
+
     /**
      * Linker name
      */
@@ -102,7 +123,19 @@ public class WikidataLinker implements LabelToConceptLinker, MultiConceptLinker
      * @param isDiskBufferEnabled True if the disk buffer shall be enabled.
      */
     public WikidataLinker(boolean isDiskBufferEnabled){
+        this(isDiskBufferEnabled, SparqlBatchLookup.endpoint(ENDPOINT_URL));
+    }
+
+    /**
+     * Constructor
+     *
+     * @param isDiskBufferEnabled True if the disk buffer shall be enabled.
+     * @param queryExecutionFactory Creates the query execution for a query string (e.g. for a mirror or a local dataset).
+     */
+    public WikidataLinker(boolean isDiskBufferEnabled, Function<String, QueryExecution> queryExecutionFactory){
         this.isDiskBufferEnabled = isDiskBufferEnabled;
+        this.queryExecutionFactory = queryExecutionFactory;
+        this.labelLinkLookup = new SparqlBatchLookup(queryExecutionFactory, LABEL_LINK_PATTERN);
         initializeBuffers();
         stringModificationSequence = new LinkedList<>();
         stringModificationSequence.add(new TokenizeConcatSpaceModifier());
@@ -196,6 +229,51 @@ public class WikidataLinker implements LabelToConceptLinker, MultiConceptLinker
         }
     }
 
+    /**
+     * Links many labels at once. If all string modifications are performed (default), the labels are looked up
+     * with few batched SPARQL requests and the results are stored in the linking buffer.
+     * @param labelsToBeLinked The labels which shall be linked.
+     * @param language Language of the labels.
+     * @return Map from each label to its link (see {@link WikidataLinker#linkToSingleConcept(String, Language)}).
+     * The value is null if the label could not be linked.
+     */
+    public Map<String, String> linkToSingleConcepts(Collection<String> labelsToBeLinked, Language language) {
+        Map<String, String> result = new HashMap<>();
+        if(isRunAllStringModifications && language != null) {
+            Map<String, Set<Node>> modificationsPerLabel = new HashMap<>();
+            Set<Node> allModifications = new HashSet<>();
+            for (String label : labelsToBeLinked) {
+                if (label == null || label.trim().equals("") || multiLinkStore.containsKey(getAllModificationsKey(label, language)))
+                    continue;
+                Set<Node> modifications = new HashSet<>();
+                for (StringModifier modifier : stringModificationSet) {
+                    modifications.add(NodeFactory.createLiteral(modifier.modifyString(label), language.toSparqlChar2()));
+                }
+                modificationsPerLabel.put(label, modifications);
+                allModifications.addAll(modifications);
+            }
+            if (!modificationsPerLabel.isEmpty()) {
+                Map<Node, Set<String>> links = labelLinkLookup.lookupAll(allModifications);
+                for (Map.Entry<String, Set<Node>> entry : modificationsPerLabel.entrySet()) {
+                    Set<String> multiLinkLinks = new HashSet<>();
+                    for (Node modification : entry.getValue()) {
+                        multiLinkLinks.addAll(links.getOrDefault(modification, Collections.emptySet()));
+                    }
+                    multiLinkStore.put(getAllModificationsKey(entry.getKey(), language), multiLinkLinks);
+                }
+                commit();
+            }
+        }
+        for (String label : labelsToBeLinked) {
+            result.put(label, linkToSingleConcept(label, language));
+        }
+        return result;
+    }
+
+    private static String getAllModificationsKey(String labelToBeLinked, Language language){
+        return MULTI_CONCEPT_PREFIX + labelToBeLinked + "_" + language.toSparqlChar2() + "_all_modifications";
+    }
+
     /**
      * Helper method. Multiple string operations are tried out. If one wikidata concept
      * could be found, the concept is immediately returned and the process stops prematurely.
@@ -254,7 +332,7 @@ public class WikidataLinker implements LabelToConceptLinker, MultiConceptLinker
      * @return Link as String (!= Wikidata URI)
      */
     private String linkToSingleConceptByRunningAllModifications(String labelToBeLinked, Language language){
-        String key = MULTI_CONCEPT_PREFIX + labelToBeLinked + "_" + language.toSparqlChar2() + "_all_modifications";
+        String key = getAllModificationsKey(labelToBeLinked, language);
 
         if(multiLinkStore.containsKey(key)){
             LOGGER.debug("Found in buffer: " + key);
@@ -343,7 +421,7 @@ public class WikidataLinker implements LabelToConceptLinker, MultiConceptLinker
         List<String> result = new ArrayList<>();
         String queryString = "SELECT ?c WHERE { ?c <http://www.w3.org/2000/01/rdf-schema#label> \"" + label + "\"@" + language.toSparqlChar2() + " . }";
         //System.out.println(queryString);
-        QueryExecution queryExecution = QueryExecutionFactory.sparqlService(ENDPOINT_URL, queryString);
+        QueryExecution queryExecution = queryExecutionFactory.apply(queryString);
         ResultSet resultSet = queryExecution.execSelect();
         while (resultSet.hasNext()) {
             QuerySolution solution = resultSet.next();
@@ -375,8 +453,7 @@ public class WikidataLinker implements LabelToConceptLinker, MultiConceptLinker
             }
         }
         queryString += "}";
-        Query query = QueryFactory.create(queryString);
-        QueryExecution queryExecution = QueryExecutionFactory.sparqlService(ENDPOINT_URL, query);
+        QueryExecution queryExecution = queryExecutionFactory.apply(queryString);
         ResultSet resultSet = queryExecution.execSelect();
         while (resultSet.hasNext()) {
             QuerySolution solution = resultSet.next();
@@ -403,8 +480,7 @@ public class WikidataLinker implements LabelToConceptLinker, MultiConceptLinker
         List<String> result = new ArrayList<>();
         String queryString = "SELECT ?c WHERE { ?c <http://www.w3.org/2004/02/skos/core#altLabel> \"" + label + "\"@" + language.toSparqlChar2() + " . }";
         //System.out.println(queryString);
-        Query query = QueryFactory.create(queryString);
-        QueryExecution queryExecution = QueryExecutionFactory.sparqlService(ENDPOINT_URL, query);
+        QueryExecution queryExecution = queryExecutionFactory.apply(queryString);
         ResultSet resultSet = queryExecution.execSelect();
         while (resultSet.hasNext()) {
             QuerySolution solution = resultSet.next();
@@ -4,6 +4,7 @@ package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.wikt
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.Language;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.SemanticWordRelationDictionary;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.LabelToConceptLinker;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.SynonymKeyCapability;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence.PersistenceService;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.sparql.SparqlServices;
 import org.apache.jena.query.*;
@@ -24,7 +25,7 @@ import static de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.externa
  * Class utilizing DBnary, a SPARQL endpoint for Wiktionary.
  * Alternatively, TDB1 can be used as offline storage.
  */
-public class WiktionaryKnowledgeSource extends SemanticWordRelationDictionary {
+public class WiktionaryKnowledgeSource extends SemanticWordRelationDictionary implements SynonymKeyCapability {
 
 
     /**
@@ -240,6 +241,22 @@ public class WiktionaryKnowledgeSource extends SemanticWordRelationDictionary {
         return false;
     }
 
+    /**
+     * Returns the linked concept together with its encoded synonyms (see {@link #getSynonymsEncoded(String)}).
+     * @param linkedConcept The linked concept.
+     * @return Set of synonymy keys.
+     */
+    @Override
+    public Set<String> getSynonymKeys(String linkedConcept){
+        Set<String> keys = new HashSet<>();
+        Set<String> synonyms = getSynonymsEncoded(linkedConcept);
+        if(synonyms != null){
+            keys.addAll(synonyms);
+        }
+        keys.add(linkedConcept);
+        return keys;
+    }
+
     public Set<String> getSynonymsEncoded(String linkedConcept){
         Set<String> result = getSynonymsLexical(linkedConcept);
         if(result == null){
@@ -2,6 +2,7 @@ package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.word
 
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.LabelToConceptLinker;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.SemanticWordRelationDictionary;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.SynonymKeyCapability;
 import net.sf.extjwnl.JWNLException;
 import net.sf.extjwnl.data.*;
 import net.sf.extjwnl.data.IndexWord;
@@ -14,15 +15,15 @@ import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * API for WordNet requests.
  */
-public class WordNetKnowledgeSource extends SemanticWordRelationDictionary {
+public class WordNetKnowledgeSource extends SemanticWordRelationDictionary implements SynonymKeyCapability {
 
 
 	private static Logger LOGGER = LoggerFactory.getLogger(WordNetKnowledgeSource.class);
@@ -48,7 +49,7 @@ public class WordNetKnowledgeSource extends SemanticWordRelationDictionary {
 	public WordNetKnowledgeSource(){
 		try {
 			this.dictionary = Dictionary.getDefaultResourceInstance();
-			buffer = new HashMap<>();
+			buffer = new ConcurrentHashMap<>();
 			linker = new WordNetLinker(this);
 		} catch (JWNLException e) {
 			e.printStackTrace();
@@ -97,6 +98,9 @@ public class WordNetKnowledgeSource extends SemanticWordRelationDictionary {
 	 * @return Synonyms
 	 */
 	public Set<String> getSynonymsLexical(String linkedConcept) {
+		if(linkedConcept == null) {
+			return new HashSet<>();
+		}
 		if(buffer.containsKey(linkedConcept)) {
 			return buffer.get(linkedConcept);
 		}
@@ -109,6 +113,18 @@ public class WordNetKnowledgeSource extends SemanticWordRelationDictionary {
 		return result;
 	}
 
+	/**
+	 * Returns the linked concept together with its synonyms (see {@link #getSynonymsLexical(String)}).
+	 * @param linkedConcept The linked concept.
+	 * @return Set of synonymy keys.
+	 */
+	@Override
+	public Set<String> getSynonymKeys(String linkedConcept) {
+		Set<String> keys = new HashSet<>(getSynonymsLexical(linkedConcept));
+		keys.add(linkedConcept);
+		return keys;
+	}
+
 	/**
 	 * Get synonyms for a particular part of speech.
 	 * @param word The word for which the synonyms shall be retrieved.
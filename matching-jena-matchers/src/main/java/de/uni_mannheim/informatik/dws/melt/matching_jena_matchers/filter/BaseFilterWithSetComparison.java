@@ -1,30 +1,147 @@
-
 package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter;
 
 import de.uni_mannheim.informatik.dws.melt.matching_jena.MatcherYAAAJena;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.SetSimilarity;
 import de.uni_mannheim.informatik.dws.melt.matching_base.Filter;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import org.apache.jena.ontology.Individual;
+import org.apache.jena.ontology.OntModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Basic filter for instances which compares sets like neighbours or properties.
  */
 public abstract class BaseFilterWithSetComparison extends MatcherYAAAJena implements Filter {
 
+    /**
+     * Default logger
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(BaseFilterWithSetComparison.class);
+
+    /**
+     * Number of correspondences which are processed at once (the information of their individuals is kept in memory).
+     */
+    private static final int BATCH_SIZE = 10_000;
 
     /**
      * The threshold which should be larger or equal to be a valid match.
      * Computation is based on set similarity.
      */
     protected double threshold;
-    
+
     /**
      * The set similarity to choose when computing similarity value between the two distinct property sets.
      */
     protected SetSimilarity setSimilarity;
 
+    /**
+     * The number of threads which compute the similarity of correspondences.
+     */
+    private int numberOfThreads;
+
+    /**
+     * The maximum number of individuals (per ontology) whose information is cached during one run.
+     */
+    private int cacheSize;
+
     public BaseFilterWithSetComparison(double threshold, SetSimilarity setSimilarity) {
         this.threshold = threshold;
         this.setSimilarity = setSimilarity;
+        this.numberOfThreads = 1;
+        this.cacheSize = 100_000;
+    }
+
+    /**
+     * Filters the correspondences based on information of the source and target individual (like neighbours or types).
+     * The information is computed only once per individual (see {@link ResourceCache}) by the calling thread because
+     * the models are not accessed concurrently. Afterwards the similarity of the correspondences is computed in parallel
+     * (if the number of threads is greater than one) only with this information and the input alignment.
+     * Correspondences whose similarity is greater or equal to the threshold are added to the filtered alignment
+     * together with the similarity as additional confidence. Correspondences where source or target is not an individual
+     * are added without any change.
+     * @param <T> the type of information per individual
+     * @param source the source ontology
+     * @param target the target ontology
+     * @param inputAlignment the alignment to filter
+     * @param filteredAlignment the alignment to which the kept correspondences are added
+     * @param individualInformation function which extracts the information of an individual - the returned value is only read afterwards.
+     * @param similarity computes the similarity of a correspondence given the information of source and target individual.
+     *                   It is called concurrently and thus should only modify the given correspondence.
+     * @return the filtered alignment
+     */
+    protected <T> Alignment filterIndividuals(OntModel source, OntModel target, Alignment inputAlignment, Alignment filteredAlignment,
+            Function<Individual, T> individualInformation, CorrespondenceSimilarity<T> similarity){
+        ResourceCache<Individual, T> sourceCache = new ResourceCache<>(individualInformation, this.cacheSize);
+        ResourceCache<Individual, T> targetCache = new ResourceCache<>(individualInformation, this.cacheSize);
+
+        List<Correspondence> batch = new ArrayList<>(Math.min(BATCH_SIZE, inputAlignment.size()));
+        List<T> sourceInformation = new ArrayList<>(batch.size());
+        List<T> targetInformation = new ArrayList<>(batch.size());
+        for(Correspondence correspondence : inputAlignment){
+            Individual sourceIndividual = source.getIndividual(correspondence.getEntityOne());
+            Individual targetIndividual = target.getIndividual(correspondence.getEntityTwo());
+            if(sourceIndividual == null || targetIndividual == null){
+                filteredAlignment.add(correspondence);
+                continue;
+            }
+            batch.add(correspondence);
+            sourceInformation.add(sourceCache.get(sourceIndividual));
+            targetInformation.add(targetCache.get(targetIndividual));
+            if(batch.size() >= BATCH_SIZE){
+                filterBatch(batch, sourceInformation, targetInformation, filteredAlignment, similarity);
+                batch.clear();
+                sourceInformation.clear();
+                targetInformation.clear();
+            }
+        }
+        filterBatch(batch, sourceInformation, targetInformation, filteredAlignment, similarity);
+        LOGGER.debug("{} cache: source hits {} misses {}, target hits {} misses {}", this,
+                sourceCache.getHits(), sourceCache.getMisses(), targetCache.getHits(), targetCache.getMisses());
+        return filteredAlignment;
+    }
+
+    private <T> void filterBatch(List<Correspondence> batch, List<T> sourceInformation, List<T> targetInformation,
+            Alignment filteredAlignment, CorrespondenceSimilarity<T> similarity){
+        double[] values = new double[batch.size()];
+        Runnable computeValues = () -> IntStream.range(0, batch.size()).parallel().forEach(i ->
+                values[i] = similarity.compute(batch.get(i), sourceInformation.get(i), targetInformation.get(i)));
+        if(this.numberOfThreads > 1 && batch.size() > 1){
+            ForkJoinPool pool = new ForkJoinPool(this.numberOfThreads);
+            try {
+                pool.submit(computeValues).get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while computing the similarity of correspondences.", ex);
+            } catch (ExecutionException ex) {
+                if(ex.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) ex.getCause();
+                throw new IllegalStateException("Could not compute the similarity of correspondences.", ex.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        }else{
+            for(int i = 0; i < batch.size(); i++){
+                values[i] = similarity.compute(batch.get(i), sourceInformation.get(i), targetInformation.get(i));
+            }
+        }
+        //modify the alignment only in this thread
+        for(int i = 0; i < batch.size(); i++){
+            Correspondence correspondence = batch.get(i);
+            if(values[i] >= this.threshold){
+                correspondence.addAdditionalConfidence(this.getClass(), values[i]);
+                filteredAlignment.add(correspondence);
+            }else{
+                LOGGER.trace("{} removed the following correspondence because the similarity {} is less than the threshold: {}", this, values[i], correspondence);
+            }
+        }
     }
 
     public double getThreshold() {
@@ -42,4 +159,49 @@ public abstract class BaseFilterWithSetComparison extends MatcherYAAAJena implem
     public void setSetSimilarity(SetSimilarity setSimilarity) {
         this.setSimilarity = setSimilarity;
     }
+
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Sets the number of threads which compute the similarity of correspondences.
+     * The models are always read by one thread only. Default is one (sequential).
+     * @param numberOfThreads number of threads (at least one)
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        if(numberOfThreads < 1)
+            throw new IllegalArgumentException("The number of threads has to be at least one.");
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * Sets the maximum number of individuals (per ontology) whose information is cached during one run.
+     * @param cacheSize the maximum number of cached individuals (at least one)
+     */
+    public void setCacheSize(int cacheSize) {
+        if(cacheSize < 1)
+            throw new IllegalArgumentException("The cache size has to be at least one.");
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Computes the similarity of a correspondence based on the information of the source and target individual.
+     * @param <T> the type of information per individual
+     */
+    @FunctionalInterface
+    protected interface CorrespondenceSimilarity<T> {
+        /**
+         * Computes the similarity.
+         * @param correspondence the correspondence (it might be modified e.g. to add an explanation)
+         * @param source the information of the source individual
+         * @param target the information of the target individual
+         * @return the similarity which is compared with the threshold
+         */
+        double compute(Correspondence correspondence, T source, T target);
+    }
 }
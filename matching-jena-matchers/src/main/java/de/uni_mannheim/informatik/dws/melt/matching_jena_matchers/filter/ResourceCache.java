@@ -0,0 +1,76 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import org.apache.jena.graph.Node;
+import org.apache.jena.rdf.model.Resource;
+
+/**
+ * A bounded cache (least recently used) for information which is computed per resource, like the neighbours or types of an individual.
+ * It is usually created for one run of a filter because the same resource appears in many correspondences.
+ * The key is the node of the resource, thus the same cache should only be used for one model.
+ * This class is not thread safe - it is filled by one thread and the returned values are then read concurrently.
+ * @param <R> the type of resource
+ * @param <V> the type of the computed values
+ */
+public class ResourceCache<R extends Resource, V> {
+
+    private final Function<R, V> loader;
+    private final Map<Node, V> cache;
+    private long hits;
+    private long misses;
+
+    /**
+     * Constructor
+     * @param loader the function which computes the value of a resource (called only on a cache miss)
+     * @param maximumSize the maximum number of cached resources
+     */
+    public ResourceCache(Function<R, V> loader, int maximumSize) {
+        if(maximumSize < 1)
+            throw new IllegalArgumentException("The maximum size of the cache has to be at least one.");
+        this.loader = loader;
+        this.cache = new LinkedHashMap<Node, V>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Node, V> eldest) {
+                return size() > maximumSize;
+            }
+        };
+        this.hits = 0;
+        this.misses = 0;
+    }
+
+    /**
+     * Returns the (cached) value of the given resource.
+     * @param resource the resource
+     * @return the value computed by the loader
+     */
+    public V get(R resource){
+        Node node = resource.asNode();
+        V value = cache.get(node);
+        if(value == null){
+            misses++;
+            value = loader.apply(resource);
+            cache.put(node, value);
+        }else{
+            hits++;
+        }
+        return value;
+    }
+
+    /**
+     * Returns the number of resources which are currently cached.
+     * @return number of cached resources
+     */
+    public int size(){
+        return cache.size();
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+}
@@ -0,0 +1,86 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.extraction;
+
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits correspondences into the connected components of the bipartite graph which is formed by source and target entities.
+ * A one to one extraction can be computed independently for each component because two correspondences
+ * of different components never share a source or a target.
+ */
+public final class CorrespondenceComponents {
+
+    /**
+     * Orders correspondences by source and then by target (relation is not included).
+     */
+    static final Comparator<Correspondence> SOURCE_TARGET_ORDER = Comparator
+            .comparing(Correspondence::getEntityOne)
+            .thenComparing(Correspondence::getEntityTwo);
+
+    private CorrespondenceComponents() {}
+
+    /**
+     * Computes the connected components of the given correspondences with a union find structure.
+     * The result is deterministic: the correspondences in each component are sorted by source and target
+     * and the components are sorted by their first correspondence.
+     * @param correspondences the correspondences (usually of one relation)
+     * @return list of components, each component is a non empty list of correspondences
+     */
+    public static List<List<Correspondence>> split(Iterable<Correspondence> correspondences){
+        List<Correspondence> sorted = new ArrayList<>();
+        correspondences.forEach(sorted::add);
+        sorted.sort(SOURCE_TARGET_ORDER);
+
+        Map<String, Integer> sourceIds = new HashMap<>();
+        Map<String, Integer> targetIds = new HashMap<>();
+        int[] edgeSource = new int[sorted.size()];
+        int[] edgeTarget = new int[sorted.size()];
+        for(int i = 0; i < sorted.size(); i++){
+            Correspondence c = sorted.get(i);
+            edgeSource[i] = sourceIds.computeIfAbsent(c.getEntityOne(), __ -> sourceIds.size());
+            edgeTarget[i] = targetIds.computeIfAbsent(c.getEntityTwo(), __ -> targetIds.size());
+        }
+        //sources use the ids [0, sources) and targets the ids [sources, sources + targets)
+        int offset = sourceIds.size();
+        int[] parent = new int[offset + targetIds.size()];
+        for(int i = 0; i < parent.length; i++){
+            parent[i] = i;
+        }
+        for(int i = 0; i < sorted.size(); i++){
+            union(parent, edgeSource[i], offset + edgeTarget[i]);
+        }
+
+        //correspondences are sorted, thus components are created in the order of their first correspondence
+        Map<Integer, List<Correspondence>> components = new HashMap<>();
+        List<List<Correspondence>> result = new ArrayList<>();
+        for(int i = 0; i < sorted.size(); i++){
+            List<Correspondence> component = components.computeIfAbsent(find(parent, edgeSource[i]), __ -> {
+                List<Correspondence> list = new ArrayList<>();
+                result.add(list);
+                return list;
+            });
+            component.add(sorted.get(i));
+        }
+        return result;
+    }
+
+    private static int find(int[] parent, int x){
+        while(parent[x] != x){
+            parent[x] = parent[parent[x]]; //path halving
+            x = parent[x];
+        }
+        return x;
+    }
+
+    private static void union(int[] parent, int x, int y){
+        int rootX = find(parent, x);
+        int rootY = find(parent, y);
+        if(rootX != rootY){
+            parent[Math.max(rootX, rootY)] = Math.min(rootX, rootY);
+        }
+    }
+}
@@ -13,14 +13,17 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.stream.Collectors;
 import org.apache.jena.ontology.OntModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * This implementation uses the Hungarian algorithm to find a one to one mapping.
- * The runtime highly depends on the lower number of concepts (source or target) of the alignment as well as the number of correspondences.
- * If a better runtime is needed, use {@link MaxWeightBipartiteExtractor}.
+ * This implementation finds an optimal one to one mapping (maximum sum of confidences).
+ * The correspondences are split into connected components (see {@link CorrespondenceComponents}) which are solved
+ * independently and in parallel with a sparse assignment algorithm (see {@link SparseAssignment}).
+ * Thus the runtime depends on the size of the largest component and not on the number of all sources and targets.
+ * The dense Hungarian algorithm (see {@link HungarianAlgorithm}) is still available with {@link #filterDense(Alignment)}.
  */
 public class HungarianExtractor extends MatcherYAAAJena implements Filter {
 
@@ -32,6 +35,13 @@ public class HungarianExtractor extends MatcherYAAAJena implements Filter {
         return filter(inputAlignment);
     }
     
+    /**
+     * Filters the alignment such that it is one to one and the sum of confidences is maximal.
+     * Each connected component of the correspondence graph is solved on its own (in parallel).
+     * Only correspondences with relation equivalence are kept.
+     * @param inputAlignment the alignment to filter (it is modified).
+     * @return the filtered alignment.
+     */
     public static Alignment filter(Alignment inputAlignment){
         if(inputAlignment.getDistinctConfidencesAsSet().size() == 1){
             // Alignment api says that hungarian algorithm runs in infinite loop when all correspondences have the same
@@ -40,6 +50,28 @@ public class HungarianExtractor extends MatcherYAAAJena implements Filter {
             LOGGER.warn("The input alignment has only one confidence. Defaulting to make a random one to one alignment.");
             return NaiveDescendingExtractor.filter(inputAlignment);
         }
+        List<List<Correspondence>> components = CorrespondenceComponents.split(
+                inputAlignment.getCorrespondencesRelation(CorrespondenceRelation.EQUIVALENCE));
+        Set<Correspondence> goodCorrespondences = components.parallelStream()
+                .map(SparseAssignment::maximumWeightMatching)
+                .flatMap(List::stream)
+                .collect(Collectors.toSet());
+        inputAlignment.retainAll(goodCorrespondences);
+        return inputAlignment;
+    }
+    
+    /**
+     * Filters the alignment with the dense Hungarian algorithm on a matrix of all sources and targets.
+     * The result has the same sum of confidences as {@link #filter(Alignment)} but needs much more memory and time
+     * for large alignments.
+     * @param inputAlignment the alignment to filter (it is modified).
+     * @return the filtered alignment.
+     */
+    public static Alignment filterDense(Alignment inputAlignment){
+        if(inputAlignment.getDistinctConfidencesAsSet().size() == 1){
+            LOGGER.warn("The input alignment has only one confidence. Defaulting to make a random one to one alignment.");
+            return NaiveDescendingExtractor.filter(inputAlignment);
+        }
     
         List<String> sources = new ArrayList<>();
         inputAlignment.getDistinctSources().forEach(sources::add);
@@ -5,20 +5,24 @@ import de.uni_mannheim.informatik.dws.melt.matching_jena.MatcherYAAAJena;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Properties;
 import java.util.Set;
 import java.util.Stack;
+import java.util.stream.Collectors;
 import org.apache.jena.ontology.OntModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Faster implementation than {@link HungarianExtractor} for generating a one-to-one alignment.
+ * Faster implementation than {@link HungarianExtractor#filterDense(Alignment)} for generating a one-to-one alignment.
+ * The connected components of the correspondence graph are processed independently and in parallel.
  * The implementation is based on http://www.mpi-inf.mpg.de/~mehlhorn/Optimization/bipartite_weighted.ps (page 13-19).
  * @see <a href="http://ceur-ws.org/Vol-551/om2009_Tpaper5.pdf">Paper: Efficient Selection of Mappings and Automatic Quality-driven Combination of Matching Methods</a>
  * @see <a href="https://github.com/agreementmaker/agreementmaker/tree/master/projects/core/src/main/java/am/app/mappingEngine/oneToOneSelection">Implementation at Agreementmaker</a>
@@ -65,17 +69,35 @@ public class MaxWeightBipartiteExtractor extends MatcherYAAAJena implements Filt
             return NaiveDescendingExtractor.filter(inputAlignment);
         }
         
-        Map<String, MwbNode> sourceNodeMapping = new HashMap<>();
-        Map<String, MwbNode> targetNodeMapping = new HashMap<>();        
         //switch source target depending on which one is larger
-        if(inputAlignment.getDistinctSourcesAsSet().size() > inputAlignment.getDistinctTargetsAsSet().size()){
-            for(Correspondence c : inputAlignment.getCorrespondencesRelation(CorrespondenceRelation.EQUIVALENCE)){
+        boolean switchSourceTarget = inputAlignment.getDistinctSourcesAsSet().size() > inputAlignment.getDistinctTargetsAsSet().size();
+        int maxConfidence = convertDoubleToInt(Collections.max(inputAlignment.getDistinctConfidencesAsSet()), multiplier);
+        
+        //augmenting paths never leave a connected component, thus each component is processed on its own
+        List<List<Correspondence>> components = CorrespondenceComponents.split(
+                inputAlignment.getCorrespondencesRelation(CorrespondenceRelation.EQUIVALENCE));
+        List<List<Correspondence>> selected = components.parallelStream()
+                .map(component -> filterComponent(component, heuristic, multiplier, maxConfidence, switchSourceTarget))
+                .collect(Collectors.toList());
+        
+        Alignment result = new Alignment(inputAlignment, false);
+        for(List<Correspondence> correspondences : selected){
+            result.addAll(correspondences);
+        }
+        return result;
+    }
+    
+    private static List<Correspondence> filterComponent(List<Correspondence> component, MwbInitHeuristic heuristic, int multiplier, int maxConfidence, boolean switchSourceTarget){
+        Map<String, MwbNode> sourceNodeMapping = new HashMap<>();
+        Map<String, MwbNode> targetNodeMapping = new HashMap<>();
+        if(switchSourceTarget){
+            for(Correspondence c : component){
                 MwbNode source = sourceNodeMapping.computeIfAbsent(c.getEntityTwo(), __ -> new MwbNode());
                 MwbNode target = targetNodeMapping.computeIfAbsent(c.getEntityOne(), __ -> new MwbNode());
                 source.addSuccesor(new MwbEdge(source, target, c, convertDoubleToInt(c.getConfidence(), multiplier))); //directed edge from source(A) to target(B)
             }
         } else {
-            for(Correspondence c : inputAlignment.getCorrespondencesRelation(CorrespondenceRelation.EQUIVALENCE)){
+            for(Correspondence c : component){
                 MwbNode source = sourceNodeMapping.computeIfAbsent(c.getEntityOne(), __ -> new MwbNode());
                 MwbNode target = targetNodeMapping.computeIfAbsent(c.getEntityTwo(), __ -> new MwbNode());
                 source.addSuccesor(new MwbEdge(source, target, c, convertDoubleToInt(c.getConfidence(), multiplier))); //directed edge from source(A) to target(B)
@@ -84,7 +106,6 @@ public class MaxWeightBipartiteExtractor extends MatcherYAAAJena implements Filt
 
         switch(heuristic) {
             case NAIVE:
-                int maxConfidence = convertDoubleToInt(Collections.max(inputAlignment.getDistinctConfidencesAsSet()), multiplier);
                 for(MwbNode a : sourceNodeMapping.values()){
                     a.setPotential(maxConfidence);
                 }
@@ -122,7 +143,7 @@ public class MaxWeightBipartiteExtractor extends MatcherYAAAJena implements Filt
         }
         
         //selected correspondences are edges from target(B) to source(A)
-        Alignment result = new Alignment(inputAlignment, false);
+        List<Correspondence> result = new ArrayList<>();
         for(MwbNode b : targetNodeMapping.values()){
             Set<MwbEdge> selectedEdges = b.getSuccessor();
             if(selectedEdges.size() > 1){
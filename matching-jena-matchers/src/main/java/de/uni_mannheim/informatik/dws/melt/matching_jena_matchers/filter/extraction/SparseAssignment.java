@@ -0,0 +1,225 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.extraction;
+
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Computes a maximum weight one to one matching on a sparse bipartite graph (the confidences are the weights).
+ * The implementation uses successive shortest augmenting paths (Dijkstra with node potentials, like Jonker-Volgenant)
+ * and only visits existing correspondences - in contrast to {@link HungarianAlgorithm} which needs a dense matrix.
+ * Each row has an additional dummy column with weight zero such that an entity can stay unmatched.
+ * Thus correspondences with a negative confidence are never selected.
+ * <p>
+ * The runtime is O(r * e * log(e)) with r being the lower number of sources or targets and e the number of correspondences.
+ * It is usually applied to each connected component (see {@link CorrespondenceComponents}).
+ */
+public final class SparseAssignment {
+
+    private SparseAssignment() {}
+
+    /**
+     * Computes a maximum weight one to one matching of the given correspondences.
+     * The relation of the correspondences is not taken into account, thus usually only correspondences of one relation are given.
+     * @param correspondences the correspondences (pairs of source and target should be unique)
+     * @return the selected correspondences in the order of the given list
+     */
+    public static List<Correspondence> maximumWeightMatching(List<Correspondence> correspondences){
+        if(correspondences.size() <= 1){
+            List<Correspondence> result = new ArrayList<>(1);
+            for(Correspondence c : correspondences){
+                if(c.getConfidence() >= 0)
+                    result.add(c);
+            }
+            return result;
+        }
+
+        Map<String, Integer> sourceIds = new HashMap<>();
+        Map<String, Integer> targetIds = new HashMap<>();
+        for(Correspondence c : correspondences){
+            sourceIds.computeIfAbsent(c.getEntityOne(), __ -> sourceIds.size());
+            targetIds.computeIfAbsent(c.getEntityTwo(), __ -> targetIds.size());
+        }
+        //rows are the smaller side
+        boolean switchSourceTarget = sourceIds.size() > targetIds.size();
+        int rows = switchSourceTarget ? targetIds.size() : sourceIds.size();
+        int columns = switchSourceTarget ? sourceIds.size() : targetIds.size();
+
+        //adjacency of rows in compressed form
+        int edges = correspondences.size();
+        int[] edgeRow = new int[edges];
+        int[] offsets = new int[rows + 1];
+        for(int e = 0; e < edges; e++){
+            Correspondence c = correspondences.get(e);
+            edgeRow[e] = switchSourceTarget ? targetIds.get(c.getEntityTwo()) : sourceIds.get(c.getEntityOne());
+            offsets[edgeRow[e] + 1]++;
+        }
+        for(int i = 0; i < rows; i++){
+            offsets[i + 1] += offsets[i];
+        }
+        int[] fill = Arrays.copyOf(offsets, rows);
+        int[] adjacentColumn = new int[edges];
+        double[] adjacentCost = new double[edges];
+        int[] adjacentEdge = new int[edges];
+        for(int e = 0; e < edges; e++){
+            Correspondence c = correspondences.get(e);
+            int position = fill[edgeRow[e]]++;
+            adjacentColumn[position] = switchSourceTarget ? sourceIds.get(c.getEntityOne()) : targetIds.get(c.getEntityTwo());
+            adjacentCost[position] = -c.getConfidence();
+            adjacentEdge[position] = e;
+        }
+
+        //column (columns + i) is the dummy column of row i
+        int allColumns = columns + rows;
+        double[] rowPotential = new double[rows];
+        double[] columnPotential = new double[allColumns];
+        int[] rowMatch = new int[rows];
+        int[] rowMatchEdge = new int[rows];
+        int[] columnMatch = new int[allColumns];
+        Arrays.fill(rowMatch, -1);
+        Arrays.fill(rowMatchEdge, -1);
+        Arrays.fill(columnMatch, -1);
+        for(int i = 0; i < rows; i++){
+            double min = 0; // cost of the dummy column
+            for(int p = offsets[i]; p < offsets[i + 1]; p++){
+                min = Math.min(min, adjacentCost[p]);
+            }
+            rowPotential[i] = min; // all reduced costs are non negative
+        }
+
+        double[] distance = new double[allColumns];
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        int[] predecessorRow = new int[allColumns];
+        int[] predecessorEdge = new int[allColumns];
+        boolean[] finished = new boolean[allColumns];
+        double[] rowDistance = new double[rows];
+        int[] touchedColumns = new int[allColumns];
+        int[] finishedColumns = new int[allColumns];
+        int[] visitedRows = new int[rows];
+        PriorityQueue<QueueEntry> queue = new PriorityQueue<>();
+
+        for(int start = 0; start < rows; start++){
+            int touched = 0;
+            int finishedCount = 0;
+            int visited = 0;
+            queue.clear();
+
+            rowDistance[start] = 0;
+            visitedRows[visited++] = start;
+            int row = start;
+            double rowDist = 0;
+            int sink;
+            while(true){
+                //relax all edges of the row including its dummy column
+                for(int p = offsets[row]; p <= offsets[row + 1]; p++){
+                    int column;
+                    double cost;
+                    int edge;
+                    if(p < offsets[row + 1]){
+                        column = adjacentColumn[p];
+                        cost = adjacentCost[p];
+                        edge = adjacentEdge[p];
+                    }else{
+                        column = columns + row;
+                        cost = 0;
+                        edge = -1;
+                    }
+                    if(finished[column])
+                        continue;
+                    double newDistance = rowDist + cost - rowPotential[row] - columnPotential[column];
+                    if(newDistance < distance[column]){
+                        if(distance[column] == Double.POSITIVE_INFINITY)
+                            touchedColumns[touched++] = column;
+                        distance[column] = newDistance;
+                        predecessorRow[column] = row;
+                        predecessorEdge[column] = edge;
+                        queue.add(new QueueEntry(newDistance, column));
+                    }
+                }
+                //the dummy column of the start row is always free, thus the queue is never empty before a sink is found
+                int column;
+                while(true){
+                    QueueEntry entry = queue.poll();
+                    column = entry.column;
+                    if(!finished[column] && entry.distance == distance[column])
+                        break;
+                }
+                finished[column] = true;
+                finishedColumns[finishedCount++] = column;
+                if(columnMatch[column] < 0){
+                    sink = column;
+                    break;
+                }
+                row = columnMatch[column];
+                rowDist = distance[column];
+                rowDistance[row] = rowDist;
+                visitedRows[visited++] = row;
+            }
+
+            //potential update keeps reduced costs non negative and zero on the matching
+            double sinkDistance = distance[sink];
+            for(int k = 0; k < visited; k++){
+                int i = visitedRows[k];
+                rowPotential[i] += sinkDistance - rowDistance[i];
+            }
+            for(int k = 0; k < finishedCount; k++){
+                int j = finishedColumns[k];
+                columnPotential[j] += distance[j] - sinkDistance;
+            }
+
+            //augment along the shortest path
+            int column = sink;
+            while(true){
+                int i = predecessorRow[column];
+                int next = rowMatch[i];
+                rowMatch[i] = column;
+                rowMatchEdge[i] = predecessorEdge[column];
+                columnMatch[column] = i;
+                if(i == start)
+                    break;
+                column = next;
+            }
+
+            //reset
+            for(int k = 0; k < touched; k++){
+                int j = touchedColumns[k];
+                distance[j] = Double.POSITIVE_INFINITY;
+                finished[j] = false;
+            }
+        }
+
+        boolean[] selected = new boolean[edges];
+        for(int i = 0; i < rows; i++){
+            if(rowMatchEdge[i] >= 0)
+                selected[rowMatchEdge[i]] = true;
+        }
+        List<Correspondence> result = new ArrayList<>(rows);
+        for(int e = 0; e < edges; e++){
+            if(selected[e])
+                result.add(correspondences.get(e));
+        }
+        return result;
+    }
+
+    private static class QueueEntry implements Comparable<QueueEntry>{
+        private final double distance;
+        private final int column;
+
+        QueueEntry(double distance, int column) {
+            this.distance = distance;
+            this.column = column;
+        }
+
+        @Override
+        public int compareTo(QueueEntry o) {
+            int compare = Double.compare(this.distance, o.distance);
+            if(compare != 0)
+                return compare;
+            return Integer.compare(this.column, o.column);
+        }
+    }
+}
@@ -14,19 +14,12 @@ import org.apache.jena.ontology.Individual;
 import org.apache.jena.ontology.OntModel;
 import org.apache.jena.rdf.model.Property;
 import org.apache.jena.rdf.model.StmtIterator;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * Filter which deletes instance mappings if they have no matched properties in common.
  */
 public class CommonPropertiesFilter extends BaseFilterWithSetComparison implements Filter {
 
-    /**
-     * Default logger
-     */
-    private static final Logger LOGGER = LoggerFactory.getLogger(CommonPropertiesFilter.class);
-
     /**
      * If true, this excludes correspondences which maps to the same URI.
      * e.g. rdf:type = rdf:type
@@ -84,24 +77,9 @@ public class CommonPropertiesFilter extends BaseFilterWithSetComparison implemen
     }
     
     public Alignment filter(OntModel source, OntModel target, Alignment inputAlignment){
-        Alignment finalAlignment = new Alignment();
-        for(Correspondence c : inputAlignment){
-            Individual individualSource = source.getIndividual(c.getEntityOne());
-            Individual individualTarget = target.getIndividual(c.getEntityTwo());
-            if(individualSource == null || individualTarget == null){
-                finalAlignment.add(c);
-                continue;
-            }
-            
-            double sim = sharedProperties(individualSource, individualTarget, inputAlignment, this.excludeSameURIMapping, this.minPropertyConfidence, this.setSimilarity);
-            if(sim >= this.threshold){
-                c.addAdditionalConfidence(this.getClass(), sim);
-                finalAlignment.add(c);
-            }else{
-                LOGGER.trace("InstanceFilterBasedOnCommonProperties removed the following correspondence because number of shared properties is less than threshold: {}", c);
-            }
-        }
-        return finalAlignment;
+        return filterIndividuals(source, target, inputAlignment, new Alignment(), CommonPropertiesFilter::getDistinctProperties,
+                (correspondence, sourceProperties, targetProperties) -> sharedProperties(sourceProperties, targetProperties,
+                        inputAlignment, this.excludeSameURIMapping, this.minPropertyConfidence, this.setSimilarity));
     }
     
     
@@ -117,10 +95,12 @@ public class CommonPropertiesFilter extends BaseFilterWithSetComparison implemen
      * @return number of distinct properties
      */
     public static double sharedProperties(Individual individualSource, Individual individualTarget, Alignment inputAlignment, boolean excludeSameURIMapping, double minPropertyConfidence, SetSimilarity setComparator){
+        return sharedProperties(getDistinctProperties(individualSource), getDistinctProperties(individualTarget), 
+                inputAlignment, excludeSameURIMapping, minPropertyConfidence, setComparator);
+    }
+    
+    private static double sharedProperties(Set<String> sourceProperties, Set<String> targetProperties, Alignment inputAlignment, boolean excludeSameURIMapping, double minPropertyConfidence, SetSimilarity setComparator){
         int count = 0;
-        Set<String> sourceProperties = getDistinctProperties(individualSource);            
-        Set<String> targetProperties = getDistinctProperties(individualTarget);
-        
         for(String sourcePropURI : sourceProperties){
             for(Correspondence propCorrespondence : inputAlignment.getCorrespondencesSourceRelation(sourcePropURI, CorrespondenceRelation.EQUIVALENCE)){
                 if(excludeSameURIMapping && sourcePropURI.equals(propCorrespondence.getEntityTwo()))
@@ -3,6 +3,7 @@ package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.instan
 import com.googlecode.cqengine.query.QueryFactory;
 import de.uni_mannheim.informatik.dws.melt.matching_jena.MatcherYAAAJena;
 import de.uni_mannheim.informatik.dws.melt.matching_base.Filter;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.ResourceCache;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.structurelevel.hierarchical.agony.Agony;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
@@ -18,6 +19,7 @@ import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Queue;
 import java.util.Set;
+import java.util.function.Function;
 import org.apache.jena.ontology.Individual;
 import org.apache.jena.ontology.OntModel;
 import org.apache.jena.rdf.model.Property;
@@ -39,6 +41,11 @@ public class SimilarHierarchyFilter extends MatcherYAAAJena implements Filter {
      * Default logger
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(SimilarHierarchyFilter.class);
+    
+    /**
+     * The maximum number of individuals (per ontology) whose hierarchy is cached during one run.
+     */
+    private static final int CACHE_SIZE = 100_000;
 
     /**
      * Property connecting the instance to the hierarchy (usually rdf:type).
@@ -90,6 +97,11 @@ public class SimilarHierarchyFilter extends MatcherYAAAJena implements Filter {
     public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties properties) throws Exception {
         Alignment hierarchyMatches = this.hierarchyMatcher.match(source, target, inputAlignment, properties);
         Alignment finalAlignment = new Alignment(inputAlignment, false);
+        //the hierarchy of an individual is computed only once per run
+        Function<Individual, Map<String, Double>> hierarchyWeights = 
+                this.approach == SimilarHierarchyFilterApproach.HIERARCHY_LEVEL_DEPENDED_MATCHES ? this::getNormalizedHierarchyLevels : this::getNormalizedDepths;
+        ResourceCache<Individual, Map<String, Double>> sourceCache = new ResourceCache<>(hierarchyWeights, CACHE_SIZE);
+        ResourceCache<Individual, Map<String, Double>> targetCache = new ResourceCache<>(hierarchyWeights, CACHE_SIZE);
         for(Correspondence correspondence : inputAlignment){            
             Individual sourceIndividual = source.getIndividual(correspondence.getEntityOne());
             Individual targetIndividual = target.getIndividual(correspondence.getEntityTwo());
@@ -98,15 +110,8 @@ public class SimilarHierarchyFilter extends MatcherYAAAJena implements Filter {
                 continue;
             }
 
-            Map<String, Double> sourceHierarchyWeights;
-            Map<String, Double> targetHierarchyWeights;
-            if(this.approach == SimilarHierarchyFilterApproach.HIERARCHY_LEVEL_DEPENDED_MATCHES){
-                sourceHierarchyWeights = getNormalizedHierarchyLevels(sourceIndividual);
-                targetHierarchyWeights = getNormalizedHierarchyLevels(targetIndividual);
-            }else{
-                sourceHierarchyWeights = getNormalizedDepths(sourceIndividual);
-                targetHierarchyWeights = getNormalizedDepths(targetIndividual);
-            }
+            Map<String, Double> sourceHierarchyWeights = sourceCache.get(sourceIndividual);
+            Map<String, Double> targetHierarchyWeights = targetCache.get(targetIndividual);
             
             Iterable<Correspondence> i = hierarchyMatches.retrieve(
                 QueryFactory.and(
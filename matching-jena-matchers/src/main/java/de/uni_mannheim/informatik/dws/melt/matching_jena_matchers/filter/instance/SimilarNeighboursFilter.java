@@ -7,6 +7,8 @@ import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.StringJoiner;
@@ -127,77 +129,76 @@ public class SimilarNeighboursFilter extends BaseFilterWithSetComparison {
     
     @Override
     public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties properties) throws Exception {
-        Alignment filteredAlignment = new Alignment(inputAlignment, false);
-        for(Correspondence correspondence : inputAlignment){
-            Individual sourceIndividual = source.getIndividual(correspondence.getEntityOne());
-            Individual targetIndividual = target.getIndividual(correspondence.getEntityTwo());
-            if(sourceIndividual == null || targetIndividual == null){
-                filteredAlignment.add(correspondence);
-                continue;
+        //literals are processed only once per run
+        Map<Literal, Object> processedLiterals = createLiteralCache();
+        return filterIndividuals(source, target, inputAlignment, new Alignment(inputAlignment, false),
+                individual -> getNeighbours(individual.getOntModel(), individual, processedLiterals),
+                (correspondence, sourceNeighbours, targetNeighbours) -> computeSimilarity(correspondence, sourceNeighbours, targetNeighbours, inputAlignment));
+    }
+    
+    private double computeSimilarity(Correspondence correspondence, Neighbours sourceNeighbours, Neighbours targetNeighbours, Alignment inputAlignment){
+        Set<Object> literalIntersection = new HashSet(sourceNeighbours.getLiterals());
+        literalIntersection.retainAll(targetNeighbours.getLiterals());
+
+
+        Iterable<Correspondence> i = inputAlignment.retrieve(
+            QueryFactory.and(
+                QueryFactory.in(Correspondence.SOURCE, sourceNeighbours.getUriResources()),
+                QueryFactory.in(Correspondence.TARGET, targetNeighbours.getUriResources()),
+                QueryFactory.greaterThanOrEqualTo(Correspondence.CONFIDENCE, minResourceConfidence)
+            ));
+        Set<String> mappedSources = new HashSet<>();
+        Set<String> mappedTargets = new HashSet<>();            
+        for(Correspondence c : i){
+            mappedSources.add(c.getEntityOne());
+            mappedTargets.add(c.getEntityTwo());
+        }
+        //in case of n:m mappings only the minimum amount of resource is the number of the intersection.
+        int resourceIntersection = Math.min(mappedSources.size(), mappedTargets.size());
+
+        if(this.addNeighboursToCorrespondence){
+            Set<String> neighboursPrint = new HashSet();
+            if(mappedSources.size() < mappedTargets.size()){
+                neighboursPrint.addAll(mappedSources);
+            }else{
+                neighboursPrint.addAll(mappedTargets);
             }
-            
-            Neighbours sourceNeighbours = getNeighbours(source, sourceIndividual);
-            Neighbours targetNeighbours = getNeighbours(target, targetIndividual);
-            
-            Set<Object> literalIntersection = new HashSet(sourceNeighbours.getLiterals());
-            literalIntersection.retainAll(targetNeighbours.getLiterals());
-            
-            
-            Iterable<Correspondence> i = inputAlignment.retrieve(
-                QueryFactory.and(
-                    QueryFactory.in(Correspondence.SOURCE, sourceNeighbours.getUriResources()),
-                    QueryFactory.in(Correspondence.TARGET, targetNeighbours.getUriResources()),
-                    QueryFactory.greaterThanOrEqualTo(Correspondence.CONFIDENCE, minResourceConfidence)
-                ));
-            Set<String> mappedSources = new HashSet<>();
-            Set<String> mappedTargets = new HashSet<>();            
-            for(Correspondence c : i){
-                mappedSources.add(c.getEntityOne());
-                mappedTargets.add(c.getEntityTwo());
+            for(Object o : literalIntersection){
+                neighboursPrint.add(o.toString());
             }
-            //in case of n:m mappings only the minimum amount of resource is the number of the intersection.
-            int resourceIntersection = Math.min(mappedSources.size(), mappedTargets.size());
-            
-            if(this.addNeighboursToCorrespondence){
-                Set<String> neighboursPrint = new HashSet();
-                if(mappedSources.size() < mappedTargets.size()){
-                    neighboursPrint.addAll(mappedSources);
-                }else{
-                    neighboursPrint.addAll(mappedTargets);
+            //reduce to max 20
+            if(neighboursPrint.size() > 20){
+                StringJoiner sj = new StringJoiner(",");
+                Iterator<String> iter = neighboursPrint.iterator();
+                for (int j = 0; j < 20; j++) {
+                    sj.add(iter.next());
                 }
-                for(Object o : literalIntersection){
-                    neighboursPrint.add(o.toString());
-                }
-                //reduce to max 20
-                if(neighboursPrint.size() > 20){
-                    StringJoiner sj = new StringJoiner(",");
-                    Iterator<String> iter = neighboursPrint.iterator();
-                    for (int j = 0; j < 20; j++) {
-                        sj.add(iter.next());
-                    }
-                    correspondence.addAdditionalExplanation(this.getClass(), "[" + sj.toString() + "] (reduced to max 20 neighbours)");
-                }else{
-                    correspondence.addAdditionalExplanation(this.getClass(), "[" + String.join(",", neighboursPrint) + "]");
-                }
-                
-            }
-            
-            //sum up resource mappings and literal mappings
-            int countSourceNeighbours = sourceNeighbours.getUriResources().size() + sourceNeighbours.getLiterals().size();
-            int countTargetNeighbours = targetNeighbours.getUriResources().size() + targetNeighbours.getLiterals().size();
-            int countIntersection = resourceIntersection + literalIntersection.size();
-            
-            double value = setSimilarity.compute(countIntersection, countSourceNeighbours, countTargetNeighbours);
-            if(value >= this.threshold){
-                correspondence.addAdditionalConfidence(this.getClass(), value);
-                filteredAlignment.add(correspondence);
+                correspondence.addAdditionalExplanation(this.getClass(), "[" + sj.toString() + "] (reduced to max 20 neighbours)");
+            }else{
+                correspondence.addAdditionalExplanation(this.getClass(), "[" + String.join(",", neighboursPrint) + "]");
             }
+
         }
-        return filteredAlignment;
+
+        //sum up resource mappings and literal mappings
+        int countSourceNeighbours = sourceNeighbours.getUriResources().size() + sourceNeighbours.getLiterals().size();
+        int countTargetNeighbours = targetNeighbours.getUriResources().size() + targetNeighbours.getLiterals().size();
+        int countIntersection = resourceIntersection + literalIntersection.size();
+
+        return setSimilarity.compute(countIntersection, countSourceNeighbours, countTargetNeighbours);
     }
     
+    private Map<Literal, Object> createLiteralCache(){
+        int maximumSize = getCacheSize();
+        return new LinkedHashMap<Literal, Object>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Literal, Object> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
     
-    private Neighbours getNeighbours(OntModel model, Individual individual){
+    private Neighbours getNeighbours(OntModel model, Individual individual, Map<Literal, Object> processedLiterals){
         Neighbours neighbours = new Neighbours();
         Set<Object> ignoreNeighbours = this.excludeNeighbours.apply(individual);
         if(useOutgoing){
@@ -213,7 +214,7 @@ public class SimilarNeighboursFilter extends BaseFilterWithSetComparison {
                             neighbours.addResource(object.asResource().getURI());
                     }
                 } else if(object.isLiteral() && useLiteral) {
-                    Object processedLiteral = literalProcessingFunction.apply(object.asLiteral());
+                    Object processedLiteral = processedLiterals.computeIfAbsent(object.asLiteral(), literalProcessingFunction);
                     if(ignoreNeighbours.contains(processedLiteral) == false)
                         neighbours.addLiteral(processedLiteral);
                 }
@@ -48,18 +48,8 @@ public class SimilarTypeFilter extends BaseFilterWithSetComparison implements Fi
     
     @Override
     public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties properties) throws Exception {
-        Alignment filteredAlignment = new Alignment(inputAlignment, false);
-        for(Correspondence correspondence : inputAlignment){
-            Individual sourceIndividual = source.getIndividual(correspondence.getEntityOne());
-            Individual targetIndividual = target.getIndividual(correspondence.getEntityTwo());
-            if(sourceIndividual == null || targetIndividual == null){
-                filteredAlignment.add(correspondence);
-                continue;
-            }
-            
-            Set<String> sourceTypes = getTypes(sourceIndividual);
-            Set<String> targetTypes = getTypes(targetIndividual);
-            
+        return filterIndividuals(source, target, inputAlignment, new Alignment(inputAlignment, false), this::getTypes,
+                (correspondence, sourceTypes, targetTypes) -> {
             Iterable<Correspondence> i = inputAlignment.retrieve(
                 QueryFactory.and(
                     QueryFactory.in(Correspondence.SOURCE, sourceTypes),
@@ -75,13 +65,8 @@ public class SimilarTypeFilter extends BaseFilterWithSetComparison implements Fi
             //in case of n:m mappings only the minimum amount of resource is the number of the intersection.
             int resourceIntersection = Math.min(mappedSources.size(), mappedTargets.size());
             
-            double value = setSimilarity.compute(resourceIntersection, sourceTypes.size(), targetTypes.size());
-            if(value >= this.threshold){
-                correspondence.addAdditionalConfidence(this.getClass(), value);
-                filteredAlignment.add(correspondence);
-            }
-        }
-        return filteredAlignment;
+            return setSimilarity.compute(resourceIntersection, sourceTypes.size(), targetTypes.size());
+        });
     }
     
     
@@ -10,13 +10,15 @@ import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
-import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,24 +30,40 @@ import org.slf4j.LoggerFactory;
  * 
  * This class represents a graph of sameas edges. The edges can be added by the addEdge method.
  * After adding some edges, you can call detectCommunities or computeLinkError.
+ * The graph is stored in a compressed sparse row format (primitive arrays) to be able to process millions of edges.
  */
 public class ComputeErrDegree <T>{
     
     private static final Logger LOGGER = LoggerFactory.getLogger(ComputeErrDegree.class);
     
     private final Map<T, Integer> elementToID;
-    private final Map<Integer, T> idToElement;
-    private final Map<Integer, Map<Integer,Double>> uniformDirectedEdges;
-    private int currentID;
+    private final List<T> idToElement;
+    
+    //edges which are not yet contained in the compressed graph (node one is always smaller than node two)
+    private int[] edgeNodeOne;
+    private int[] edgeNodeTwo;
+    private double[] edgeWeights;
+    private int edgeCount;
+    
+    //compressed sparse row representation of the undirected graph (neighbors are sorted and parallel edges are merged)
+    private int[] firstNeighborIndex;
+    private int[] neighbor;
+    private double[] neighborWeight;
     private int countUndirectedEdges;
     
+    private int numberOfThreads;
+    
     
     public ComputeErrDegree(){
-        this.elementToID = new TreeMap<>(); //TODO: change to hashmap
-        this.idToElement = new HashMap<>();
-        this.uniformDirectedEdges = new TreeMap<>();
-        this.currentID = 0;
+        this.elementToID = new HashMap<>();
+        this.idToElement = new ArrayList<>();
+        this.edgeNodeOne = new int[16];
+        this.edgeNodeTwo = new int[16];
+        this.edgeWeights = new double[16];
+        this.edgeCount = 0;
+        this.firstNeighborIndex = null;
         this.countUndirectedEdges = 0;
+        this.numberOfThreads = 1;
     }
     
     void addNodes(List<T> nodes){
@@ -74,32 +92,124 @@ public class ComputeErrDegree <T>{
             idSource = idTarget;
             idTarget = tmp;
         }
-
-        //add edge to uniformDirectedEdges, possibly sum the edge weights from two directions
-        Map<Integer,Double> targetToWeight = uniformDirectedEdges.get(idSource);
-        if(targetToWeight == null){
-            targetToWeight = new TreeMap<>();
-            uniformDirectedEdges.put(idSource, targetToWeight);
-        }            
-        Double existingWeight = targetToWeight.get(idTarget);
-        if(existingWeight == null){
-            existingWeight = 0.0;
-            countUndirectedEdges++;
-        }            
-        targetToWeight.put(idTarget, existingWeight + weight);
+        
+        //edges in both directions are summed up when the compressed graph is built
+        unpackGraph();
+        appendEdge(idSource, idTarget, weight);
     }
     
     private int getNodeID(T node){
         Integer id = elementToID.get(node);
         if(id == null){
-            id = currentID;
+            unpackGraph();
+            id = idToElement.size();
             elementToID.put(node, id);
-            idToElement.put(id, node);
-            currentID++;
+            idToElement.add(node);
         }
         return id;
     }
     
+    private void appendEdge(int nodeOne, int nodeTwo, double weight){
+        if(edgeCount == edgeNodeOne.length){
+            int newLength = edgeNodeOne.length + (edgeNodeOne.length >> 1) + 1;
+            edgeNodeOne = Arrays.copyOf(edgeNodeOne, newLength);
+            edgeNodeTwo = Arrays.copyOf(edgeNodeTwo, newLength);
+            edgeWeights = Arrays.copyOf(edgeWeights, newLength);
+        }
+        edgeNodeOne[edgeCount] = nodeOne;
+        edgeNodeTwo[edgeCount] = nodeTwo;
+        edgeWeights[edgeCount] = weight;
+        edgeCount++;
+    }
+    
+    /**
+     * Moves the edges of the compressed graph back to the edge list such that new nodes and edges can be added.
+     */
+    private void unpackGraph(){
+        if(firstNeighborIndex == null)
+            return;
+        for(int i = 0; i < firstNeighborIndex.length - 1; i++){
+            for(int k = firstNeighborIndex[i]; k < firstNeighborIndex[i + 1]; k++){
+                if(neighbor[k] > i)
+                    appendEdge(i, neighbor[k], neighborWeight[k]);
+            }
+        }
+        firstNeighborIndex = null;
+        neighbor = null;
+        neighborWeight = null;
+    }
+    
+    /**
+     * Builds the compressed sparse row graph out of the edge list (if not already done) and releases the edge list.
+     * Parallel edges are summed up in the order they were added.
+     */
+    private void buildGraph(){
+        if(firstNeighborIndex != null)
+            return;
+        int numberOfNodes = idToElement.size();
+        int[] first = new int[numberOfNodes + 1];
+        for(int e = 0; e < edgeCount; e++){
+            first[edgeNodeOne[e] + 1]++;
+            first[edgeNodeTwo[e] + 1]++;
+        }
+        int maxDegree = 0;
+        for(int i = 0; i < numberOfNodes; i++){
+            maxDegree = Math.max(maxDegree, first[i + 1]);
+            first[i + 1] += first[i];
+        }
+        int[] nb = new int[2 * edgeCount];
+        double[] w = new double[2 * edgeCount];
+        int[] fill = Arrays.copyOf(first, numberOfNodes);
+        for(int e = 0; e < edgeCount; e++){
+            int one = edgeNodeOne[e];
+            int two = edgeNodeTwo[e];
+            nb[fill[one]] = two;
+            w[fill[one]++] = edgeWeights[e];
+            nb[fill[two]] = one;
+            w[fill[two]++] = edgeWeights[e];
+        }
+        edgeNodeOne = new int[16];
+        edgeNodeTwo = new int[16];
+        edgeWeights = new double[16];
+        edgeCount = 0;
+        
+        //sort each row by neighbor (stable with respect to insertion order) and merge parallel edges in place
+        long[] order = new long[maxDegree];
+        double[] rowWeights = new double[maxDegree];
+        int write = 0;
+        int undirected = 0;
+        for(int i = 0; i < numberOfNodes; i++){
+            int start = first[i];
+            int degree = first[i + 1] - start;
+            first[i] = write;
+            for(int x = 0; x < degree; x++){
+                order[x] = ((long) nb[start + x] << 32) | x;
+                rowWeights[x] = w[start + x];
+            }
+            Arrays.sort(order, 0, degree);
+            int previous = -1;
+            for(int x = 0; x < degree; x++){
+                int j = (int) (order[x] >>> 32);
+                double weight = rowWeights[(int) order[x]];
+                if(j == previous){
+                    w[write - 1] += weight;
+                }else{
+                    nb[write] = j;
+                    w[write] = weight;
+                    write++;
+                    previous = j;
+                    if(j > i)
+                        undirected++;
+                }
+            }
+        }
+        first[numberOfNodes] = write;
+        this.firstNeighborIndex = first;
+        this.neighbor = write == nb.length ? nb : Arrays.copyOf(nb, write);
+        this.neighborWeight = write == w.length ? w : Arrays.copyOf(w, write);
+        this.countUndirectedEdges = undirected;
+    }
+    
     /**
      * Detect communities in this graph. Default values for the parameters are used.
      * @return a map from element to corresponding community number
@@ -141,13 +251,48 @@ public class ComputeErrDegree <T>{
         Network network = getNetwork(modularityFunction);
         
         double resolution2 = ((modularityFunction == 1) ? (resolution / (2 * network.getTotalEdgeWeight() + network.totalEdgeWeightSelfLinks)) : resolution);
+        if(numberOfThreads <= 1){
+            return computeClustering(network, resolution2, new Random(randomSeed), nRandomStarts, nIterations, algorithm);
+        }
+        if(network.nNodes == 0)
+            return null;
+        
+        //communities never span multiple connected components, thus each component is clustered on its own (in parallel).
+        //The resolution is computed on the whole graph such that the modularity of the whole graph is optimized.
+        Clustering components = network.identifyComponents();
+        int[][] nodesPerComponent = components.getNodesPerCluster();
+        Network[] subnetworks = network.createSubnetworks(components);
+        Clustering[] componentClusterings = new Clustering[subnetworks.length];
+        LOGGER.debug("Cluster {} connected components with {} threads", subnetworks.length, numberOfThreads);
+        runInPool(() -> IntStream.range(0, subnetworks.length).parallel().forEach(c -> 
+            componentClusterings[c] = computeClustering(subnetworks[c], resolution2, new Random(randomSeed + c), nRandomStarts, nIterations, algorithm)
+        ));
+        
+        int[] cluster = new int[network.nNodes];
+        int offset = 0;
+        for(int c = 0; c < subnetworks.length; c++){
+            Clustering componentClustering = componentClusterings[c];
+            if(componentClustering == null){
+                for(int node : nodesPerComponent[c]){
+                    cluster[node] = offset;
+                }
+                offset++;
+            }else{
+                for(int x = 0; x < nodesPerComponent[c].length; x++){
+                    cluster[nodesPerComponent[c][x]] = offset + componentClustering.cluster[x];
+                }
+                offset += componentClustering.nClusters;
+            }
+        }
+        return new Clustering(cluster);
+    }
+    
+    private static Clustering computeClustering(Network network, double resolution, Random random, int nRandomStarts, int nIterations, ModularityAlgorithm algorithm){
         Clustering clustering = null;
         double maxModularity = Double.NEGATIVE_INFINITY;
-        Random random = new Random(randomSeed);
-        
         for (int i = 0; i < nRandomStarts; i++){
             LOGGER.debug("Random start {}", i + 1);
-            VOSClusteringTechnique vosClusteringTechnique = new VOSClusteringTechnique(network, resolution2);
+            VOSClusteringTechnique vosClusteringTechnique = new VOSClusteringTechnique(network, resolution);
             int j = 0;
             double modularity = 0;
             boolean update = true;
@@ -187,119 +332,136 @@ public class ComputeErrDegree <T>{
     }
     
     public Map<Entry<T,T>, Double> computeLinkError(int modularityFunction, double resolution, long randomSeed, int nRandomStarts, int nIterations, ModularityAlgorithm algorithm){
-        if(this.elementToID.size() == 2){
-            Map<Entry<T,T>, Double> res = new LinkedHashMap<>();
-            Iterator<T> it = this.elementToID.keySet().iterator();
-            res.put(new SimpleEntry<>(it.next(), it.next()), 0.5);
-            
-            
-            //use treemap to have same order as in original paper
-            //res.put(new SimpleEntry(this.elementToID.firstKey(), this.elementToID.lastKey()), 0.5); 
-            return res;
+        double[] errors = computeLinkErrorPerEdge(modularityFunction, resolution, randomSeed, nRandomStarts, nIterations, algorithm);
+        if(errors == null)
+            return new HashMap<>();
+        Map<Entry<T,T>, Double> resultMap = new LinkedHashMap<>(); //change to HashMap?
+        for(int i = 0; i < idToElement.size(); i++){
+            T sourceElement = idToElement.get(i);
+            for(int k = firstNeighborIndex[i]; k < firstNeighborIndex[i + 1]; k++){
+                if(neighbor[k] > i)
+                    resultMap.put(new SimpleEntry<>(sourceElement, idToElement.get(neighbor[k])), errors[k]);
+            }
+        }
+        return resultMap;
+    }
+    
+    /**
+     * Computes the error degree of all edges and returns them in a compact form which needs much less memory
+     * than the map returned by {@link #computeLinkError(int, double, long, int, int, ModularityAlgorithm) computeLinkError}.
+     * @param modularityFunction Modularity function (1 = standard; 2 = alternative)
+     * @param resolution Use a value of 1.0 for standard modularity-based community detection.
+     * @param randomSeed Seed of the random number generator
+     * @param nRandomStarts Number of random starts
+     * @param nIterations Number of iterations per random start
+     * @param algorithm Algorithm for modularity optimization
+     * @return the error degree of all edges
+     */
+    public LinkErrors<T> computeLinkErrors(int modularityFunction, double resolution, long randomSeed, int nRandomStarts, int nIterations, ModularityAlgorithm algorithm){
+        double[] errors = computeLinkErrorPerEdge(modularityFunction, resolution, randomSeed, nRandomStarts, nIterations, algorithm);
+        if(errors == null)
+            return new LinkErrors<>(new HashMap<>(), new int[1], new int[0], new double[0]);
+        return new LinkErrors<>(elementToID, firstNeighborIndex, neighbor, errors);
+    }
+    
+    /**
+     * Computes the error degree of each edge in the compressed graph.
+     * @return array which contains the error degree at the same position as the neighbor array or null if the graph is empty.
+     */
+    private double[] computeLinkErrorPerEdge(int modularityFunction, double resolution, long randomSeed, int nRandomStarts, int nIterations, ModularityAlgorithm algorithm){
+        buildGraph();
+        if(this.idToElement.size() == 2){
+            //use same value as in original paper
+            double[] errors = new double[neighbor.length];
+            Arrays.fill(errors, 0.5);
+            return errors;
         }
         
         Clustering clustering = computeClustering(modularityFunction, resolution, randomSeed, nRandomStarts, nIterations, algorithm);
         if(clustering == null){
             LOGGER.warn("Return not link errors because of clustering==null. Usually because graph is empty?");
-            return new HashMap<>();
+            return null;
         }
+        int[] cluster = clustering.cluster;
+        int[] clusterSize = clustering.getNNodesPerCluster();
         
-        Map<Integer, List<Integer>> clusterToIDs = computeClusterToID(clustering);
-        Map<Integer, Integer> idToCluster = computeIDToCluster(clusterToIDs);
-                
-        Map<Integer, Double> intraCommEdges = new HashMap<>();
-	Map<String, Double> interCommEdges = new TreeMap<>();        
-        for(Map.Entry<Integer, Map<Integer,Double>> sourceToMultiTarget : uniformDirectedEdges.entrySet()){
-            int sourceCluster = idToCluster.get(sourceToMultiTarget.getKey());
-            for(Map.Entry<Integer,Double> targetToWeight : sourceToMultiTarget.getValue().entrySet()){
-                int targetCluster = idToCluster.get(targetToWeight.getKey());                
+        double[] intraCommEdges = new double[clustering.nClusters];
+        Map<Long, Double> interCommEdges = new HashMap<>();
+        for(int i = 0; i < idToElement.size(); i++){
+            int sourceCluster = cluster[i];
+            for(int k = firstNeighborIndex[i]; k < firstNeighborIndex[i + 1]; k++){
+                if(neighbor[k] < i)
+                    continue;
+                int targetCluster = cluster[neighbor[k]];
                 if(sourceCluster == targetCluster){
-                    intraCommEdges.put(sourceCluster, intraCommEdges.getOrDefault(sourceCluster, 0.0) + targetToWeight.getValue());
+                    intraCommEdges[sourceCluster] += neighborWeight[k];
                 }else{
-                    String interCommunityKey = targetCluster < sourceCluster ? targetCluster + "-" + sourceCluster : sourceCluster + "-" + targetCluster;
-                    interCommEdges.put(interCommunityKey, interCommEdges.getOrDefault(interCommunityKey, 0.0) + targetToWeight.getValue());
+                    interCommEdges.merge(getInterCommunityKey(sourceCluster, targetCluster), neighborWeight[k], Double::sum);
                 }
             }
         }
         
         // Intra-Links Ranking
-        Map<Integer, Double> measureValuesIntra = new TreeMap<>();
-        for(Entry<Integer, List<Integer>> cluster: clusterToIDs.entrySet()){
-            double E_in = 0;
-            int clusterID = cluster.getKey();
-            if(intraCommEdges.containsKey(clusterID)){
-                E_in = intraCommEdges.get(clusterID);
-            }
-            double C = cluster.getValue().size();
-            double err = 1 - (E_in /(C*(C-1)));
-            measureValuesIntra.put(clusterID, err);
+        double[] measureValuesIntra = new double[clustering.nClusters];
+        for(int c = 0; c < clustering.nClusters; c++){
+            double E_in = intraCommEdges[c];
+            double C = clusterSize[c];
+            measureValuesIntra[c] = 1 - (E_in /(C*(C-1)));
         }
         
         // Inter-Links Ranking
-        Map<String, Double> measureValuesInter = new TreeMap<>();
-        for(Entry<String, Double> interCommEdge: interCommEdges.entrySet()){
+        Map<Long, Double> measureValuesInter = new HashMap<>();
+        for(Entry<Long, Double> interCommEdge: interCommEdges.entrySet()){
             double E_ex = interCommEdge.getValue();
-            String[] linkedCommunities = interCommEdge.getKey().split("-");
-            double C1 = clusterToIDs.get(Integer.parseInt(linkedCommunities[0])).size();
-            double C2 = clusterToIDs.get(Integer.parseInt(linkedCommunities[1])).size();
-            double err = 1 - (E_ex /(2*C1*C2));
-            measureValuesInter.put(interCommEdge.getKey(), err);
+            long key = interCommEdge.getKey();
+            double C1 = clusterSize[(int) (key >>> 32)];
+            double C2 = clusterSize[(int) key];
+            measureValuesInter.put(key, 1 - (E_ex /(2*C1*C2)));
         }
         
-        Map<Entry<T,T>, Double> resultMap = new LinkedHashMap<>(); //change to HashMap?
-        for(Map.Entry<Integer, Map<Integer,Double>> sourceToMultiTarget : uniformDirectedEdges.entrySet()){
-            int sourceCluster = idToCluster.get(sourceToMultiTarget.getKey());
-            T sourceElement = idToElement.get(sourceToMultiTarget.getKey());
-            for(Map.Entry<Integer,Double> targetToWeight : sourceToMultiTarget.getValue().entrySet()){
-                int targetCluster = idToCluster.get(targetToWeight.getKey()); 
-                T targetElement = idToElement.get(targetToWeight.getKey());
+        //error degree of each edge (in both directions)
+        double[] errors = new double[neighbor.length];
+        IntConsumer computeRow = i -> {
+            int sourceCluster = cluster[i];
+            for(int k = firstNeighborIndex[i]; k < firstNeighborIndex[i + 1]; k++){
+                int targetCluster = cluster[neighbor[k]];
                 if(sourceCluster == targetCluster){
-                    double errValue = measureValuesIntra.get(sourceCluster);
-                    resultMap.put(new SimpleEntry<>(sourceElement, targetElement), errValue);
+                    errors[k] = measureValuesIntra[sourceCluster];
                 }else{
-                    String interCommunityKey = targetCluster < sourceCluster ? targetCluster + "-" + sourceCluster : sourceCluster + "-" + targetCluster;
-                    double errValue = measureValuesInter.get(interCommunityKey);
-                    resultMap.put(new SimpleEntry<>(sourceElement, targetElement), errValue);
+                    errors[k] = measureValuesInter.get(getInterCommunityKey(sourceCluster, targetCluster));
                 }
             }
+        };
+        if(numberOfThreads <= 1){
+            for(int i = 0; i < idToElement.size(); i++){
+                computeRow.accept(i);
+            }
+        }else{
+            runInPool(() -> IntStream.range(0, idToElement.size()).parallel().forEach(computeRow));
         }
-        return resultMap;
+        return errors;
     }
     
-    
-    private Map<Integer, List<Integer>> computeClusterToID(Clustering clustering){
-        int nNodes = clustering.getNNodes();
-        clustering.orderClustersByNNodes();
-        Map<Integer, List<Integer>> clusterToID = new HashMap<>();
-        for (int i = 0; i < nNodes; i++){
-            Integer clusterNumber = clustering.getCluster(i);
-            clusterToID.computeIfAbsent(clusterNumber, __->new ArrayList<>()).add(i);
-        }
-        return clusterToID;
+    private static long getInterCommunityKey(int clusterOne, int clusterTwo){
+        return clusterOne < clusterTwo ? ((long) clusterOne << 32) | clusterTwo : ((long) clusterTwo << 32) | clusterOne;
     }
     
-    private Map<Integer, Integer> computeIDToCluster(Map<Integer, List<Integer>> clusterToID){
-        Map<Integer, Integer> idToCluster = new HashMap<>();
-        for (Entry<Integer, List<Integer>> entry : clusterToID.entrySet()){
-            for(Integer id : entry.getValue()){
-                idToCluster.put(id, entry.getKey());
-            }
+    private void runInPool(Runnable runnable){
+        ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+        try {
+            pool.submit(runnable).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while computing the error degree.", ex);
+        } catch (ExecutionException ex) {
+            if(ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            throw new IllegalStateException("Could not compute the error degree.", ex.getCause());
+        } finally {
+            pool.shutdown();
         }
-        return idToCluster;
     }
     
-    
-//    private Map<Integer, Integer> computeIDToCluster(Clustering clustering) {
-//        int nNodes = clustering.getNNodes();
-//        clustering.orderClustersByNNodes();
-//        Map<Integer, Integer> idToCluster = new HashMap();
-//        for (int i = 0; i < nNodes; i++) {
-//            Integer clusterNumber = clustering.getCluster(i);
-//            idToCluster.put(i, clusterNumber);
-//        }
-//        return idToCluster;
-//    }
-    
     private Map<T, Integer> computeElementToCluster(Clustering clustering){
         int nNodes = clustering.getNNodes();
         clustering.orderClustersByNNodes();
@@ -312,68 +474,48 @@ public class ComputeErrDegree <T>{
     }
     
     /**
-     * Based on the uniformDirectedEdges attribute of the class, computes the internal representation (Network).
+     * Based on the compressed graph, computes the internal representation (Network).
+     * The arrays are shared with the network and not copied.
      * @param modularityFunction the modularity Function
      * @return the internal representation (Network)
      */
     private Network getNetwork(int modularityFunction){
-        int[] node1 = new int[countUndirectedEdges];
-        int[] node2 = new int[countUndirectedEdges];
-        double[] edgeWeight1 = new double[countUndirectedEdges];
-        
-        int j=0;
-        for(Map.Entry<Integer, Map<Integer,Double>> sourceToMultiTarget : uniformDirectedEdges.entrySet()){
-            for(Map.Entry<Integer,Double> targetToWeight : sourceToMultiTarget.getValue().entrySet()){
-                node1[j] = sourceToMultiTarget.getKey();
-                node2[j] = targetToWeight.getKey();
-                edgeWeight1[j] = targetToWeight.getValue();
-                j++;
-            }
-        }
-        
+        buildGraph();
         int numberOfNodes = idToElement.size();
-        
-        int[] nNeighbors = new int[numberOfNodes];
-        for (int i = 0; i < countUndirectedEdges; i++){
-            if (node1[i] < node2[i]){
-                nNeighbors[node1[i]]++;
-                nNeighbors[node2[i]]++;
-            }
-        }
-        
-        int[] firstNeighborIndex = new int[numberOfNodes + 1];
-        int nEdges = 0;
-        for (int i = 0; i < numberOfNodes; i++){
-                firstNeighborIndex[i] = nEdges;
-                nEdges += nNeighbors[i];
-        }
-        firstNeighborIndex[numberOfNodes] = nEdges;
-        
-        int[] neighbor = new int[nEdges];
-        double[] edgeWeight2 = new double[nEdges];
-        Arrays.fill(nNeighbors, 0);
-			
-        for (int i = 0; i < countUndirectedEdges; i++){
-            if (node1[i] < node2[i]){
-                j = firstNeighborIndex[node1[i]] + nNeighbors[node1[i]];
-                neighbor[j] = node2[i];
-                edgeWeight2[j] = edgeWeight1[i];
-                nNeighbors[node1[i]]++;
-                j = firstNeighborIndex[node2[i]] + nNeighbors[node2[i]];
-                neighbor[j] = node1[i];
-                edgeWeight2[j] = edgeWeight1[i];
-                nNeighbors[node2[i]]++;
-	    }
-        }
-        
         if (modularityFunction == 1){
-            return new Network(numberOfNodes, firstNeighborIndex, neighbor, edgeWeight2);
+            return Network.createWithoutCopy(numberOfNodes, null, firstNeighborIndex, neighbor, neighborWeight);
         }else{
             double [] nodeWeight = new double[numberOfNodes];
             Arrays.fill(nodeWeight, 1);
-            return new Network(numberOfNodes, nodeWeight, firstNeighborIndex, neighbor, edgeWeight2);
+            return Network.createWithoutCopy(numberOfNodes, nodeWeight, firstNeighborIndex, neighbor, neighborWeight);
         }
     }
+    
+    /**
+     * Returns the number of undirected edges (parallel edges are counted once).
+     * @return number of undirected edges
+     */
+    public int getNumberOfEdges(){
+        buildGraph();
+        return countUndirectedEdges;
+    }
+    
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Sets the number of threads. With more than one thread, each connected component of the graph is clustered in parallel
+     * (with its own random generator derived from the seed) and the error degree of all edges is computed in parallel.
+     * The communities can thus differ slightly from the ones computed with one thread.
+     * Default is one.
+     * @param numberOfThreads the number of threads (at least one)
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        if(numberOfThreads < 1)
+            throw new IllegalArgumentException("The number of threads has to be at least one.");
+        this.numberOfThreads = numberOfThreads;
+    }
 }
 
 //in case one would like to reproduce results from the paper use the following:
@@ -1767,6 +1909,22 @@ class Network implements Serializable
     {
     }
 
+    /**
+     * Creates a network which uses the given arrays directly (they are not copied and must not be modified afterwards).
+     */
+    static Network createWithoutCopy(int nNodes, double[] nodeWeight, int[] firstNeighborIndex, int[] neighbor, double[] edgeWeight)
+    {
+        Network network = new Network();
+        network.nNodes = nNodes;
+        network.nEdges = neighbor.length;
+        network.firstNeighborIndex = firstNeighborIndex;
+        network.neighbor = neighbor;
+        network.edgeWeight = edgeWeight;
+        network.totalEdgeWeightSelfLinks = 0;
+        network.nodeWeight = (nodeWeight != null) ? nodeWeight : network.getTotalEdgeWeightPerNode();
+        return network;
+    }
+
     private double generateRandomNumber(int node1, int node2, int[] nodePermutation)
     {
         int i, j;
@@ -9,7 +9,6 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.AbstractMap.SimpleEntry;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -31,6 +30,7 @@ public class FilterByErrorDegree implements IMatcherMultiSource<Object, Alignmen
     private long randomSeed;
     private int nRandomStarts;
     private int nIterations;
+    private int numberOfThreads;
     
 
     /**
@@ -79,6 +79,7 @@ public class FilterByErrorDegree implements IMatcherMultiSource<Object, Alignmen
         this.randomSeed = randomSeed;
         this.nRandomStarts = nRandomStarts;
         this.nIterations = nIterations;
+        this.numberOfThreads = 1;
     }
     
     @Override
@@ -92,13 +93,9 @@ public class FilterByErrorDegree implements IMatcherMultiSource<Object, Alignmen
     
     public Alignment filter(Alignment alignment){
         Alignment newAlignment = new Alignment(alignment, false);
-        ComputeErrDegree<String> errDegree = new ComputeErrDegree<>();
-        for(Correspondence c : alignment){
-            errDegree.addEdge(c.getEntityOne(), c.getEntityTwo(), c.getConfidence());
-        }
-        Map<Entry<String,String>, Double> map = errDegree.computeLinkError(modularityFunction, resolution, randomSeed, nRandomStarts, nIterations, algorithm);
+        LinkErrors<String> errors = computeLinkErrors(alignment);
         for(Correspondence correspondence : alignment){
-            Double err = getErrorValue(map, correspondence);
+            double err = getErrorValue(errors, correspondence);
             if(err <= threshold){
                 correspondence.addAdditionalConfidence(FilterByErrorDegree.class, err);
                 newAlignment.add(correspondence);
@@ -108,25 +105,39 @@ public class FilterByErrorDegree implements IMatcherMultiSource<Object, Alignmen
     }
     
     public Alignment addConfidence(Alignment alignment){
+        LinkErrors<String> errors = computeLinkErrors(alignment);
+        for(Correspondence correspondence : alignment){
+            correspondence.addAdditionalConfidence(FilterByErrorDegree.class, getErrorValue(errors, correspondence));
+        }
+        return alignment;
+    }
+    
+    private LinkErrors<String> computeLinkErrors(Alignment alignment){
         ComputeErrDegree<String> errDegree = new ComputeErrDegree<>();
+        errDegree.setNumberOfThreads(numberOfThreads);
         for(Correspondence c : alignment){
             errDegree.addEdge(c.getEntityOne(), c.getEntityTwo(), c.getConfidence());
         }
-        Map<Entry<String,String>, Double> map = errDegree.computeLinkError(modularityFunction, resolution, randomSeed, nRandomStarts, nIterations, algorithm);
-        for(Correspondence correspondence : alignment){
-            correspondence.addAdditionalConfidence(FilterByErrorDegree.class, getErrorValue(map, correspondence));
-        }
-        return alignment;
+        return errDegree.computeLinkErrors(modularityFunction, resolution, randomSeed, nRandomStarts, nIterations, algorithm);
+    }
+    
+    private static double getErrorValue(LinkErrors<String> errors, Correspondence correspondence){
+        return errors.getLinkError(correspondence.getEntityOne(), correspondence.getEntityTwo(), 0.0d);
     }
     
-    private static Double getErrorValue(Map<Entry<String,String>, Double> map, Correspondence correspondence){
-        Double d = map.get(new SimpleEntry<>(correspondence.getEntityOne(), correspondence.getEntityTwo()));
-        if(d != null)
-            return d;
-        d = map.get(new SimpleEntry<>(correspondence.getEntityTwo(), correspondence.getEntityOne()));
-        if(d != null)
-            return d;
-        return 0.0d;
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Sets the number of threads which are used to compute the communities and error degrees (see {@link ComputeErrDegree#setNumberOfThreads(int)}).
+     * Default is one.
+     * @param numberOfThreads the number of threads (at least one)
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        if(numberOfThreads < 1)
+            throw new IllegalArgumentException("The number of threads has to be at least one.");
+        this.numberOfThreads = numberOfThreads;
     }
     
     /**
@@ -137,6 +148,7 @@ public class FilterByErrorDegree implements IMatcherMultiSource<Object, Alignmen
      */
     public void analyzeErrDistribution(Alignment alignment, File file){
         ComputeErrDegree<String> errDegree = new ComputeErrDegree<>();
+        errDegree.setNumberOfThreads(numberOfThreads);
         for(Correspondence c : alignment){
             errDegree.addEdge(c.getEntityOne(), c.getEntityTwo(), c.getConfidence());
         }
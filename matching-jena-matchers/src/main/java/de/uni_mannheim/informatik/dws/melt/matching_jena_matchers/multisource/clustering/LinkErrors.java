@@ -0,0 +1,58 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.clustering;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * The error degree of all edges computed by {@link ComputeErrDegree}.
+ * The values are stored in primitive arrays aligned with the compressed graph and are looked up with a binary search.
+ * @param <T> the type of elements
+ */
+public class LinkErrors<T> {
+
+    private final Map<T, Integer> elementToID;
+    private final int[] firstNeighborIndex;
+    private final int[] neighbor;
+    private final double[] errors;
+
+    LinkErrors(Map<T, Integer> elementToID, int[] firstNeighborIndex, int[] neighbor, double[] errors) {
+        this.elementToID = elementToID;
+        this.firstNeighborIndex = firstNeighborIndex;
+        this.neighbor = neighbor;
+        this.errors = errors;
+    }
+
+    /**
+     * Returns the error degree of the edge between the two elements (the direction does not matter).
+     * @param one the first element
+     * @param two the second element
+     * @param defaultValue the value which is returned if there is no edge between the elements
+     * @return the error degree or the default value
+     */
+    public double getLinkError(T one, T two, double defaultValue){
+        Integer idOne = elementToID.get(one);
+        Integer idTwo = elementToID.get(two);
+        if(idOne == null || idTwo == null || idOne >= firstNeighborIndex.length - 1)
+            return defaultValue;
+        int position = Arrays.binarySearch(neighbor, firstNeighborIndex[idOne], firstNeighborIndex[idOne + 1], idTwo);
+        if(position < 0)
+            return defaultValue;
+        return errors[position];
+    }
+
+    /**
+     * Returns the error degree of all edges (each undirected edge is contained twice - once for each direction).
+     * @return the error degree of all edges
+     */
+    public double[] getAllLinkErrors(){
+        return errors.clone();
+    }
+
+    /**
+     * Returns the number of undirected edges.
+     * @return number of undirected edges
+     */
+    public int size(){
+        return errors.length / 2;
+    }
+}
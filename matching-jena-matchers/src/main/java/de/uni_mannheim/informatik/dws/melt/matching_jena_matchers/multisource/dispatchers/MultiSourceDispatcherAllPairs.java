@@ -14,6 +14,11 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,9 +28,11 @@ public class MultiSourceDispatcherAllPairs extends MatcherMultiSourceURL impleme
     
     private static final ObjectMapper objectMapper = new ObjectMapper();
     private final Object oneToOneMatcher;
+    private int numberOfThreads;
 
     public MultiSourceDispatcherAllPairs(Object oneToOneMatcher) {
         this.oneToOneMatcher = oneToOneMatcher;
+        this.numberOfThreads = 1;
     }
     
     @Override
@@ -42,30 +49,82 @@ public class MultiSourceDispatcherAllPairs extends MatcherMultiSourceURL impleme
     public AlignmentAndParameters match(List<Set<Object>> models, Object inputAlignment, Object parameters) throws Exception{
         int combinations = (models.size() * (models.size() - 1)) / 2;
         LOGGER.info("Match {} one to one matches", combinations);
-        Alignment finalAlignment = new Alignment();
-        int counter = 1;
+        List<Callable<Alignment>> pairs = new ArrayList<>(combinations);
         for(int i = 0; i < models.size() - 1; i++){
             Set<Object> left = models.get(i);
             for(int j = i + 1; j < models.size(); j++){
                 Set<Object> right = models.get(j);
-                LOGGER.info("Match combination {} out of {}", counter++, combinations);
-                //to make sure that all matchers gets the same input alignment and proeprties we make a deep copy of them.
-                Object copiedInputAlignment = objectMapper.readValue(objectMapper.writeValueAsString(inputAlignment), inputAlignment.getClass());
-                Object copiedParameters = objectMapper.readValue(objectMapper.writeValueAsString(parameters), parameters.getClass());
-                AlignmentAndParameters alignmentAndPrameters = GenericMatcherCaller.runMatcherMultipleRepresentations(this.oneToOneMatcher, left, right, copiedInputAlignment, copiedParameters);
-                Alignment a = TypeTransformerRegistry.getTransformedObject(alignmentAndPrameters.getAlignment(), Alignment.class);
-                if(a == null){
-                    LOGGER.warn("Tranformation of the alignment was not succesfull. One matching alignment will not be in the result.");
-                }else{
-                    finalAlignment.addAll(a);
+                int combination = pairs.size() + 1;
+                pairs.add(() -> {
+                    LOGGER.info("Match combination {} out of {}", combination, combinations);
+                    return matchPair(left, right, inputAlignment, parameters);
+                });
+            }
+        }
+        
+        Alignment finalAlignment = new Alignment();
+        if(this.numberOfThreads > 1 && pairs.size() > 1){
+            ExecutorService executor = Executors.newFixedThreadPool(this.numberOfThreads);
+            try{
+                //futures are returned in the order of the pairs, thus the result does not depend on the scheduling
+                for(Future<Alignment> future : executor.invokeAll(pairs)){
+                    addAlignment(finalAlignment, getResult(future));
                 }
-                //finalAlignment.addAll(oneToOneMatcherJena.match(left, right, inputAlignment, new Properties()));
+            }finally{
+                executor.shutdownNow();
+            }
+        }else{
+            for(Callable<Alignment> pair : pairs){
+                addAlignment(finalAlignment, pair.call());
             }
         }
         //return finalAlignment;
         return new AlignmentAndParameters(finalAlignment, parameters);
     }
     
+    private Alignment matchPair(Set<Object> left, Set<Object> right, Object inputAlignment, Object parameters) throws Exception{
+        //to make sure that all matchers gets the same input alignment and proeprties we make a deep copy of them.
+        Object copiedInputAlignment = objectMapper.readValue(objectMapper.writeValueAsString(inputAlignment), inputAlignment.getClass());
+        Object copiedParameters = objectMapper.readValue(objectMapper.writeValueAsString(parameters), parameters.getClass());
+        AlignmentAndParameters alignmentAndPrameters = GenericMatcherCaller.runMatcherMultipleRepresentations(this.oneToOneMatcher, left, right, copiedInputAlignment, copiedParameters);
+        return TypeTransformerRegistry.getTransformedObject(alignmentAndPrameters.getAlignment(), Alignment.class);
+        //finalAlignment.addAll(oneToOneMatcherJena.match(left, right, inputAlignment, new Properties()));
+    }
+    
+    private static void addAlignment(Alignment finalAlignment, Alignment a){
+        if(a == null){
+            LOGGER.warn("Tranformation of the alignment was not succesfull. One matching alignment will not be in the result.");
+        }else{
+            finalAlignment.addAll(a);
+        }
+    }
+    
+    private static Alignment getResult(Future<Alignment> future) throws Exception{
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            if(ex.getCause() instanceof Exception)
+                throw (Exception) ex.getCause();
+            throw ex;
+        }
+    }
+    
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Sets the number of threads which execute the one to one matches of different pairs concurrently.
+     * With more than one thread, the one to one matcher needs to be thread safe.
+     * Default is one which means all pairs are matched sequentially.
+     * @param numberOfThreads the number of threads (at least one)
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        if(numberOfThreads < 1)
+            throw new IllegalArgumentException("The number of threads has to be at least one.");
+        this.numberOfThreads = numberOfThreads;
+    }
+    
     @Override
     public boolean needsTransitiveClosureForEvaluation(){
         return false;
@@ -28,6 +28,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.logging.Level;
 import org.apache.jena.graph.Graph;
 import org.apache.jena.graph.Node;
@@ -54,6 +59,7 @@ public abstract class MultiSourceDispatcherIncrementalMerge extends MatcherMulti
     private boolean useCacheForMergeTree;
     private boolean addInformationToUnion;
     private boolean lowMemoryOverhead;
+    private int numberOfThreads;
     private List<Alignment> intermediateAlignments;
 
     /**
@@ -69,6 +75,7 @@ public abstract class MultiSourceDispatcherIncrementalMerge extends MatcherMulti
         this.addInformationToUnion = addInformationToUnion;
         this.intermediateAlignments = null; // default is not to save intermediate alignments
         this.lowMemoryOverhead = false;
+        this.numberOfThreads = 1;
     }
     
     public MultiSourceDispatcherIncrementalMerge(Object oneToOneMatcher) {
@@ -122,6 +129,13 @@ public abstract class MultiSourceDispatcherIncrementalMerge extends MatcherMulti
         if(mergingTree.length != n-1){
             throw new IllegalArgumentException("Merging tree has not enough entries. There are " + n + "model but only " + mergingTree.length + " entries in tree (expected " + (n-1) + " ). Stopping merging.");
         }
+        if(this.numberOfThreads > 1){
+            if(this.oneToOneMatcher instanceof IndexBasedJenaMatcher){
+                LOGGER.warn("The one to one matcher is index based and cannot run concurrently. Performing all merges sequentially.");
+            }else{
+                return matchConcurrently(models, mergingTree, inputAlignment, parameters, p);
+            }
+        }
         callClearIndex(); // clear index if some index already exists.
         int mergeCount = mergingTree.length;
         LOGGER.info("Now performing {} merges.", mergeCount);
@@ -236,6 +250,164 @@ public abstract class MultiSourceDispatcherIncrementalMerge extends MatcherMulti
         return new AlignmentAndParameters(finalAlignment, parameters);
     }
     
+    /**
+     * Executes all merges of the merging tree on a pool of {@link #numberOfThreads} threads.
+     * A merge is started as soon as the merges it depends on are finished.
+     * Thus merges in different subtrees run concurrently.
+     * The alignments are combined in the order of the merging tree such that the result does not depend on the scheduling.
+     */
+    private AlignmentAndParameters matchConcurrently(List<Set<Object>> models, int[][] mergingTree, Object inputAlignment, Object parameters, Properties p) throws Exception {
+        int n = models.size();
+        int mergeCount = mergingTree.length;
+        int[] levels = new int[mergeCount];
+        for (int i = 0; i < mergeCount; i++) {
+            int[] merges = mergingTree[i];
+            if(merges.length != 2){
+                LOGGER.warn("mergingTree contains less or more than 2 entries. Returning input alignment.");
+                return new AlignmentAndParameters(inputAlignment, parameters);
+            }
+            int level = 0;
+            for(int element : merges){
+                if(element >= n){
+                    if(element - n >= i)
+                        throw new IllegalArgumentException("Merging tree refers in step " + i + " to the later step " + (element - n) + ".");
+                    level = Math.max(level, levels[element - n]);
+                }
+            }
+            levels[i] = level + 1;
+        }
+        
+        LOGGER.info("Now performing {} merges with {} threads.", mergeCount, this.numberOfThreads);
+        //merged models are removed as soon as they are used by the next merge
+        AtomicReferenceArray<Set<Object>> mergedOntologies = new AtomicReferenceArray<>(mergeCount);
+        Alignment[] alignments = new Alignment[mergeCount];
+        long[] startTimes = new long[mergeCount];
+        long[] endTimes = new long[mergeCount];
+        List<CompletableFuture<Void>> futures = new ArrayList<>(mergeCount);
+        ExecutorService executor = Executors.newFixedThreadPool(this.numberOfThreads);
+        try{
+            for (int i = 0; i < mergeCount; i++) {
+                final int step = i;
+                List<CompletableFuture<Void>> dependencies = new ArrayList<>(2);
+                for(int element : mergingTree[i]){
+                    if(element >= n)
+                        dependencies.add(futures.get(element - n));
+                }
+                futures.add(CompletableFuture.allOf(dependencies.toArray(new CompletableFuture[0])).thenRunAsync(() -> {
+                    startTimes[step] = System.nanoTime();
+                    try {
+                        alignments[step] = mergeConcurrently(step, models, mergingTree[step], mergedOntologies, inputAlignment, parameters, p);
+                    } catch (Exception ex) {
+                        throw new CompletionException(ex);
+                    }
+                    endTimes[step] = System.nanoTime();
+                }, executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        }catch(CompletionException ex){
+            Throwable cause = ex.getCause();
+            if(cause instanceof MergeException){
+                LOGGER.error(cause.getMessage() + " Return input alignment.");
+                return new AlignmentAndParameters(inputAlignment, parameters);
+            }
+            if(cause instanceof Exception)
+                throw (Exception) cause;
+            throw ex;
+        }finally{
+            executor.shutdownNow();
+        }
+        
+        logLevelRuntimes(levels, startTimes, endTimes);
+        Alignment finalAlignment = new Alignment();
+        for(Alignment alignment : alignments){
+            finalAlignment.addAll(alignment);
+            if(this.intermediateAlignments != null)
+                this.intermediateAlignments.add(alignment);
+        }
+        return new AlignmentAndParameters(finalAlignment, parameters);
+    }
+    
+    private Alignment mergeConcurrently(int step, List<Set<Object>> models, int[] merges, AtomicReferenceArray<Set<Object>> mergedOntologies, 
+            Object inputAlignment, Object parameters, Properties p) throws Exception{
+        int n = models.size();
+        int left = merges[0];
+        int right = merges[1];
+        Set<Object> leftOntology = left >= n ? mergedOntologies.getAndSet(left - n, null) : models.get(left);
+        Set<Object> rightOntology = right >= n ? mergedOntologies.getAndSet(right - n, null) : models.get(right);
+        
+        //same rules as in the sequential case but without reusing an index: always merge into the already merged element
+        Set<Object> source;
+        Set<Object> target;
+        if(left >= n && right < n){
+            source = rightOntology;
+            target = leftOntology;
+        }else if(left < n && right >= n){
+            source = leftOntology;
+            target = rightOntology;
+        }else if(isLeftModelGreater(leftOntology, rightOntology, p)){
+            source = rightOntology;
+            //copy target of two leaf nodes because otherwise the original model will be modified.
+            target = left >= n ? leftOntology : getCopiedModel(leftOntology, p);
+        }else{
+            source = leftOntology;
+            target = right >= n ? rightOntology : getCopiedModel(rightOntology, p);
+        }
+        
+        LOGGER.info("Run one to one match of merge {}", step + 1);
+        AlignmentAndParameters alignmentAndPrameters = GenericMatcherCaller.runMatcherMultipleRepresentations(this.oneToOneMatcher, source, target, 
+                DispatcherHelper.deepCopy(inputAlignment), DispatcherHelper.deepCopy(parameters));
+        Alignment alignment = TypeTransformerRegistry.getTransformedObject(alignmentAndPrameters.getAlignment(), Alignment.class);
+        if(alignment == null)
+            throw new MergeException("Could not transform result of matcher to alignment.");
+        
+        Model sourceModel = TypeTransformerRegistry.getTransformedObjectMultipleRepresentations(source, Model.class, p);
+        Model targetModel = TypeTransformerRegistry.getTransformedObjectMultipleRepresentations(target, Model.class, p);
+        if(sourceModel == null || targetModel == null)
+            throw new MergeException("Could not transform source or target to Model.");
+        mergeSourceIntoTarget(sourceModel, targetModel, alignment, addInformationToUnion);
+        
+        if(this.lowMemoryOverhead){
+            //in low memory overhead the target is tdb and doesn't need to be removed.
+            removeOntModelFromSet(source);
+        }
+        mergedOntologies.set(step, new HashSet<>(Arrays.asList(targetModel)));
+        LOGGER.info("Finished merge {}", step + 1);
+        return alignment;
+    }
+    
+    private static void logLevelRuntimes(int[] levels, long[] startTimes, long[] endTimes){
+        int maxLevel = 0;
+        for(int level : levels){
+            maxLevel = Math.max(maxLevel, level);
+        }
+        for(int level = 1; level <= maxLevel; level++){
+            int count = 0;
+            long minStart = Long.MAX_VALUE;
+            long maxEnd = Long.MIN_VALUE;
+            long summed = 0;
+            for(int i = 0; i < levels.length; i++){
+                if(levels[i] == level){
+                    count++;
+                    minStart = Math.min(minStart, startTimes[i]);
+                    maxEnd = Math.max(maxEnd, endTimes[i]);
+                    summed += endTimes[i] - startTimes[i];
+                }
+            }
+            LOGGER.info("Merge level {}: {} merges, wall clock time {} ms, summed merge time {} ms",
+                    level, count, (maxEnd - minStart) / 1_000_000, summed / 1_000_000);
+        }
+    }
+    
+    /**
+     * Thrown when a concurrent merge cannot be performed and the input alignment should be returned (same as in the sequential case).
+     */
+    private static class MergeException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        MergeException(String message) {
+            super(message);
+        }
+    }
+    
     private void removeOntModelFromSet(Set<Object> set){
         for (Iterator<Object> i = set.iterator(); i.hasNext();) {
             Object element = i.next();
@@ -276,6 +448,25 @@ public abstract class MultiSourceDispatcherIncrementalMerge extends MatcherMulti
         this.lowMemoryOverhead = lowMemoryOverhead;
     }
     
+
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Sets the number of threads which execute independent merges concurrently (merges whose inputs are already computed).
+     * With more than one thread, the one to one matcher needs to be thread safe. Index based matchers
+     * ({@link IndexBasedJenaMatcher}) are always executed sequentially.
+     * The low memory overhead setting is respected: intermediate models are stored in TDB and merged models are released
+     * as soon as they are merged again.
+     * Default is one which means all merges are executed sequentially.
+     * @param numberOfThreads the number of threads (at least one)
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        if(numberOfThreads < 1)
+            throw new IllegalArgumentException("The number of threads has to be at least one.");
+        this.numberOfThreads = numberOfThreads;
+    }
              
     /**
      * Returns the merging tree (which ontologies are merged in which order).
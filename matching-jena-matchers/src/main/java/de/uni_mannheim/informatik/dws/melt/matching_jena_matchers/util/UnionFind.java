@@ -0,0 +1,197 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes a transitive closure in RAM with a union find (disjoint set) data structure.
+ * Each object is mapped to an int id and the union find works on int arrays with path compression
+ * and union by size. Compared to {@link TransitiveClosure}, no sets are merged when adding elements
+ * and the clusters are only materialized when calling {@link #getClosure() }.
+ * @param <T> the type of the elements
+ */
+public class UnionFind<T> {
+
+    /**
+     * Map from object to its id.
+     */
+    private final Map<T, Integer> objectToId;
+
+    /**
+     * Map from id to object.
+     */
+    private final List<T> idToObject;
+
+    /**
+     * The parent of each id (an id is a root if it is its own parent).
+     */
+    private int[] parent;
+
+    /**
+     * The size of the cluster (only valid for roots).
+     */
+    private int[] size;
+
+    /**
+     * The number of clusters.
+     */
+    private int numberOfClusters;
+
+    public UnionFind(){
+        this.objectToId = new HashMap<>();
+        this.idToObject = new ArrayList<>();
+        this.parent = new int[16];
+        this.size = new int[16];
+        this.numberOfClusters = 0;
+    }
+
+    /**
+     * Adds the elements and puts all of them in the same cluster.
+     * @param elements the elements which belong to the same cluster
+     */
+    public void add(T... elements){
+        add(Arrays.asList(elements));
+    }
+
+    /**
+     * Adds the elements and puts all of them in the same cluster.
+     * @param elements the elements which belong to the same cluster
+     */
+    public void add(Iterable<T> elements){
+        Iterator<T> iterator = elements.iterator();
+        if(iterator.hasNext() == false)
+            return;
+        int first = getOrCreateId(iterator.next());
+        while(iterator.hasNext()){
+            union(first, getOrCreateId(iterator.next()));
+        }
+    }
+
+    /**
+     * Returns the cluster id of the given element.
+     * Two elements are in the same cluster if they have the same cluster id.
+     * The cluster id of an element can change when clusters are merged.
+     * @param element the element
+     * @return the cluster id or -1 if the element is not contained
+     */
+    public int getClusterId(T element){
+        Integer id = this.objectToId.get(element);
+        if(id == null)
+            return -1;
+        return find(id);
+    }
+
+    /**
+     * Returns the size of the cluster in which the element is contained.
+     * @param element the element
+     * @return the size of the cluster or zero if the element is not contained
+     */
+    public int getClusterSize(T element){
+        int clusterId = getClusterId(element);
+        if(clusterId < 0)
+            return 0;
+        return this.size[clusterId];
+    }
+
+    public boolean belongToTheSameCluster(T... elements){
+        return belongToTheSameCluster(Arrays.asList(elements));
+    }
+
+    public boolean belongToTheSameCluster(Iterable<T> elements){
+        int clusterId = -1;
+        for(T element : elements){
+            int id = getClusterId(element);
+            if(id < 0)
+                return false;
+            if(clusterId < 0){
+                clusterId = id;
+            }else if(clusterId != id){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the transitive closure.
+     * @return transitive closure
+     */
+    public Collection<Set<T>> getClosure(){
+        Map<Integer, Set<T>> clusters = new HashMap<>();
+        for(int id = 0; id < this.idToObject.size(); id++){
+            int root = find(id);
+            clusters.computeIfAbsent(root, __ -> new HashSet<>(this.size[root])).add(this.idToObject.get(id));
+        }
+        return clusters.values();
+    }
+
+    /**
+     * Returns the number of clusters.
+     * @return number of clusters
+     */
+    public int getNumberOfClusters(){
+        return this.numberOfClusters;
+    }
+
+    /**
+     * Returns the number of elements in all clusters.
+     * @return number of elements
+     */
+    public int getNumberOfElements(){
+        return this.idToObject.size();
+    }
+
+    private int getOrCreateId(T element){
+        Integer id = this.objectToId.get(element);
+        if(id != null)
+            return id;
+        int newId = this.idToObject.size();
+        if(newId == this.parent.length){
+            this.parent = Arrays.copyOf(this.parent, newId * 2);
+            this.size = Arrays.copyOf(this.size, newId * 2);
+        }
+        this.parent[newId] = newId;
+        this.size[newId] = 1;
+        this.objectToId.put(element, newId);
+        this.idToObject.add(element);
+        this.numberOfClusters++;
+        return newId;
+    }
+
+    private int find(int id){
+        int root = id;
+        while(this.parent[root] != root){
+            root = this.parent[root];
+        }
+        //path compression
+        while(this.parent[id] != root){
+            int next = this.parent[id];
+            this.parent[id] = root;
+            id = next;
+        }
+        return root;
+    }
+
+    private void union(int one, int two){
+        int rootOne = find(one);
+        int rootTwo = find(two);
+        if(rootOne == rootTwo)
+            return;
+        //union by size: attach the smaller tree to the larger one
+        if(this.size[rootOne] < this.size[rootTwo]){
+            int tmp = rootOne;
+            rootOne = rootTwo;
+            rootTwo = tmp;
+        }
+        this.parent[rootTwo] = rootOne;
+        this.size[rootOne] += this.size[rootTwo];
+        this.numberOfClusters--;
+    }
+}
@@ -1,13 +1,16 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.elementlevel.scale;
 
 
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.textExtractors.TextExtractorProperty;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Properties;
+import java.util.Random;
 import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
 import org.apache.jena.rdf.model.ModelFactory;
 import org.apache.jena.vocabulary.OWL;
 import org.apache.jena.vocabulary.RDFS;
@@ -147,4 +150,46 @@ public class ScalableStringProcessingMatcherTest {
         assertEquals(1, a.size());
         
     }
+    
+    @Test
+    void testParallelEqualsSequential() throws Exception {
+        Random random = new Random(42);
+        String[] words = {"alpha", "beta", "gamma", "delta", "epsilon", "zeta", "theta", "kappa", "lambda", "sigma"};
+        //parallel extraction requires models without inference
+        OntModel source = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);
+        OntModel target = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);
+        for(int i = 0; i < 500; i++){
+            String label = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+            source.createIndividual("http://source.de/" + i, OWL.Thing)
+                .addLiteral(RDFS.label, label)
+                .addLiteral(SKOS.altLabel, words[random.nextInt(words.length)] + i % 7);
+            String targetLabel = random.nextBoolean() ? label : label.replace('a', 'e');
+            target.createIndividual("http://target.de/" + i, OWL.Thing)
+                .addLiteral(RDFS.label, targetLabel.toUpperCase())
+                .addLiteral(SKOS.altLabel, words[random.nextInt(words.length)] + i % 5);
+        }
+        
+        for(boolean crossIndexMatch : Arrays.asList(false, true)){
+            for(boolean earlyStopping : Arrays.asList(false, true)){
+                Alignment sequential = createLevenshteinMatcher(earlyStopping, crossIndexMatch, 1).match(source, target, new Alignment(), new Properties());
+                Alignment parallel = createLevenshteinMatcher(earlyStopping, crossIndexMatch, 4).match(source, target, new Alignment(), new Properties());
+                assertFalse(sequential.isEmpty());
+                assertEquals(sequential, parallel);
+                for(Correspondence c : sequential){
+                    assertEquals(c.getConfidence(), parallel.getCorrespondence(c.getEntityOne(), c.getEntityTwo(), c.getRelation()).getConfidence());
+                }
+            }
+        }
+    }
+    
+    private ScalableStringProcessingMatcher createLevenshteinMatcher(boolean earlyStopping, boolean crossIndexMatch, int numberOfThreads){
+        ScalableStringProcessingMatcher matcher = new ScalableStringProcessingMatcher(Arrays.asList(
+            new PropertySpecificStringProcessing(text -> text, 1.0, RDFS.label),
+            new PropertySpecificStringProcessing(text -> text.toLowerCase(), 0.9, TextExtractorProperty.wrapExtractor(RDFS.label), 1, 3),
+            new PropertySpecificStringProcessing(text -> text, 0.7, SKOS.altLabel)
+        ), earlyStopping);
+        matcher.setCrossIndexMatch(crossIndexMatch);
+        matcher.setNumberOfThreads(numberOfThreads);
+        return matcher;
+    }
 }
@@ -7,6 +7,7 @@ import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.embed
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.wordNet.WordNetKnowledgeSource;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import org.apache.jena.ontology.OntModel;
+import org.apache.jena.rdf.model.ModelFactory;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
@@ -196,4 +197,38 @@ class BackgroundMatcherTest {
         matcher.setStrategy(ImplementedBackgroundMatchingStrategies.SYNONYMY);
         assertEquals("SYNONYMY", matcher.getStrategy().toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    void candidateIndexProducesSameAlignment() throws Exception {
+        String[] sourceLabels = {"car", "human being", "big house", "hound", "peace", "humankind peace",
+                "conference paper", "author", "xckfg", "reviewer of paper", "the", "automobile transmission"};
+        String[] targetLabels = {"automobile", "person", "large house", "dog", "peace", "mankind peace",
+                "conference article", "writer", "xckfg", "referee", "of", "car transmission", "banana"};
+        OntModel source = createOntology("http://source.org/", sourceLabels);
+        OntModel target = createOntology("http://target.org/", targetLabels);
+
+        BackgroundMatcher allPairsMatcher = new BackgroundMatcher(new WordNetKnowledgeSource());
+        allPairsMatcher.setUseCandidateIndex(false);
+        allPairsMatcher.setVerboseLoggingOutput(false);
+        Alignment expected = allPairsMatcher.match(source, target, null, null);
+        assertTrue(expected.size() > 3);
+
+        BackgroundMatcher indexMatcher = new BackgroundMatcher(new WordNetKnowledgeSource());
+        assertTrue(indexMatcher.isUseCandidateIndex());
+        indexMatcher.setVerboseLoggingOutput(false);
+        assertEquals(expected, indexMatcher.match(source, target, null, null));
+
+        indexMatcher.setNumberOfThreads(3);
+        assertEquals(3, indexMatcher.getNumberOfThreads());
+        assertEquals(expected, indexMatcher.match(source, target, null, null));
+        assertThrows(IllegalArgumentException.class, () -> indexMatcher.setNumberOfThreads(0));
+    }
+
+    private static OntModel createOntology(String namespace, String[] labels) {
+        OntModel model = ModelFactory.createOntologyModel();
+        for (int i = 0; i < labels.length; i++) {
+            model.createClass(namespace + "class" + i).addLabel(labels[i], "en");
+        }
+        return model;
+    }
+}
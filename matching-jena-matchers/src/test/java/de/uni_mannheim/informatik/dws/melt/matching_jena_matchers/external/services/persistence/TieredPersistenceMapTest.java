@@ -0,0 +1,221 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+import org.mapdb.Serializer;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieredPersistenceMapTest {
+
+    private static ScheduledExecutorService executor;
+
+    @BeforeAll
+    static void setup() {
+        executor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testFrontAndNegativeCaching() {
+        CountingStore store = new CountingStore();
+        store.put("cat", "Q1");
+        TieredPersistenceMap<String, String> map = new TieredPersistenceMap<>("test", store, () -> {}, 100, 0, true, executor, 0);
+
+        assertEquals("Q1", map.get("cat"));
+        assertEquals("Q1", map.get("cat"));
+        assertTrue(map.containsKey("cat"));
+        assertNull(map.get("unknown"));
+        assertFalse(map.containsKey("unknown"));
+        assertEquals(2, store.reads.get());
+
+        TieredPersistenceMap.Statistics statistics = map.getStatistics();
+        assertEquals(1, statistics.getStoreHits());
+        assertEquals(1, statistics.getMisses());
+        assertEquals(2, statistics.getFrontHits());
+        assertEquals(1, statistics.getNegativeHits());
+        assertEquals(0.6, statistics.getHitRate(), 0.0001);
+
+        //a write replaces the negative entry
+        map.put("unknown", "Q2");
+        assertEquals("Q2", map.get("unknown"));
+        assertEquals("Q2", store.get("unknown"));
+
+        map.remove("cat");
+        assertNull(map.get("cat"));
+        assertFalse(store.containsKey("cat"));
+    }
+
+    @Test
+    void testWithoutNegativeCachingAndEviction() {
+        CountingStore store = new CountingStore();
+        store.put("a", "1");
+        store.put("b", "2");
+        TieredPersistenceMap<String, String> map = new TieredPersistenceMap<>("test", store, () -> {}, 1, 0, false, executor, 0);
+        map.get("unknown");
+        map.get("unknown");
+        assertEquals(2, store.reads.get());
+
+        map.get("a");
+        map.get("b"); // evicts a
+        map.get("a");
+        assertEquals(5, store.reads.get());
+    }
+
+    @Test
+    void testTimeToLive() throws Exception {
+        CountingStore store = new CountingStore();
+        store.put("a", "1");
+        TieredPersistenceMap<String, String> map = new TieredPersistenceMap<>("test", store, () -> {}, 100, 20, true, executor, 0);
+        map.get("a");
+        map.get("a");
+        assertEquals(1, store.reads.get());
+        Thread.sleep(50);
+        map.get("a");
+        assertEquals(2, store.reads.get());
+    }
+
+    @Test
+    void testWriteBehindWithMapDB() throws Exception {
+        DB db = DBMaker.memoryDB().transactionEnable().make();
+        try {
+            ConcurrentMap<String, String> store = db.hashMap("map", Serializer.STRING, Serializer.STRING).createOrOpen();
+            AtomicInteger commits = new AtomicInteger();
+            TieredPersistenceMap<String, String> map = new TieredPersistenceMap<>("test", store, () -> {
+                commits.incrementAndGet();
+                db.commit();
+            }, 100, 0, true, executor, 60_000);
+
+            for (int i = 0; i < 100; i++) {
+                map.put("key" + i, "value" + i);
+                map.scheduleFlush();
+            }
+            //visible immediately but not yet written
+            assertEquals("value42", map.get("key42"));
+            assertTrue(store.isEmpty());
+            assertEquals(100, map.getStatistics().getPendingWrites());
+
+            map.flush();
+            assertEquals(1, commits.get());
+            assertEquals(100, store.size());
+            assertEquals(0, map.getStatistics().getPendingWrites());
+            assertEquals(100, map.size());
+
+            map.remove("key0");
+            map.close();
+            assertEquals(99, store.size());
+            assertEquals(2, commits.get());
+            assertThrows(IllegalStateException.class, () -> map.put("new", "value"));
+        } finally {
+            db.close();
+        }
+    }
+
+    @Test
+    void testScheduledFlush() throws Exception {
+        ConcurrentMap<String, String> store = new ConcurrentHashMap<>();
+        AtomicInteger commits = new AtomicInteger();
+        TieredPersistenceMap<String, String> map = new TieredPersistenceMap<>("test", store, commits::incrementAndGet, 100, 0, true, executor, 50);
+        for (int i = 0; i < 50; i++) {
+            map.put("key" + i, "value" + i);
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (store.size() < 50 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(50, store.size());
+        assertTrue(commits.get() < 50, "Writes were not batched: " + commits.get());
+    }
+
+    @Test
+    void testConcurrentWriteDuringStoreRead() throws Exception {
+        CountDownLatch readStarted = new CountDownLatch(1);
+        CountDownLatch finishRead = new CountDownLatch(1);
+        AtomicBoolean firstRead = new AtomicBoolean(true);
+        ConcurrentMap<String, String> slowStore = new ConcurrentHashMap<String, String>(){
+            @Override
+            public String get(Object key) {
+                String value = super.get(key);
+                if(firstRead.compareAndSet(true, false)){
+                    readStarted.countDown();
+                    try {
+                        finishRead.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return value;
+            }
+        };
+        TieredPersistenceMap<String, String> map = new TieredPersistenceMap<>("test", slowStore, () -> {}, 100, 0, true, executor, 0);
+
+        Thread reader = new Thread(() -> map.get("cat"));
+        reader.start();
+        readStarted.await();
+        //the write (and its flush) happens while the reader still holds the outdated result of the store
+        map.put("cat", "Q1");
+        finishRead.countDown();
+        reader.join();
+        assertEquals("Q1", map.get("cat"), "An outdated negative entry was cached.");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testValuesAreCopied() {
+        ConcurrentMap<String, Object> store = new ConcurrentHashMap<>();
+        TieredPersistenceMap<String, Object> map = new TieredPersistenceMap<>("test", store, () -> {},
+                PersistenceService.getValueCopier(Serializer.JAVA), 100, 0, true, executor, 60_000);
+
+        Set<String> hypernyms = new HashSet<>(Arrays.asList("animal", "mammal"));
+        map.put("cat", hypernyms);
+        //the caller changes the set after it was put (e.g. removes excluded hypernyms)
+        hypernyms.remove("animal");
+        assertEquals(new HashSet<>(Arrays.asList("animal", "mammal")), map.get("cat"));
+
+        //the returned set (from the pending writes and from the front) is a copy as well
+        ((Set<String>) map.get("cat")).clear();
+        ((Set<String>) map.get("cat")).clear();
+        assertEquals(2, ((Set<String>) map.get("cat")).size());
+
+        map.flush();
+        assertEquals(new HashSet<>(Arrays.asList("animal", "mammal")), store.get("cat"));
+        assertNotSame(store.get("cat"), map.get("cat"));
+    }
+
+    @Test
+    void testInvalidFrontSize() {
+        assertThrows(IllegalArgumentException.class, () -> new TieredPersistenceMap<>("test", new ConcurrentHashMap<String, String>(), () -> {}, 0, 0, true, executor, 0));
+    }
+
+    /**
+     * Store which counts the reads.
+     */
+    private static class CountingStore extends ConcurrentHashMap<String, String> {
+        private final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        public String get(Object key) {
+            reads.incrementAndGet();
+            return super.get(key);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.sparql;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.DatasetFactory;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.QueryExecutionFactory;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.SKOS;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SparqlBatchLookupTest {
+
+    private static final String NAMESPACE = "http://example.org/";
+
+    private static final String SYNONYM_PATTERN = "?key <http://www.w3.org/2004/02/skos/core#altLabel> ?value .";
+
+    /**
+     * In-process dataset as a stand-in for a public SPARQL endpoint.
+     * @param size number of concepts
+     * @return dataset where each concept with an even number has two alternative labels
+     */
+    private static Dataset createDataset(int size){
+        Dataset dataset = DatasetFactory.create();
+        Model model = dataset.getDefaultModel();
+        Property label = model.createProperty("http://www.w3.org/2000/01/rdf-schema#label");
+        for(int i = 0; i < size; i++){
+            Resource concept = model.createResource(NAMESPACE + i);
+            concept.addProperty(label, model.createLiteral("label " + i, "en"));
+            if(i % 2 == 0){
+                concept.addProperty(SKOS.altLabel, "synonym " + i);
+                concept.addProperty(SKOS.altLabel, "other synonym " + i);
+            }
+        }
+        model.createResource(NAMESPACE + "quote").addProperty(label, model.createLiteral("say \"hi\"", "en"));
+        return dataset;
+    }
+
+    @Test
+    void testLookupAll() {
+        Dataset dataset = createDataset(250);
+        SparqlBatchLookup lookup = new SparqlBatchLookup(q -> QueryExecutionFactory.create(q, dataset), SYNONYM_PATTERN, 100, 2);
+        List<Node> keys = new ArrayList<>();
+        for(int i = 0; i < 250; i++){
+            keys.add(NodeFactory.createURI(NAMESPACE + i));
+        }
+        keys.add(NodeFactory.createURI(NAMESPACE + "unknown"));
+
+        Map<Node, Set<String>> result = lookup.lookupAll(keys);
+        assertEquals(3, lookup.getRequestCount());
+        assertEquals(251, result.size());
+        assertEquals(2, result.get(NodeFactory.createURI(NAMESPACE + 0)).size());
+        assertTrue(result.get(NodeFactory.createURI(NAMESPACE + 248)).contains("synonym 248"));
+        assertTrue(result.get(NodeFactory.createURI(NAMESPACE + 1)).isEmpty());
+        assertTrue(result.get(NodeFactory.createURI(NAMESPACE + "unknown")).isEmpty());
+
+        // single lookup
+        assertTrue(lookup.lookup(NodeFactory.createURI(NAMESPACE + 4)).contains("other synonym 4"));
+        assertEquals(4, lookup.getRequestCount());
+    }
+
+    @Test
+    void testLiteralKeys() {
+        Dataset dataset = createDataset(10);
+        SparqlBatchLookup lookup = new SparqlBatchLookup(q -> QueryExecutionFactory.create(q, dataset),
+                "?value <http://www.w3.org/2000/01/rdf-schema#label> ?key .");
+        Map<Node, Set<String>> result = lookup.lookupAll(Arrays.asList(
+                NodeFactory.createLiteral("label 3", "en"),
+                NodeFactory.createLiteral("say \"hi\"", "en"),
+                NodeFactory.createLiteral("label 3", "de")));
+        assertTrue(result.get(NodeFactory.createLiteral("label 3", "en")).contains(NAMESPACE + 3));
+        assertTrue(result.get(NodeFactory.createLiteral("say \"hi\"", "en")).contains(NAMESPACE + "quote"));
+        assertTrue(result.get(NodeFactory.createLiteral("label 3", "de")).isEmpty());
+    }
+
+    @Test
+    void testConcurrentLookupsAreCoalescedAndBounded() throws Exception {
+        Dataset dataset = createDataset(200);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maximumInFlight = new AtomicInteger();
+        Function<String, QueryExecution> slowEndpoint = q -> {
+            int current = inFlight.incrementAndGet();
+            maximumInFlight.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(50); // simulates the round trip
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            return QueryExecutionFactory.create(q, dataset);
+        };
+        SparqlBatchLookup lookup = new SparqlBatchLookup(slowEndpoint, SYNONYM_PATTERN, 100, 2);
+
+        ExecutorService executor = Executors.newFixedThreadPool(20);
+        try {
+            List<Future<Set<String>>> futures = new ArrayList<>();
+            for(int i = 0; i < 200; i++){
+                Node key = NodeFactory.createURI(NAMESPACE + i);
+                futures.add(executor.submit(() -> lookup.lookup(key)));
+            }
+            for(int i = 0; i < 200; i++){
+                assertEquals(i % 2 == 0 ? 2 : 0, futures.get(i).get().size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(lookup.getRequestCount() < 200, "Requests were not coalesced: " + lookup.getRequestCount());
+
+        List<Node> keys = new ArrayList<>();
+        for(int i = 0; i < 200; i++){
+            keys.add(NodeFactory.createURI(NAMESPACE + i));
+        }
+        new SparqlBatchLookup(slowEndpoint, SYNONYM_PATTERN, 10, 3).lookupAll(keys);
+        assertTrue(maximumInFlight.get() <= 3, "Too many requests in flight: " + maximumInFlight.get());
+    }
+
+    @Test
+    void testSingleLookupsArePipelined() throws Exception {
+        Dataset dataset = createDataset(200);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maximumInFlight = new AtomicInteger();
+        Function<String, QueryExecution> slowEndpoint = q -> {
+            maximumInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            return QueryExecutionFactory.create(q, dataset);
+        };
+        SparqlBatchLookup lookup = new SparqlBatchLookup(slowEndpoint, SYNONYM_PATTERN, 5, 3);
+
+        ExecutorService executor = Executors.newFixedThreadPool(20);
+        try {
+            List<Future<Set<String>>> futures = new ArrayList<>();
+            for(int i = 0; i < 200; i++){
+                Node key = NodeFactory.createURI(NAMESPACE + i);
+                futures.add(executor.submit(() -> lookup.lookup(key)));
+            }
+            // lookupAll shares the bound with the single lookups
+            List<Node> keys = new ArrayList<>();
+            for(int i = 0; i < 50; i++){
+                keys.add(NodeFactory.createURI(NAMESPACE + i));
+            }
+            assertEquals(50, lookup.lookupAll(keys).size());
+            for(int i = 0; i < 200; i++){
+                assertEquals(i % 2 == 0 ? 2 : 0, futures.get(i).get().size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(maximumInFlight.get() > 1, "Single lookups were not pipelined.");
+        assertTrue(maximumInFlight.get() <= 3, "Too many requests in flight: " + maximumInFlight.get());
+    }
+
+    @Test
+    void testInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new SparqlBatchLookup(SparqlBatchLookup.endpoint("http://localhost"), SYNONYM_PATTERN, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new SparqlBatchLookup(SparqlBatchLookup.endpoint("http://localhost"), SYNONYM_PATTERN, 1, 0));
+    }
+}
@@ -0,0 +1,119 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter;
+
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.instance.SimilarNeighboursFilter;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.SetSimilarity;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
+import java.util.Properties;
+import java.util.Random;
+import org.apache.jena.ontology.Individual;
+import org.apache.jena.ontology.OntClass;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class SimilarNeighboursFilterTest {
+    private static final String namespaceSource = "http://melt.dws.informatik.uni-mannheim.de/source/";
+    private static final String namespaceTarget = "http://melt.dws.informatik.uni-mannheim.de/target/";
+
+    @Test
+    void testFilter() throws Exception {
+        OntModel source = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);
+        OntModel target = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);
+        addIndividual(source, namespaceSource, "one", "two", "Label");
+        addIndividual(source, namespaceSource, "two", "one", "Other");
+        addIndividual(target, namespaceTarget, "one", "two", "label");
+        addIndividual(target, namespaceTarget, "two", "three", "Other");
+        addIndividual(target, namespaceTarget, "three", "one", "Something");
+
+        Alignment alignment = new Alignment();
+        alignment.add(namespaceSource + "one", namespaceTarget + "one", 0.9);
+        alignment.add(namespaceSource + "two", namespaceTarget + "two");
+        alignment.add(namespaceSource + "one", namespaceTarget + "three", 0.5);
+        alignment.add(namespaceSource + "two", namespaceTarget + "one", 0.5);
+
+        //all correspondences have one matched neighbour but only two-two has also the same literal
+        Alignment filtered = new SimilarNeighboursFilter(2.0, SetSimilarity.ABSOLUTE)
+                .match(source, target, new Alignment(alignment), new Properties());
+        assertEquals(1, filtered.size());
+        assertTrue(filtered.contains(new Correspondence(namespaceSource + "two", namespaceTarget + "two")));
+
+        //with a literal processing function also the literals of one-one are equal
+        filtered = new SimilarNeighboursFilter(l -> l.getLexicalForm().toLowerCase(), 2.0, SetSimilarity.ABSOLUTE)
+                .match(source, target, new Alignment(alignment), new Properties());
+        assertEquals(2, filtered.size());
+        Correspondence one = filtered.getCorrespondence(namespaceSource + "one", namespaceTarget + "one", CorrespondenceRelation.EQUIVALENCE);
+        assertNotNull(one);
+        assertEquals(2.0, one.getAdditionalConfidence(SimilarNeighboursFilter.class).doubleValue());
+    }
+
+    @Test
+    void testParallelEqualsSequential() throws Exception {
+        Random random = new Random(42);
+        OntModel source = randomModel(random, namespaceSource, 300);
+        OntModel target = randomModel(random, namespaceTarget, 300);
+        Alignment alignment = new Alignment();
+        for(int i = 0; i < 300; i++){
+            for(int j = 0; j < 5; j++){
+                alignment.add(namespaceSource + i, namespaceTarget + random.nextInt(300), random.nextDouble());
+            }
+        }
+        alignment.add(namespaceSource + "Class", namespaceTarget + "Class");
+
+        SimilarNeighboursFilter sequential = new SimilarNeighboursFilter(0.2, SetSimilarity.JACCARD);
+        Alignment expected = sequential.match(source, target, new Alignment(alignment), new Properties());
+
+        SimilarNeighboursFilter parallel = new SimilarNeighboursFilter(0.2, SetSimilarity.JACCARD);
+        parallel.setNumberOfThreads(4);
+        parallel.setCacheSize(10); //small cache to also test the eviction
+        Alignment actual = parallel.match(source, target, new Alignment(alignment), new Properties());
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected.size(), actual.size());
+        for(Correspondence c : expected){
+            Correspondence other = actual.getCorrespondence(c.getEntityOne(), c.getEntityTwo(), c.getRelation());
+            assertNotNull(other);
+            assertEquals(c.getAdditionalConfidence(SimilarNeighboursFilter.class), other.getAdditionalConfidence(SimilarNeighboursFilter.class));
+        }
+    }
+
+    @Test
+    void testInvalidSettings() {
+        SimilarNeighboursFilter filter = new SimilarNeighboursFilter();
+        assertThrows(IllegalArgumentException.class, () -> filter.setNumberOfThreads(0));
+        assertThrows(IllegalArgumentException.class, () -> filter.setCacheSize(0));
+    }
+
+    private static void addIndividual(OntModel model, String namespace, String name, String neighbour, String label){
+        OntClass clazz = model.createClass(namespace + "Class");
+        Individual individual = model.createIndividual(namespace + name, clazz);
+        Property relation = model.createObjectProperty(namespace + "relation");
+        individual.addProperty(relation, model.createIndividual(namespace + neighbour, clazz));
+        individual.addProperty(model.createDatatypeProperty(namespace + "label"), label);
+    }
+
+    private static OntModel randomModel(Random random, String namespace, int size){
+        OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);
+        OntClass clazz = model.createClass(namespace + "Class");
+        Property relation = model.createObjectProperty(namespace + "relation");
+        Property label = model.createDatatypeProperty(namespace + "label");
+        for(int i = 0; i < size; i++){
+            model.createIndividual(namespace + i, clazz);
+        }
+        for(int i = 0; i < size; i++){
+            Individual individual = model.getIndividual(namespace + i);
+            for(int j = 0; j < 3; j++){
+                //source and target use the same neighbours (ids) such that some correspondences share them
+                individual.addProperty(relation, model.getIndividual(namespace + random.nextInt(size)));
+            }
+            individual.addProperty(label, "label" + random.nextInt(20));
+        }
+        return model;
+    }
+}
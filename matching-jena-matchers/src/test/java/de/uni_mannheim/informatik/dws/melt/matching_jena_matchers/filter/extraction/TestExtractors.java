@@ -153,6 +153,74 @@ public class TestExtractors {
         }
     }
 
+    @Test
+    void testSparseEqualsDense(){
+        Random r = new Random(1234);
+        for(int i=0; i<20; i++){
+            //many small components and some larger ones
+            Alignment random = randomAlignment(r, 60, 50, 20 + r.nextInt(150));
+            Alignment dense = HungarianExtractor.filterDense(new Alignment(random));
+            Alignment sparse = HungarianExtractor.filter(new Alignment(random));
+            assertEquals(dense, sparse);
+            for(MwbInitHeuristic init : Arrays.asList(MwbInitHeuristic.NAIVE, MwbInitHeuristic.SIMPLE)){
+                assertEquals(dense, MaxWeightBipartiteExtractor.filter(new Alignment(random), init));
+            }
+        }
+    }
+    
+    @Test
+    void testCorrespondenceComponents(){
+        List<List<Correspondence>> components = CorrespondenceComponents.split(caseA);
+        assertEquals(1, components.size());
+        assertEquals(10, components.get(0).size());
+        
+        Alignment alignment = new Alignment(caseC);
+        alignment.add("D", "Z", 0.3);
+        alignment.add("E", "Z", 0.4);
+        alignment.add("F", "W", 0.4);
+        components = CorrespondenceComponents.split(alignment);
+        assertEquals(3, components.size());
+        assertEquals(4, components.get(0).size());
+        assertEquals(2, components.get(1).size());
+        assertEquals(1, components.get(2).size());
+        
+        Alignment filtered = HungarianExtractor.filter(alignment);
+        assertEquals(4, filtered.size());
+        assertTrue(filtered.containsAll(Arrays.asList(c2, c3, new Correspondence("E", "Z", 0.4), new Correspondence("F", "W", 0.4))));
+    }
+    
+    /**
+     * Benchmark of the component based sparse extraction against the dense Hungarian algorithm.
+     * The alignment has many sources and targets but the correspondences form small components (like in real matching tasks).
+     */
+    @Test
+    void benchmarkSparseAgainstDense(){
+        Random r = new Random(42);
+        Alignment random = new Alignment();
+        int blocks = 60;
+        for(int block = 0; block < blocks; block++){
+            for(int i=0; i < 12; i++){
+                random.add("http://source.com/resource/" + block + "_" + r.nextInt(4), "http://target.com/resource/" + block + "_" + r.nextInt(4), r.nextDouble());
+            }
+        }
+        long start = System.nanoTime();
+        Alignment dense = HungarianExtractor.filterDense(new Alignment(random));
+        long denseTime = System.nanoTime() - start;
+        
+        start = System.nanoTime();
+        Alignment sparse = HungarianExtractor.filter(new Alignment(random));
+        long sparseTime = System.nanoTime() - start;
+        
+        start = System.nanoTime();
+        Alignment mwb = MaxWeightBipartiteExtractor.filter(new Alignment(random));
+        long mwbTime = System.nanoTime() - start;
+        
+        LOGGER.info("Extraction of {} correspondences: dense hungarian {} ms, sparse components {} ms, max weight bipartite {} ms",
+                random.size(), denseTime / 1_000_000, sparseTime / 1_000_000, mwbTime / 1_000_000);
+        assertEquals(dense, sparse);
+        assertEquals(dense, mwb);
+    }
+
     // following NOT suitable for general test, but good to see if it works...
     //@Test
     void testRandomAlignment() throws SAXException, IOException{
@@ -188,7 +256,10 @@ public class TestExtractors {
     }
     
     private static Alignment randomAlignment(int conceptsSource, int conceptsTargets, int correspondences){
-        Random r = new Random();
+        return randomAlignment(new Random(), conceptsSource, conceptsTargets, correspondences);
+    }
+    
+    private static Alignment randomAlignment(Random r, int conceptsSource, int conceptsTargets, int correspondences){
         Alignment a = new Alignment();
         for(int i=0; i< correspondences; i++){
             a.add("http://source.com/resource/" + r.nextInt(conceptsSource), "http://target.com/resource/" + r.nextInt(conceptsTargets), r.nextDouble());
@@ -0,0 +1,107 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.clustering;
+
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class ComputeErrDegreeTest {
+    
+    @Test
+    public void testLinkError(){
+        ComputeErrDegree<String> errDegree = getTwoTriangles();
+        Map<Entry<String,String>, Double> map = errDegree.computeLinkError();
+        assertEquals(7, map.size());
+        //triangle with weight 1.0: 1 - 3 / (3 * 2)
+        assertEquals(0.5, map.get(new SimpleEntry<>("a", "b")), 0.0001);
+        //one edge between two communities of size three: 1 - 1 / (2 * 3 * 3)
+        assertEquals(1 - 1.0 / 18, map.get(new SimpleEntry<>("b", "x")), 0.0001);
+        
+        LinkErrors<String> errors = errDegree.computeLinkErrors(1, 1.0, 0, 1, 5, ModularityAlgorithm.LOUVRAIN);
+        assertEquals(7, errors.size());
+        for(Entry<Entry<String,String>, Double> entry : map.entrySet()){
+            assertEquals(entry.getValue(), errors.getLinkError(entry.getKey().getKey(), entry.getKey().getValue(), -1), 0.0);
+            assertEquals(entry.getValue(), errors.getLinkError(entry.getKey().getValue(), entry.getKey().getKey(), -1), 0.0);
+        }
+        assertEquals(-1, errors.getLinkError("a", "x", -1));
+        assertEquals(-1, errors.getLinkError("a", "unknown", -1));
+    }
+    
+    @Test
+    public void testParallelEdgesAreSummed(){
+        ComputeErrDegree<String> errDegree = new ComputeErrDegree<>();
+        errDegree.addEdge("a", "b", 0.5);
+        errDegree.addEdge("b", "a", 0.25);
+        errDegree.addEdge("a", "a", 0.25);
+        assertEquals(1, errDegree.getNumberOfEdges());
+        //edges can still be added after the graph is compressed
+        errDegree.addEdge("b", "c", 0.5);
+        errDegree.addEdge("a", "c", 0.5);
+        assertEquals(3, errDegree.getNumberOfEdges());
+        //triangle with weights 0.75, 0.5, 0.5: 1 - 1.75 / (3 * 2)
+        assertEquals(1 - 1.75 / 6, errDegree.computeLinkError().get(new SimpleEntry<>("a", "b")), 0.0001);
+    }
+    
+    @Test
+    public void testParallelComputation(){
+        Random random = new Random(1234);
+        ComputeErrDegree<String> sequential = new ComputeErrDegree<>();
+        ComputeErrDegree<String> parallel = new ComputeErrDegree<>();
+        parallel.setNumberOfThreads(4);
+        //many identity sets which are cliques with a few wrong links between some of them
+        for(int set = 0; set < 300; set++){
+            int size = 2 + random.nextInt(5);
+            for(int i = 0; i < size; i++){
+                for(int j = i + 1; j < size; j++){
+                    sequential.addEdge(set + "_" + i, set + "_" + j);
+                    parallel.addEdge(set + "_" + i, set + "_" + j);
+                }
+            }
+            if(set % 10 == 1){
+                sequential.addEdge(set + "_0", (set - 1) + "_1");
+                parallel.addEdge(set + "_0", (set - 1) + "_1");
+            }
+        }
+        Map<Entry<String,String>, Double> expected = sequential.computeLinkError();
+        Map<Entry<String,String>, Double> actual = parallel.computeLinkError();
+        assertEquals(expected.keySet(), actual.keySet());
+        for(Entry<Entry<String,String>, Double> entry : expected.entrySet()){
+            assertEquals(entry.getValue(), actual.get(entry.getKey()), 0.0001, "Different error degree for " + entry.getKey());
+        }
+        assertEquals(sequential.detectCommunities().size(), parallel.detectCommunities().size());
+    }
+    
+    @Test
+    public void testFilterParallel(){
+        Alignment a = new Alignment();
+        a.add("http://a.com/a", "http://b.com/b", 0.9);
+        a.add("http://a.com/a", "http://c.com/c", 0.9);
+        a.add("http://b.com/b", "http://c.com/c", 0.9);
+        a.add("http://a.com/x", "http://b.com/y", 0.9);
+        a.add("http://a.com/x", "http://c.com/z", 0.9);
+        a.add("http://b.com/y", "http://c.com/z", 0.9);
+        a.add("http://b.com/b", "http://a.com/x", 0.9);
+        
+        FilterByErrorDegree filter = new FilterByErrorDegree(0.6);
+        filter.setNumberOfThreads(4);
+        Alignment actual = filter.filter(a);
+        assertEquals(6, actual.size());
+        assertNull(actual.getCorrespondence("http://b.com/b", "http://a.com/x", a.iterator().next().getRelation()));
+    }
+    
+    private ComputeErrDegree<String> getTwoTriangles(){
+        ComputeErrDegree<String> errDegree = new ComputeErrDegree<>();
+        errDegree.addEdge("a", "b");
+        errDegree.addEdge("a", "c");
+        errDegree.addEdge("b", "c");
+        errDegree.addEdge("x", "y");
+        errDegree.addEdge("x", "z");
+        errDegree.addEdge("y", "z");
+        errDegree.addEdge("b", "x");
+        return errDegree;
+    }
+}
@@ -20,6 +20,7 @@ import org.apache.jena.ontology.OntClass;
 import org.apache.jena.ontology.OntModel;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.util.iterator.ExtendedIterator;
 import org.apache.jena.vocabulary.OWL;
 import org.apache.jena.vocabulary.RDF;
@@ -45,6 +46,37 @@ public class MultiSourceDispatcherIncrementalMergeTest {
             assertEquals(1, m.size());
         }
     }
+    @Test
+    public void concurrentMergesTest() throws Exception{
+        List<Set<Object>> models = new ArrayList<>();
+        for(int i = 0; i < 8; i++){
+            models.add(new HashSet<>(Arrays.asList(getModel("domain" + Integer.toString(i)))));
+        }
+        
+        BalancedTreeMerge sequential = new BalancedTreeMerge();
+        Alignment expected = (Alignment)sequential.match(models, new Alignment(), new Properties()).getAlignment();
+        assertFalse(expected.isEmpty());
+        
+        BalancedTreeMerge concurrent = new BalancedTreeMerge();
+        concurrent.setNumberOfThreads(4);
+        concurrent.clearAndStartSavingIntermediateAlignments();
+        Alignment actual = (Alignment)concurrent.match(models, new Alignment(), new Properties()).getAlignment();
+        assertEquals(expected, actual);
+        assertEquals(7, concurrent.getIntermediateAlignments().size());
+        
+        for(Set<Object> model : models){
+            assertEquals(1, model.size());
+            Model m = (Model)model.iterator().next();
+            assertEquals(1, m.size());
+        }
+        
+        MultiSourceDispatcherAllPairs allPairs = new MultiSourceDispatcherAllPairs(new SameLocalNameMatcher());
+        Alignment allPairsSequential = (Alignment)allPairs.match(models, new Alignment(), new Properties()).getAlignment();
+        assertEquals(28, allPairsSequential.size());
+        allPairs.setNumberOfThreads(4);
+        assertEquals(allPairsSequential, allPairs.match(models, new Alignment(), new Properties()).getAlignment());
+    }
+    
     private Model getModel(String domain){
         Model m = ModelFactory.createDefaultModel();
         m.add(
@@ -134,6 +166,26 @@ public class MultiSourceDispatcherIncrementalMergeTest {
         return m;
     }
     
+    private static class BalancedTreeMerge extends MultiSourceDispatcherIncrementalMerge{
+
+        public BalancedTreeMerge() {
+            super(new SameLocalNameMatcher());
+        }
+
+        @Override
+        public int[][] getMergeTree(List<Set<Object>> models, Object parameters) {
+            int[][] array = {
+                {0,1},
+                {2,3},
+                {4,5},
+                {6,7},
+                {8,9},
+                {10,11},
+                {12,13}
+            };
+            return array;
+        }
+    }
 }
 
 class matcherTest extends MultiSourceDispatcherIncrementalMerge{
@@ -157,4 +209,21 @@ class NoOp implements IMatcher<Object, Object, Object> {
     public Object match(Object source, Object target, Object inputAlignment, Object parameters) throws Exception {
         return new Alignment();
     }
-}
\ No newline at end of file
+}
+
+/**
+ * Matches all subjects with the same local name.
+ */
+class SameLocalNameMatcher implements IMatcher<Model, Alignment, Object> {
+    @Override
+    public Alignment match(Model source, Model target, Alignment inputAlignment, Object parameters) throws Exception {
+        Alignment alignment = new Alignment();
+        for(Resource s : source.listSubjects().toList()){
+            for(Resource t : target.listSubjects().toList()){
+                if(s.getLocalName().equals(t.getLocalName()))
+                    alignment.add(s.getURI(), t.getURI());
+            }
+        }
+        return alignment;
+    }
+}
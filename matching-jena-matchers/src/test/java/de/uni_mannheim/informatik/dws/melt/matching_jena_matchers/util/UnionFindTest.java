@@ -0,0 +1,58 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UnionFindTest {
+
+    @Test
+    void testUnionFind() {
+        UnionFind<String> uf = new UnionFind<>();
+        uf.add("a");
+        uf.add("b", "c");
+        uf.add("d", "e");
+        uf.add("f", "g");
+        uf.add("h");
+        assertEquals(5, uf.getClosure().size());
+        assertEquals(5, uf.getNumberOfClusters());
+        assertTrue(uf.belongToTheSameCluster("b", "c"));
+        assertFalse(uf.belongToTheSameCluster("a", "b"));
+        assertFalse(uf.belongToTheSameCluster("a", "x"));
+        assertEquals(-1, uf.getClusterId("x"));
+
+        uf.add("a", "b", "d", "f", "h");
+        assertEquals(1, uf.getClosure().size());
+        assertEquals(1, uf.getNumberOfClusters());
+        assertEquals(8, uf.getClusterSize("c"));
+        assertEquals(8, uf.getNumberOfElements());
+        assertTrue(uf.getClosure().iterator().next().containsAll(Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h")));
+
+        uf = new UnionFind<>();
+        uf.add("a", "b");
+        uf.add("c", "d", "b");
+        assertEquals(1, uf.getClosure().size());
+        assertEquals(4, uf.getClosure().iterator().next().size());
+    }
+
+    @Test
+    void testSameClosureAsTransitiveClosure() {
+        Random random = new Random(1234);
+        UnionFind<Integer> uf = new UnionFind<>();
+        TransitiveClosure<Integer> tc = new TransitiveClosure<>();
+        for(int i = 0; i < 2000; i++){
+            int one = random.nextInt(3000);
+            int two = random.nextInt(3000);
+            uf.add(one, two);
+            tc.add(one, two);
+        }
+        assertEquals(new HashSet<>(tc.getClosure()), new HashSet<>(uf.getClosure()));
+        assertEquals(tc.getClosure().size(), uf.getNumberOfClusters());
+        for(Set<Integer> cluster : tc.getClosure()){
+            assertTrue(uf.belongToTheSameCluster(cluster));
+        }
+    }
+}
@@ -1,12 +1,22 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena;
 
+import de.uni_mannheim.informatik.dws.melt.matching_base.CacheStatistics;
+import de.uni_mannheim.informatik.dws.melt.matching_base.WeightedLoadingCache;
 import de.uni_mannheim.informatik.dws.melt.matching_jena.typetransformation.JenaTransformerHelper;
 import java.io.File;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URL;
-import java.util.HashMap;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.commons.io.FileUtils;
 import org.apache.jena.graph.Graph;
 
 import org.apache.jena.ontology.OntModel;
@@ -19,6 +29,7 @@ import org.apache.jena.riot.RDFLanguages;
 import org.apache.jena.riot.RDFParser;
 import org.apache.jena.riot.system.ErrorHandlerFactory;
 import org.apache.jena.riot.system.StreamRDFLib;
+import org.apache.jena.tdb.store.GraphTDB;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,16 +51,61 @@ public class OntologyCacheJena {
     public static final OntModelSpec DEFAULT_JENA_ONT_MODEL_SPEC = OntModelSpec.OWL_DL_MEM;
 
     
+    /**
+     * Rough estimate of the number of bytes which one triple needs in an in memory OntModel.
+     */
+    private static final long ESTIMATED_BYTES_PER_TRIPLE = 250;
+    
     /**
      * The internal cache for ontologies that is dependent on the OntModelSpec.
+     * The weight of a model is the number of triples in the base graph (TDB backed models have a weight of zero).
+     * By default, at most half of the maximum heap is used for cached models.
      */
-    private static Map<String, OntModel> ontologyCache = new HashMap<>();
+    private static final WeightedLoadingCache<String, OntModel> ontologyCache = new WeightedLoadingCache<>(
+            Runtime.getRuntime().maxMemory() / 2 / ESTIMATED_BYTES_PER_TRIPLE, OntologyCacheJena::getNumberOfTriples);
 
     /**
      * This flag indicates whether the cache is to be used (i.e., ontologies are held in memory).
      */
     private static boolean isDeactivatedCache = false;
 
+    /**
+     * Rough estimate of the number of bytes which one triple needs in an RDF file (used to estimate the number of triples from the file size).
+     */
+    private static final long ESTIMATED_FILE_BYTES_PER_TRIPLE = 100;
+    
+    /**
+     * Rough estimate of the compression ratio of compressed RDF files.
+     */
+    private static final long ESTIMATED_COMPRESSION_RATIO = 10;
+    
+    /**
+     * Name of the file which is written to a TDB store in the TDB cache directory after the bulk load is finished.
+     */
+    private static final String TDB_COMPLETED_MARKER = "melt_tdb_completed.txt";
+    
+    /**
+     * Locks per content hash such that the same file is not bulk loaded by two threads at the same time.
+     * Processes which share the TDB cache directory are additionally synchronized with a file lock.
+     */
+    private static final Map<String, Object> TDB_LOCKS = new ConcurrentHashMap<>();
+    
+    /**
+     * This flag indicates whether large files are loaded into a TDB store (disabled by default).
+     */
+    private static boolean isTdbCacheEnabled = false;
+    
+    /**
+     * The directory which contains the TDB stores of large files (one sub directory per content hash).
+     */
+    private static File tdbCacheDirectory = new File(System.getProperty("user.home"), "melt_tdb_cache");
+    
+    /**
+     * Files with more (estimated) triples are loaded into a TDB store. A negative value means that the maximum number of
+     * triples in the in memory cache is used as threshold.
+     */
+    private static long tdbTripleThreshold = -1;
+
     
     /**
      * Returns the OntModel for the given uri using a cache if indicated to do so.
@@ -72,28 +128,27 @@ public class OntologyCacheJena {
      * no recognized file extension, no recognized HTTP Content-Type provided).
      * @return OntModel reference.
      */
-    public static synchronized OntModel get(String uri, OntModelSpec spec, boolean useCache, Lang hintlang) {
-        if (useCache) {
+    public static OntModel get(String uri, OntModelSpec spec, boolean useCache, Lang hintlang) {
+        if (useCache && !isDeactivatedCache) {
             String keyForCache = uri + "_" + spec.hashCode();
-            OntModel model = ontologyCache.get(keyForCache);            
-            if (model == null) {
+            return ontologyCache.get(keyForCache, key -> {
                 // model not found in cache → read, put it there and return
                 LOGGER.info("Reading model into cache (" + uri + ")");
-                model = readOntModel(uri, spec, hintlang);
-                if(!isDeactivatedCache){
-                    ontologyCache.put(keyForCache, model);
-                }
-                return model;
-            } else {
-                //LOGGER.info("Returning model from cache.");
-                return model;
-            }
+                return readOntModel(uri, spec, hintlang);
+            });
         } else {
             // → do not use cache
             // plain vanilla case: read ontology and return
             return readOntModel(uri, spec, hintlang);
         }
     }
+    
+    private static long getNumberOfTriples(OntModel model){
+        Graph graph = model.getBaseModel().getGraph();
+        if(graph instanceof GraphTDB)
+            return 0; // the triples are on disk and not on the heap
+        return graph.size();
+    }
 
     /**
      * Read and parse an ontology.
@@ -107,21 +162,110 @@ public class OntologyCacheJena {
         File f = TdbUtil.getFileFromURL(uri);
         if(TdbUtil.isTDB1Dataset(f)){
             return TdbUtil.getOntModelFromTDB(f.getAbsolutePath(), spec);
+        }else if(shouldLoadIntoTdb(f)){
+            return readOntModelViaTdbCache(f, uri, spec, hintLang);
         }else{
-            OntModel model = ModelFactory.createOntologyModel(spec);
-            //model.read(uri);
-            //RDFDataMgr.read(model, uri);
-            RDFParser.create()
-                .source(uri)
-                .base(uri)
-                .errorHandler(ErrorHandlerFactory.errorHandlerWarn)
-                .lang(hintLang)
-                .context(null)
-                .parse(StreamRDFLib.graph(model.getGraph()));
-            
-            return model;
+            return readOntModelInMemory(uri, spec, hintLang);
         }
     }
+    
+    private static OntModel readOntModelInMemory(String uri, OntModelSpec spec, Lang hintLang){
+        OntModel model = ModelFactory.createOntologyModel(spec);
+        //model.read(uri);
+        //RDFDataMgr.read(model, uri);
+        RDFParser.create()
+            .source(uri)
+            .base(uri)
+            .errorHandler(ErrorHandlerFactory.errorHandlerWarn)
+            .lang(hintLang)
+            .context(null)
+            .parse(StreamRDFLib.graph(model.getGraph()));
+
+        return model;
+    }
+
+    /**
+     * Checks if the given file is large enough to be loaded into a TDB store instead of memory.
+     * @param file the file (can be null if the URI is not a local file)
+     * @return true if the file should be converted to TDB
+     */
+    private static boolean shouldLoadIntoTdb(File file){
+        if(!isTdbCacheEnabled || file == null || !file.isFile())
+            return false;
+        return estimateNumberOfTriples(file) > getTdbTripleThreshold();
+    }
+    
+    /**
+     * Estimates the number of triples in the given RDF file based on the file size.
+     * @param file the RDF file
+     * @return the estimated number of triples
+     */
+    static long estimateNumberOfTriples(File file){
+        long estimate = file.length() / ESTIMATED_FILE_BYTES_PER_TRIPLE;
+        String name = file.getName().toLowerCase(Locale.ENGLISH);
+        if(name.endsWith(".gz") || name.endsWith(".bz2") || name.endsWith(".xz")){
+            estimate *= ESTIMATED_COMPRESSION_RATIO;
+        }
+        return estimate;
+    }
+    
+    /**
+     * Reads the ontology from a TDB store in the TDB cache directory.
+     * The directory is named after the content hash of the whole file, thus it is reused as long as the content does not change.
+     * If the store does not exist yet (or a previous conversion was interrupted), the file is bulk loaded once.
+     * Threads are synchronized per content hash and processes with a lock file in the TDB cache directory.
+     * @param file the RDF file
+     * @param uri the uri of the file
+     * @param spec Jena Ontology Model specification.
+     * @param hintLang the RDF syntax which is used if it cannot be deduced from the file extension
+     * @return OntModel backed by TDB
+     */
+    private static OntModel readOntModelViaTdbCache(File file, String uri, OntModelSpec spec, Lang hintLang){
+        String hash;
+        try {
+            hash = TdbUtil.getContentHash(file);
+        } catch (IOException ex) {
+            LOGGER.warn("Could not compute the content hash of file {}. Loading it into memory.", file, ex);
+            return readOntModelInMemory(uri, spec, hintLang);
+        }
+        synchronized(TDB_LOCKS.computeIfAbsent(hash, key -> new Object())){
+            tdbCacheDirectory.mkdirs();
+            File lockFile = new File(tdbCacheDirectory, hash + ".lock");
+            try(FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                    FileLock lock = channel.lock()){
+                return readOrCreateTdbStore(new File(tdbCacheDirectory, hash), file, uri, spec, hintLang);
+            } catch (IOException ex) {
+                LOGGER.warn("Could not lock the TDB store for {}. Loading it into memory.", uri, ex);
+                return readOntModelInMemory(uri, spec, hintLang);
+            }
+        }
+    }
+    
+    private static OntModel readOrCreateTdbStore(File tdbDirectory, File file, String uri, OntModelSpec spec, Lang hintLang){
+        File completedMarker = new File(tdbDirectory, TDB_COMPLETED_MARKER);
+        if(completedMarker.isFile()){
+            LOGGER.info("Reuse TDB store {} for {}", tdbDirectory, uri);
+            return TdbUtil.getOntModelFromTDB(tdbDirectory.getAbsolutePath(), spec);
+        }
+        if(tdbDirectory.exists()){
+            LOGGER.info("Delete incomplete TDB store {}", tdbDirectory);
+            try {
+                FileUtils.deleteDirectory(tdbDirectory);
+            } catch (IOException ex) {
+                LOGGER.warn("Could not delete incomplete TDB store {}. Loading the file into memory.", tdbDirectory, ex);
+                return readOntModelInMemory(uri, spec, hintLang);
+            }
+        }
+        tdbDirectory.mkdirs();
+        LOGGER.info("Load {} (estimated {} triples) into TDB store {}. This happens only once.", uri, estimateNumberOfTriples(file), tdbDirectory);
+        OntModel model = TdbUtil.bulkLoadToTdbOntModel(tdbDirectory.getAbsolutePath(), uri, spec, hintLang);
+        try {
+            Files.write(completedMarker.toPath(), uri.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            LOGGER.warn("Could not write the marker file {}. The TDB store will be created again in the next run.", completedMarker, ex);
+        }
+        return model;
+    }
 
     /**
      * Returns the OntModel for the given uri using a cache by default.
@@ -214,7 +358,90 @@ public class OntologyCacheJena {
      * Empties the cache.
      */
     public static void emptyCache() {
-        ontologyCache = new HashMap<>();
+        ontologyCache.invalidateAll();
+    }
+    
+    /**
+     * Returns the statistics of the cache like hits, misses, load time and evictions.
+     * @return the cache statistics
+     */
+    public static CacheStatistics getStatistics() {
+        return ontologyCache.getStatistics();
+    }
+    
+    /**
+     * Returns the maximum number of triples which are held in the cache.
+     * @return maximum number of triples
+     */
+    public static long getMaximumTriples() {
+        return ontologyCache.getMaximumWeight();
+    }
+    
+    /**
+     * Sets the maximum number of triples (sum over all cached models) which are held in the cache.
+     * If it is exceeded, the least recently used models are removed from the cache.
+     * The default is derived from the maximum heap size.
+     * @param maximumTriples maximum number of triples
+     */
+    public static void setMaximumTriples(long maximumTriples) {
+        ontologyCache.setMaximumWeight(maximumTriples);
+    }
+
+    public static boolean isTdbCacheEnabled() {
+        return isTdbCacheEnabled;
+    }
+
+    /**
+     * Enables or disables the automatic loading of large local files into a TDB store (disabled by default).
+     * If enabled, local files with more (estimated) triples than {@link #getTdbTripleThreshold()} are bulk loaded
+     * into a TDB store in the {@link #getTdbCacheDirectory() TDB cache directory} which is reused in later runs.
+     * @param tdbCacheEnabled true if large files should be loaded into a TDB store.
+     */
+    public static void setTdbCacheEnabled(boolean tdbCacheEnabled) {
+        isTdbCacheEnabled = tdbCacheEnabled;
+    }
+
+    public static File getTdbCacheDirectory() {
+        return tdbCacheDirectory;
+    }
+
+    /**
+     * Sets the directory which contains the TDB stores of large files.
+     * Each file gets its own sub directory named after the content hash of the file.
+     * The default is the folder melt_tdb_cache in the user home.
+     * @param tdbCacheDirectory the TDB cache directory
+     */
+    public static void setTdbCacheDirectory(File tdbCacheDirectory) {
+        OntologyCacheJena.tdbCacheDirectory = tdbCacheDirectory;
+    }
+
+    /**
+     * Returns the (estimated) number of triples above which a local file is loaded into a TDB store.
+     * @return the threshold in number of triples
+     */
+    public static long getTdbTripleThreshold() {
+        if(tdbTripleThreshold < 0)
+            return getMaximumTriples();
+        return tdbTripleThreshold;
+    }
+
+    /**
+     * Returns the configured TDB threshold which can be negative (see {@link #setTdbTripleThreshold(long)}).
+     * @return the configured threshold
+     */
+    static long getTdbTripleThresholdSetting() {
+        return tdbTripleThreshold;
+    }
+
+    /**
+     * Sets the number of triples above which a local file is loaded into a TDB store instead of memory.
+     * The number of triples of a file is estimated from the file size.
+     * A negative value (the default) means that the maximum number of triples of the in memory cache is used
+     * (see {@link #setMaximumTriples(long)}), thus only files which do not fit into the cache are loaded into TDB.
+     * @param tdbTripleThreshold the threshold in number of triples
+     */
+    public static void setTdbTripleThreshold(long tdbTripleThreshold) {
+        OntologyCacheJena.tdbTripleThreshold = tdbTripleThreshold;
     }
 
     public static boolean isDeactivatedCache() {
@@ -1,10 +1,16 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
 import java.nio.file.FileSystemNotFoundException;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.jena.atlas.lib.DateTimeUtils;
@@ -49,6 +55,18 @@ public class TdbUtil {
     private static final Logger LOGGER = LoggerFactory.getLogger(TdbUtil.class);
     
     public static OntModel bulkLoadToTdbOntModel(String tdblocation, String url, OntModelSpec spec){
+        return bulkLoadToTdbOntModel(tdblocation, url, spec, Lang.NTRIPLES);
+    }
+    
+    /**
+     * Bulk loads the given RDF file into a (new) TDB dataset and returns an OntModel backed by it.
+     * @param tdblocation the directory of the TDB dataset
+     * @param url the url of the RDF file
+     * @param spec the OntModelSpec for the returned model
+     * @param hintLang the RDF syntax which is used if it cannot be deduced from the file extension
+     * @return the OntModel backed by the TDB dataset
+     */
+    public static OntModel bulkLoadToTdbOntModel(String tdblocation, String url, OntModelSpec spec, Lang hintLang){
         Dataset d = TDBFactory.createDataset(tdblocation);
         GraphTDB graphTDB = (GraphTDB)d.asDatasetGraph().getDefaultGraph();
         //TDBLoader.load(graphTDB,url, true);
@@ -59,7 +77,7 @@ public class TdbUtil {
         dest.startBulk() ;
         //for ( String url : urls ) {
         TDB.logLoader.info("Load: " + url + " -- " + DateTimeUtils.nowAsString()) ;
-        Lang lang = RDFLanguages.filenameToLang(url, Lang.NTRIPLES) ;
+        Lang lang = RDFLanguages.filenameToLang(url, hintLang) ;
         //RDFDataMgr.parse(dest, url, lang) ;
         
         
@@ -131,6 +149,36 @@ public class TdbUtil {
         });
         return entries.length > 0 ;
     }
+    
+    /**
+     * Computes a hash (SHA-256 as hex string) of the whole content of the given file (and its length).
+     * The whole file is read, thus every modification results in a different hash.
+     * @param file the file to hash
+     * @return the hash as hex string
+     * @throws IOException in case the file cannot be read
+     */
+    public static String getContentHash(File file) throws IOException{
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException("SHA-256 is not available.", ex);
+        }
+        digest.update(ByteBuffer.allocate(Long.BYTES).putLong(file.length()).array());
+        byte[] buffer = new byte[64 * 1024];
+        try(InputStream in = new FileInputStream(file)){
+            int read;
+            while((read = in.read(buffer)) > 0){
+                digest.update(buffer, 0, read);
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        for(byte b : digest.digest()){
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+    
     /**
      * Returns a file object given a url or path as string.
      * @param url a url or path as string
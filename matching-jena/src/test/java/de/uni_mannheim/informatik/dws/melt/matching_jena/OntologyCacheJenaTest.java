@@ -4,9 +4,13 @@ import org.apache.jena.ontology.OntClass;
 import org.apache.jena.ontology.OntModel;
 import org.apache.jena.ontology.OntModelSpec;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.net.MalformedURLException;
 import java.util.List;
 
@@ -16,6 +20,22 @@ class OntologyCacheJenaTest {
 
     private static final int NUMBER_MODEL_CLASSES = 40;
 
+    private File tdbCacheDirectory;
+    private boolean tdbCacheEnabled;
+    private long tdbTripleThreshold;
+
+    /**
+     * Redirects the TDB cache to a temporary directory such that no test writes to the user home.
+     */
+    @BeforeEach
+    void setup(@TempDir File tempDirectory){
+        tdbCacheDirectory = OntologyCacheJena.getTdbCacheDirectory();
+        tdbCacheEnabled = OntologyCacheJena.isTdbCacheEnabled();
+        tdbTripleThreshold = OntologyCacheJena.getTdbTripleThresholdSetting();
+        OntologyCacheJena.setTdbCacheDirectory(tempDirectory);
+        OntologyCacheJena.setTdbCacheEnabled(false);
+    }
+
     /**
      * Test about the axioms.
      * This test has to evaluate to true in order to work.
@@ -102,9 +122,62 @@ class OntologyCacheJenaTest {
         assertEquals(NUMBER_MODEL_CLASSES, model.listClasses().toList().size());
     }
 
+    @Test
+    void statisticsAndEviction() {
+        OntologyCacheJena.emptyCache();
+        long before = OntologyCacheJena.getStatistics().getMissCount();
+        OntModel model = OntologyCacheJena.get(new File("./src/test/resources/cmt.owl"));
+        assertSame(model, OntologyCacheJena.get(new File("./src/test/resources/cmt.owl")));
+        assertEquals(before + 1, OntologyCacheJena.getStatistics().getMissCount());
+        assertEquals(model.getBaseModel().getGraph().size(), OntologyCacheJena.getStatistics().getWeightedSize());
+
+        long maximumTriples = OntologyCacheJena.getMaximumTriples();
+        try{
+            OntologyCacheJena.setMaximumTriples(1);
+            OntModel otherModel = OntologyCacheJena.get(new File("./src/test/resources/badNtriple.nt"));
+            assertSame(otherModel, OntologyCacheJena.get(new File("./src/test/resources/badNtriple.nt")));
+            assertNotSame(model, OntologyCacheJena.get(new File("./src/test/resources/cmt.owl")));
+        }finally{
+            OntologyCacheJena.setMaximumTriples(maximumTriples);
+        }
+    }
+
+    @Test
+    void loadLargeFileIntoTdb() {
+        File cacheDirectory = OntologyCacheJena.getTdbCacheDirectory();
+        OntologyCacheJena.setTdbCacheEnabled(true);
+        OntologyCacheJena.setTdbTripleThreshold(10); // cmt.owl is treated as a large file
+        OntModel model = OntologyCacheJena.get(new File("./src/test/resources/cmt.owl").toURI().toString(), OntModelSpec.OWL_DL_MEM, false);
+        assertEquals(NUMBER_MODEL_CLASSES, model.listClasses().toList().size());
+        File[] stores = cacheDirectory.listFiles(File::isDirectory);
+        assertEquals(1, stores.length);
+        assertTrue(TdbUtil.isTDB1Dataset(stores[0]));
+
+        // second run reuses the store
+        model = OntologyCacheJena.get(new File("./src/test/resources/cmt.owl").toURI().toString(), OntModelSpec.OWL_DL_MEM, false);
+        assertEquals(NUMBER_MODEL_CLASSES, model.listClasses().toList().size());
+        assertEquals(1, cacheDirectory.listFiles(File::isDirectory).length);
+    }
+
+    @Test
+    void contentHashCoversWholeFile(@TempDir File tempDirectory) throws IOException {
+        File file = new File(tempDirectory, "large.nt");
+        byte[] content = new byte[70 * 1024 * 1024];
+        Files.write(file.toPath(), content);
+        String hash = TdbUtil.getContentHash(file);
+        assertEquals(hash, TdbUtil.getContentHash(file));
+
+        content[content.length / 2 + 12345] = 1;
+        Files.write(file.toPath(), content);
+        assertNotEquals(hash, TdbUtil.getContentHash(file));
+    }
+
     @AfterEach
     void teardown(){
         OntologyCacheJena.emptyCache();
+        OntologyCacheJena.setTdbCacheDirectory(tdbCacheDirectory);
+        OntologyCacheJena.setTdbCacheEnabled(tdbCacheEnabled);
+        OntologyCacheJena.setTdbTripleThreshold(tdbTripleThreshold);
     }
 
 }
\ No newline at end of file
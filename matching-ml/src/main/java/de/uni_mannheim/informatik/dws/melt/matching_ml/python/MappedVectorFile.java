@@ -0,0 +1,188 @@
+package de.uni_mannheim.informatik.dws.melt.matching_ml.python;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * All vectors of a vocabulary in a memory mapped file. This allows to compute similarities completely in Java
+ * without storing all vectors on the heap.
+ * <p>
+ * The vectors are stored in two files:
+ * <ul>
+ * <li>the vector file contains all vectors as little endian 32 bit floats (row by row, no header)</li>
+ * <li>the vocabulary file (UTF-8) contains in the first line the number of vectors and the dimension (separated by a space)
+ *     and then one concept per line (encoded as JSON string, thus line breaks in concepts are escaped) in the same order as the vectors.</li>
+ * </ul>
+ * The files can be written by the python server (see {@link PythonServer#preloadVectors(String)}) or with {@link #write(Map, File, File)}.
+ */
+public class MappedVectorFile {
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    private final File vectorFile;
+    private final Map<String, Integer> index;
+    private final int dimension;
+    private final int rowsPerChunk;
+    private final FloatBuffer[] chunks;
+
+    /**
+     * Opens (memory maps) the given files.
+     * @param vectorFile the file with the vectors
+     * @param vocabularyFile the file with the vocabulary
+     * @throws IOException in case the files can not be read or do not match.
+     */
+    public MappedVectorFile(File vectorFile, File vocabularyFile) throws IOException {
+        this.vectorFile = vectorFile;
+        int size;
+        try(BufferedReader reader = Files.newBufferedReader(vocabularyFile.toPath(), StandardCharsets.UTF_8)){
+            String header = reader.readLine();
+            if(header == null)
+                throw new IOException("The vocabulary file is empty: " + vocabularyFile);
+            String[] sizes = header.trim().split(" ");
+            try{
+                size = Integer.parseInt(sizes[0]);
+                this.dimension = Integer.parseInt(sizes[1]);
+            }catch(NumberFormatException | ArrayIndexOutOfBoundsException ex){
+                throw new IOException("The first line of the vocabulary file is not valid: " + header, ex);
+            }
+            this.index = new HashMap<>(Math.max(16, (int)(size / 0.75f) + 1));
+            String line;
+            while((line = reader.readLine()) != null){
+                String concept;
+                try{
+                    concept = JSON_MAPPER.readValue(line, String.class);
+                }catch(JsonProcessingException ex){
+                    throw new IOException("Line " + (this.index.size() + 2) + " of the vocabulary file is not a JSON string: " + line, ex);
+                }
+                this.index.put(concept, this.index.size());
+            }
+        }
+        if(this.index.size() != size)
+            throw new IOException("The vocabulary file contains " + this.index.size() + " concepts but the header states " + size);
+        if(this.dimension <= 0)
+            throw new IOException("The dimension of the vectors has to be positive but was " + this.dimension);
+
+        long expectedBytes = 4L * size * this.dimension;
+        this.rowsPerChunk = Math.max(1, Integer.MAX_VALUE / (4 * this.dimension));
+        this.chunks = new FloatBuffer[(int)((size + (long)rowsPerChunk - 1) / rowsPerChunk)];
+        try(FileChannel channel = FileChannel.open(vectorFile.toPath(), StandardOpenOption.READ)){
+            if(channel.size() != expectedBytes)
+                throw new IOException("The vector file " + vectorFile + " has " + channel.size() + " bytes but " + expectedBytes + " are expected.");
+            for(int i = 0; i < chunks.length; i++){
+                long start = 4L * i * rowsPerChunk * this.dimension;
+                long length = Math.min(4L * rowsPerChunk * this.dimension, expectedBytes - start);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            }
+        }
+    }
+
+    /**
+     * Returns the vector of the given concept.
+     * @param concept the concept
+     * @return a copy of the vector or null if the concept is not in the vocabulary.
+     */
+    public float[] getVector(String concept){
+        Integer row = index.get(concept);
+        if(row == null)
+            return null;
+        float[] vector = new float[dimension];
+        readVector(row, vector);
+        return vector;
+    }
+
+    private void readVector(int row, float[] target){
+        FloatBuffer chunk = chunks[row / rowsPerChunk];
+        int offset = (row % rowsPerChunk) * dimension;
+        for(int i = 0; i < dimension; i++){
+            target[i] = chunk.get(offset + i); // absolute get is thread safe for read only buffers
+        }
+    }
+
+    /**
+     * Computes the cosine similarity of two concepts.
+     * @param conceptOne the first concept
+     * @param conceptTwo the second concept
+     * @return the cosine similarity or -1.0 if one of the concepts is not in the vocabulary.
+     */
+    public double getSimilarity(String conceptOne, String conceptTwo){
+        Integer rowOne = index.get(conceptOne);
+        Integer rowTwo = index.get(conceptTwo);
+        if(rowOne == null || rowTwo == null)
+            return -1.0;
+        float[] one = new float[dimension];
+        float[] two = new float[dimension];
+        readVector(rowOne, one);
+        readVector(rowTwo, two);
+        return PythonServer.cosineSimilarity(one, two);
+    }
+
+    /**
+     * Checks if the concept is in the vocabulary.
+     * @param concept the concept
+     * @return true if the concept is in the vocabulary
+     */
+    public boolean contains(String concept){
+        return index.containsKey(concept);
+    }
+
+    /**
+     * Returns all concepts in the vocabulary.
+     * @return unmodifiable set of concepts
+     */
+    public Set<String> getVocabulary(){
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    public int size(){
+        return index.size();
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    public File getVectorFile() {
+        return vectorFile;
+    }
+
+    /**
+     * Writes the given vectors in the format which can be read by this class.
+     * @param vectors the vectors (all need to have the same dimension)
+     * @param vectorFile the file with the vectors which is written
+     * @param vocabularyFile the file with the vocabulary which is written
+     * @throws IOException in case of a write error
+     */
+    public static void write(Map<String, float[]> vectors, File vectorFile, File vocabularyFile) throws IOException {
+        int dimension = vectors.isEmpty() ? 1 : vectors.values().iterator().next().length;
+        try(DataOutputStream vectorOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(vectorFile)));
+            BufferedWriter vocabularyOut = Files.newBufferedWriter(vocabularyFile.toPath(), StandardCharsets.UTF_8)){
+            vocabularyOut.write(vectors.size() + " " + dimension);
+            for(Map.Entry<String, float[]> entry : vectors.entrySet()){
+                if(entry.getValue().length != dimension)
+                    throw new IllegalArgumentException("All vectors need to have the same dimension.");
+                vocabularyOut.write("\n");
+                vocabularyOut.write(JSON_MAPPER.writeValueAsString(entry.getKey()));
+                for(float value : entry.getValue()){
+                    vectorOut.writeInt(Integer.reverseBytes(Float.floatToRawIntBits(value)));
+                }
+            }
+        }
+    }
+}
@@ -9,10 +9,13 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.uni_mannheim.informatik.dws.melt.matching_base.CacheStatistics;
+import de.uni_mannheim.informatik.dws.melt.matching_base.RequestCoalescer;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
 import org.apache.commons.io.FileUtils;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpMessage;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.conn.HttpHostConnectException;
@@ -23,11 +26,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -35,6 +43,7 @@ import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
+import org.javatuples.Pair;
 
 /**
  * A client class to communicate with python libraries such as <a href="https://radimrehurek.com/gensim/">gensim</a>.
@@ -91,7 +100,28 @@ public class PythonServer {
     /**
      * Local vector cache.
      */
-    private HashMap<String, Double[]> vectorCache;
+    private final VectorCache vectorCache = new VectorCache();
+
+    /**
+     * Preloaded (memory mapped) vector files (key is the canonical path of the model or vector file).
+     */
+    private final Map<String, MappedVectorFile> mappedVectorFiles = new ConcurrentHashMap<>();
+
+    /**
+     * Maximum number of concepts or pairs which are sent to the python server in one batch request.
+     */
+    private static final int MAXIMUM_BATCH_SIZE = 10000;
+
+    /**
+     * Indicator whether concurrent single vector requests are grouped into batch requests
+     * (see {@link RequestCoalescer}).
+     */
+    private boolean isRequestCoalescing = true;
+
+    /**
+     * One request coalescer per model or vector path.
+     */
+    private final Map<String, RequestCoalescer<String, float[]>> vectorRequestCoalescers = new ConcurrentHashMap<>();
 
     /**
      * Indicates whether the shutdown hook has been initialized.
@@ -191,10 +221,40 @@ public class PythonServer {
         }
     }
 
-    
+    /**
+     * Predicts the confidences of the given text pairs with the model of the filter without writing a prediction file.
+     * The model is loaded in the python server process and can be kept loaded for the next chunk of the same run
+     * (the multi processing setting of the filter is not used).
+     * @param filter the filter which contains all the parameters
+     * @param textPairs the text pairs (left and right text)
+     * @param keepModelLoaded true if more chunks will follow, false to release the model after this prediction
+     * @return the confidences in the order of the text pairs
+     * @throws PythonServerException in case something goes wrong.
+     */
+    public List<Double> transformersPrediction(TransformersFilter filter, List<Pair<String, String>> textPairs, boolean keepModelLoaded) throws PythonServerException {
+        HttpPost request = new HttpPost(serverUrl + "/transformers-prediction-stream");
+        transformersUpdateBaseRequest(filter, request);
+        request.addHeader("change-class", Boolean.toString(filter.isChangeClass()));
+        request.addHeader("keep-model-loaded", Boolean.toString(keepModelLoaded));
 
+        ObjectNode root = JSON_MAPPER.createObjectNode();
+        ArrayNode array = root.putArray("pairs");
+        for (Pair<String, String> pair : textPairs) {
+            array.addArray().add(pair.getValue0()).add(pair.getValue1());
+        }
+        ByteBuffer buffer = runBinaryRequest(request, root);
+        try {
+            List<Double> confidences = new ArrayList<>(textPairs.size());
+            for (int i = 0; i < textPairs.size(); i++) {
+                confidences.add(buffer.getDouble());
+            }
+            return confidences;
+        } catch (BufferUnderflowException ex) {
+            throw new PythonServerException("The server returned less confidences than text pairs.", ex);
+        }
+    }
     
-    private void transformersUpdateBaseRequest(TransformersBase base, HttpGet request){
+    private void transformersUpdateBaseRequest(TransformersBase base, HttpMessage request){
         request.addHeader("model-name", base.getModelName());
         request.addHeader("using-tf", Boolean.toString(base.isUsingTensorflow()));
         request.addHeader("training-arguments", base.getTrainingArguments().toJsonString());
@@ -640,10 +700,15 @@ public class PythonServer {
      * @return -1.0 in case of failure, else similarity.
      */
     public double getSimilarity(String concept1, String concept2, String modelOrVectorPath) {
+        MappedVectorFile mapped = getMappedVectorFile(modelOrVectorPath);
+        if (mapped != null) {
+            // vectors are preloaded: compute completely in java
+            return mapped.getSimilarity(concept1, concept2);
+        }
         if (isVectorCaching) {
             // caching is enabled: do not use gensim library but cache vectors and calculate in java on demand
-            Double[] v1 = getVector(concept1, modelOrVectorPath);
-            Double[] v2 = getVector(concept2, modelOrVectorPath);
+            float[] v1 = getVectorAsFloats(concept1, modelOrVectorPath);
+            float[] v2 = getVectorAsFloats(concept2, modelOrVectorPath);
             if (v1 != null && v2 != null) {
                 return cosineSimilarity(v1, v2);
             }
@@ -673,20 +738,57 @@ public class PythonServer {
 
     /**
      * Returns the vector of a concept.
+     * The values are parsed as floats (like they are stored in gensim) and converted to double.
      *
      * @param concept           The concept for which the vector shall be obtained.
      * @param modelOrVectorPath The model path or vector file path leading to the file to be used.
      * @return The vector for the specified concept.
      */
     public Double[] getVector(String concept, String modelOrVectorPath) {
+        float[] vector = getVectorAsFloats(concept, modelOrVectorPath);
+        if (vector == null) {
+            return null;
+        }
+        Double[] result = new Double[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            result[i] = (double) vector[i];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the vector of a concept as primitive float array.
+     * If the vectors are preloaded (see {@link #preloadVectors(String)}), the vector is read from the memory mapped file.
+     * Otherwise it is requested from the python server and cached if vector caching is enabled.
+     * The returned array should not be modified because it might be cached.
+     *
+     * @param concept           The concept for which the vector shall be obtained.
+     * @param modelOrVectorPath The model path or vector file path leading to the file to be used.
+     * @return The vector for the specified concept or null if it is not in the vocabulary.
+     */
+    public float[] getVectorAsFloats(String concept, String modelOrVectorPath) {
+        MappedVectorFile mapped = getMappedVectorFile(modelOrVectorPath);
+        if (mapped != null) {
+            return mapped.getVector(concept);
+        }
 
         String v1key = concept + "-" + modelOrVectorPath;
         if (isVectorCaching) {
-            if (vectorCache.containsKey(v1key)) {
-                return vectorCache.get(v1key);
+            float[] cached = vectorCache.getIfPresent(v1key);
+            if (cached != null) {
+                return cached == VectorCache.NOT_IN_VOCABULARY ? null : cached;
             }
         }
 
+        float[] result = isRequestCoalescing ?
+                getVectorRequestCoalescer(modelOrVectorPath).get(concept) : requestVector(concept, modelOrVectorPath);
+        if (isVectorCaching) {
+            vectorCache.put(v1key, result);
+        }
+        return result;
+    }
+
+    private float[] requestVector(String concept, String modelOrVectorPath) {
         HttpGet request = new HttpGet(serverUrl + "/get-vector");
         request.addHeader("concept", concept);
         addModelToRequest(request, modelOrVectorPath);
@@ -702,32 +804,362 @@ public class PythonServer {
                     LOGGER.error(resultString);
                 } else {
                     String[] tokenizedResult = resultString.split(" ");
-                    Double[] result = new Double[tokenizedResult.length];
+                    float[] result = new float[tokenizedResult.length];
                     for (int i = 0; i < result.length; i++) {
                         try {
-                            result[i] = Double.parseDouble(tokenizedResult[i]);
+                            result[i] = Float.parseFloat(tokenizedResult[i]);
                         } catch (NumberFormatException nfe) {
                             LOGGER.error("Number format exception occurred on token: " + tokenizedResult[i], nfe);
                             // cannot return vector
-                            if (isVectorCaching) {
-                                vectorCache.put(v1key, null);
-                            }
                             return null;
                         }
                     }
-                    if (isVectorCaching) {
-                        vectorCache.put(v1key, result);
-                    }
                     return result;
                 }
             }
         } catch (IOException ioe) {
             LOGGER.error("Problem with http request.", ioe);
         }
+        return null;
+    }
+
+    private RequestCoalescer<String, float[]> getVectorRequestCoalescer(String modelOrVectorPath) {
+        //one batch at a time because the python server handles requests sequentially (threaded=False)
+        return vectorRequestCoalescers.computeIfAbsent(modelOrVectorPath, path -> new RequestCoalescer<>(concepts -> {
+            try {
+                return requestVectors(concepts, path);
+            } catch (PythonServerException ex) {
+                LOGGER.error("Could not request vectors.", ex);
+                return Collections.emptyMap();
+            }
+        }, MAXIMUM_BATCH_SIZE));
+    }
+
+    /**
+     * Returns the vectors of multiple concepts.
+     * All vectors which are neither preloaded nor cached are requested with one (binary) batch request
+     * instead of one request per concept.
+     * The returned arrays should not be modified because they might be cached.
+     *
+     * @param concepts          The concepts for which the vectors shall be obtained.
+     * @param modelOrVectorPath The model path or vector file path leading to the file to be used.
+     * @return Map from concept to vector. Concepts which are not in the vocabulary are not contained.
+     */
+    public Map<String, float[]> getVectors(Collection<String> concepts, String modelOrVectorPath) {
+        Map<String, float[]> result = new HashMap<>();
+        MappedVectorFile mapped = getMappedVectorFile(modelOrVectorPath);
+        if (mapped != null) {
+            for (String concept : concepts) {
+                float[] vector = mapped.getVector(concept);
+                if (vector != null) {
+                    result.put(concept, vector);
+                }
+            }
+            return result;
+        }
+
+        List<String> missing = new ArrayList<>();
+        for (String concept : new LinkedHashSet<>(concepts)) {
+            if (isVectorCaching) {
+                float[] cached = vectorCache.getIfPresent(concept + "-" + modelOrVectorPath);
+                if (cached != null) {
+                    if (cached != VectorCache.NOT_IN_VOCABULARY) {
+                        result.put(concept, cached);
+                    }
+                    continue;
+                }
+            }
+            missing.add(concept);
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+        Map<String, float[]> requested;
+        try {
+            requested = requestVectors(missing, modelOrVectorPath);
+        } catch (PythonServerException ex) {
+            LOGGER.error("Could not request vectors.", ex);
+            return result;
+        }
+        for (String concept : missing) {
+            float[] vector = requested.get(concept);
+            if (isVectorCaching) {
+                vectorCache.put(concept + "-" + modelOrVectorPath, vector);
+            }
+            if (vector != null) {
+                result.put(concept, vector);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the similarities of multiple concept pairs.
+     * If the vectors are preloaded or cached, the similarities are computed in Java (missing vectors are requested
+     * with one batch request). Otherwise, all similarities are computed by the python server with one batch request.
+     *
+     * @param pairs             The concept pairs.
+     * @param modelOrVectorPath The path to the model or vector file. Note that the vector file MUST end with .kv in
+     *                          order to be recognized as vector file.
+     * @return Array with the similarity of each pair (in the same order). -1.0 in case of failure or if one of
+     * the concepts is not in the vocabulary.
+     */
+    public double[] getSimilarities(List<Pair<String, String>> pairs, String modelOrVectorPath) {
+        double[] result = new double[pairs.size()];
+        Arrays.fill(result, -1.0);
+        MappedVectorFile mapped = getMappedVectorFile(modelOrVectorPath);
+        if (mapped != null) {
+            for (int i = 0; i < result.length; i++) {
+                result[i] = mapped.getSimilarity(pairs.get(i).getValue0(), pairs.get(i).getValue1());
+            }
+            return result;
+        }
         if (isVectorCaching) {
-            vectorCache.put(v1key, null);
+            Set<String> concepts = new HashSet<>();
+            for (Pair<String, String> pair : pairs) {
+                concepts.add(pair.getValue0());
+                concepts.add(pair.getValue1());
+            }
+            Map<String, float[]> vectors = getVectors(concepts, modelOrVectorPath);
+            for (int i = 0; i < result.length; i++) {
+                float[] v1 = vectors.get(pairs.get(i).getValue0());
+                float[] v2 = vectors.get(pairs.get(i).getValue1());
+                if (v1 != null && v2 != null) {
+                    result[i] = cosineSimilarity(v1, v2);
+                }
+            }
+            return result;
         }
-        return null;
+        for (int start = 0; start < pairs.size(); start += MAXIMUM_BATCH_SIZE) {
+            List<Pair<String, String>> batch = pairs.subList(start, Math.min(pairs.size(), start + MAXIMUM_BATCH_SIZE));
+            ObjectNode root = JSON_MAPPER.createObjectNode();
+            ArrayNode array = root.putArray("pairs");
+            for (Pair<String, String> pair : batch) {
+                array.addArray().add(pair.getValue0()).add(pair.getValue1());
+            }
+            try {
+                ByteBuffer buffer = runBinaryRequest(serverUrl + "/get-similarities-batch", root, modelOrVectorPath);
+                for (int i = 0; i < batch.size(); i++) {
+                    double similarity = buffer.getDouble();
+                    if (!Double.isNaN(similarity)) {
+                        result[start + i] = similarity;
+                    }
+                }
+            } catch (PythonServerException | BufferUnderflowException ex) {
+                LOGGER.error("Could not request similarities.", ex);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks for multiple concepts whether they can be found in the vocabulary of the model.
+     *
+     * @param concepts          The concepts/URIs that shall be looked up.
+     * @param modelOrVectorPath The model or vector file. Note that the vector file MUST end with .kv in
+     *                          order to be recognized as vector file.
+     * @return Array which contains for each concept (in the same order) true if it exists, else false.
+     */
+    public boolean[] areInVocabulary(List<String> concepts, File modelOrVectorPath) {
+        return areInVocabulary(concepts, modelOrVectorPath.getAbsolutePath());
+    }
+
+    /**
+     * Checks for multiple concepts whether they can be found in the vocabulary of the model.
+     * All concepts are checked with one batch request.
+     *
+     * @param concepts          The concepts/URIs that shall be looked up.
+     * @param modelOrVectorPath The path to the model or vector file. Note that the vector file MUST end with .kv in
+     *                          order to be recognized as vector file.
+     * @return Array which contains for each concept (in the same order) true if it exists, else false.
+     */
+    public boolean[] areInVocabulary(List<String> concepts, String modelOrVectorPath) {
+        boolean[] result = new boolean[concepts.size()];
+        MappedVectorFile mapped = getMappedVectorFile(modelOrVectorPath);
+        if (mapped != null) {
+            for (int i = 0; i < result.length; i++) {
+                result[i] = mapped.contains(concepts.get(i));
+            }
+            return result;
+        }
+        if (isVectorCaching) {
+            Map<String, float[]> vectors = getVectors(concepts, modelOrVectorPath);
+            for (int i = 0; i < result.length; i++) {
+                result[i] = vectors.containsKey(concepts.get(i));
+            }
+            return result;
+        }
+        for (int start = 0; start < concepts.size(); start += MAXIMUM_BATCH_SIZE) {
+            List<String> batch = concepts.subList(start, Math.min(concepts.size(), start + MAXIMUM_BATCH_SIZE));
+            ObjectNode root = JSON_MAPPER.createObjectNode();
+            ArrayNode array = root.putArray("concepts");
+            batch.forEach(array::add);
+            try {
+                ByteBuffer buffer = runBinaryRequest(serverUrl + "/are-in-vocabulary-batch", root, modelOrVectorPath);
+                for (int i = 0; i < batch.size(); i++) {
+                    result[start + i] = buffer.get() != 0;
+                }
+            } catch (PythonServerException | BufferUnderflowException ex) {
+                LOGGER.error("Could not check the vocabulary.", ex);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Requests the vectors of the given concepts with batch requests.
+     *
+     * @param concepts          The concepts (should not contain duplicates).
+     * @param modelOrVectorPath The model path or vector file path leading to the file to be used.
+     * @return Map from concept to vector. Concepts which are not in the vocabulary are not contained.
+     * @throws PythonServerException in case of a server error.
+     */
+    private Map<String, float[]> requestVectors(List<String> concepts, String modelOrVectorPath) throws PythonServerException {
+        Map<String, float[]> result = new HashMap<>();
+        for (int start = 0; start < concepts.size(); start += MAXIMUM_BATCH_SIZE) {
+            List<String> batch = concepts.subList(start, Math.min(concepts.size(), start + MAXIMUM_BATCH_SIZE));
+            ObjectNode root = JSON_MAPPER.createObjectNode();
+            ArrayNode array = root.putArray("concepts");
+            batch.forEach(array::add);
+            result.putAll(parseVectorBatch(batch, runBinaryRequest(serverUrl + "/get-vectors-batch", root, modelOrVectorPath)));
+        }
+        return result;
+    }
+
+    /**
+     * Parses the binary answer of the vector batch request. The format is (little endian):
+     * int32 number of concepts, int32 dimension, one byte per concept (1 if in vocabulary, else 0)
+     * and then the float32 vectors of all concepts which are in the vocabulary.
+     *
+     * @param concepts The requested concepts in the order of the request.
+     * @param buffer   The answer of the server.
+     * @return Map from concept to vector. Concepts which are not in the vocabulary are not contained.
+     * @throws PythonServerException if the answer does not match the request.
+     */
+    static Map<String, float[]> parseVectorBatch(List<String> concepts, ByteBuffer buffer) throws PythonServerException {
+        try {
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            int size = buffer.getInt();
+            int dimension = buffer.getInt();
+            if (size != concepts.size()) {
+                throw new PythonServerException("The server returned " + size + " vectors but " + concepts.size() + " were requested.");
+            }
+            boolean[] found = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                found[i] = buffer.get() != 0;
+            }
+            FloatBuffer floats = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            Map<String, float[]> result = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                if (found[i]) {
+                    float[] vector = new float[dimension];
+                    floats.get(vector);
+                    result.put(concepts.get(i), vector);
+                }
+            }
+            return result;
+        } catch (BufferUnderflowException ex) {
+            throw new PythonServerException("The binary answer of the server is too short.", ex);
+        }
+    }
+
+    /**
+     * Posts the given JSON content and returns the binary (octet-stream) answer of the server.
+     *
+     * @param url               The URL of the endpoint.
+     * @param content           The JSON content.
+     * @param modelOrVectorPath The model path or vector file path which is added to the request.
+     * @return The binary answer as little endian byte buffer.
+     * @throws PythonServerException in case of a server error.
+     */
+    private ByteBuffer runBinaryRequest(String url, ObjectNode content, String modelOrVectorPath) throws PythonServerException {
+        HttpPost request = new HttpPost(url);
+        addModelToRequest(request, modelOrVectorPath);
+        return runBinaryRequest(request, content);
+    }
+
+    /**
+     * Posts the JSON content with the given request and returns the binary (little endian) response.
+     *
+     * @param request The request (including all headers).
+     * @param content The JSON content.
+     * @return The response as little endian buffer.
+     * @throws PythonServerException In case of an error response.
+     */
+    private ByteBuffer runBinaryRequest(HttpPost request, ObjectNode content) throws PythonServerException {
+        try {
+            request.setEntity(new StringEntity(JSON_MAPPER.writeValueAsString(content), ContentType.APPLICATION_JSON));
+        } catch (JsonProcessingException ex) {
+            throw new PythonServerException("Could not serialize the request.", ex);
+        }
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            HttpEntity entity = response.getEntity();
+            if (entity == null) {
+                throw new PythonServerException("No server response.");
+            }
+            ContentType contentType = ContentType.get(entity);
+            if (contentType == null || !ContentType.APPLICATION_OCTET_STREAM.getMimeType().equals(contentType.getMimeType())) {
+                throw new PythonServerException(EntityUtils.toString(entity));
+            }
+            return ByteBuffer.wrap(EntityUtils.toByteArray(entity)).order(ByteOrder.LITTLE_ENDIAN);
+        } catch (IOException ex) {
+            throw new PythonServerException("Could not execute python server request", ex);
+        }
+    }
+
+    /**
+     * Loads all vectors of the given model or vector file into a memory mapped file.
+     * Afterwards all vectors and similarities of this model are computed in Java without requests to the python server.
+     * The files are stored in the resources directory and are reused as long as the model file does not change.
+     *
+     * @param modelOrVectorPath The path to the model or vector file. Note that the vector file MUST end with .kv in
+     *                          order to be recognized as vector file.
+     * @return True if the vectors could be preloaded, else false.
+     */
+    public boolean preloadVectors(String modelOrVectorPath) {
+        File modelFile = new File(getCanonicalPath(modelOrVectorPath));
+        String name = modelFile.getName() + "_" + Integer.toHexString(modelFile.getAbsolutePath().hashCode()) + "_" + modelFile.lastModified();
+        File directory = new File(getResourcesDirectory(), "preloaded_vectors");
+        directory.mkdirs();
+        File vectorFile = new File(directory, name + ".vectors");
+        File vocabularyFile = new File(directory, name + ".vocab.jsonl");
+        if (!vectorFile.exists() || !vocabularyFile.exists()) {
+            HttpGet request = new HttpGet(serverUrl + "/write-vectors-binary");
+            addModelToRequest(request, modelOrVectorPath);
+            request.addHeader("file_path", vectorFile.getAbsolutePath());
+            request.addHeader("vocabulary_path", vocabularyFile.getAbsolutePath());
+            try {
+                runRequest(request);
+            } catch (PythonServerException ex) {
+                LOGGER.error("Could not write the vectors into a binary file.", ex);
+                vectorFile.delete();
+                vocabularyFile.delete();
+                return false;
+            }
+        }
+        try {
+            mappedVectorFiles.put(modelFile.getPath(), new MappedVectorFile(vectorFile, vocabularyFile));
+            return true;
+        } catch (IOException ex) {
+            LOGGER.error("Could not open the preloaded vectors.", ex);
+            return false;
+        }
+    }
+
+    /**
+     * Removes the preloaded vectors of the given model (see {@link #preloadVectors(String)}).
+     *
+     * @param modelOrVectorPath The path to the model or vector file.
+     */
+    public void removePreloadedVectors(String modelOrVectorPath) {
+        mappedVectorFiles.remove(getCanonicalPath(modelOrVectorPath));
+    }
+
+    private MappedVectorFile getMappedVectorFile(String modelOrVectorPath) {
+        if (mappedVectorFiles.isEmpty()) {
+            return null;
+        }
+        return mappedVectorFiles.get(getCanonicalPath(modelOrVectorPath));
     }
 
     /**
@@ -751,6 +1183,10 @@ public class PythonServer {
      * @return True if exists, else false.
      */
     public boolean isInVocabulary(String concept, String modelOrVectorPath) {
+        MappedVectorFile mapped = getMappedVectorFile(modelOrVectorPath);
+        if (mapped != null) {
+            return mapped.contains(concept);
+        }
         if (isVectorCaching) {
             return getVector(concept, modelOrVectorPath) != null;
         } else {
@@ -877,7 +1313,7 @@ public class PythonServer {
      * @param request           The request to which the model/vector file shall be added to.
      * @param modelOrVectorPath The path to the model/vector file.
      */
-    private void addModelToRequest(HttpGet request, String modelOrVectorPath) {
+    private void addModelToRequest(HttpMessage request, String modelOrVectorPath) {
         if (modelOrVectorPath.endsWith(".kv")) {
             request.addHeader("vector_path", getCanonicalPath(modelOrVectorPath));
         } else request.addHeader("model_path", getCanonicalPath(modelOrVectorPath));
@@ -1137,7 +1573,7 @@ public class PythonServer {
         } catch (InterruptedException e) {
             LOGGER.error("Could not wait for python server.", e);
         }
-        vectorCache = new HashMap<>();
+        vectorCache.clear();
 
         // now: add shutdown hook in case the JVM is terminating
         if (!isHookStarted) {
@@ -1250,6 +1686,39 @@ public class PythonServer {
         return dotProduct / (Math.sqrt(norm1) * Math.sqrt(norm2));
     }
 
+    /**
+     * Calculate The cosine similarity between two primitive vectors.
+     * The loop is unrolled with independent accumulators such that the JIT can pipeline the multiplications.
+     *
+     * @param vector1 First vector.
+     * @param vector2 Second vector (same length as the first one).
+     * @return Cosine similarity as double.
+     */
+    public static double cosineSimilarity(float[] vector1, float[] vector2) {
+        double dot0 = 0, dot1 = 0, dot2 = 0, dot3 = 0;
+        double normOne0 = 0, normOne1 = 0, normOne2 = 0, normOne3 = 0;
+        double normTwo0 = 0, normTwo1 = 0, normTwo2 = 0, normTwo3 = 0;
+        int length = vector1.length;
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            double a0 = vector1[i], a1 = vector1[i + 1], a2 = vector1[i + 2], a3 = vector1[i + 3];
+            double b0 = vector2[i], b1 = vector2[i + 1], b2 = vector2[i + 2], b3 = vector2[i + 3];
+            dot0 += a0 * b0; dot1 += a1 * b1; dot2 += a2 * b2; dot3 += a3 * b3;
+            normOne0 += a0 * a0; normOne1 += a1 * a1; normOne2 += a2 * a2; normOne3 += a3 * a3;
+            normTwo0 += b0 * b0; normTwo1 += b1 * b1; normTwo2 += b2 * b2; normTwo3 += b3 * b3;
+        }
+        for (; i < length; i++) {
+            double a = vector1[i], b = vector2[i];
+            dot0 += a * b;
+            normOne0 += a * a;
+            normTwo0 += b * b;
+        }
+        double dotProduct = (dot0 + dot1) + (dot2 + dot3);
+        double norm1 = (normOne0 + normOne1) + (normOne2 + normOne3);
+        double norm2 = (normTwo0 + normTwo1) + (normTwo2 + normTwo3);
+        return dotProduct / (Math.sqrt(norm1) * Math.sqrt(norm2));
+    }
+
     /**
      * Writes the vectors to a human-readable text file.
      *
@@ -1383,6 +1852,25 @@ public class PythonServer {
         return -1;
     }
 
+    /**
+     * Sets the maximum memory in bytes which the vector cache may use. If it is exceeded, the least recently used
+     * vectors are evicted. The default is one eighth of the maximum heap size.
+     *
+     * @param maximumBytes The maximum memory of the vector cache in bytes.
+     */
+    public void setVectorCacheMaximumBytes(long maximumBytes) {
+        vectorCache.setMaximumBytes(maximumBytes);
+    }
+
+    /**
+     * Returns the statistics of the vector cache (hits, misses, evictions and memory usage in bytes as weighted size).
+     *
+     * @return The statistics of the vector cache.
+     */
+    public CacheStatistics getVectorCacheStatistics() {
+        return vectorCache.getStatistics();
+    }
+
     /**
      * If true: enabled. Else: false.
      *
@@ -1403,6 +1891,26 @@ public class PythonServer {
         isVectorCaching = vectorCaching;
     }
 
+    /**
+     * If true: enabled. Else: false.
+     *
+     * @return True if enabled, else false.
+     */
+    public boolean isRequestCoalescing() {
+        return isRequestCoalescing;
+    }
+
+    /**
+     * If request coalescing is turned on, concurrent vector requests (e.g. from multiple threads which call
+     * {@link #getVector(String, String)}) are grouped into batch requests. A single thread is not delayed and
+     * each thread returns as soon as its own vector is loaded.
+     *
+     * @param requestCoalescing True if coalescing shall be enabled, else false.
+     */
+    public void setRequestCoalescing(boolean requestCoalescing) {
+        isRequestCoalescing = requestCoalescing;
+    }
+
     public static int getPort() {
         return port;
     }
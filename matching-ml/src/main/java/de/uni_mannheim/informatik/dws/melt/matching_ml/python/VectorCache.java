@@ -0,0 +1,140 @@
+package de.uni_mannheim.informatik.dws.melt.matching_ml.python;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.CacheStatistics;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thread safe cache for embedding vectors which are stored as primitive float arrays.
+ * The least recently used vectors are evicted as soon as the (estimated) memory of all vectors exceeds a maximum.
+ * Concepts which are not in the vocabulary are cached as well (see {@link #NOT_IN_VOCABULARY}) to avoid repeated requests.
+ */
+public class VectorCache {
+
+    /**
+     * Marker which is returned by {@link #getIfPresent(String)} if the concept is known to be not in the vocabulary.
+     */
+    public static final float[] NOT_IN_VOCABULARY = new float[0];
+
+    /**
+     * Estimated overhead in bytes of one cache entry (map entry, array header, key object).
+     */
+    private static final long ENTRY_OVERHEAD = 96;
+
+    private final LinkedHashMap<String, float[]> vectors;
+    private long maximumBytes;
+    private long usedBytes;
+
+    private long hitCount;
+    private long missCount;
+    private long putCount;
+    private long evictionCount;
+
+    /**
+     * Constructor
+     * @param maximumBytes the maximum (estimated) memory in bytes which the cached vectors may use.
+     */
+    public VectorCache(long maximumBytes) {
+        this.vectors = new LinkedHashMap<>(1024, 0.75f, true);
+        this.maximumBytes = maximumBytes;
+        this.usedBytes = 0;
+    }
+
+    /**
+     * Constructor which uses one eighth of the maximum heap size as memory limit.
+     */
+    public VectorCache() {
+        this(Runtime.getRuntime().maxMemory() / 8);
+    }
+
+    /**
+     * Returns the cached vector.
+     * @param key the key (concept and model)
+     * @return the vector, {@link #NOT_IN_VOCABULARY} if the concept is known to be not in the vocabulary, or null if nothing is cached.
+     */
+    public synchronized float[] getIfPresent(String key){
+        float[] vector = vectors.get(key);
+        if(vector == null){
+            missCount++;
+        }else{
+            hitCount++;
+        }
+        return vector;
+    }
+
+    /**
+     * Puts the vector in the cache.
+     * @param key the key (concept and model)
+     * @param vector the vector or null if the concept is not in the vocabulary.
+     */
+    public synchronized void put(String key, float[] vector){
+        if(vector == null)
+            vector = NOT_IN_VOCABULARY;
+        float[] old = vectors.put(key, vector);
+        if(old != null)
+            usedBytes -= getWeight(key, old);
+        usedBytes += getWeight(key, vector);
+        putCount++;
+        evict();
+    }
+
+    private void evict(){
+        Iterator<Map.Entry<String, float[]>> iterator = vectors.entrySet().iterator();
+        while(usedBytes > maximumBytes && iterator.hasNext()){
+            Map.Entry<String, float[]> eldest = iterator.next();
+            usedBytes -= getWeight(eldest.getKey(), eldest.getValue());
+            iterator.remove();
+            evictionCount++;
+        }
+    }
+
+    private static long getWeight(String key, float[] vector){
+        return ENTRY_OVERHEAD + 2L * key.length() + 4L * vector.length;
+    }
+
+    /**
+     * Removes all vectors. The statistics are not reset.
+     */
+    public synchronized void clear(){
+        vectors.clear();
+        usedBytes = 0;
+    }
+
+    /**
+     * Returns the number of cached entries (including concepts which are not in the vocabulary).
+     * @return number of entries
+     */
+    public synchronized int size(){
+        return vectors.size();
+    }
+
+    /**
+     * Returns the estimated memory in bytes of all cached vectors.
+     * @return estimated memory in bytes
+     */
+    public synchronized long getMemoryUsage(){
+        return usedBytes;
+    }
+
+    public synchronized long getMaximumBytes() {
+        return maximumBytes;
+    }
+
+    /**
+     * Sets the maximum (estimated) memory of all cached vectors and evicts vectors if necessary.
+     * @param maximumBytes the maximum memory in bytes
+     */
+    public synchronized void setMaximumBytes(long maximumBytes) {
+        this.maximumBytes = maximumBytes;
+        evict();
+    }
+
+    /**
+     * Returns a snapshot of the statistics. The load count is the number of vectors put into the cache.
+     * @return the statistics
+     */
+    public synchronized CacheStatistics getStatistics(){
+        return new CacheStatistics(hitCount, missCount, putCount, 0, 0, evictionCount, vectors.size(), usedBytes);
+    }
+}
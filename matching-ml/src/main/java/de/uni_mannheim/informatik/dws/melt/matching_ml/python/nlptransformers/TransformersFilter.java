@@ -40,6 +40,8 @@ public class TransformersFilter extends TransformersBase implements Filter {
     
     private boolean changeClass;
     private boolean optimizeBatchSize;
+    private boolean streaming;
+    private int streamingChunkSize;
 
     /**
      * Constructor with all required parameters and default values for optional parameters (can be changed by setters).
@@ -56,11 +58,16 @@ public class TransformersFilter extends TransformersBase implements Filter {
         super(extractor, modelName);
         this.changeClass = false;
         this.optimizeBatchSize = false;
+        this.streaming = false;
+        this.streamingChunkSize = 2048;
     }
 
     
     @Override
     public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties properties) throws Exception {
+        if(this.streaming){
+            return matchStreaming(source, target, inputAlignment);
+        }
         File inputFile = FileUtil.createFileWithRandomNumber(this.tmpDir, "alignment_transformers_predict", ".txt");
         Map<Correspondence, List<Integer>> map;
         try{
@@ -99,6 +106,62 @@ public class TransformersFilter extends TransformersBase implements Filter {
         return inputAlignment;
     }
     
+    /**
+     * Streaming version of the match method: the texts are extracted while the already extracted text pairs are predicted
+     * in chunks (see {@link TransformersPredictionPipeline}). No file is written, each distinct text pair is predicted
+     * only once, and the model stays loaded in the python server until the last chunk is predicted.
+     * @param source The source model
+     * @param target The target model
+     * @param inputAlignment the alignment to process.
+     * @return the input alignment with the additional confidences
+     * @throws Exception in case something goes wrong.
+     */
+    private Alignment matchStreaming(OntModel source, OntModel target, Alignment inputAlignment) throws Exception {
+        boolean[] batchSizeOptimized = new boolean[]{!this.optimizeBatchSize};
+        TransformersPredictionPipeline.ChunkPredictor predictor = (textPairs, moreChunksFollow) -> {
+            if(!batchSizeOptimized[0] && !textPairs.isEmpty()){
+                batchSizeOptimized[0] = true;
+                this.trainingArguments.addParameter("per_device_eval_batch_size", getMaximumPerDeviceEvalBatchSize(batchSize -> {
+                    PythonServer.getInstance().transformersPrediction(this, textPairs.subList(0, Math.min(batchSize, textPairs.size())), false);
+                    return textPairs.size() >= batchSize;
+                }));
+            }
+            return PythonServer.getInstance().transformersPrediction(this, textPairs, moreChunksFollow);
+        };
+        try(TransformersPredictionPipeline pipeline = new TransformersPredictionPipeline(predictor, this.streamingChunkSize, this.getClass())){
+            LOGGER.info("Run streaming prediction");
+            for(Correspondence c : inputAlignment){
+                c.addAdditionalConfidence(this.getClass(), 0.0d); // initialize it
+                if(this.multipleTextsToMultipleExamples){
+                    for(String textLeft : this.extractor.extract(source.getResource(c.getEntityOne()))){
+                        if(StringUtils.isBlank(textLeft)){
+                            continue;
+                        }
+                        for(String textRight : this.extractor.extract(target.getResource(c.getEntityTwo()))){
+                            if(StringUtils.isBlank(textRight)){
+                                continue;
+                            }
+                            pipeline.add(c, textLeft, textRight);
+                        }
+                    }
+                }else{
+                    String left = getTextFromResource(source.getResource(c.getEntityOne()));
+                    String right = getTextFromResource(target.getResource(c.getEntityTwo()));
+                    if(StringUtils.isBlank(left) || StringUtils.isBlank(right)){
+                        continue;
+                    }
+                    pipeline.add(c, left, right);
+                }
+            }
+            pipeline.finish();
+            if(pipeline.getNumberOfPairs() == 0){
+                LOGGER.warn("No correspondences have enough text to be processed (the input alignment has {} " +
+                        "correspondences) - the input alignment is returned unchanged.", inputAlignment.size());
+            }
+            LOGGER.info("Finished streaming prediction");
+        }
+        return inputAlignment;
+    }
 
 
     /**
@@ -177,25 +240,40 @@ public class TransformersFilter extends TransformersBase implements Filter {
      * @param trainingFile the training file to use
      * @return the maximum {@code per_device_train_batch_size } with the current configuration
      */
-    private int getMaximumPerDeviceEvalBatchSize(File trainingFile){        
+    private int getMaximumPerDeviceEvalBatchSize(File trainingFile){
+        return getMaximumPerDeviceEvalBatchSize(batchSize -> {
+            //generate a smaller training file -> faster tokenizer
+            File tmpTrainingFile = FileUtil.createFileWithRandomNumber(this.tmpDir, "alignment_transformers_predict_find_max_batch_size", ".txt");
+            try{
+                boolean enoughLines = this.copyCSVLines(trainingFile, tmpTrainingFile, batchSize);
+                PythonServer.getInstance().transformersPrediction(this, tmpTrainingFile);
+                return enoughLines;
+            }finally{
+                tmpTrainingFile.delete();
+            }
+        });
+    }
+    
+    /**
+     * This functions tries out increasing batch sizes (powers of 2 starting with 4) until a memory error occurs.
+     * @param probe runs one prediction with the current training arguments and the given number of examples
+     * @return the maximum {@code per_device_eval_batch_size } with the current configuration
+     */
+    private int getMaximumPerDeviceEvalBatchSize(BatchSizeProbe probe){        
         //save variables for restoring afterwards
         TransformersTrainerArguments backupArguments = this.trainingArguments;
         
         int batchSize = 4;
         while(batchSize < 8193){
             LOGGER.info("Try out batch size of {}", batchSize);
-            //generate a smaller training file -> faster tokenizer
-            
-            File tmpTrainingFile = FileUtil.createFileWithRandomNumber(this.tmpDir, "alignment_transformers_predict_find_max_batch_size", ".txt");
             try{
-                if(this.copyCSVLines(trainingFile, tmpTrainingFile, batchSize) == false){
-                    int batchSizeWhichWorks = batchSize / 2;
-                    LOGGER.info("File contains too few lines to further increase batch size. Thus use now {}", batchSizeWhichWorks);
-                }
                 this.trainingArguments = new TransformersTrainerArguments(backupArguments);
                 this.trainingArguments.addParameter("per_device_eval_batch_size", batchSize);
 
-                PythonServer.getInstance().transformersPrediction(this, tmpTrainingFile);
+                if(probe.predict(batchSize) == false){
+                    int batchSizeWhichWorks = batchSize / 2;
+                    LOGGER.info("File contains too few lines to further increase batch size. Thus use now {}", batchSizeWhichWorks);
+                }
             }catch (PythonServerException ex) {
                 //CUDA ERROR: RuntimeError: CUDA out of memory. Tried to allocate 192.00 MiB (GPU 0; 10.76 GiB total capacity; 9.54 GiB already allocated; 50.56 MiB free; 9.59 GiB reserved in total by PyTorch)
                 //CPU  ERROR: RuntimeError: [enforce fail at ..\c10\core\CPUAllocator.cpp:79] data. DefaultCPUAllocator: not enough memory: you tried to allocate 50878464 bytes.
@@ -217,8 +295,6 @@ public class TransformersFilter extends TransformersBase implements Filter {
                 LOGGER.warn("Something went wrong during getMaximumPerDeviceEvalBatchSize. Return default of 8", ex);
                 this.trainingArguments = backupArguments;
                 return 8;
-            }finally{
-                tmpTrainingFile.delete();
             }
             batchSize *= 2;
         }
@@ -228,6 +304,20 @@ public class TransformersFilter extends TransformersBase implements Filter {
         return batchSize;
     }
 
+    /**
+     * Runs one prediction to check if a batch size works.
+     */
+    @FunctionalInterface
+    private interface BatchSizeProbe {
+        /**
+         * Runs one prediction with the given number of examples.
+         * @param batchSize the batch size which is tried out
+         * @return false if there are fewer examples than the batch size
+         * @throws Exception in case the prediction fails (e.g. due to a memory error)
+         */
+        boolean predict(int batchSize) throws Exception;
+    }
+
     //setter and getter
 
     /**
@@ -268,6 +358,42 @@ public class TransformersFilter extends TransformersBase implements Filter {
     
     
     
+    /**
+     * Return true if the streaming prediction is used.
+     * @return true if the streaming prediction is used.
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * If set to true, the texts are not written to a file. Instead the text pairs are sent in chunks to the python server
+     * while the remaining texts are extracted. Each distinct text pair is predicted only once and the model stays loaded
+     * between the chunks (the multi processing setting is not used in this case).
+     * @param streaming true to use the streaming prediction.
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * Return the maximum number of distinct text pairs which are sent at once in streaming mode.
+     * @return the chunk size
+     */
+    public int getStreamingChunkSize() {
+        return streamingChunkSize;
+    }
+
+    /**
+     * Set the maximum number of distinct text pairs which are sent at once in streaming mode (default 2048).
+     * @param streamingChunkSize the chunk size (at least one)
+     */
+    public void setStreamingChunkSize(int streamingChunkSize) {
+        if(streamingChunkSize < 1)
+            throw new IllegalArgumentException("The chunk size has to be at least one.");
+        this.streamingChunkSize = streamingChunkSize;
+    }
+    
     /**
      * This will enabled or disable all possible optimization to improve prediction speed.
      * Currently this includes mixed precision training and batch size optimization.
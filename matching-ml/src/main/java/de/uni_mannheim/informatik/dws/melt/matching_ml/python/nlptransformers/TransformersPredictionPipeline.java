@@ -0,0 +1,235 @@
+package de.uni_mannheim.informatik.dws.melt.matching_ml.python.nlptransformers;
+
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.javatuples.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Predicts the confidences of text pairs in chunks while the caller still extracts further text pairs.
+ * Each distinct text pair is predicted only once. As soon as the confidences of a chunk arrive, they are added
+ * to the waiting correspondences as additional confidence (the maximum over all text pairs of a correspondence).
+ * <p>
+ * The predictions run in one background thread. The confidences are applied to the correspondences only in the
+ * thread which calls {@link #add(Correspondence, String, String)} and {@link #finish()} - thus this class is not thread safe.
+ * If the run is not finished (e.g. because the extraction of the texts throws an exception), {@link #close()} sends an
+ * empty last chunk such that the predictor can release its resources.
+ */
+public class TransformersPredictionPipeline implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransformersPredictionPipeline.class);
+
+    private final ChunkPredictor predictor;
+    private final int chunkSize;
+    private final Class<?> confidenceKey;
+    private final ExecutorService executor;
+
+    private final Map<Pair<String, String>, Integer> pairIndex;
+    private final List<Double> confidences;
+    private final Map<Integer, List<Correspondence>> waitingCorrespondences;
+    private final Deque<RunningChunk> runningChunks;
+    private List<Pair<String, String>> currentChunk;
+    private int currentChunkStart;
+    private long numberOfPairs;
+    private int numberOfChunks;
+    private boolean moreChunksAnnounced;
+
+    /**
+     * Constructor
+     * @param predictor the function which predicts the confidences of one chunk
+     * @param chunkSize the maximum number of distinct text pairs in one chunk
+     * @param confidenceKey the class which is used as key for the additional confidence
+     */
+    public TransformersPredictionPipeline(ChunkPredictor predictor, int chunkSize, Class<?> confidenceKey) {
+        if(chunkSize < 1)
+            throw new IllegalArgumentException("The chunk size has to be at least one.");
+        this.predictor = predictor;
+        this.chunkSize = chunkSize;
+        this.confidenceKey = confidenceKey;
+        this.executor = Executors.newSingleThreadExecutor();
+        this.pairIndex = new HashMap<>();
+        this.confidences = new ArrayList<>();
+        this.waitingCorrespondences = new HashMap<>();
+        this.runningChunks = new ArrayDeque<>();
+        this.currentChunk = new ArrayList<>();
+        this.currentChunkStart = 0;
+        this.numberOfPairs = 0;
+        this.numberOfChunks = 0;
+        this.moreChunksAnnounced = false;
+    }
+
+    /**
+     * Adds a text pair of the given correspondence. If the text pair was already predicted, the confidence is applied immediately.
+     * @param correspondence the correspondence
+     * @param left the text of the source resource
+     * @param right the text of the target resource
+     * @throws Exception in case the prediction of a chunk failed
+     */
+    public void add(Correspondence correspondence, String left, String right) throws Exception {
+        numberOfPairs++;
+        Pair<String, String> pair = new Pair<>(left, right);
+        Integer index = pairIndex.get(pair);
+        if(index == null){
+            index = confidences.size();
+            pairIndex.put(pair, index);
+            confidences.add(null);
+            currentChunk.add(pair);
+        }
+        Double confidence = confidences.get(index);
+        if(confidence == null){
+            waitingCorrespondences.computeIfAbsent(index, __ -> new ArrayList<>(1)).add(correspondence);
+        }else{
+            correspondence.addAdditionalConfidenceIfHigher(confidenceKey, confidence);
+        }
+        if(currentChunk.size() >= chunkSize){
+            submitChunk(false);
+        }
+        applyFinishedChunks(false);
+    }
+
+    /**
+     * Predicts the remaining text pairs and waits until all confidences are applied.
+     * @throws Exception in case the prediction of a chunk failed
+     */
+    public void finish() throws Exception {
+        //the last chunk is also sent if it is empty, such that the predictor can release its resources
+        if(!currentChunk.isEmpty() || numberOfChunks > 0){
+            submitChunk(true);
+        }
+        applyFinishedChunks(true);
+        LOGGER.info("Predicted {} distinct text pairs (of {} text pairs) in {} chunks.", confidences.size(), numberOfPairs, numberOfChunks);
+    }
+
+    private void submitChunk(boolean lastChunk){
+        List<Pair<String, String>> chunk = currentChunk;
+        RunningChunk running = new RunningChunk(currentChunkStart, chunk.size(),
+                executor.submit(() -> predictor.predict(chunk, !lastChunk)));
+        runningChunks.add(running);
+        numberOfChunks++;
+        moreChunksAnnounced = !lastChunk;
+        currentChunkStart += chunk.size();
+        currentChunk = new ArrayList<>();
+    }
+
+    private void applyFinishedChunks(boolean wait) throws Exception {
+        while(!runningChunks.isEmpty() && (wait || runningChunks.peek().future.isDone())){
+            RunningChunk running = runningChunks.poll();
+            List<Double> chunkConfidences = getResult(running.future);
+            if(chunkConfidences.size() != running.size)
+                throw new IllegalStateException("Got " + chunkConfidences.size() + " confidences for " + running.size + " text pairs.");
+            for(int i = 0; i < running.size; i++){
+                int index = running.start + i;
+                Double confidence = chunkConfidences.get(i);
+                if(confidence == null)
+                    throw new IllegalArgumentException("Could not find a confidence for a given correspondence.");
+                confidences.set(index, confidence);
+                List<Correspondence> waiting = waitingCorrespondences.remove(index);
+                if(waiting != null){
+                    for(Correspondence correspondence : waiting){
+                        correspondence.addAdditionalConfidenceIfHigher(confidenceKey, confidence);
+                    }
+                }
+            }
+        }
+    }
+
+    private static List<Double> getResult(Future<List<Double>> future) throws Exception {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the prediction.", ex);
+        } catch (ExecutionException ex) {
+            if(ex.getCause() instanceof Exception)
+                throw (Exception) ex.getCause();
+            throw new IllegalStateException("Could not run the prediction.", ex.getCause());
+        }
+    }
+
+    /**
+     * Returns the number of text pairs added so far (including duplicates).
+     * @return number of text pairs
+     */
+    public long getNumberOfPairs() {
+        return numberOfPairs;
+    }
+
+    /**
+     * Returns the number of distinct text pairs added so far.
+     * @return number of distinct text pairs
+     */
+    public int getNumberOfDistinctPairs() {
+        return confidences.size();
+    }
+
+    /**
+     * Returns the number of chunks which were sent to the predictor so far.
+     * @return number of chunks
+     */
+    public int getNumberOfChunks() {
+        return numberOfChunks;
+    }
+
+    /**
+     * Stops the background thread. If a chunk was sent which announced more chunks but the last chunk was not sent
+     * (because {@link #finish()} was not called or failed before), the running chunk is awaited and an empty last chunk
+     * is predicted in the calling thread to release the resources of the predictor (e.g. the model in the python server).
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        if(!moreChunksAnnounced)
+            return;
+        moreChunksAnnounced = false;
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            predictor.predict(Collections.emptyList(), false);
+        } catch (Exception ex) {
+            LOGGER.warn("Could not release the resources of the prediction.", ex);
+        }
+    }
+
+    /**
+     * Predicts the confidences of one chunk of text pairs.
+     */
+    @FunctionalInterface
+    public interface ChunkPredictor {
+        /**
+         * Predicts the confidences.
+         * @param textPairs the text pairs (left and right text)
+         * @param moreChunksFollow true if more chunks of the same run follow (e.g. to keep the model loaded).
+         *                         The last chunk might be empty.
+         * @return the confidences in the order of the text pairs
+         * @throws Exception in case something goes wrong
+         */
+        List<Double> predict(List<Pair<String, String>> textPairs, boolean moreChunksFollow) throws Exception;
+    }
+
+    private static class RunningChunk {
+        private final int start;
+        private final int size;
+        private final Future<List<Double>> future;
+
+        RunningChunk(int start, int size, Future<List<Double>> future) {
+            this.start = start;
+            this.size = size;
+            this.future = future;
+        }
+    }
+}
@@ -1,4 +1,4 @@
-from flask import Flask, request, jsonify
+from flask import Flask, request, jsonify, Response
 from gensim import corpora, models, similarities, matutils
 from scipy import linalg
 from scipy.special import softmax
@@ -13,6 +13,7 @@ from pkg_resources import DistributionNotFound
 import pathlib
 import tempfile
 import re
+import struct
 from datetime import datetime
 
 logging.basicConfig(
@@ -338,6 +339,99 @@ def get_vector_given_model():
     return result[1:]
 
 
+def __is_in_vocab(vectors, concept):
+    if hasattr(vectors, "key_to_index"):
+        return concept in vectors.key_to_index
+    return concept in vectors.vocab
+
+
+@app.route("/get-vectors-batch", methods=["POST"])
+def get_vectors_batch():
+    """Returns the vectors of all concepts in the JSON body ({"concepts": [...]}) as binary payload (little endian):
+    int32 number of concepts, int32 dimension, one byte per concept (1 if in vocabulary, else 0)
+    and then the float32 vectors of all concepts which are in the vocabulary (in the order of the request).
+    """
+    try:
+        vectors = get_vectors(
+            model_path=request.headers.get("model_path"),
+            vector_path=request.headers.get("vector_path"),
+        )
+        concepts = request.get_json()["concepts"]
+        found = [__is_in_vocab(vectors, concept) for concept in concepts]
+        dimension = vectors.vector_size
+        payload = bytearray(struct.pack("<ii", len(concepts), dimension))
+        payload += bytes(1 if f else 0 for f in found)
+        rows = [vectors[concept] for concept, f in zip(concepts, found) if f]
+        if len(rows) > 0:
+            payload += np.asarray(rows, dtype="<f4").tobytes()
+        return Response(bytes(payload), mimetype="application/octet-stream")
+    except Exception as e:
+        return "ERROR! " + str(e)
+
+
+@app.route("/get-similarities-batch", methods=["POST"])
+def get_similarities_batch():
+    """Returns the cosine similarities of all pairs in the JSON body ({"pairs": [[a, b], ...]}) as little endian
+    float64 array (NaN if one of the concepts is not in the vocabulary).
+    """
+    try:
+        vectors = get_vectors(
+            model_path=request.headers.get("model_path"),
+            vector_path=request.headers.get("vector_path"),
+        )
+        pairs = request.get_json()["pairs"]
+        result = np.full(len(pairs), np.nan, dtype="<f8")
+        for i, (one, two) in enumerate(pairs):
+            if __is_in_vocab(vectors, one) and __is_in_vocab(vectors, two):
+                result[i] = vectors.similarity(one, two)
+        return Response(result.tobytes(), mimetype="application/octet-stream")
+    except Exception as e:
+        return "ERROR! " + str(e)
+
+
+@app.route("/are-in-vocabulary-batch", methods=["POST"])
+def are_in_vocabulary_batch():
+    """Returns one byte per concept in the JSON body ({"concepts": [...]}): 1 if in vocabulary, else 0."""
+    try:
+        vectors = get_vectors(
+            model_path=request.headers.get("model_path"),
+            vector_path=request.headers.get("vector_path"),
+        )
+        concepts = request.get_json()["concepts"]
+        payload = bytes(1 if __is_in_vocab(vectors, concept) else 0 for concept in concepts)
+        return Response(payload, mimetype="application/octet-stream")
+    except Exception as e:
+        return "ERROR! " + str(e)
+
+
+@app.route("/write-vectors-binary", methods=["GET"])
+def write_vectors_binary():
+    """Writes all vectors of the model as little endian float32 matrix (file_path) and the vocabulary
+    (vocabulary_path, first line: number of vectors and dimension, then one concept per line as JSON string in the order of the matrix).
+    The files are used by the Java side to memory map the vectors.
+
+    Returns
+    -------
+        'True' as string if operation was successful, else an error message.
+    """
+    try:
+        model_path = request.headers.get("model_path")
+        vector_path = request.headers.get("vector_path")
+        file_path = request.headers.get("file_path")
+        vocabulary_path = request.headers.get("vocabulary_path")
+        vectors = get_vectors(model_path=model_path, vector_path=vector_path)
+        words = vectors.index_to_key if hasattr(vectors, "index_to_key") else vectors.index2word
+        matrix = np.asarray(vectors.vectors, dtype="<f4")
+        matrix.tofile(file_path)
+        with open(vocabulary_path, "w", encoding="utf-8", newline="\n") as vocabulary_file:
+            vocabulary_file.write(str(matrix.shape[0]) + " " + str(matrix.shape[1]))
+            for word in words:
+                vocabulary_file.write("\n" + json.dumps(word, ensure_ascii=False))
+        return "True"
+    except Exception as e:
+        return "ERROR! " + str(e)
+
+
 # Doc2vec models
 
 
@@ -1587,6 +1681,89 @@ def transformers_prediction():
         return jsonify(result)
 
 
+# tokenizer and trainer of the streaming prediction which are kept loaded between the chunks of one run
+transformers_streaming_predictor = {}
+
+
+def transformers_release_streaming_predictor():
+    tmp_dir = transformers_streaming_predictor.get("tmp_dir")
+    transformers_streaming_predictor.clear()
+    if tmp_dir is not None:
+        tmp_dir.cleanup()
+    try:
+        import torch
+        if torch.cuda.is_available():
+            torch.cuda.empty_cache()
+    except ImportError:
+        pass
+
+
+def transformers_get_streaming_predictor(request_headers):
+    key = (request_headers["model-name"], request_headers["using-tf"], request_headers["training-arguments"])
+    if transformers_streaming_predictor.get("key") == key:
+        return transformers_streaming_predictor["tokenizer"], transformers_streaming_predictor["trainer"]
+    transformers_release_streaming_predictor()
+    transformers_init(request_headers)
+
+    model_name = request_headers["model-name"]
+    using_tensorflow = request_headers["using-tf"].lower() == "true"
+    training_arguments = json.loads(request_headers["training-arguments"])
+
+    from transformers import AutoTokenizer
+    tokenizer = AutoTokenizer.from_pretrained(model_name)
+
+    tmp_dir = tempfile.TemporaryDirectory(dir=request_headers["tmp-dir"])
+    initial_arguments = {
+        'report_to': 'none',
+    }
+    fixed_arguments = {
+        'output_dir': os.path.join(tmp_dir.name, "trainer_output_dir")
+    }
+    training_args = transformers_get_training_arguments(using_tensorflow, initial_arguments, training_arguments, fixed_arguments)
+
+    app.logger.info("Loading transformers model for streaming prediction")
+    if using_tensorflow:
+        from transformers import TFTrainer, TFAutoModelForSequenceClassification
+        with training_args.strategy.scope():
+            model = TFAutoModelForSequenceClassification.from_pretrained(model_name, num_labels=2)
+        trainer = TFTrainer(model=model, tokenizer=tokenizer, args=training_args)
+    else:
+        from transformers import Trainer, AutoModelForSequenceClassification
+        model = AutoModelForSequenceClassification.from_pretrained(model_name, num_labels=2)
+        trainer = Trainer(model=model, tokenizer=tokenizer, args=training_args)
+
+    transformers_streaming_predictor.update(key=key, tokenizer=tokenizer, trainer=trainer, tmp_dir=tmp_dir)
+    return tokenizer, trainer
+
+
+@app.route("/transformers-prediction-stream", methods=["POST"])
+def transformers_prediction_stream():
+    """Predicts the text pairs in the JSON body ({"pairs": [[left, right], ...]}) and returns the confidences
+    as little endian float64 array. The model is loaded in the server process (the multi-processing header is not used)
+    and is kept loaded for the next chunk if the header keep-model-loaded is true.
+    """
+    request_headers = dict(request.headers.items(lower=True))
+    try:
+        pairs = request.get_json()["pairs"]
+        scores = np.zeros(len(pairs), dtype="<f8")
+        if len(pairs) > 0:
+            tokenizer, trainer = transformers_get_streaming_predictor(request_headers)
+            using_tensorflow = request_headers["using-tf"].lower() == "true"
+            change_class = request_headers["change-class"].lower() == "true"
+            predict_dataset = transformers_create_dataset(using_tensorflow, tokenizer,
+                                                          [pair[0] for pair in pairs], [pair[1] for pair in pairs])
+            pred_out = trainer.predict(predict_dataset)
+            class_index = 0 if change_class else 1
+            scores = softmax(pred_out.predictions, axis=1)[:, class_index].astype("<f8")
+        if request_headers.get("keep-model-loaded", "false").lower() != "true":
+            transformers_release_streaming_predictor()
+        return Response(scores.tobytes(), mimetype="application/octet-stream")
+    except Exception as e:
+        transformers_release_streaming_predictor()
+        import traceback
+        return "ERROR " + traceback.format_exc()
+
+
 def inner_transformers_finetuning(request_headers):
     try:
         transformers_init(request_headers)
@@ -0,0 +1,34 @@
+package de.uni_mannheim.informatik.dws.melt.matching_ml.python;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PythonServerVectorBatchTest {
+
+    @Test
+    void testParseVectorBatch() throws PythonServerException {
+        List<String> concepts = Arrays.asList("one", "missing", "two");
+        ByteBuffer buffer = ByteBuffer.allocate(8 + 3 + 2 * 2 * 4).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(3).putInt(2);
+        buffer.put((byte) 1).put((byte) 0).put((byte) 1);
+        buffer.putFloat(1.0f).putFloat(2.0f).putFloat(-3.5f).putFloat(0.25f);
+        buffer.flip();
+
+        Map<String, float[]> vectors = PythonServer.parseVectorBatch(concepts, buffer);
+        assertEquals(2, vectors.size());
+        assertArrayEquals(new float[]{1.0f, 2.0f}, vectors.get("one"));
+        assertArrayEquals(new float[]{-3.5f, 0.25f}, vectors.get("two"));
+        assertFalse(vectors.containsKey("missing"));
+
+        ByteBuffer tooShort = ByteBuffer.allocate(8 + 3 + 4).order(ByteOrder.LITTLE_ENDIAN);
+        tooShort.putInt(3).putInt(2).put((byte) 1).put((byte) 0).put((byte) 1).putFloat(1.0f);
+        tooShort.flip();
+        assertThrows(PythonServerException.class, () -> PythonServer.parseVectorBatch(concepts, tooShort));
+        assertThrows(PythonServerException.class, () -> PythonServer.parseVectorBatch(Arrays.asList("one"), ByteBuffer.wrap(new byte[]{3, 0, 0, 0, 2, 0, 0, 0})));
+    }
+}
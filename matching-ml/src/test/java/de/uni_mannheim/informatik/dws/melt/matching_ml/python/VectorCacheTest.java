@@ -0,0 +1,88 @@
+package de.uni_mannheim.informatik.dws.melt.matching_ml.python;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.CacheStatistics;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+class VectorCacheTest {
+
+    @Test
+    void testEviction() {
+        VectorCache cache = new VectorCache(1200);
+        cache.put("a", new float[100]);
+        cache.put("b", new float[100]);
+        assertNotNull(cache.getIfPresent("a")); // a is now more recently used than b
+        cache.put("c", new float[100]);
+        assertNotNull(cache.getIfPresent("a"));
+        assertNull(cache.getIfPresent("b"));
+        assertNotNull(cache.getIfPresent("c"));
+        assertTrue(cache.getMemoryUsage() <= 1200);
+
+        cache.put("missing", null);
+        assertSame(VectorCache.NOT_IN_VOCABULARY, cache.getIfPresent("missing"));
+
+        CacheStatistics statistics = cache.getStatistics();
+        assertEquals(1, statistics.getEvictionCount());
+        assertEquals(4, statistics.getLoadCount());
+        assertEquals(1, statistics.getMissCount());
+
+        cache.setMaximumBytes(0);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getMemoryUsage());
+    }
+
+    @Test
+    void testCosineSimilarity() {
+        Random random = new Random(42);
+        for (int length : new int[]{1, 3, 4, 7, 100, 301}) {
+            float[] one = new float[length];
+            float[] two = new float[length];
+            Double[] oneBoxed = new Double[length];
+            Double[] twoBoxed = new Double[length];
+            for (int i = 0; i < length; i++) {
+                one[i] = random.nextFloat() - 0.5f;
+                two[i] = random.nextFloat() - 0.5f;
+                oneBoxed[i] = (double) one[i];
+                twoBoxed[i] = (double) two[i];
+            }
+            assertEquals(PythonServer.cosineSimilarity(oneBoxed, twoBoxed), PythonServer.cosineSimilarity(one, two), 1e-9);
+            assertEquals(1.0, PythonServer.cosineSimilarity(one, one), 1e-9);
+        }
+    }
+
+    @Test
+    void testMappedVectorFile(@TempDir Path tempDir) throws IOException {
+        Map<String, float[]> vectors = new LinkedHashMap<>();
+        vectors.put("Europe", new float[]{1.0f, 2.0f, 3.0f});
+        vectors.put("Germany", new float[]{1.0f, 2.0f, 2.5f});
+        vectors.put("Ümlaut concept", new float[]{-1.0f, 0.0f, 0.5f});
+        vectors.put("line\nbreak \"quoted\"\r\n", new float[]{0.5f, 0.5f, 0.5f});
+        File vectorFile = tempDir.resolve("test.vectors").toFile();
+        File vocabularyFile = tempDir.resolve("test.vocab").toFile();
+        MappedVectorFile.write(vectors, vectorFile, vocabularyFile);
+
+        MappedVectorFile mapped = new MappedVectorFile(vectorFile, vocabularyFile);
+        assertEquals(4, mapped.size());
+        assertEquals(3, mapped.getDimension());
+        assertTrue(mapped.contains("Ümlaut concept"));
+        assertArrayEquals(vectors.get("line\nbreak \"quoted\"\r\n"), mapped.getVector("line\nbreak \"quoted\"\r\n"));
+        assertFalse(mapped.contains("China"));
+        assertNull(mapped.getVector("China"));
+        assertArrayEquals(vectors.get("Germany"), mapped.getVector("Germany"));
+        assertEquals(PythonServer.cosineSimilarity(vectors.get("Europe"), vectors.get("Germany")), mapped.getSimilarity("Europe", "Germany"), 1e-9);
+        assertEquals(-1.0, mapped.getSimilarity("Europe", "China"));
+        assertEquals(vectors.keySet(), mapped.getVocabulary());
+
+        //vocabulary does not fit to the vectors
+        vectors.remove("Europe");
+        MappedVectorFile.write(vectors, tempDir.resolve("other.vectors").toFile(), vocabularyFile);
+        assertThrows(IOException.class, () -> new MappedVectorFile(vectorFile, vocabularyFile));
+    }
+}
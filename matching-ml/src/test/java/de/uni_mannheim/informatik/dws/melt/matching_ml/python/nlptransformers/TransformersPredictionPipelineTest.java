@@ -0,0 +1,154 @@
+package de.uni_mannheim.informatik.dws.melt.matching_ml.python.nlptransformers;
+
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.javatuples.Pair;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransformersPredictionPipelineTest {
+
+    /**
+     * Confidence of a text pair: length of the left text divided by 10.
+     */
+    private static List<Double> predict(List<Pair<String, String>> textPairs){
+        List<Double> confidences = new ArrayList<>();
+        for(Pair<String, String> pair : textPairs){
+            confidences.add(pair.getValue0().length() / 10.0);
+        }
+        return confidences;
+    }
+
+    @Test
+    void testDeduplicationAndMaximum() throws Exception {
+        List<Integer> chunkSizes = Collections.synchronizedList(new ArrayList<>());
+        List<Boolean> moreChunks = Collections.synchronizedList(new ArrayList<>());
+        Correspondence one = new Correspondence("http://source/one", "http://target/one");
+        Correspondence two = new Correspondence("http://source/two", "http://target/two");
+        Correspondence three = new Correspondence("http://source/three", "http://target/three");
+        try(TransformersPredictionPipeline pipeline = new TransformersPredictionPipeline((textPairs, moreChunksFollow) -> {
+            chunkSizes.add(textPairs.size());
+            moreChunks.add(moreChunksFollow);
+            return predict(textPairs);
+        }, 2, TransformersFilter.class)){
+            pipeline.add(one, "a", "x");
+            pipeline.add(one, "abc", "x");
+            pipeline.add(two, "a", "x");
+            pipeline.add(two, "ab", "y");
+            pipeline.add(three, "abc", "x");
+            pipeline.finish();
+
+            assertEquals(5, pipeline.getNumberOfPairs());
+            assertEquals(3, pipeline.getNumberOfDistinctPairs());
+            assertEquals(2, pipeline.getNumberOfChunks());
+        }
+        assertEquals(0.3, one.getAdditionalConfidence(TransformersFilter.class), 0.0001);
+        assertEquals(0.2, two.getAdditionalConfidence(TransformersFilter.class), 0.0001);
+        assertEquals(0.3, three.getAdditionalConfidence(TransformersFilter.class), 0.0001);
+        assertEquals(3, chunkSizes.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(false, moreChunks.get(moreChunks.size() - 1));
+        assertEquals(true, moreChunks.get(0));
+    }
+
+    @Test
+    void testLastChunkIsSentEvenIfEmpty() throws Exception {
+        List<Boolean> moreChunks = Collections.synchronizedList(new ArrayList<>());
+        try(TransformersPredictionPipeline pipeline = new TransformersPredictionPipeline((textPairs, moreChunksFollow) -> {
+            moreChunks.add(moreChunksFollow);
+            return predict(textPairs);
+        }, 1, TransformersFilter.class)){
+            pipeline.add(new Correspondence("http://source/one", "http://target/one"), "a", "b");
+            pipeline.finish();
+        }
+        assertEquals(2, moreChunks.size());
+        assertEquals(true, moreChunks.get(0));
+        assertEquals(false, moreChunks.get(1));
+
+        //nothing is sent if there are no text pairs at all
+        moreChunks.clear();
+        try(TransformersPredictionPipeline pipeline = new TransformersPredictionPipeline((textPairs, moreChunksFollow) -> {
+            moreChunks.add(moreChunksFollow);
+            return predict(textPairs);
+        }, 1, TransformersFilter.class)){
+            pipeline.finish();
+        }
+        assertTrue(moreChunks.isEmpty());
+    }
+
+    @Test
+    void testPredictionRunsWhileTextsAreAdded() throws Exception {
+        CountDownLatch secondChunkStarted = new CountDownLatch(1);
+        boolean[] overlapped = new boolean[]{false};
+        try(TransformersPredictionPipeline pipeline = new TransformersPredictionPipeline((textPairs, moreChunksFollow) -> {
+            if(textPairs.size() == 10 && textPairs.get(0).getValue0().equals("text0")){
+                //the first chunk waits until the caller adds texts of the second chunk
+                overlapped[0] = secondChunkStarted.await(10, TimeUnit.SECONDS);
+            }
+            return predict(textPairs);
+        }, 10, TransformersFilter.class)){
+            List<Correspondence> correspondences = new ArrayList<>();
+            for(int i = 0; i < 15; i++){
+                Correspondence c = new Correspondence("http://source/" + i, "http://target/" + i);
+                correspondences.add(c);
+                pipeline.add(c, "text" + i, "other");
+                if(i == 10)
+                    secondChunkStarted.countDown();
+            }
+            pipeline.finish();
+            for(Correspondence c : correspondences){
+                assertNotNull(c.getAdditionalConfidence(TransformersFilter.class));
+            }
+        }
+        assertTrue(overlapped[0]);
+    }
+
+    @Test
+    void testResourcesAreReleasedIfExtractionFails() throws Exception {
+        List<Integer> chunkSizes = Collections.synchronizedList(new ArrayList<>());
+        List<Boolean> moreChunks = Collections.synchronizedList(new ArrayList<>());
+        assertThrows(IllegalStateException.class, () -> {
+            try(TransformersPredictionPipeline pipeline = new TransformersPredictionPipeline((textPairs, moreChunksFollow) -> {
+                chunkSizes.add(textPairs.size());
+                moreChunks.add(moreChunksFollow);
+                return predict(textPairs);
+            }, 2, TransformersFilter.class)){
+                pipeline.add(new Correspondence("http://source/one", "http://target/one"), "a", "b");
+                pipeline.add(new Correspondence("http://source/two", "http://target/two"), "ab", "b");
+                pipeline.add(new Correspondence("http://source/three", "http://target/three"), "abc", "b");
+                throw new IllegalStateException("extraction failed");
+            }
+        });
+        assertEquals(Arrays.asList(2, 0), chunkSizes);
+        assertEquals(Arrays.asList(true, false), moreChunks);
+
+        //nothing is released after a finished run
+        moreChunks.clear();
+        try(TransformersPredictionPipeline pipeline = new TransformersPredictionPipeline((textPairs, moreChunksFollow) -> {
+            moreChunks.add(moreChunksFollow);
+            return predict(textPairs);
+        }, 1, TransformersFilter.class)){
+            pipeline.add(new Correspondence("http://source/one", "http://target/one"), "a", "b");
+            pipeline.finish();
+        }
+        assertEquals(Arrays.asList(true, false), moreChunks);
+    }
+
+    @Test
+    void testErrorsArePropagated() {
+        try(TransformersPredictionPipeline pipeline = new TransformersPredictionPipeline((textPairs, moreChunksFollow) -> {
+            throw new IllegalStateException("prediction failed");
+        }, 1, TransformersFilter.class)){
+            Exception ex = assertThrows(IllegalStateException.class, () -> {
+                pipeline.add(new Correspondence("http://source/one", "http://target/one"), "a", "b");
+                pipeline.finish();
+            });
+            assertEquals("prediction failed", ex.getMessage());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new TransformersPredictionPipeline((textPairs, moreChunksFollow) -> predict(textPairs), 0, TransformersFilter.class));
+    }
+}
@@ -1,9 +1,9 @@
 package de.uni_mannheim.informatik.dws.melt.matching_owlapi;
 
+import de.uni_mannheim.informatik.dws.melt.matching_base.CacheStatistics;
+import de.uni_mannheim.informatik.dws.melt.matching_base.WeightedLoadingCache;
 import java.io.File;
 import java.net.URL;
-import java.util.HashMap;
-import java.util.Map;
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.MissingImportHandlingStrategy;
@@ -22,9 +22,16 @@ public class OntologyCacheOwlApi {
     private static final Logger LOGGER = LoggerFactory.getLogger(OntologyCacheOwlApi.class);
 
     /**
-     * The internal cache for ontologies that is dependent on the OntModelSpec.
+     * Rough estimate of the number of bytes which one axiom needs in memory.
      */
-    private static Map<String, OWLOntology> ontologyCache = new HashMap<>();
+    private static final long ESTIMATED_BYTES_PER_AXIOM = 500;
+
+    /**
+     * The internal cache for ontologies. The weight of an ontology is the number of axioms.
+     * By default, at most half of the maximum heap is used for cached ontologies.
+     */
+    private static final WeightedLoadingCache<String, OWLOntology> ontologyCache = new WeightedLoadingCache<>(
+            Runtime.getRuntime().maxMemory() / 2 / ESTIMATED_BYTES_PER_AXIOM, OWLOntology::getAxiomCount);
 
     /**
      * This flag indicates whether the cache is to be used (i.e., ontologies are held in memory).
@@ -37,21 +44,13 @@ public class OntologyCacheOwlApi {
      * @param useCache Indicates whether the cache shall be used. If set to false, ontologies will not be held in memory but re-read every time time.
      * @return OntModel reference.
      */
-    public static synchronized OWLOntology get(String uri, boolean useCache) {
-        if (useCache) {
-            OWLOntology model = ontologyCache.get(uri);            
-            if (model == null) {
+    public static OWLOntology get(String uri, boolean useCache) {
+        if (useCache && !isDeactivatedCache) {
+            return ontologyCache.get(uri, key -> {
                 // model not found in cache → read, put it there and return
                 LOGGER.info("Reading model into cache (" + uri + ")");
-                model = readOWLOntology(uri);
-                if(!isDeactivatedCache) {
-                    ontologyCache.put(uri, model);
-                }
-                return model;                
-            } else {
-                LOGGER.info("Returning model from cache.");
-                return model;
-            }
+                return readOWLOntology(uri);
+            });
         } else {
             // → do not use cache
             // plain vanilla case: read ontology and return
@@ -109,7 +108,33 @@ public class OntologyCacheOwlApi {
      * Empties the cache.
      */
     public static void emptyCache() {
-        ontologyCache = new HashMap<>();
+        ontologyCache.invalidateAll();
+    }
+    
+    /**
+     * Returns the statistics of the cache like hits, misses, load time and evictions.
+     * @return the cache statistics
+     */
+    public static CacheStatistics getStatistics() {
+        return ontologyCache.getStatistics();
+    }
+    
+    /**
+     * Returns the maximum number of axioms which are held in the cache.
+     * @return maximum number of axioms
+     */
+    public static long getMaximumAxioms() {
+        return ontologyCache.getMaximumWeight();
+    }
+    
+    /**
+     * Sets the maximum number of axioms (sum over all cached ontologies) which are held in the cache.
+     * If it is exceeded, the least recently used ontologies are removed from the cache.
+     * The default is derived from the maximum heap size.
+     * @param maximumAxioms maximum number of axioms
+     */
+    public static void setMaximumAxioms(long maximumAxioms) {
+        ontologyCache.setMaximumWeight(maximumAxioms);
     }
 
     /**
@@ -1,10 +1,6 @@
 package de.uni_mannheim.informatik.dws.melt.receiver_http;
 
 import de.uni_mannheim.informatik.dws.melt.matching_base.receiver.MainMatcherClassExtractor;
-import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.AlignmentAndParameters;
-import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.GenericMatcherCaller;
-import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTransformationException;
-import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTransformerRegistry;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -15,9 +11,13 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.rmi.ServerException;
+import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
+import java.util.ArrayList;
 import java.util.EnumSet;
-import java.util.logging.Level;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import javax.servlet.DispatcherType;
 import javax.servlet.MultipartConfigElement;
 import javax.servlet.ServletException;
@@ -31,7 +31,7 @@ import org.eclipse.jetty.servlet.FilterHolder;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
 import org.eclipse.jetty.servlets.QoSFilter;
-import org.eclipse.jetty.util.resource.Resource;
+import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,9 +47,19 @@ public class Main {
         //Thread.sleep(20000);
         //curl -F 'source=@cmt.rdf' -F 'target=@conference.rdf' -d "param1=value1" http://127.0.0.1:8080/match
         
+        //async API:
+        //curl -F 'source=@cmt.rdf' -F 'target=@conference.rdf' http://127.0.0.1:8080/jobs -> {"id": "..."}
+        //curl http://127.0.0.1:8080/jobs/<id>  and  curl "http://127.0.0.1:8080/jobs/<id>/result?wait=60"
+        
         //parameters:
         int port = getPort();
         int maxParallelRequests = getMaxParallelRequests();
+        int maxQueuedJobs = getIntFromEnvironment("MELT_MAX_QUEUED_JOBS", 100);
+        int maxFinishedJobs = getIntFromEnvironment("MELT_MAX_FINISHED_JOBS", 1000);
+        boolean reuseMatcher = !"false".equalsIgnoreCase(System.getenv("MELT_REUSE_MATCHER"));
+        
+        MatchingJobManager jobManager = new MatchingJobManager(
+                createMatcherPool(maxParallelRequests, reuseMatcher), maxParallelRequests, maxQueuedJobs, maxFinishedJobs);
        
         Server server = new Server(port);
         
@@ -70,16 +80,24 @@ public class Main {
         //https://stackoverflow.com/questions/39011587/jetty-default-servlet-context-path
         
         //first servlet which takes care about the match method and run the actual matcher
-        ServletHolder uploadHolder = context.addServlet(MatcherServlet.class, "/match");
+        ServletHolder uploadHolder = new ServletHolder(new MatcherServlet(jobManager));
+        context.addServlet(uploadHolder, "/match");
         //the last number which is one means that all files are written on disk and that no in memory caching applies
         uploadHolder.getRegistration().setMultipartConfig(new MultipartConfigElement(LOCATION.getAbsolutePath(), -1, -1, 1));
+        
+        //asynchronous API: submit a job, poll its state and get the result
+        ServletHolder jobHolder = new ServletHolder(new JobServlet(jobManager));
+        context.addServlet(jobHolder, "/jobs/*");
+        jobHolder.getRegistration().setMultipartConfig(new MultipartConfigElement(LOCATION.getAbsolutePath(), -1, -1, 1));
+        
+        context.addServlet(new ServletHolder(new MetricsServlet(jobManager)), "/metrics");
 
         //default servlet for mapping the index / welcome page
         ServletHolder holderPwd = new ServletHolder("default", DefaultServlet.class);
         holderPwd.setInitParameter("dirAllowed","false");
         context.addServlet(holderPwd,"/");
         
-        LOGGER.info("Matching service runs at: http://localhost:{}/match", port);
+        LOGGER.info("Matching service runs at: http://localhost:{}/match (async: /jobs, metrics: /metrics)", port);
         
         server.start();
         server.join();
@@ -98,79 +116,238 @@ public class Main {
         }
     }
 
+    /**
+     * Creates the pool of matcher instances.
+     * @param size number of instances
+     * @param reuse true if the instances should be reused for all jobs
+     * @return the pool or null if the matcher can not be loaded
+     */
+    private static MatcherPool createMatcherPool(int size, boolean reuse){
+        String mainClass;
+        try {
+            mainClass = MainMatcherClassExtractor.extractMainClass();
+        } catch (IOException ex) {
+            LOGGER.error("Could not extract Main class name. All matching requests will fail." + ex.getMessage());
+            return null;
+        }
+        //mainClass = "de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.elementlevel.BaselineStringMatcher";
+        try {
+            return new MatcherPool(mainClass, size, reuse);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            LOGGER.error("Could not instantiate the matcher class {}. All matching requests will fail.", mainClass, ex);
+            return null;
+        }
+    }
+
+    /**
+     * Synchronous match: the request returns when the alignment is computed.
+     */
     public static class MatcherServlet extends HttpServlet {
 
         private static final long serialVersionUID = 1L;
+        
+        private final transient MatchingJobManager jobManager;
+
+        public MatcherServlet(MatchingJobManager jobManager) {
+            this.jobManager = jobManager;
+        }
 
         @Override
         protected void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
-            // we expect a source and a target
-            if(isMultipartContent(request)){
-                LOGGER.info("Got multipart request - start matching");
-                Part source = request.getPart("source");            
-                if(source == null){
-                    throw new ServerException("No multipart parameter source");
-                }
-                Part target = request.getPart("target");
-                if(target == null){
-                    throw new ServerException("No multipart parameter target");
-                }
-                Part inputAlignment = request.getPart("inputAlignment");
-                Part parameters = request.getPart("parameters");
-                
-                File sourceFile = getFile(source, "source");
-                File targetFile = getFile(target, "target");
-                File inputAlignmentFile = getFile(inputAlignment, "inputAlignment");
-                File parametersFile = getFile(parameters, "parameters");
-                
-                URL inputAlignmentURL = null;
-                if(inputAlignmentFile != null)
-                    inputAlignmentURL = inputAlignmentFile.toURI().toURL();
-                
-                URL parametersURL = null;
-                if(parametersFile != null)
-                    parametersURL = parametersFile.toURI().toURL();
-                    
-                URL resultURL = runTool(sourceFile.toURI().toURL(), targetFile.toURI().toURL(), inputAlignmentURL, parametersURL);
-                
-                sourceFile.delete();
-                targetFile.delete();
-                if(inputAlignmentFile != null)
-                    inputAlignmentFile.delete();
-                if(parametersFile != null)
-                    parametersFile.delete();
-                
-                if(resultURL != null){
+            boolean multipart = isMultipartContent(request);
+            MatchingJob job = createJob(request);
+            try{
+                this.jobManager.submit(job);
+            }catch(RejectedExecutionException ex){
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "The job queue is full.");
+                return;
+            }
+            try {
+                job.await(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("Interrupted while waiting for the matcher.", ex);
+            }
+            URL resultURL = job.getResult();
+            if(resultURL != null){
+                if(multipart){
                     sendFileContent(resultURL, response);
+                }else{
+                    response.getWriter().write(resultURL.toString());
                 }
-            }else{
-                LOGGER.info("Got URL request - start matching");
-                String sourceParam = request.getParameter("source");
-                if(sourceParam == null ){
-                    throw new ServerException("No parameter source");
-                }
-                String targetParam = request.getParameter("target");
-                if(targetParam == null ){
-                    throw new ServerException("No parameter target");
+            }
+        }
+    }
+    
+    /**
+     * Asynchronous API:
+     * <ul>
+     * <li>POST /jobs with the same parameters as /match returns the job id (202 Accepted)</li>
+     * <li>GET /jobs/{id} returns the state and timings of the job</li>
+     * <li>GET /jobs/{id}/result returns the alignment as soon as it is computed; the optional parameter wait
+     * defines how many seconds the request waits for the result (default 0, returns 202 if not finished)</li>
+     * </ul>
+     */
+    public static class JobServlet extends HttpServlet {
+
+        private static final long serialVersionUID = 1L;
+        
+        private final transient MatchingJobManager jobManager;
+
+        public JobServlet(MatchingJobManager jobManager) {
+            this.jobManager = jobManager;
+        }
+
+        @Override
+        protected void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+            String pathInfo = request.getPathInfo();
+            if(pathInfo != null && !pathInfo.equals("/")){
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            MatchingJob job = createJob(request);
+            try{
+                this.jobManager.submit(job);
+            }catch(RejectedExecutionException ex){
+                writeJson(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, job.toJson());
+                return;
+            }
+            response.setHeader("Location", request.getContextPath() + "/jobs/" + job.getId());
+            writeJson(response, HttpServletResponse.SC_ACCEPTED, job.toJson());
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+            String pathInfo = request.getPathInfo();
+            if(pathInfo == null || pathInfo.length() <= 1){
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            String[] pathElements = pathInfo.substring(1).split("/");
+            MatchingJob job = this.jobManager.getJob(pathElements[0]);
+            if(job == null || pathElements.length > 2 || (pathElements.length == 2 && !pathElements[1].equals("result"))){
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            if(pathElements.length == 1){
+                writeJson(response, HttpServletResponse.SC_OK, job.toJson());
+                return;
+            }
+            long waitSeconds = 0;
+            String wait = request.getParameter("wait");
+            if(wait != null){
+                try{
+                    waitSeconds = Long.parseLong(wait);
+                }catch(NumberFormatException ex){
+                    response.sendError(HttpServletResponse.SC_BAD_REQUEST, "The parameter wait has to be a number of seconds.");
+                    return;
                 }
-                URL inputAlignment = null;
-                String inputAlignmentStr = request.getParameter("inputAlignment");
-                if(inputAlignmentStr != null)
-                    inputAlignment = new URL(inputAlignmentStr);
-                
-                URL parameters = null;
-                String parametersStr = request.getParameter("parameters");
-                if(parametersStr != null)
-                    parameters = new URL(parametersStr);
-                        
-                URL resultURL = runTool(new URL(sourceParam), new URL(targetParam), inputAlignment, parameters);
-                
-                if(resultURL != null)
-                    response.getWriter().write(resultURL.toString());
+            }
+            try {
+                job.await(waitSeconds, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("Interrupted while waiting for the job.", ex);
+            }
+            if(!job.isDone()){
+                writeJson(response, HttpServletResponse.SC_ACCEPTED, job.toJson());
+            }else if(job.getResult() == null){
+                writeJson(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, job.toJson());
+            }else if("file".equals(job.getResult().getProtocol())){
+                sendFileContent(job.getResult(), response);
+            }else{
+                response.getWriter().write(job.getResult().toString());
             }
         }
     }
     
+    /**
+     * Returns the queue depth, matcher pool usage and the timings of the jobs as JSON.
+     */
+    public static class MetricsServlet extends HttpServlet {
+
+        private static final long serialVersionUID = 1L;
+        
+        private final transient MatchingJobManager jobManager;
+
+        public MetricsServlet(MatchingJobManager jobManager) {
+            this.jobManager = jobManager;
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+            writeJson(response, HttpServletResponse.SC_OK, this.jobManager.getMetrics());
+        }
+    }
+    
+    /**
+     * Creates a job from a multipart request (uploaded files) or form request (URLs).
+     * @param request the request
+     * @return the job
+     * @throws ServletException in case a parameter is missing
+     * @throws IOException in case the files can not be stored
+     */
+    private static MatchingJob createJob(HttpServletRequest request) throws ServletException, IOException {
+        // we expect a source and a target
+        if(isMultipartContent(request)){
+            LOGGER.info("Got multipart request - start matching");
+            Part source = request.getPart("source");            
+            if(source == null){
+                throw new ServerException("No multipart parameter source");
+            }
+            Part target = request.getPart("target");
+            if(target == null){
+                throw new ServerException("No multipart parameter target");
+            }
+            Part inputAlignment = request.getPart("inputAlignment");
+            Part parameters = request.getPart("parameters");
+
+            List<File> uploadedFiles = new ArrayList<>();
+            File sourceFile = getFile(source, "source", uploadedFiles);
+            File targetFile = getFile(target, "target", uploadedFiles);
+            File inputAlignmentFile = getFile(inputAlignment, "inputAlignment", uploadedFiles);
+            File parametersFile = getFile(parameters, "parameters", uploadedFiles);
+
+            URL inputAlignmentURL = null;
+            if(inputAlignmentFile != null)
+                inputAlignmentURL = inputAlignmentFile.toURI().toURL();
+
+            URL parametersURL = null;
+            if(parametersFile != null)
+                parametersURL = parametersFile.toURI().toURL();
+
+            return new MatchingJob(sourceFile.toURI().toURL(), targetFile.toURI().toURL(), inputAlignmentURL, parametersURL, uploadedFiles);
+        }else{
+            LOGGER.info("Got URL request - start matching");
+            String sourceParam = request.getParameter("source");
+            if(sourceParam == null ){
+                throw new ServerException("No parameter source");
+            }
+            String targetParam = request.getParameter("target");
+            if(targetParam == null ){
+                throw new ServerException("No parameter target");
+            }
+            URL inputAlignment = null;
+            String inputAlignmentStr = request.getParameter("inputAlignment");
+            if(inputAlignmentStr != null)
+                inputAlignment = new URL(inputAlignmentStr);
+
+            URL parameters = null;
+            String parametersStr = request.getParameter("parameters");
+            if(parametersStr != null)
+                parameters = new URL(parametersStr);
+
+            return new MatchingJob(new URL(sourceParam), new URL(targetParam), inputAlignment, parameters, new ArrayList<>());
+        }
+    }
+    
+    private static void writeJson(HttpServletResponse response, int status, JSONObject json) throws IOException{
+        response.setStatus(status);
+        response.setContentType("application/json");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(json.toString());
+    }
+    
     private static void sendFileContent(URL url, HttpServletResponse response){
         File mappingFile;
         try {
@@ -203,40 +380,6 @@ public class Main {
     }
     
     
-    private static URL runTool(URL source, URL target, URL inputAlignment, URL parameters){
-        String mainClass;
-        try {
-            mainClass = MainMatcherClassExtractor.extractMainClass();
-        } catch (IOException ex) {
-            LOGGER.error("Could not extract Main class name. Do nothing." + ex.getMessage());
-            return null;
-        }
-        //mainClass = "de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.elementlevel.BaselineStringMatcher";
-        
-        LOGGER.info("Server starts matcher class {} for task:\nSource:{}\nTarget:{}\nInputAlignment:{}\nParameter:{}", 
-                mainClass, source, target, inputAlignment, parameters);
-        
-        AlignmentAndParameters result = null;
-        try {
-            result = GenericMatcherCaller.runMatcher(mainClass, source, target, inputAlignment, parameters);
-        } catch (Exception ex) {
-            LOGGER.error("Exception during matching.", ex);
-            return null;
-        }
-        if(result.getAlignment() == null){
-            LOGGER.error("The resulting alignment of the matcher is null.");
-            return null;
-        }
-        try {
-            return TypeTransformerRegistry.getTransformedObject(result.getAlignment(), URL.class);
-        } catch (TypeTransformationException ex) {
-            LOGGER.error("Cannot transform the alignment to a URL and then to a file.", ex);
-            return null;
-        }
-    }
-    
-    
-    
     private static FilterHolder getQoSFilter(int maxRequests){
         FilterHolder holder = new FilterHolder(new QoSFilter());
         holder.setInitParameter("maxRequests", String.valueOf(maxRequests));
@@ -267,7 +410,7 @@ public class Main {
     
     private static final SecureRandom random = new SecureRandom();
 
-    private static File getFile(Part part, String prefix) throws IOException{
+    private static File getFile(Part part, String prefix, List<File> uploadedFiles) throws IOException{
         if(part == null)
             return null;
         long n = random.nextLong();
@@ -275,7 +418,9 @@ public class Main {
         
         String filename = prefix + "-" + Long.toString(n) + "." + getFilenameExtension(part.getSubmittedFileName(), "rdf");
         part.write(filename);
-        return new File(LOCATION, filename);
+        File file = new File(LOCATION, filename);
+        uploadedFiles.add(file);
+        return file;
     }
     
     private static String getFilenameExtension(String filename, String defaultValue){
@@ -316,6 +461,18 @@ public class Main {
         return maxRequests;
     }
     
+    private static int getIntFromEnvironment(String name, int defaultValue){
+        String value = System.getenv(name);
+        if(value != null){
+            try{
+                return Integer.parseInt(value);
+            }catch(NumberFormatException e){
+                LOGGER.warn("could not parse {} - using default value of {}", name, defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+    
     private static File getLocation(){
         String location = System.getenv("MELT_LOCATION");
         if(location == null){
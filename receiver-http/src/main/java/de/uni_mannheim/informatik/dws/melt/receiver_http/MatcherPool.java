@@ -0,0 +1,94 @@
+package de.uni_mannheim.informatik.dws.melt.receiver_http;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pool of matcher instances which are created once when the server starts.
+ * Thus everything which a matcher loads in its constructor or during the first match (like embeddings or models)
+ * is loaded only once per process and not for every request.
+ * Each instance is used by at most one job at a time.
+ * If reuse is disabled, a new instance is created for every job (like before).
+ */
+public class MatcherPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MatcherPool.class);
+
+    private final String mainClass;
+    private final boolean reuse;
+    private final int size;
+    private final BlockingQueue<Object> instances;
+
+    /**
+     * Constructor which creates all instances.
+     * @param mainClass the fully qualified name of the matcher class
+     * @param size the number of instances (usually the number of jobs which run in parallel)
+     * @param reuse true if the instances should be reused, false if a new instance should be created for every job
+     * @throws ReflectiveOperationException if the matcher class cannot be instantiated
+     */
+    public MatcherPool(String mainClass, int size, boolean reuse) throws ReflectiveOperationException {
+        if(size < 1)
+            throw new IllegalArgumentException("The size of the matcher pool has to be at least one.");
+        this.mainClass = mainClass;
+        this.reuse = reuse;
+        this.size = size;
+        this.instances = new ArrayBlockingQueue<>(size);
+        if(reuse){
+            long start = System.currentTimeMillis();
+            for(int i = 0; i < size; i++){
+                this.instances.add(createInstance());
+            }
+            LOGGER.info("Created {} instances of matcher {} in {} ms.", size, mainClass, System.currentTimeMillis() - start);
+        }
+    }
+
+    private Object createInstance() throws ReflectiveOperationException {
+        return Class.forName(this.mainClass).newInstance();
+    }
+
+    /**
+     * Returns a matcher instance which can be used exclusively until it is returned with {@link #release(java.lang.Object) }.
+     * Waits if all instances are in use.
+     * @return the matcher instance
+     * @throws ReflectiveOperationException if the matcher class cannot be instantiated (only if reuse is disabled)
+     * @throws InterruptedException if interrupted while waiting for an instance
+     */
+    public Object borrow() throws ReflectiveOperationException, InterruptedException {
+        if(this.reuse == false){
+            return createInstance();
+        }
+        return this.instances.take();
+    }
+
+    /**
+     * Returns the matcher instance to the pool.
+     * @param matcher the matcher instance which was obtained with {@link #borrow() }.
+     */
+    public void release(Object matcher) {
+        if(this.reuse && matcher != null){
+            this.instances.offer(matcher);
+        }
+    }
+
+    /**
+     * Returns the number of instances which are currently not in use.
+     * @return number of available instances
+     */
+    public int getAvailable() {
+        return this.reuse ? this.instances.size() : this.size;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public String getMainClass() {
+        return mainClass;
+    }
+
+    public boolean isReuse() {
+        return reuse;
+    }
+}
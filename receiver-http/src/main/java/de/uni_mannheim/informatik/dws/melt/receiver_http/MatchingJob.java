@@ -0,0 +1,166 @@
+package de.uni_mannheim.informatik.dws.melt.receiver_http;
+
+import java.io.File;
+import java.net.URL;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONObject;
+
+/**
+ * One matching task (source, target, optional input alignment and parameters) together with its state and timings.
+ */
+public class MatchingJob {
+
+    /**
+     * The state of a job.
+     */
+    public enum Status {
+        QUEUED, RUNNING, FINISHED, FAILED
+    }
+
+    private final String id;
+    private final URL source;
+    private final URL target;
+    private final URL inputAlignment;
+    private final URL parameters;
+    private final List<File> uploadedFiles;
+    private final CountDownLatch done;
+
+    private volatile Status status;
+    private volatile long submittedTime;
+    private volatile long startedTime;
+    private volatile long finishedTime;
+    private volatile URL result;
+    private volatile String errorMessage;
+
+    /**
+     * Constructor
+     * @param source the source ontology / knowledge graph
+     * @param target the target ontology / knowledge graph
+     * @param inputAlignment the input alignment (can be null)
+     * @param parameters the parameters (can be null)
+     * @param uploadedFiles the uploaded files which are deleted after the job is executed
+     */
+    public MatchingJob(URL source, URL target, URL inputAlignment, URL parameters, List<File> uploadedFiles) {
+        this.id = UUID.randomUUID().toString();
+        this.source = source;
+        this.target = target;
+        this.inputAlignment = inputAlignment;
+        this.parameters = parameters;
+        this.uploadedFiles = uploadedFiles;
+        this.done = new CountDownLatch(1);
+        this.status = Status.QUEUED;
+        this.submittedTime = System.currentTimeMillis();
+    }
+
+    void started(){
+        this.startedTime = System.currentTimeMillis();
+        this.status = Status.RUNNING;
+    }
+
+    void finished(URL result, String errorMessage){
+        this.result = result;
+        this.errorMessage = errorMessage;
+        this.finishedTime = System.currentTimeMillis();
+        this.status = result == null ? Status.FAILED : Status.FINISHED;
+        for(File file : this.uploadedFiles){
+            file.delete();
+        }
+        this.done.countDown();
+    }
+
+    /**
+     * Waits until the job is finished or failed.
+     * @param timeout the maximum time to wait
+     * @param unit the unit of the timeout
+     * @return true if the job is done, false if the waiting time elapsed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return this.done.await(timeout, unit);
+    }
+
+    /**
+     * Returns true if the job is finished or failed.
+     * @return true if the job is done
+     */
+    public boolean isDone(){
+        return this.done.getCount() == 0;
+    }
+
+    /**
+     * Returns the time in milliseconds the job waited in the queue (up to now if it is still queued).
+     * @return queue time in milliseconds
+     */
+    public long getQueueTime(){
+        long end = this.startedTime > 0 ? this.startedTime : (this.finishedTime > 0 ? this.finishedTime : System.currentTimeMillis());
+        return end - this.submittedTime;
+    }
+
+    /**
+     * Returns the time in milliseconds the matcher ran (up to now if it is still running, zero if it did not start yet).
+     * @return run time in milliseconds
+     */
+    public long getRunTime(){
+        if(this.startedTime == 0)
+            return 0;
+        long end = this.finishedTime > 0 ? this.finishedTime : System.currentTimeMillis();
+        return end - this.startedTime;
+    }
+
+    /**
+     * Returns the state and timings of this job as JSON.
+     * @return JSON object
+     */
+    public JSONObject toJson(){
+        JSONObject json = new JSONObject();
+        json.put("id", this.id);
+        json.put("status", this.status.toString());
+        json.put("submitted", this.submittedTime);
+        json.put("queueTimeMs", getQueueTime());
+        json.put("runTimeMs", getRunTime());
+        if(this.result != null)
+            json.put("result", this.result.toString());
+        if(this.errorMessage != null)
+            json.put("error", this.errorMessage);
+        return json;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public URL getSource() {
+        return source;
+    }
+
+    public URL getTarget() {
+        return target;
+    }
+
+    public URL getInputAlignment() {
+        return inputAlignment;
+    }
+
+    public URL getParameters() {
+        return parameters;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getFinishedTime() {
+        return finishedTime;
+    }
+
+    public URL getResult() {
+        return result;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+}
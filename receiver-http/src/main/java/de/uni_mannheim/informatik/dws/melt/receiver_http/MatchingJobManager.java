@@ -0,0 +1,196 @@
+package de.uni_mannheim.informatik.dws.melt.receiver_http;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.AlignmentAndParameters;
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.GenericMatcherCaller;
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTransformationException;
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTransformerRegistry;
+import java.net.URL;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes the matching jobs with a fixed number of threads and a bounded queue.
+ * Each running job uses one matcher instance of the {@link MatcherPool}.
+ * The state of the last finished jobs is kept such that their results can be polled.
+ */
+public class MatchingJobManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MatchingJobManager.class);
+
+    private final MatcherPool matcherPool;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final int maxFinishedJobs;
+    private final Map<String, MatchingJob> jobs;
+    private final Queue<String> finishedJobIds;
+
+    private final AtomicLong submittedJobs;
+    private final AtomicLong finishedJobs;
+    private final AtomicLong failedJobs;
+    private final AtomicLong rejectedJobs;
+    private final AtomicLong totalQueueTime;
+    private final AtomicLong totalRunTime;
+
+    /**
+     * Constructor
+     * @param matcherPool the pool of matcher instances (null if the matcher could not be loaded - then all jobs fail)
+     * @param parallelJobs the number of jobs which run in parallel
+     * @param queueCapacity the maximum number of jobs waiting in the queue - further jobs are rejected
+     * @param maxFinishedJobs the number of finished jobs whose state and result is kept
+     */
+    public MatchingJobManager(MatcherPool matcherPool, int parallelJobs, int queueCapacity, int maxFinishedJobs) {
+        if(parallelJobs < 1)
+            throw new IllegalArgumentException("The number of parallel jobs has to be at least one.");
+        if(queueCapacity < 1)
+            throw new IllegalArgumentException("The queue capacity has to be at least one.");
+        this.matcherPool = matcherPool;
+        this.queueCapacity = queueCapacity;
+        this.maxFinishedJobs = maxFinishedJobs;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(parallelJobs, parallelJobs, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "melt-matching-job-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.jobs = new ConcurrentHashMap<>();
+        this.finishedJobIds = new ConcurrentLinkedQueue<>();
+        this.submittedJobs = new AtomicLong();
+        this.finishedJobs = new AtomicLong();
+        this.failedJobs = new AtomicLong();
+        this.rejectedJobs = new AtomicLong();
+        this.totalQueueTime = new AtomicLong();
+        this.totalRunTime = new AtomicLong();
+    }
+
+    /**
+     * Adds the job to the queue.
+     * @param job the job
+     * @throws RejectedExecutionException if the queue is full (the job is marked as failed)
+     */
+    public void submit(MatchingJob job){
+        this.jobs.put(job.getId(), job);
+        try{
+            this.executor.execute(() -> run(job));
+        }catch(RejectedExecutionException ex){
+            this.rejectedJobs.incrementAndGet();
+            this.jobs.remove(job.getId());
+            job.finished(null, "The job queue is full.");
+            throw ex;
+        }
+        this.submittedJobs.incrementAndGet();
+        LOGGER.info("Queued job {} (queue depth: {})", job.getId(), this.executor.getQueue().size());
+    }
+
+    /**
+     * Returns the job with the given id.
+     * @param id the id of the job
+     * @return the job or null if there is no such job (or it was already removed)
+     */
+    public MatchingJob getJob(String id){
+        return this.jobs.get(id);
+    }
+
+    private void run(MatchingJob job){
+        job.started();
+        URL result = null;
+        String errorMessage = null;
+        Object matcher = null;
+        try{
+            if(this.matcherPool == null){
+                errorMessage = "The matcher could not be loaded. See the server log for details.";
+            }else{
+                matcher = this.matcherPool.borrow();
+                LOGGER.info("Server starts matcher class {} for task:\nSource:{}\nTarget:{}\nInputAlignment:{}\nParameter:{}",
+                        this.matcherPool.getMainClass(), job.getSource(), job.getTarget(), job.getInputAlignment(), job.getParameters());
+                AlignmentAndParameters alignmentAndParameters = GenericMatcherCaller.runMatcher(matcher,
+                        job.getSource(), job.getTarget(), job.getInputAlignment(), job.getParameters());
+                if(alignmentAndParameters.getAlignment() == null){
+                    LOGGER.error("The resulting alignment of the matcher is null.");
+                    errorMessage = "The resulting alignment of the matcher is null.";
+                }else{
+                    result = TypeTransformerRegistry.getTransformedObject(alignmentAndParameters.getAlignment(), URL.class);
+                }
+            }
+        }catch(TypeTransformationException ex){
+            LOGGER.error("Cannot transform the alignment to a URL and then to a file.", ex);
+            errorMessage = "Cannot transform the alignment to a URL: " + ex.getMessage();
+        }catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+            errorMessage = "Interrupted while waiting for a matcher instance.";
+        }catch(Exception ex){
+            LOGGER.error("Exception during matching.", ex);
+            errorMessage = "Exception during matching: " + ex.getMessage();
+        }finally{
+            if(this.matcherPool != null)
+                this.matcherPool.release(matcher);
+        }
+        job.finished(result, errorMessage);
+        this.totalQueueTime.addAndGet(job.getQueueTime());
+        this.totalRunTime.addAndGet(job.getRunTime());
+        if(result == null){
+            this.failedJobs.incrementAndGet();
+        }else{
+            this.finishedJobs.incrementAndGet();
+        }
+        LOGGER.info("Job {} {} after {} ms in queue and {} ms run time.", job.getId(), job.getStatus(), job.getQueueTime(), job.getRunTime());
+        this.finishedJobIds.add(job.getId());
+        while(this.finishedJobIds.size() > this.maxFinishedJobs){
+            String oldest = this.finishedJobIds.poll();
+            if(oldest != null)
+                this.jobs.remove(oldest);
+        }
+    }
+
+    /**
+     * Returns the queue depth, the matcher pool usage and the timings of all known jobs as JSON.
+     * @return JSON object with the metrics
+     */
+    public JSONObject getMetrics(){
+        JSONObject metrics = new JSONObject();
+        metrics.put("queueDepth", this.executor.getQueue().size());
+        metrics.put("queueCapacity", this.queueCapacity);
+        metrics.put("runningJobs", this.executor.getActiveCount());
+        metrics.put("parallelJobs", this.executor.getMaximumPoolSize());
+        metrics.put("submittedJobs", this.submittedJobs.get());
+        metrics.put("finishedJobs", this.finishedJobs.get());
+        metrics.put("failedJobs", this.failedJobs.get());
+        metrics.put("rejectedJobs", this.rejectedJobs.get());
+        long doneJobs = this.finishedJobs.get() + this.failedJobs.get();
+        metrics.put("averageQueueTimeMs", doneJobs == 0 ? 0 : this.totalQueueTime.get() / doneJobs);
+        metrics.put("averageRunTimeMs", doneJobs == 0 ? 0 : this.totalRunTime.get() / doneJobs);
+        if(this.matcherPool != null){
+            JSONObject pool = new JSONObject();
+            pool.put("mainClass", this.matcherPool.getMainClass());
+            pool.put("size", this.matcherPool.getSize());
+            pool.put("available", this.matcherPool.getAvailable());
+            pool.put("reuse", this.matcherPool.isReuse());
+            metrics.put("matcherPool", pool);
+        }
+        JSONArray jobArray = new JSONArray();
+        for(MatchingJob job : this.jobs.values()){
+            jobArray.put(job.toJson());
+        }
+        metrics.put("jobs", jobArray);
+        return metrics;
+    }
+
+    /**
+     * Stops accepting jobs and interrupts the running ones.
+     */
+    public void shutdown(){
+        this.executor.shutdownNow();
+    }
+}
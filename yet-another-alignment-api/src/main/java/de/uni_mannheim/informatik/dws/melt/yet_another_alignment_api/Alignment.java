@@ -116,7 +116,7 @@ public class Alignment extends ConcurrentIndexedCollection<Correspondence> {
      * @param copyCorrespondences if true copies all information, if false copies all but no correspondences
      */
     public Alignment(Alignment alignment, boolean copyCorrespondences) {
-        init(alignment.indexSource != null, alignment.indexTarget != null, alignment.indexRelation != null, alignment.indexConfidence != null);
+        init(alignment.hasIndexOnSource(), alignment.hasIndexOnTarget(), alignment.hasIndexOnRelation(), alignment.hasIndexOnConfidence());
         this.method = alignment.method;
         this.type = alignment.type;
         this.level = alignment.level;
@@ -683,10 +683,7 @@ public class Alignment extends ConcurrentIndexedCollection<Correspondence> {
      * @return Subtraction alignment.
      */
     public static Alignment subtraction(Alignment alignment_1, Alignment alignment_2) {
-        Alignment result = new Alignment();
-        result.addAll(alignment_1);
-        result.removeAll(alignment_2);
-        return result;
+        return AlignmentSetOperations.subtraction(alignment_1, alignment_2).toAlignment();
     }
     
     /**
@@ -697,12 +694,7 @@ public class Alignment extends ConcurrentIndexedCollection<Correspondence> {
      * @return Intersection alignment.
      */
     public static Alignment intersection(Alignment alignment_1, Alignment alignment_2) {
-        Alignment result = new Alignment();
-        result.addAll(alignment_1);
-        result.addAll(alignment_2);
-        result.retainAll(alignment_1);
-        result.retainAll(alignment_2);
-        return result;
+        return AlignmentSetOperations.intersection(alignment_1, alignment_2).toAlignment();
     }
 
     /**
@@ -713,10 +705,7 @@ public class Alignment extends ConcurrentIndexedCollection<Correspondence> {
      * @return Union alignment.
      */
     public static Alignment union(Alignment alignment_1, Alignment alignment_2) {
-        Alignment result = new Alignment();
-        result.addAll(alignment_1);
-        result.addAll(alignment_2);
-        return result;
+        return AlignmentSetOperations.union(alignment_1, alignment_2).toAlignment();
     }
 
     /**
@@ -855,6 +844,38 @@ public class Alignment extends ConcurrentIndexedCollection<Correspondence> {
         }
     }
     
+    /**
+     * Returns true if lookups by source are indexed in this alignment.
+     * @return true if lookups by source are indexed
+     */
+    protected boolean hasIndexOnSource(){
+        return this.indexSource != null;
+    }
+    
+    /**
+     * Returns true if lookups by target are indexed in this alignment.
+     * @return true if lookups by target are indexed
+     */
+    protected boolean hasIndexOnTarget(){
+        return this.indexTarget != null;
+    }
+    
+    /**
+     * Returns true if lookups by relation are indexed in this alignment.
+     * @return true if lookups by relation are indexed
+     */
+    protected boolean hasIndexOnRelation(){
+        return this.indexRelation != null;
+    }
+    
+    /**
+     * Returns true if lookups by confidence are indexed in this alignment.
+     * @return true if lookups by confidence are indexed
+     */
+    protected boolean hasIndexOnConfidence(){
+        return this.indexConfidence != null;
+    }
+    
     public Iterable<String> getDistinctSources(){
         if(this.indexSource == null){
             return this.stream().map(c -> c.entityOne).collect(Collectors.toSet());
@@ -1020,10 +1041,10 @@ public class Alignment extends ConcurrentIndexedCollection<Correspondence> {
     public String toStringMultilineInfo(){
         StringBuilder sb = new StringBuilder();
         sb.append("Alignment{").append(NEWLINE);
-        sb.append("  indexSource=").append(indexSource!=null)
-                .append(", indexTarget=").append(indexTarget!=null)
-                .append(", indexRelation=").append(indexRelation!=null)
-                .append(", indexConfidence=").append(indexConfidence!=null)
+        sb.append("  indexSource=").append(hasIndexOnSource())
+                .append(", indexTarget=").append(hasIndexOnTarget())
+                .append(", indexRelation=").append(hasIndexOnRelation())
+                .append(", indexConfidence=").append(hasIndexOnConfidence())
                 .append(",").append(NEWLINE);
         
         if(this.onto1 != null)
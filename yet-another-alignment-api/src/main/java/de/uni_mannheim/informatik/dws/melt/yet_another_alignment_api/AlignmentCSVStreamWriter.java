@@ -0,0 +1,118 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+/**
+ * Incremental writer for alignments in CSV format with header (source, target, confidence, relation).
+ * Optionally, the values of given correspondence extensions are written as additional columns.
+ * Each correspondence is written directly with {@link #write(Correspondence)},
+ * thus alignments can be written which do not fit into memory.
+ */
+public class AlignmentCSVStreamWriter implements Closeable, Flushable {
+
+    private final CSVPrinter csvPrinter;
+    private final List<String> extensionKeys;
+
+    /**
+     * Constructor which directly writes the header.
+     * @param writer the writer to write to.
+     * @param extensionKeys the keys of the correspondence extensions which are written as additional columns.
+     * @throws IOException in case the header can not be written.
+     */
+    public AlignmentCSVStreamWriter(Writer writer, List<String> extensionKeys) throws IOException {
+        this.extensionKeys = new ArrayList<>(extensionKeys);
+        this.csvPrinter = CSVFormat.DEFAULT.print(writer);
+        List<String> header = new ArrayList<>();
+        header.add("source");
+        header.add("target");
+        header.add("confidence");
+        header.add("relation");
+        header.addAll(this.extensionKeys);
+        this.csvPrinter.printRecord(header);
+    }
+
+    public AlignmentCSVStreamWriter(Writer writer) throws IOException {
+        this(writer, new ArrayList<>());
+    }
+
+    public AlignmentCSVStreamWriter(File file, List<String> extensionKeys) throws IOException {
+        this(createWriter(file), extensionKeys);
+    }
+
+    public AlignmentCSVStreamWriter(File file) throws IOException {
+        this(file, new ArrayList<>());
+    }
+
+    private static Writer createWriter(File file) throws IOException {
+        AlignmentSerializer.checkFile(file);
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes one correspondence.
+     * @param cell the correspondence to write
+     * @throws IOException in case of any io error
+     */
+    public void write(Correspondence cell) throws IOException {
+        if(extensionKeys.isEmpty()){
+            csvPrinter.printRecord(cell.getEntityOne(), cell.getEntityTwo(), cell.getConfidence(), cell.getRelation());
+            return;
+        }
+        List<Object> record = new ArrayList<>(4 + extensionKeys.size());
+        record.add(cell.getEntityOne());
+        record.add(cell.getEntityTwo());
+        record.add(cell.getConfidence());
+        record.add(cell.getRelation());
+        for(String key : extensionKeys){
+            Object o = cell.getExtensionValue(key);
+            if(o == null)
+                record.add("");
+            else
+                record.add(o);
+        }
+        csvPrinter.printRecord(record);
+    }
+
+    /**
+     * Writes all correspondences.
+     * @param correspondences the correspondences to write
+     * @throws IOException in case of any io error
+     */
+    public void writeAll(Iterable<Correspondence> correspondences) throws IOException {
+        writeAll(correspondences.iterator());
+    }
+
+    /**
+     * Writes all correspondences.
+     * @param correspondences the correspondences to write
+     * @throws IOException in case of any io error
+     */
+    public void writeAll(Iterator<Correspondence> correspondences) throws IOException {
+        while(correspondences.hasNext()){
+            write(correspondences.next());
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        csvPrinter.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        csvPrinter.close();
+    }
+}
@@ -1,5 +1,6 @@
 package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
 
+import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.Attributes;
@@ -47,6 +48,7 @@ class AlignmentHandler extends DefaultHandler{
     private Alignment alignment;
     private Correspondence cell;
     private OntoInfo currentOntoInfo;
+    private Consumer<Correspondence> correspondenceConsumer;
 
     /**
      * Indicator whether the parser is currently within a cell or not.
@@ -60,10 +62,20 @@ class AlignmentHandler extends DefaultHandler{
      * @param alignment Alignment which will hold parsed elements.
      */
     public AlignmentHandler(Alignment alignment){
+        this(alignment, alignment::add);
+    }
+    
+    /**
+     * Constructor
+     * @param alignment Alignment which will hold the parsed alignment infos (onto1, onto2, extensions etc).
+     * @param correspondenceConsumer the consumer which is called for each parsed correspondence.
+     */
+    public AlignmentHandler(Alignment alignment, Consumer<Correspondence> correspondenceConsumer){
         this.content = null;    
         this.alignment = alignment;
         this.cell = new Correspondence();
         this.currentOntoInfo = new OntoInfo();
+        this.correspondenceConsumer = correspondenceConsumer;
     }
 
     @Override
@@ -143,7 +155,7 @@ class AlignmentHandler extends DefaultHandler{
                 if ( this.cell.getEntityOne() == null || this.cell.getEntityTwo() == null) {
                     LOGGER.warn( "(cell voided), missing entity {} {}", this.cell.getEntityOne(), this.cell.getEntityTwo() );
                 } else{
-                    this.alignment.add(cell);
+                    this.correspondenceConsumer.accept(cell);
                 }
                 this.inCorrespondence = false;
             } else if (pName.equals(URI1)) {                
@@ -14,6 +14,7 @@ import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
@@ -107,6 +108,42 @@ public class AlignmentParser {
         threadLocal.get().parse(s, p);
     }
     
+    /**
+     * Parses the given input stream and calls the consumer for each correspondence.
+     * The correspondences are not collected, thus this method works also for alignments which do not fit into memory.
+     * If a pull based approach (iterator) is needed, use {@link AlignmentStreamReader}.
+     * @param s the input stream to read from
+     * @param correspondenceConsumer the consumer which is called for each parsed correspondence
+     * @return an alignment which contains only the alignment infos (onto1, onto2, type, level, extensions) but no correspondences.
+     * @throws SAXException Parsing exception.
+     * @throws IOException IO exception.
+     */
+    public static Alignment parse(InputStream s, Consumer<Correspondence> correspondenceConsumer) throws SAXException, IOException {
+        Alignment alignmentInfo = new Alignment(false, false, false, false);
+        parse(s, alignmentInfo, correspondenceConsumer);
+        return alignmentInfo;
+    }
+    
+    /**
+     * Parses the given file and calls the consumer for each correspondence.
+     * The correspondences are not collected, thus this method works also for alignments which do not fit into memory.
+     * @param file the file to read from
+     * @param correspondenceConsumer the consumer which is called for each parsed correspondence
+     * @return an alignment which contains only the alignment infos (onto1, onto2, type, level, extensions) but no correspondences.
+     * @throws SAXException Parsing exception.
+     * @throws IOException IO exception.
+     */
+    public static Alignment parse(File file, Consumer<Correspondence> correspondenceConsumer) throws SAXException, IOException {
+        try(InputStream s = new FileInputStream(file)){
+            return parse(s, correspondenceConsumer);
+        }
+    }
+    
+    static void parse(InputStream s, Alignment alignmentInfo, Consumer<Correspondence> correspondenceConsumer) throws SAXException, IOException {
+        AlignmentHandler p = new AlignmentHandler(alignmentInfo, correspondenceConsumer);
+        threadLocal.get().parse(s, p);
+    }
+    
     
     public static InputStream getInputStreamFromURL(URL url) throws IOException{
         URLConnection connection = url.openConnection();
@@ -114,6 +151,19 @@ public class AlignmentParser {
         return connection.getInputStream();
     }
    
+    /**
+     * Parse alignment from a file in the binary alignment format (written by {@link AlignmentSerializer#serializeToBinary(Alignment, File)}).
+     * If only some lookups are necessary, use {@link MappedBinaryAlignment} directly which does not deserialize the whole file.
+     * @param file the file to read from
+     * @return the parsed alignment
+     * @throws java.io.IOException thrown if some io error occurs.
+     */
+    public static Alignment parseBinary(File file) throws IOException{
+        try(MappedBinaryAlignment mapped = new MappedBinaryAlignment(file)){
+            return mapped.toAlignment();
+        }
+    }
+    
     /**
      * Parse alignment from CSV (comma separated file) with header (source, target, confidence, relation).
      * The extensions are not parsed.
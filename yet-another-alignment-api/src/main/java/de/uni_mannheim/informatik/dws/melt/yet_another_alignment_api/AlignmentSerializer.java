@@ -3,17 +3,17 @@ package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVPrinter;
 
 import org.apache.commons.text.StringEscapeUtils;
+import org.xml.sax.SAXException;
 
 
 /**
@@ -55,13 +55,33 @@ public class AlignmentSerializer {
             }
         }
         
-        try (FileOutputStream out = new FileOutputStream(file)) {
-            out.write(getXmlIntro(alignment).getBytes(ENCODING));
-            for(Correspondence cell : alignment){
-                out.write(getXmlMappingCellMultiLine(cell).getBytes(ENCODING));
-            }
-            out.write(getXmlOutro().getBytes(ENCODING));
-        }        
+        try (AlignmentStreamWriter writer = new AlignmentStreamWriter(new FileOutputStream(file), alignment)) {
+            writer.writeAll(alignment);
+        }
+    }
+    
+    /**
+     * Method to write the specified alignment to the specified output stream.
+     * The alignment is written incrementally and the stream is not closed.
+     * @param alignment The alignment that shall be written.
+     * @param out The output stream to which the alignment shall be written.
+     * @throws IOException Exception that occurred while serializing the alignment.
+     */
+    public static void serialize(Alignment alignment, OutputStream out) throws IOException {
+        serialize(alignment, new OutputStreamWriter(out, ENCODING));
+    }
+    
+    /**
+     * Method to write the specified alignment to the specified writer.
+     * The alignment is written incrementally and the writer is flushed but not closed.
+     * @param alignment The alignment that shall be written.
+     * @param writer The writer to which the alignment shall be written.
+     * @throws IOException Exception that occurred while serializing the alignment.
+     */
+    public static void serialize(Alignment alignment, Writer writer) throws IOException {
+        AlignmentStreamWriter alignmentWriter = new AlignmentStreamWriter(writer, alignment);
+        alignmentWriter.writeAll(alignment);
+        alignmentWriter.finish();
     }
 
     /**
@@ -84,7 +104,7 @@ public class AlignmentSerializer {
      * @param alignment Alignment to be serialized.
      * @return XML header as String.
      */
-    private static String getXmlIntro(Alignment alignment){
+    static String getXmlIntro(Alignment alignment){
         StringBuilder sb = new StringBuilder();
         sb.append("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n");
         sb.append("<rdf:RDF xmlns=\"http://knowledgeweb.semanticweb.org/heterogeneity/alignment\"\n");
@@ -108,7 +128,7 @@ public class AlignmentSerializer {
         return sb.toString();
     }
     
-    private static String getXmlMappingCellMultiLine(Correspondence cell){
+    static String getXmlMappingCellMultiLine(Correspondence cell){
         StringBuilder sb = new StringBuilder();
         sb.append("  <map>\n");
         if(isBlank(cell.getIdentifier())) sb.append("    <Cell>\n");
@@ -134,7 +154,7 @@ public class AlignmentSerializer {
      * Returns the XML footer.
      * @return XML footer as string.
      */
-    private static String getXmlOutro(){
+    static String getXmlOutro(){
         return "</Alignment>\n</rdf:RDF>\n";
     }
     
@@ -214,14 +234,35 @@ public class AlignmentSerializer {
      * @throws IOException Exception that occurred while serializing the alignment.
      */
     public static void serializeToCSV(Alignment alignment, File file) throws IOException {
-        checkFile(file);
-        try(CSVPrinter csvPrinter = CSVFormat.DEFAULT.withHeader("source", "target", "confidence", "relation").print(file, StandardCharsets.UTF_8)){
-            for(Correspondence cell : alignment){
-                csvPrinter.printRecord(cell.getEntityOne(),cell.getEntityTwo(), cell.getConfidence(), cell.getRelation());
-            }
+        serializeToCSV((Iterable<Correspondence>) alignment, file);
+    }
+    
+    /**
+     * Method to write the specified correspondences to the specified file (in CSV format).
+     * The correspondences are written incrementally, thus any iterable (like an {@link AlignmentStreamReader}) can be used.
+     * @param correspondences The correspondences that shall be written.
+     * @param file The file to which the correspondences shall be written.
+     * @throws IOException Exception that occurred while serializing the correspondences.
+     */
+    public static void serializeToCSV(Iterable<Correspondence> correspondences, File file) throws IOException {
+        try(AlignmentCSVStreamWriter writer = new AlignmentCSVStreamWriter(file)){
+            writer.writeAll(correspondences);
         }
     }
     
+    /**
+     * Method to write the specified correspondences to the specified writer (in CSV format).
+     * The correspondences are written incrementally and the writer is flushed but not closed.
+     * @param correspondences The correspondences that shall be written.
+     * @param writer The writer to which the correspondences shall be written.
+     * @throws IOException Exception that occurred while serializing the correspondences.
+     */
+    public static void serializeToCSV(Iterable<Correspondence> correspondences, Writer writer) throws IOException {
+        AlignmentCSVStreamWriter csvWriter = new AlignmentCSVStreamWriter(writer);
+        csvWriter.writeAll(correspondences);
+        csvWriter.flush();
+    }
+    
     /**
      * Method to write the specified alignment to the specified file (in CSV format).
      * @param alignment The alignment that shall be written.
@@ -229,36 +270,80 @@ public class AlignmentSerializer {
      * @throws IOException Exception that occurred while serializing the alignment.
      */
     public static void serializeToCSVWithExtensions(Alignment alignment, File file) throws IOException {
-        checkFile(file);
         List<String> extensionKeys = new ArrayList<>(alignment.getDistinctCorrespondenceExtensionKeys());
-        List<String> header = new ArrayList<>();
-        header.add("source");
-        header.add("target");
-        header.add("confidence");
-        header.add("relation");
-        header.addAll(extensionKeys);
-        
-        try(CSVPrinter csvPrinter = CSVFormat.DEFAULT.print(file, StandardCharsets.UTF_8)){
-            csvPrinter.printRecord(header);
-            for(Correspondence cell : alignment){
-                List<Object> record = new ArrayList<>();
-                record.add(cell.getEntityOne());
-                record.add(cell.getEntityTwo());
-                record.add(cell.getConfidence());
-                record.add(cell.getRelation());
-                for(String key : extensionKeys){
-                    Object o = cell.getExtensionValue(key);
-                    if(o == null)
-                        record.add("");
-                    else
-                        record.add(o);
-                }
-                csvPrinter.printRecord(record);
-            }
+        try(AlignmentCSVStreamWriter writer = new AlignmentCSVStreamWriter(file, extensionKeys)){
+            writer.writeAll(alignment);
+        }
+    }
+    
+    /**
+     * Method to write the specified alignment to the specified file in the binary alignment format.
+     * The file can be opened with {@link MappedBinaryAlignment} which allows lookups without parsing the whole file.
+     * Extension values which are not a Double, Integer, Long, Boolean or String are stored as string
+     * and thus are read back as string.
+     * @param alignment The alignment that shall be written.
+     * @param file The file to which the alignment shall be written.
+     * @throws IOException Exception that occurred while serializing the alignment.
+     */
+    public static void serializeToBinary(Alignment alignment, File file) throws IOException {
+        BinaryAlignmentFormat.write(alignment, alignment, file);
+    }
+    
+    /**
+     * Converts an alignment file in the alignment format (XML) to the binary alignment format.
+     * The XML file is parsed in a streaming fashion and only the compact binary representation is kept in memory.
+     * @param xmlFile the file in alignment format
+     * @param binaryFile the file to write the binary alignment to
+     * @throws IOException Exception that occurred while reading or writing.
+     */
+    public static void convertXmlToBinary(File xmlFile, File binaryFile) throws IOException {
+        BinaryAlignmentFormat format = new BinaryAlignmentFormat();
+        Alignment alignmentInfo;
+        try {
+            alignmentInfo = AlignmentParser.parse(xmlFile, format);
+        } catch (SAXException ex) {
+            throw new IOException("Could not parse the alignment file " + xmlFile, ex);
+        }
+        format.write(alignmentInfo, binaryFile);
+    }
+    
+    /**
+     * Converts an alignment file in CSV format (with header source, target, confidence, relation) to the binary alignment format.
+     * @param csvFile the file in CSV format
+     * @param binaryFile the file to write the binary alignment to
+     * @throws IOException Exception that occurred while reading or writing.
+     */
+    public static void convertCSVToBinary(File csvFile, File binaryFile) throws IOException {
+        serializeToBinary(AlignmentParser.parseCSV(csvFile), binaryFile);
+    }
+    
+    /**
+     * Converts a file in the binary alignment format to the alignment format (XML).
+     * The correspondences are written incrementally without building an {@link Alignment}.
+     * @param binaryFile the file in binary alignment format
+     * @param xmlFile the file to write the alignment to
+     * @throws IOException Exception that occurred while reading or writing.
+     */
+    public static void convertBinaryToXml(File binaryFile, File xmlFile) throws IOException {
+        try(MappedBinaryAlignment mapped = new MappedBinaryAlignment(binaryFile);
+            AlignmentStreamWriter writer = new AlignmentStreamWriter(xmlFile, mapped.getAlignmentInfo())){
+            writer.writeAll(mapped);
+        }
+    }
+    
+    /**
+     * Converts a file in the binary alignment format to CSV (without extensions).
+     * @param binaryFile the file in binary alignment format
+     * @param csvFile the file to write the CSV to
+     * @throws IOException Exception that occurred while reading or writing.
+     */
+    public static void convertBinaryToCSV(File binaryFile, File csvFile) throws IOException {
+        try(MappedBinaryAlignment mapped = new MappedBinaryAlignment(binaryFile)){
+            serializeToCSV(mapped, csvFile);
         }
     }
     
-    private static void checkFile(File file) throws IOException{
+    static void checkFile(File file) throws IOException{
         if (file.exists()) {
             if (file.isDirectory()) {
                 throw new IOException("File '" + file + "' exists but is a directory");
@@ -0,0 +1,231 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Set operations (subtraction, intersection, union) on large alignments.
+ * Both operands are sorted once by source, target and relation and then merged linearly
+ * (instead of checking each correspondence against the index of the other alignment).
+ * The merge can be executed in parallel over partitions of the key space.
+ * <p>
+ * The result is an {@link AlignmentView} which does not build any index until it is queried.
+ * As in {@link Alignment#subtraction(Alignment, Alignment)} etc. only the correspondences are used and not
+ * further infos like onto or extensions of the alignment.
+ * If a correspondence is contained in both operands, the object of the first operand is used.
+ */
+public class AlignmentSetOperations {
+
+    /**
+     * The order of the URIs of a correspondence. Correspondences may have null entities, which are sorted first.
+     */
+    static final Comparator<String> ENTITY_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    /**
+     * The order which is used for all set operations: source, target and relation (the attributes which define equality of correspondences).
+     * Null values are sorted first.
+     */
+    public static final Comparator<Correspondence> CORRESPONDENCE_ORDER = Comparator
+            .comparing(Correspondence::getEntityOne, ENTITY_ORDER)
+            .thenComparing(Correspondence::getEntityTwo, ENTITY_ORDER)
+            .thenComparing(Correspondence::getRelation, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    /**
+     * Below this number of correspondences, the merge is never executed in parallel.
+     */
+    private static final int MIN_PARTITION_SIZE = 10000;
+
+    enum Operation { SUBTRACTION, INTERSECTION, UNION }
+
+    /**
+     * Computes all correspondences of the first operand which are not contained in the second one.
+     * @param alignment_1 Set 1.
+     * @param alignment_2 Set 2.
+     * @return Subtraction as a view.
+     */
+    public static AlignmentView subtraction(Iterable<Correspondence> alignment_1, Iterable<Correspondence> alignment_2){
+        return subtraction(alignment_1, alignment_2, false);
+    }
+
+    /**
+     * Computes all correspondences of the first operand which are not contained in the second one.
+     * @param alignment_1 Set 1.
+     * @param alignment_2 Set 2.
+     * @param parallel true if sorting and merging should be executed in parallel.
+     * @return Subtraction as a view.
+     */
+    public static AlignmentView subtraction(Iterable<Correspondence> alignment_1, Iterable<Correspondence> alignment_2, boolean parallel){
+        return compute(Operation.SUBTRACTION, alignment_1, alignment_2, parallel);
+    }
+
+    /**
+     * Computes all correspondences which are contained in both operands.
+     * @param alignment_1 Set 1.
+     * @param alignment_2 Set 2.
+     * @return Intersection as a view.
+     */
+    public static AlignmentView intersection(Iterable<Correspondence> alignment_1, Iterable<Correspondence> alignment_2){
+        return intersection(alignment_1, alignment_2, false);
+    }
+
+    /**
+     * Computes all correspondences which are contained in both operands.
+     * @param alignment_1 Set 1.
+     * @param alignment_2 Set 2.
+     * @param parallel true if sorting and merging should be executed in parallel.
+     * @return Intersection as a view.
+     */
+    public static AlignmentView intersection(Iterable<Correspondence> alignment_1, Iterable<Correspondence> alignment_2, boolean parallel){
+        return compute(Operation.INTERSECTION, alignment_1, alignment_2, parallel);
+    }
+
+    /**
+     * Computes all correspondences which are contained in at least one operand.
+     * @param alignment_1 Set 1.
+     * @param alignment_2 Set 2.
+     * @return Union as a view.
+     */
+    public static AlignmentView union(Iterable<Correspondence> alignment_1, Iterable<Correspondence> alignment_2){
+        return union(alignment_1, alignment_2, false);
+    }
+
+    /**
+     * Computes all correspondences which are contained in at least one operand.
+     * @param alignment_1 Set 1.
+     * @param alignment_2 Set 2.
+     * @param parallel true if sorting and merging should be executed in parallel.
+     * @return Union as a view.
+     */
+    public static AlignmentView union(Iterable<Correspondence> alignment_1, Iterable<Correspondence> alignment_2, boolean parallel){
+        return compute(Operation.UNION, alignment_1, alignment_2, parallel);
+    }
+
+    /**
+     * Sorts the given correspondences by source, target and relation and removes duplicates (the first one is kept).
+     * If the given iterable is already a view, no sorting is necessary.
+     * @param correspondences the correspondences to sort
+     * @param parallel true if the sorting should be executed in parallel
+     * @return a view on the sorted correspondences
+     */
+    public static AlignmentView sort(Iterable<Correspondence> correspondences, boolean parallel){
+        return new AlignmentView(toSortedArray(correspondences, parallel));
+    }
+
+    private static AlignmentView compute(Operation operation, Iterable<Correspondence> alignment_1, Iterable<Correspondence> alignment_2, boolean parallel){
+        return compute(operation, alignment_1, alignment_2, parallel, MIN_PARTITION_SIZE);
+    }
+
+    /**
+     * Computes the set operation. The minimum partition size can be set to test the parallel merge on small inputs.
+     */
+    static AlignmentView compute(Operation operation, Iterable<Correspondence> alignment_1, Iterable<Correspondence> alignment_2, boolean parallel, int minPartitionSize){
+        Correspondence[] one = toSortedArray(alignment_1, parallel);
+        Correspondence[] two = toSortedArray(alignment_2, parallel);
+        int partitions = parallel ? Math.min(Runtime.getRuntime().availableProcessors() * 4, one.length / minPartitionSize) : 1;
+        if(partitions <= 1)
+            return new AlignmentView(merge(operation, one, 0, one.length, two, 0, two.length));
+
+        //split points are taken from the first operand; each partition covers the same key range in both operands.
+        int[] splitOne = new int[partitions + 1];
+        int[] splitTwo = new int[partitions + 1];
+        for(int i = 1; i < partitions; i++){
+            Correspondence splitKey = one[(int) ((long) one.length * i / partitions)];
+            splitOne[i] = lowerBound(one, splitKey);
+            splitTwo[i] = lowerBound(two, splitKey);
+        }
+        splitOne[partitions] = one.length;
+        splitTwo[partitions] = two.length;
+        Correspondence[][] parts = IntStream.range(0, partitions).parallel()
+                .mapToObj(i -> merge(operation, one, splitOne[i], splitOne[i + 1], two, splitTwo[i], splitTwo[i + 1]))
+                .toArray(Correspondence[][]::new);
+
+        int size = 0;
+        for(Correspondence[] part : parts){
+            size += part.length;
+        }
+        Correspondence[] result = new Correspondence[size];
+        int position = 0;
+        for(Correspondence[] part : parts){
+            System.arraycopy(part, 0, result, position, part.length);
+            position += part.length;
+        }
+        return new AlignmentView(result);
+    }
+
+    private static Correspondence[] merge(Operation operation, Correspondence[] one, int startOne, int endOne, Correspondence[] two, int startTwo, int endTwo){
+        List<Correspondence> result = new ArrayList<>(operation == Operation.UNION ? (endOne - startOne) + (endTwo - startTwo) : endOne - startOne);
+        int i = startOne;
+        int j = startTwo;
+        while(i < endOne && j < endTwo){
+            int c = CORRESPONDENCE_ORDER.compare(one[i], two[j]);
+            if(c < 0){
+                if(operation != Operation.INTERSECTION)
+                    result.add(one[i]);
+                i++;
+            }else if(c > 0){
+                if(operation == Operation.UNION)
+                    result.add(two[j]);
+                j++;
+            }else{
+                if(operation != Operation.SUBTRACTION)
+                    result.add(one[i]);
+                i++;
+                j++;
+            }
+        }
+        if(operation != Operation.INTERSECTION){
+            for(; i < endOne; i++){
+                result.add(one[i]);
+            }
+        }
+        if(operation == Operation.UNION){
+            for(; j < endTwo; j++){
+                result.add(two[j]);
+            }
+        }
+        return result.toArray(new Correspondence[0]);
+    }
+
+    private static int lowerBound(Correspondence[] array, Correspondence key){
+        int low = 0;
+        int high = array.length;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            if(CORRESPONDENCE_ORDER.compare(array[mid], key) < 0)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    private static Correspondence[] toSortedArray(Iterable<Correspondence> correspondences, boolean parallel){
+        if(correspondences instanceof AlignmentView)
+            return ((AlignmentView) correspondences).getSortedCorrespondences();
+        Correspondence[] array;
+        if(correspondences instanceof Alignment){
+            array = ((Alignment) correspondences).toArray(new Correspondence[0]);
+        }else{
+            List<Correspondence> list = new ArrayList<>();
+            for(Correspondence c : correspondences){
+                list.add(c);
+            }
+            array = list.toArray(new Correspondence[0]);
+        }
+        //both sorts are stable, thus the first duplicate is kept
+        if(parallel)
+            Arrays.parallelSort(array, CORRESPONDENCE_ORDER);
+        else
+            Arrays.sort(array, CORRESPONDENCE_ORDER);
+        int size = 0;
+        for(Correspondence c : array){
+            if(size > 0 && CORRESPONDENCE_ORDER.compare(array[size - 1], c) == 0)
+                continue;
+            array[size++] = c;
+        }
+        return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+}
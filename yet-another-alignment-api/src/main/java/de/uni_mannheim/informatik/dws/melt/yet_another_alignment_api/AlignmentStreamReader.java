@@ -0,0 +1,180 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pull based reader for alignment files in the
+ * <a href="http://alignapi.gforge.inria.fr/format.html">Alignment Format</a>.
+ * It iterates over the correspondences without collecting them in an {@link Alignment},
+ * thus the memory consumption is constant and independent of the alignment size.
+ * <p>
+ * The SAX parser runs in a separate thread and hands over the parsed correspondences
+ * in a bounded buffer. Always close the reader (e.g. with try-with-resources) if the iteration is stopped early.
+ * <pre>{@code
+ * try(AlignmentStreamReader reader = new AlignmentStreamReader(file)){
+ *     while(reader.hasNext()){
+ *         Correspondence c = reader.next();
+ *     }
+ * }
+ * }</pre>
+ * If a callback is sufficient, use {@link AlignmentParser#parse(InputStream, java.util.function.Consumer)} which does not need a thread.
+ */
+public class AlignmentStreamReader implements Iterator<Correspondence>, Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AlignmentStreamReader.class);
+
+    private static final int DEFAULT_BUFFER_SIZE = 1000;
+
+    /**
+     * Marker for the end of the parsing process.
+     */
+    private static final Correspondence END = new Correspondence();
+
+    private final InputStream inputStream;
+    private final BlockingQueue<Correspondence> buffer;
+    private final Alignment alignmentInfo;
+    private final Thread parserThread;
+
+    private volatile Exception parseException;
+    private volatile boolean closed;
+
+    private Correspondence next;
+    private boolean finished;
+
+    /**
+     * Constructor
+     * @param inputStream the input stream to read the alignment from. It is closed when this reader is closed.
+     * @param bufferSize the maximum number of correspondences which are parsed in advance.
+     */
+    public AlignmentStreamReader(InputStream inputStream, int bufferSize) {
+        this.inputStream = inputStream;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.alignmentInfo = new Alignment(false, false, false, false);
+        this.parseException = null;
+        this.closed = false;
+        this.next = null;
+        this.finished = false;
+        this.parserThread = new Thread(this::parse, "AlignmentStreamReader");
+        this.parserThread.setDaemon(true);
+        this.parserThread.start();
+    }
+
+    public AlignmentStreamReader(InputStream inputStream) {
+        this(inputStream, DEFAULT_BUFFER_SIZE);
+    }
+
+    public AlignmentStreamReader(File file) throws IOException {
+        this(new FileInputStream(file));
+    }
+
+    public AlignmentStreamReader(URL url) throws IOException {
+        this(AlignmentParser.getInputStreamFromURL(url));
+    }
+
+    private void parse(){
+        try {
+            AlignmentParser.parse(inputStream, alignmentInfo, this::put);
+        } catch (ParsingCancelledException ex) {
+            LOGGER.debug("Parsing of alignment cancelled because the reader is closed.");
+        } catch (Exception ex) {
+            this.parseException = ex;
+        } finally {
+            putEnd();
+        }
+    }
+
+    private void put(Correspondence c){
+        try {
+            while(!buffer.offer(c, 100, TimeUnit.MILLISECONDS)){
+                if(closed)
+                    throw new ParsingCancelledException();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ParsingCancelledException();
+        }
+    }
+
+    private void putEnd(){
+        try {
+            while(!closed && !buffer.offer(END, 100, TimeUnit.MILLISECONDS)){
+                //wait until there is space in the buffer or the reader is closed
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws IllegalStateException if the alignment could not be parsed.
+     */
+    @Override
+    public boolean hasNext() {
+        if(next != null)
+            return true;
+        if(finished || closed)
+            return false;
+        try {
+            next = buffer.take();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the next correspondence.", ex);
+        }
+        if(next == END){
+            next = null;
+            finished = true;
+            if(parseException != null)
+                throw new IllegalStateException("Could not parse the alignment.", parseException);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public Correspondence next() {
+        if(!hasNext())
+            throw new NoSuchElementException();
+        Correspondence c = next;
+        next = null;
+        return c;
+    }
+
+    /**
+     * Returns an alignment which contains only the alignment infos (onto1, onto2, type, level, extensions) but no correspondences.
+     * The infos are only complete after the whole file is parsed but usually they appear before the first correspondence.
+     * @return an alignment without correspondences
+     */
+    public Alignment getAlignmentInfo() {
+        return alignmentInfo;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(closed)
+            return;
+        closed = true;
+        buffer.clear();
+        parserThread.interrupt();
+        inputStream.close();
+    }
+
+    /**
+     * Thrown in the parser thread to stop the SAX parser when the reader is closed.
+     */
+    private static class ParsingCancelledException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -0,0 +1,120 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * Incremental writer for alignments in the <a href="http://alignapi.gforge.inria.fr/format.html">Alignment Format</a>.
+ * The header is written when the writer is created, each correspondence is written directly with {@link #write(Correspondence)}
+ * and the footer is written when the writer is closed.
+ * Thus, alignments can be written which do not fit into memory (e.g. in combination with {@link AlignmentStreamReader}).
+ * <pre>{@code
+ * try(AlignmentStreamWriter writer = new AlignmentStreamWriter(file, alignmentInfo)){
+ *     writer.write(correspondence);
+ * }
+ * }</pre>
+ */
+public class AlignmentStreamWriter implements Closeable, Flushable {
+
+    private final Writer writer;
+    private boolean finished;
+
+    /**
+     * Constructor which directly writes the header.
+     * @param writer the writer to write to.
+     * @param alignmentInfo an alignment which contains the alignment infos (onto1, onto2, extensions) which are written in the header.
+     *                      The correspondences of this alignment are not written.
+     * @throws IOException in case the header can not be written.
+     */
+    public AlignmentStreamWriter(Writer writer, Alignment alignmentInfo) throws IOException {
+        this.writer = writer;
+        this.finished = false;
+        this.writer.write(AlignmentSerializer.getXmlIntro(alignmentInfo));
+    }
+
+    public AlignmentStreamWriter(Writer writer) throws IOException {
+        this(writer, new Alignment(false, false, false, false));
+    }
+
+    public AlignmentStreamWriter(OutputStream out, Alignment alignmentInfo) throws IOException {
+        this(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)), alignmentInfo);
+    }
+
+    public AlignmentStreamWriter(File file, Alignment alignmentInfo) throws IOException {
+        this(createOutputStream(file), alignmentInfo);
+    }
+
+    private static OutputStream createOutputStream(File file) throws IOException {
+        AlignmentSerializer.checkFile(file);
+        return new FileOutputStream(file);
+    }
+
+    /**
+     * Writes one correspondence.
+     * @param correspondence the correspondence to write
+     * @throws IOException in case of any io error
+     */
+    public void write(Correspondence correspondence) throws IOException {
+        writer.write(AlignmentSerializer.getXmlMappingCellMultiLine(correspondence));
+    }
+
+    /**
+     * Writes all correspondences.
+     * @param correspondences the correspondences to write
+     * @throws IOException in case of any io error
+     */
+    public void writeAll(Iterable<Correspondence> correspondences) throws IOException {
+        writeAll(correspondences.iterator());
+    }
+
+    /**
+     * Writes all correspondences.
+     * @param correspondences the correspondences to write
+     * @throws IOException in case of any io error
+     */
+    public void writeAll(Iterator<Correspondence> correspondences) throws IOException {
+        while(correspondences.hasNext()){
+            write(correspondences.next());
+        }
+    }
+
+    /**
+     * Writes the footer and flushes the underlying writer, but does not close it.
+     * Afterwards no more correspondences should be written.
+     * @throws IOException in case of any io error
+     */
+    public void finish() throws IOException {
+        if(finished)
+            return;
+        finished = true;
+        writer.write(AlignmentSerializer.getXmlOutro());
+        writer.flush();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    /**
+     * Writes the footer and closes the underlying writer.
+     * @throws IOException in case of any io error
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            writer.close();
+        }
+    }
+}
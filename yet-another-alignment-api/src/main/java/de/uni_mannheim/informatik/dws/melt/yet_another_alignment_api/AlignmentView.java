@@ -0,0 +1,191 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Immutable and lazy result of a set operation in {@link AlignmentSetOperations}.
+ * The correspondences are stored in a plain array sorted by source, target and relation.
+ * Thus iteration, size and lookups by source (binary search) are possible without building any index.
+ * An index for target lookups is only computed on the first call of {@link #getCorrespondencesTarget(String)}.
+ * <p>
+ * If a full (modifiable and indexed) alignment is needed, call {@link #toAlignment()}.
+ * The view can be passed to further set operations without sorting it again.
+ */
+public class AlignmentView implements Iterable<Correspondence> {
+
+    private final Correspondence[] correspondences;
+    private volatile int[] targetOrder;
+
+    /**
+     * Constructor
+     * @param sortedCorrespondences correspondences sorted with {@link AlignmentSetOperations#CORRESPONDENCE_ORDER} without duplicates.
+     */
+    AlignmentView(Correspondence[] sortedCorrespondences) {
+        this.correspondences = sortedCorrespondences;
+        this.targetOrder = null;
+    }
+
+    /**
+     * Returns the number of correspondences.
+     * @return the number of correspondences
+     */
+    public int size(){
+        return correspondences.length;
+    }
+
+    public boolean isEmpty(){
+        return correspondences.length == 0;
+    }
+
+    /**
+     * Checks if the correspondence (only source, target and relation are compared) is contained.
+     * @param c the correspondence to check
+     * @return true if it is contained
+     */
+    public boolean contains(Correspondence c){
+        return Arrays.binarySearch(correspondences, c, AlignmentSetOperations.CORRESPONDENCE_ORDER) >= 0;
+    }
+
+    /**
+     * Returns all correspondences with the given source (sorted by target and relation).
+     * @param source the source URI
+     * @return list of correspondences
+     */
+    public List<Correspondence> getCorrespondencesSource(String source){
+        List<Correspondence> result = new ArrayList<>();
+        for(int i = lowerBoundSource(source); i < correspondences.length && Objects.equals(correspondences[i].getEntityOne(), source); i++){
+            result.add(correspondences[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns all correspondences with the given source and target (sorted by relation).
+     * @param source the source URI
+     * @param target the target URI
+     * @return list of correspondences
+     */
+    public List<Correspondence> getCorrespondencesSourceTarget(String source, String target){
+        List<Correspondence> result = new ArrayList<>();
+        for(Correspondence c : getCorrespondencesSource(source)){
+            if(Objects.equals(c.getEntityTwo(), target))
+                result.add(c);
+        }
+        return result;
+    }
+
+    /**
+     * Returns all correspondences with the given target.
+     * The first call of this method sorts an index array by target.
+     * @param target the target URI
+     * @return list of correspondences
+     */
+    public List<Correspondence> getCorrespondencesTarget(String target){
+        int[] order = getTargetOrder();
+        int low = 0;
+        int high = order.length;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            if(AlignmentSetOperations.ENTITY_ORDER.compare(correspondences[order[mid]].getEntityTwo(), target) < 0)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        List<Correspondence> result = new ArrayList<>();
+        for(int i = low; i < order.length && Objects.equals(correspondences[order[i]].getEntityTwo(), target); i++){
+            result.add(correspondences[order[i]]);
+        }
+        return result;
+    }
+
+    public boolean isSourceContained(String source){
+        int i = lowerBoundSource(source);
+        return i < correspondences.length && Objects.equals(correspondences[i].getEntityOne(), source);
+    }
+
+    public boolean isTargetContained(String target){
+        return !getCorrespondencesTarget(target).isEmpty();
+    }
+
+    @Override
+    public Iterator<Correspondence> iterator() {
+        return Collections.unmodifiableList(Arrays.asList(correspondences)).iterator();
+    }
+
+    public Stream<Correspondence> stream(){
+        return Arrays.stream(correspondences);
+    }
+
+    /**
+     * Materializes this view into a new fully indexed {@link Alignment}.
+     * @return a new alignment with all correspondences of this view
+     */
+    public Alignment toAlignment(){
+        return new Alignment(Arrays.asList(correspondences));
+    }
+
+    /**
+     * Materializes this view into a new {@link CompactAlignment} which needs less memory than a usual alignment.
+     * @return a new compact alignment with all correspondences of this view
+     */
+    public CompactAlignment toCompactAlignment(){
+        CompactAlignment alignment = new CompactAlignment(correspondences.length);
+        alignment.addAll(Arrays.asList(correspondences));
+        return alignment;
+    }
+
+    /**
+     * Returns the sorted array (not a copy) for further set operations.
+     * @return sorted correspondences
+     */
+    Correspondence[] getSortedCorrespondences(){
+        return correspondences;
+    }
+
+    private int lowerBoundSource(String source){
+        int low = 0;
+        int high = correspondences.length;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            if(AlignmentSetOperations.ENTITY_ORDER.compare(correspondences[mid].getEntityOne(), source) < 0)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    private int[] getTargetOrder(){
+        int[] order = targetOrder;
+        if(order == null){
+            synchronized(this){
+                order = targetOrder;
+                if(order == null){
+                    Integer[] boxed = new Integer[correspondences.length];
+                    for(int i = 0; i < boxed.length; i++){
+                        boxed[i] = i;
+                    }
+                    Arrays.sort(boxed, Comparator.comparing(i -> correspondences[i].getEntityTwo(), AlignmentSetOperations.ENTITY_ORDER));
+                    order = new int[boxed.length];
+                    for(int i = 0; i < boxed.length; i++){
+                        order[i] = boxed[i];
+                    }
+                    targetOrder = order;
+                }
+            }
+        }
+        return order;
+    }
+
+    @Override
+    public String toString() {
+        return "AlignmentView(" + correspondences.length + " correspondences)";
+    }
+}
@@ -0,0 +1,468 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Consumer;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Writer for the compact binary alignment format which can be read with {@link MappedBinaryAlignment}.
+ * <p>
+ * The file consists of the following sections (all numbers are big endian):
+ * <ol>
+ * <li>header (fixed size, see {@link #HEADER_SIZE}): magic number, version, counts and the start position of each section</li>
+ * <li>URI offsets: uriCount + 1 longs which point into the URI data (relative to its start)</li>
+ * <li>URI data: UTF-8 encoded URIs, sorted, thus the ID of a URI can be found with binary search</li>
+ * <li>records: fixed width correspondences (int source ID, int target ID, double confidence, byte relation)
+ *     sorted by source, target and relation</li>
+ * <li>target index: for each record (sorted by target, source and relation) the int position in the records section</li>
+ * <li>extension data: identifier and extensions of correspondences which have them</li>
+ * <li>extension index: fixed width entries (int record position, long offset into extension data) sorted by record position</li>
+ * <li>metadata: the alignment infos like onto1, onto2, type, level and extensions</li>
+ * </ol>
+ * Extension values of correspondences keep their type if they are a Double, Integer, Long, Boolean or String.
+ * All other values are stored as their {@link Object#toString()} representation and are read back as strings
+ * (the same holds for the XML serialization of extensions).
+ * Each section is memory mapped as one buffer by the reader and is therefore limited to 2GB
+ * (e.g. at most {@link #MAX_RECORD_COUNT} correspondences). Larger alignments are rejected when writing.
+ * This class is used by {@link AlignmentSerializer#serializeToBinary(Alignment, File)}.
+ */
+class BinaryAlignmentFormat implements Consumer<Correspondence> {
+
+    static final int MAGIC = 0x59414142; // YAAB
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 80;
+    static final int RECORD_SIZE = 17;
+    static final int EXTENSION_INDEX_ENTRY_SIZE = 12;
+    static final long MAX_SECTION_SIZE = Integer.MAX_VALUE;
+    static final int MAX_RECORD_COUNT = (int) (MAX_SECTION_SIZE / RECORD_SIZE);
+
+    static final byte TYPE_STRING = 0;
+    static final byte TYPE_DOUBLE = 1;
+    static final byte TYPE_INTEGER = 2;
+    static final byte TYPE_LONG = 3;
+    static final byte TYPE_BOOLEAN = 4;
+
+    private final UriDictionary dictionary;
+    private int[] sources;
+    private int[] targets;
+    private double[] confidences;
+    private byte[] relations;
+    private int size;
+    private final Map<Integer, Map<String, Object>> extensions;
+    private final Map<Integer, String> identifiers;
+
+    /**
+     * Creates an empty collector for correspondences which are written with {@link #write(Alignment, File)}.
+     */
+    BinaryAlignmentFormat() {
+        this.dictionary = new UriDictionary();
+        this.sources = new int[16];
+        this.targets = new int[16];
+        this.confidences = new double[16];
+        this.relations = new byte[16];
+        this.size = 0;
+        this.extensions = new HashMap<>();
+        this.identifiers = new HashMap<>();
+    }
+
+    /**
+     * Writes all correspondences and the alignment infos to the given file.
+     * @param alignmentInfo the alignment infos (onto1, onto2 etc)
+     * @param correspondences the correspondences to write
+     * @param file the file to write to
+     * @throws IOException in case of io errors
+     */
+    static void write(Alignment alignmentInfo, Iterable<Correspondence> correspondences, File file) throws IOException {
+        BinaryAlignmentFormat format = new BinaryAlignmentFormat();
+        for(Correspondence c : correspondences){
+            format.accept(c);
+        }
+        format.write(alignmentInfo, file);
+    }
+
+    /**
+     * Collects the given correspondence in a compact way.
+     * If the same correspondence (source, target, relation) is collected multiple times, only the first one is written.
+     * @param c the correspondence to collect.
+     */
+    @Override
+    public void accept(Correspondence c) {
+        if(size == sources.length){
+            int newCapacity = sources.length + (sources.length >> 1);
+            sources = Arrays.copyOf(sources, newCapacity);
+            targets = Arrays.copyOf(targets, newCapacity);
+            confidences = Arrays.copyOf(confidences, newCapacity);
+            relations = Arrays.copyOf(relations, newCapacity);
+        }
+        sources[size] = dictionary.getOrCreateId(c.getEntityOne());
+        targets[size] = dictionary.getOrCreateId(c.getEntityTwo());
+        confidences[size] = c.getConfidence();
+        relations[size] = (byte) c.getRelation().ordinal();
+        if(c.getExtensions() != null && !c.getExtensions().isEmpty())
+            extensions.put(size, new HashMap<>(c.getExtensions()));
+        if(c.getIdentifier() != null)
+            identifiers.put(size, c.getIdentifier());
+        size++;
+    }
+
+    /**
+     * Writes all collected correspondences and the alignment infos to the given file.
+     * @param alignmentInfo the alignment infos (onto1, onto2 etc)
+     * @param file the file to write to
+     * @throws IOException in case of io errors or if a section would be larger than 2GB
+     */
+    void write(Alignment alignmentInfo, File file) throws IOException {
+        AlignmentSerializer.checkFile(file);
+        checkSectionSize("URI offsets", (dictionary.size() + 1L) * 8L);
+
+        //sort the uris and remap the ids
+        int uriCount = dictionary.size();
+        String[] sortedUris = new String[uriCount];
+        for(int i = 0; i < uriCount; i++){
+            sortedUris[i] = dictionary.getUri(i);
+        }
+        Arrays.sort(sortedUris);
+        int[] newIds = new int[uriCount];
+        for(int i = 0; i < uriCount; i++){
+            newIds[i] = Arrays.binarySearch(sortedUris, dictionary.getUri(i));
+        }
+        for(int i = 0; i < size; i++){
+            sources[i] = newIds[sources[i]];
+            targets[i] = newIds[targets[i]];
+        }
+
+        //sort the records by source, target, relation and remove duplicates (stable sort keeps the first one)
+        int[] order = identity(size);
+        sort(order, (x, y) -> compareKeys(sources, targets, x, y));
+        int[] rows = new int[size];
+        int recordCount = 0;
+        for(int row : order){
+            if(recordCount > 0 && compareKeys(sources, targets, rows[recordCount - 1], row) == 0)
+                continue;
+            rows[recordCount++] = row;
+        }
+        //the target index and the extension index need less bytes per record and are therefore smaller
+        checkSectionSize("records", (long) recordCount * RECORD_SIZE);
+
+        //target index contains record positions sorted by target, source, relation
+        int[] targetIndex = identity(recordCount);
+        sort(targetIndex, (x, y) -> compareKeys(targets, sources, rows[x], rows[y]));
+
+        byte[][] encodedUris = new byte[uriCount][];
+        long uriDataSize = 0;
+        for(int i = 0; i < uriCount; i++){
+            encodedUris[i] = sortedUris[i].getBytes(StandardCharsets.UTF_8);
+            uriDataSize += encodedUris[i].length;
+        }
+        checkSectionSize("URI data", uriDataSize);
+
+        long[] positions = new long[7];
+        int extensionCount = 0;
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))){
+            long position = HEADER_SIZE;
+            out.write(new byte[HEADER_SIZE]);
+
+            //uri offsets and data
+            positions[0] = position;
+            long offset = 0;
+            for(int i = 0; i < uriCount; i++){
+                out.writeLong(offset);
+                offset += encodedUris[i].length;
+            }
+            out.writeLong(offset);
+            position += (uriCount + 1) * 8L;
+            positions[1] = position;
+            for(byte[] uri : encodedUris){
+                out.write(uri);
+            }
+            position += offset;
+            encodedUris = null;
+
+            //records
+            positions[2] = position;
+            for(int i = 0; i < recordCount; i++){
+                int row = rows[i];
+                out.writeInt(sources[row]);
+                out.writeInt(targets[row]);
+                out.writeDouble(confidences[row]);
+                out.writeByte(relations[row]);
+            }
+            position += (long) recordCount * RECORD_SIZE;
+
+            //target index
+            positions[3] = position;
+            for(int i = 0; i < recordCount; i++){
+                out.writeInt(targetIndex[i]);
+            }
+            position += recordCount * 4L;
+
+            //extension data
+            positions[4] = position;
+            int[] extensionRecords = new int[extensions.size() + identifiers.size()];
+            long[] extensionOffsets = new long[extensionRecords.length];
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            DataOutputStream bufferOut = new DataOutputStream(buffer);
+            offset = 0;
+            for(int i = 0; i < recordCount; i++){
+                int row = rows[i];
+                Map<String, Object> extension = extensions.get(row);
+                String identifier = identifiers.get(row);
+                if(extension == null && identifier == null)
+                    continue;
+                buffer.reset();
+                writeString(bufferOut, identifier);
+                writeExtensions(bufferOut, extension);
+                bufferOut.flush();
+                checkSectionSize("extension data", offset + buffer.size());
+                buffer.writeTo(out);
+                extensionRecords[extensionCount] = i;
+                extensionOffsets[extensionCount] = offset;
+                extensionCount++;
+                offset += buffer.size();
+            }
+            position += offset;
+
+            //extension index
+            positions[5] = position;
+            for(int i = 0; i < extensionCount; i++){
+                out.writeInt(extensionRecords[i]);
+                out.writeLong(extensionOffsets[i]);
+            }
+            position += (long) extensionCount * EXTENSION_INDEX_ENTRY_SIZE;
+
+            //metadata
+            positions[6] = position;
+            writeMetadata(out, alignmentInfo);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(uriCount);
+        header.putInt(recordCount);
+        header.putInt(extensionCount);
+        header.putInt(0);
+        for(long p : positions){
+            header.putLong(p);
+        }
+        try(RandomAccessFile raf = new RandomAccessFile(file, "rw")){
+            raf.write(header.array());
+        }
+    }
+
+    private static void checkSectionSize(String section, long size) throws IOException {
+        if(size > MAX_SECTION_SIZE)
+            throw new IOException("The alignment is too large for the binary alignment format: the " + section +
+                    " section would need " + size + " bytes but at most " + MAX_SECTION_SIZE + " bytes (2GB) are supported" +
+                    " (at most " + MAX_RECORD_COUNT + " correspondences).");
+    }
+
+    /**
+     * Compares two collected rows by the first key, then by the second key and finally by relation.
+     */
+    private int compareKeys(int[] first, int[] second, int x, int y){
+        int c = Integer.compare(first[x], first[y]);
+        if(c != 0)
+            return c;
+        c = Integer.compare(second[x], second[y]);
+        if(c != 0)
+            return c;
+        return Byte.compare(relations[x], relations[y]);
+    }
+
+    private static void writeMetadata(DataOutputStream out, Alignment alignmentInfo) throws IOException {
+        writeString(out, alignmentInfo.getMethod());
+        writeString(out, alignmentInfo.getType());
+        writeString(out, alignmentInfo.getLevel());
+        writeOntoInfo(out, alignmentInfo.getOnto1());
+        writeOntoInfo(out, alignmentInfo.getOnto2());
+        writeStringMap(out, alignmentInfo.getExtensions());
+    }
+
+    private static void writeOntoInfo(DataOutputStream out, OntoInfo info) throws IOException {
+        if(info == null)
+            info = new OntoInfo();
+        writeString(out, info.getOntoID());
+        writeString(out, info.getOntoLocation());
+        writeString(out, info.getFormalism());
+        writeString(out, info.getFormalismURI());
+        writeStringMap(out, info.getExtensions());
+    }
+
+    private static void writeStringMap(DataOutputStream out, Map<String, String> map) throws IOException {
+        if(map == null){
+            out.writeInt(0);
+            return;
+        }
+        out.writeInt(map.size());
+        for(Entry<String, String> entry : map.entrySet()){
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+    }
+
+    private static void writeExtensions(DataOutputStream out, Map<String, Object> extensions) throws IOException {
+        if(extensions == null){
+            out.writeInt(0);
+            return;
+        }
+        out.writeInt(extensions.size());
+        for(Entry<String, Object> entry : extensions.entrySet()){
+            writeString(out, entry.getKey());
+            Object value = entry.getValue();
+            if(value instanceof Double){
+                out.writeByte(TYPE_DOUBLE);
+                out.writeDouble((Double) value);
+            }else if(value instanceof Integer){
+                out.writeByte(TYPE_INTEGER);
+                out.writeInt((Integer) value);
+            }else if(value instanceof Long){
+                out.writeByte(TYPE_LONG);
+                out.writeLong((Long) value);
+            }else if(value instanceof Boolean){
+                out.writeByte(TYPE_BOOLEAN);
+                out.writeBoolean((Boolean) value);
+            }else{
+                //all other types are stored as string (see class documentation)
+                out.writeByte(TYPE_STRING);
+                writeString(out, value == null ? null : value.toString());
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if(s == null){
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(DataOutputStream, String)} at the current position of the buffer.
+     * @param buffer the buffer to read from
+     * @return the string (can be null)
+     */
+    static String readString(ByteBuffer buffer){
+        int length = buffer.getInt();
+        if(length < 0)
+            return null;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static Map<String, String> readStringMap(ByteBuffer buffer){
+        int count = buffer.getInt();
+        Map<String, String> map = new HashMap<>();
+        for(int i = 0; i < count; i++){
+            String key = readString(buffer);
+            map.put(key, readString(buffer));
+        }
+        return map;
+    }
+
+    static Map<String, Object> readExtensions(ByteBuffer buffer){
+        int count = buffer.getInt();
+        Map<String, Object> map = new HashMap<>();
+        for(int i = 0; i < count; i++){
+            String key = readString(buffer);
+            byte type = buffer.get();
+            switch(type){
+                case TYPE_DOUBLE:
+                    map.put(key, buffer.getDouble());
+                    break;
+                case TYPE_INTEGER:
+                    map.put(key, buffer.getInt());
+                    break;
+                case TYPE_LONG:
+                    map.put(key, buffer.getLong());
+                    break;
+                case TYPE_BOOLEAN:
+                    map.put(key, buffer.get() != 0);
+                    break;
+                default:
+                    map.put(key, readString(buffer));
+            }
+        }
+        return map;
+    }
+
+    static Alignment readMetadata(ByteBuffer buffer){
+        Alignment alignmentInfo = new Alignment(false, false, false, false);
+        alignmentInfo.setMethod(readString(buffer));
+        alignmentInfo.setType(readString(buffer));
+        alignmentInfo.setLevel(readString(buffer));
+        alignmentInfo.setOnto1(readOntoInfo(buffer));
+        alignmentInfo.setOnto2(readOntoInfo(buffer));
+        alignmentInfo.setExtensions(readStringMap(buffer));
+        return alignmentInfo;
+    }
+
+    private static OntoInfo readOntoInfo(ByteBuffer buffer){
+        OntoInfo info = new OntoInfo(readString(buffer), readString(buffer));
+        info.setFormalism(readString(buffer));
+        info.setFormalismURI(readString(buffer));
+        for(Entry<String, String> entry : readStringMap(buffer).entrySet()){
+            info.addExtensionValue(entry.getKey(), entry.getValue());
+        }
+        return info;
+    }
+
+    private static int[] identity(int size){
+        int[] array = new int[size];
+        for(int i = 0; i < size; i++){
+            array[i] = i;
+        }
+        return array;
+    }
+
+    /**
+     * Stable (bottom up merge) sort of primitive int values with a custom comparator.
+     * @param array the array to sort
+     * @param comparator the comparator which returns a negative, zero or positive value
+     */
+    static void sort(int[] array, IntBinaryOperator comparator){
+        int n = array.length;
+        int[] source = array;
+        int[] destination = new int[n];
+        for(int width = 1; width < n; width *= 2){
+            for(int low = 0; low < n; low += 2 * width){
+                int middle = Math.min(low + width, n);
+                int high = Math.min(low + 2 * width, n);
+                int i = low;
+                int j = middle;
+                int k = low;
+                while(i < middle && j < high){
+                    if(comparator.applyAsInt(source[i], source[j]) <= 0)
+                        destination[k++] = source[i++];
+                    else
+                        destination[k++] = source[j++];
+                }
+                while(i < middle)
+                    destination[k++] = source[i++];
+                while(j < high)
+                    destination[k++] = source[j++];
+            }
+            int[] tmp = source;
+            source = destination;
+            destination = tmp;
+        }
+        if(source != array)
+            System.arraycopy(source, 0, array, 0, n);
+    }
+}
@@ -0,0 +1,1074 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import com.googlecode.cqengine.ConcurrentIndexedCollection;
+import com.googlecode.cqengine.index.support.CloseableIterator;
+import com.googlecode.cqengine.query.Query;
+import com.googlecode.cqengine.query.option.QueryOptions;
+import static com.googlecode.cqengine.query.QueryFactory.noQueryOptions;
+import com.googlecode.cqengine.resultset.ResultSet;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import org.xml.sax.SAXException;
+
+/**
+ * An {@link Alignment} which uses a compact, column based storage instead of the CQEngine object store and indexes.
+ * It can be used as a drop-in replacement whenever an alignment is too large to fit into memory
+ * (e.g. candidate alignments of instance matching tasks with millions of correspondences).
+ * <p>
+ * All URIs are interned in a dictionary and mapped to int IDs.
+ * The source, target, confidence and relation of each correspondence are stored in parallel primitive arrays.
+ * Extensions and identifiers are stored in sparse columns (only for correspondences which actually have them).
+ * Lookups by source, target and (source, target, relation) are always indexed.
+ * <p>
+ * <b>Correspondences are stored by value.</b> The correspondences returned by this alignment are created on the fly.
+ * All modifications of a returned correspondence (confidence, relation, source, target, identifier and extensions)
+ * are written back to this alignment, like for a correspondence stored in a normal {@link Alignment}.
+ * If the source, target or relation is changed to the key of another correspondence which is already contained,
+ * both are merged (like {@link #addOrModify(Correspondence)}).
+ * Differences to a normal alignment: each lookup returns a new instance, thus
+ * <b>a correspondence returned earlier does not see modifications made via another instance</b>
+ * (call the lookup again to get the current state), and correspondences which are added are copied
+ * (modifying the added instance afterwards does not change this alignment, except for its extensions).
+ * Queries via {@link #retrieve(Query)} are supported but slow, because a temporary CQEngine collection is created.
+ */
+public class CompactAlignment extends Alignment {
+
+    private static final int NONE = -1;
+    private static final int TOMBSTONE = -2;
+    private static final byte REMOVED = -1;
+    private static final CorrespondenceRelation[] RELATIONS = CorrespondenceRelation.values();
+
+    private UriDictionary dictionary;
+
+    private int[] sources;
+    private int[] targets;
+    private double[] confidences;
+    private byte[] relations;
+
+    private int[] nextBySource;
+    private int[] nextByTarget;
+    private int[] headBySource;
+    private int[] headByTarget;
+
+    /**
+     * Open addressing hash table which maps (source, target, relation) to the row.
+     */
+    private int[] keyTable;
+    private int keyTableOccupied;
+
+    /**
+     * Number of rows which are used (including removed rows).
+     */
+    private int rowCount;
+    /**
+     * Number of rows which are not removed (the size of this alignment).
+     */
+    private int liveCount;
+
+    private Map<Integer, Map<String, Object>> extensionColumn;
+    private Map<Integer, String> identifierColumn;
+
+    public CompactAlignment() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty compact alignment.
+     * @param expectedSize the expected number of correspondences (to avoid resizing of the internal arrays).
+     */
+    public CompactAlignment(int expectedSize) {
+        super(false, false, false, false);
+        initStore(expectedSize);
+    }
+
+    public CompactAlignment(Iterable<Correspondence> correspondences) {
+        this();
+        for(Correspondence c : correspondences)
+            this.add(c);
+    }
+
+    /**
+     * Copy constructor which copies all information stored in alignment as well as all correspondences.
+     * @param alignment The alignment which shall be copied (can be any alignment implementation).
+     */
+    public CompactAlignment(Alignment alignment) {
+        this(alignment, true);
+    }
+
+    /**
+     * Copy constructor which copies all information stored in alignment as well as all correspondences (depending on attribute copyCorrespondences).
+     * @param alignment The alignment which shall be copied (can be any alignment implementation).
+     * @param copyCorrespondences if true copies all information, if false copies all but no correspondences
+     */
+    public CompactAlignment(Alignment alignment, boolean copyCorrespondences) {
+        this(copyCorrespondences ? alignment.size() : 16);
+        this.method = alignment.method;
+        this.type = alignment.type;
+        this.level = alignment.level;
+        this.onto1 = new OntoInfo(alignment.onto1);
+        this.onto2 = new OntoInfo(alignment.onto2);
+        this.extensions = new HashMap<>(alignment.extensions);
+        if(copyCorrespondences)
+            addAll(alignment);
+    }
+
+    public CompactAlignment(URL url) throws SAXException, IOException {
+        this();
+        try(InputStream s = AlignmentParser.getInputStreamFromURL(url)){
+            AlignmentParser.parse(s, this);
+        }
+    }
+
+    public CompactAlignment(File f) throws SAXException, IOException {
+        this();
+        try(InputStream s = new FileInputStream(f)){
+            AlignmentParser.parse(s, this);
+        }
+    }
+
+    public CompactAlignment(InputStream s) throws SAXException, IOException {
+        this();
+        AlignmentParser.parse(s, this);
+    }
+
+    private void initStore(int expectedSize){
+        int capacity = Math.max(16, expectedSize);
+        this.dictionary = new UriDictionary(capacity);
+        this.sources = new int[capacity];
+        this.targets = new int[capacity];
+        this.confidences = new double[capacity];
+        this.relations = new byte[capacity];
+        this.nextBySource = new int[capacity];
+        this.nextByTarget = new int[capacity];
+        this.headBySource = newFilledArray(capacity);
+        this.headByTarget = newFilledArray(capacity);
+        this.rowCount = 0;
+        this.liveCount = 0;
+        this.extensionColumn = new HashMap<>();
+        this.identifierColumn = new HashMap<>();
+        this.keyTable = newFilledArray(tableSizeFor(capacity * 2));
+        this.keyTableOccupied = 0;
+    }
+
+    //////////////////////////////////////////
+    // Collection methods
+    //////////////////////////////////////////
+
+    @Override
+    public synchronized boolean add(Correspondence c) {
+        int source = dictionary.getOrCreateId(c.getEntityOne());
+        int target = dictionary.getOrCreateId(c.getEntityTwo());
+        byte relation = (byte) c.getRelation().ordinal();
+        if(findRow(source, target, relation) != NONE)
+            return false;
+        int row = addRow(source, target, c.getConfidence(), relation);
+        storeSparseColumns(row, c);
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Correspondence> correspondences) {
+        boolean changed = false;
+        for(Correspondence c : correspondences){
+            changed |= add(c);
+        }
+        return changed;
+    }
+
+    @Override
+    public synchronized boolean contains(Object o) {
+        return findRow(o) != NONE;
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        for(Object o : c){
+            if(!contains(o))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized boolean remove(Object o) {
+        int row = findRow(o);
+        if(row == NONE)
+            return false;
+        removeRow(row);
+        return true;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        boolean changed = false;
+        for(Object o : c){
+            changed |= remove(o);
+        }
+        compactIfSparse();
+        return changed;
+    }
+
+    @Override
+    public synchronized boolean retainAll(Collection<?> c) {
+        boolean changed = false;
+        for(int row = 0; row < rowCount; row++){
+            if(relations[row] != REMOVED && !c.contains(materialize(row))){
+                removeRow(row);
+                changed = true;
+            }
+        }
+        compactIfSparse();
+        return changed;
+    }
+
+    @Override
+    public synchronized void clear() {
+        initStore(16);
+    }
+
+    @Override
+    public synchronized int size() {
+        return liveCount;
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return liveCount == 0;
+    }
+
+    @Override
+    public CloseableIterator<Correspondence> iterator() {
+        return new RowIterator();
+    }
+
+    @Override
+    public synchronized Object[] toArray() {
+        return materializeAll().toArray();
+    }
+
+    @Override
+    public synchronized <T> T[] toArray(T[] a) {
+        return materializeAll().toArray(a);
+    }
+
+    /**
+     * Queries this alignment with CQEngine queries.
+     * This method is only available for compatibility: it creates a temporary (not indexed) CQEngine collection
+     * which contains all correspondences. Use the specific lookup methods like {@link #getCorrespondencesSource(String)} whenever possible.
+     * @param query the query
+     * @return the result set
+     */
+    @Override
+    public ResultSet<Correspondence> retrieve(Query<Correspondence> query) {
+        return retrieve(query, noQueryOptions());
+    }
+
+    @Override
+    public ResultSet<Correspondence> retrieve(Query<Correspondence> query, QueryOptions queryOptions) {
+        ConcurrentIndexedCollection<Correspondence> collection = new ConcurrentIndexedCollection<>();
+        collection.addAll(materializeAll());
+        return collection.retrieve(query, queryOptions);
+    }
+
+    public boolean update(Iterable<Correspondence> objectsToRemove, Iterable<Correspondence> objectsToAdd) {
+        boolean changed = false;
+        for(Correspondence c : objectsToRemove){
+            changed |= remove(c);
+        }
+        for(Correspondence c : objectsToAdd){
+            changed |= add(c);
+        }
+        return changed;
+    }
+
+    public boolean update(Iterable<Correspondence> objectsToRemove, Iterable<Correspondence> objectsToAdd, QueryOptions queryOptions) {
+        return update(objectsToRemove, objectsToAdd);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(o == this)
+            return true;
+        if(!(o instanceof Set))
+            return false;
+        Set<?> other = (Set<?>) o;
+        if(other.size() != size())
+            return false;
+        return containsAll(other);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for(Correspondence c : this){
+            hash += c.hashCode();
+        }
+        return hash;
+    }
+
+    //////////////////////////////////////////
+    // Alignment methods
+    //////////////////////////////////////////
+
+    @Override
+    public synchronized Correspondence addOrModify(Correspondence correspondence) {
+        int source = dictionary.getOrCreateId(correspondence.getEntityOne());
+        int target = dictionary.getOrCreateId(correspondence.getEntityTwo());
+        byte relation = (byte) correspondence.getRelation().ordinal();
+        int row = findRow(source, target, relation);
+        if(row == NONE){
+            row = addRow(source, target, correspondence.getConfidence(), relation);
+            storeSparseColumns(row, correspondence);
+            return correspondence;
+        }
+        mergeExtensions(row, correspondence);
+        confidences[row] = correspondence.getConfidence();
+        return materialize(row);
+    }
+
+    @Override
+    public synchronized Correspondence addOrUseHighestConfidence(Correspondence c) {
+        int source = dictionary.getOrCreateId(c.getEntityOne());
+        int target = dictionary.getOrCreateId(c.getEntityTwo());
+        byte relation = (byte) c.getRelation().ordinal();
+        int row = findRow(source, target, relation);
+        if(row == NONE){
+            row = addRow(source, target, c.getConfidence(), relation);
+            storeSparseColumns(row, c);
+            return c;
+        }
+        mergeExtensions(row, c);
+        if(c.getConfidence() > confidences[row]){
+            confidences[row] = c.getConfidence();
+        }
+        return materialize(row);
+    }
+
+    @Override
+    public synchronized Correspondence getCorrespondence(String source, String target, CorrespondenceRelation relation) {
+        int row = findRow(source, target, relation);
+        if(row == NONE)
+            return null;
+        return materialize(row);
+    }
+
+    @Override
+    public synchronized Iterable<Correspondence> getCorrespondencesSourceTarget(String source, String target) {
+        int targetId = dictionary.getId(target);
+        List<Correspondence> result = new ArrayList<>();
+        for(int row = head(headBySource, dictionary.getId(source)); row != NONE; row = nextBySource[row]){
+            if(targets[row] == targetId)
+                result.add(materialize(row));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized Iterable<Correspondence> getCorrespondencesSource(String source) {
+        List<Correspondence> result = new ArrayList<>();
+        for(int row = head(headBySource, dictionary.getId(source)); row != NONE; row = nextBySource[row]){
+            result.add(materialize(row));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized boolean isSourceContained(String source) {
+        return head(headBySource, dictionary.getId(source)) != NONE;
+    }
+
+    @Override
+    public synchronized Iterable<Correspondence> getCorrespondencesSourceRelation(String source, CorrespondenceRelation relation) {
+        List<Correspondence> result = new ArrayList<>();
+        for(int row = head(headBySource, dictionary.getId(source)); row != NONE; row = nextBySource[row]){
+            if(relations[row] == relation.ordinal())
+                result.add(materialize(row));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized Iterable<Correspondence> getCorrespondencesTarget(String target) {
+        List<Correspondence> result = new ArrayList<>();
+        for(int row = head(headByTarget, dictionary.getId(target)); row != NONE; row = nextByTarget[row]){
+            result.add(materialize(row));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized boolean isTargetContained(String target) {
+        return head(headByTarget, dictionary.getId(target)) != NONE;
+    }
+
+    @Override
+    public synchronized Iterable<Correspondence> getCorrespondencesTargetRelation(String target, CorrespondenceRelation relation) {
+        List<Correspondence> result = new ArrayList<>();
+        for(int row = head(headByTarget, dictionary.getId(target)); row != NONE; row = nextByTarget[row]){
+            if(relations[row] == relation.ordinal())
+                result.add(materialize(row));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized Iterable<Correspondence> getCorrespondencesRelation(CorrespondenceRelation relation) {
+        List<Correspondence> result = new ArrayList<>();
+        for(int row = 0; row < rowCount; row++){
+            if(relations[row] == relation.ordinal())
+                result.add(materialize(row));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void removeCorrespondencesSourceTarget(String source, String target) {
+        int targetId = dictionary.getId(target);
+        List<Integer> rows = new ArrayList<>();
+        for(int row = head(headBySource, dictionary.getId(source)); row != NONE; row = nextBySource[row]){
+            if(targets[row] == targetId)
+                rows.add(row);
+        }
+        for(int row : rows){
+            removeRow(row);
+        }
+    }
+
+    @Override
+    public synchronized void removeCorrespondencesSource(String source) {
+        int sourceId = dictionary.getId(source);
+        int row;
+        while((row = head(headBySource, sourceId)) != NONE){
+            removeRow(row);
+        }
+    }
+
+    @Override
+    public synchronized void removeCorrespondencesTarget(String target) {
+        int targetId = dictionary.getId(target);
+        int row;
+        while((row = head(headByTarget, targetId)) != NONE){
+            removeRow(row);
+        }
+    }
+
+    @Override
+    public synchronized void removeCorrespondenceExtensions() {
+        for(Map<String, Object> extension : extensionColumn.values()){
+            extension.clear();
+        }
+        extensionColumn.clear();
+    }
+
+    @Override
+    public synchronized CompactAlignment cut(double threshold) {
+        CompactAlignment m = new CompactAlignment(this, false);
+        for(int row = 0; row < rowCount; row++){
+            if(relations[row] != REMOVED && confidences[row] >= threshold)
+                m.add(materialize(row));
+        }
+        return m;
+    }
+
+    @Override
+    public CompactAlignment sample(int n, Random rnd) {
+        if(n > this.size() || n < 0) {
+            throw new IllegalArgumentException("Parameter n is out of range (smaller zero or greater than the size of current alignment.");
+        }
+        List<Correspondence> correspondenceList = materializeAll();
+        Collections.shuffle(correspondenceList, rnd);
+        CompactAlignment samples = new CompactAlignment(this, false);
+        samples.addAll(correspondenceList.subList(0, n));
+        return samples;
+    }
+
+    @Override
+    public CompactAlignment reverseWithoutRelationChange() {
+        CompactAlignment result = new CompactAlignment(this, false);
+        for(Correspondence c : this){
+            result.add(c.reverseWithoutRelationChange());
+        }
+        return result;
+    }
+
+    @Override
+    public CompactAlignment reverse() {
+        CompactAlignment result = new CompactAlignment(this, false);
+        for(Correspondence c : this){
+            result.add(c.reverse());
+        }
+        return result;
+    }
+
+    /**
+     * Nothing to do, because the compact alignment is always indexed on source and target.
+     */
+    @Override
+    public void assertIndexOnSource() { }
+
+    /**
+     * Nothing to do, because the compact alignment is always indexed on source and target.
+     */
+    @Override
+    public void assertIndexOnTarget() { }
+
+    /**
+     * Nothing to do, because relations are stored as a byte column which is scanned.
+     */
+    @Override
+    public void assertIndexOnRelation() { }
+
+    /**
+     * Nothing to do, because confidences are stored as a double column which is scanned.
+     */
+    @Override
+    public void assertIndexOnConfidence() { }
+
+    @Override
+    protected boolean hasIndexOnSource() {
+        return true;
+    }
+
+    @Override
+    protected boolean hasIndexOnTarget() {
+        return true;
+    }
+
+    @Override
+    public synchronized Iterable<String> getDistinctSources() {
+        return distinctUris(headBySource);
+    }
+
+    @Override
+    public synchronized Iterable<String> getDistinctTargets() {
+        return distinctUris(headByTarget);
+    }
+
+    @Override
+    public synchronized Iterable<CorrespondenceRelation> getDistinctRelations() {
+        Set<CorrespondenceRelation> distinct = EnumSet.noneOf(CorrespondenceRelation.class);
+        for(int row = 0; row < rowCount; row++){
+            if(relations[row] != REMOVED)
+                distinct.add(RELATIONS[relations[row]]);
+        }
+        return distinct;
+    }
+
+    @Override
+    public synchronized Iterable<Double> getDistinctConfidences() {
+        Set<Double> distinct = new HashSet<>();
+        for(int row = 0; row < rowCount; row++){
+            if(relations[row] != REMOVED)
+                distinct.add(confidences[row]);
+        }
+        return distinct;
+    }
+
+    /**
+     * Removes the space occupied by removed correspondences.
+     * This is automatically done after {@link #removeAll(Collection)} and {@link #retainAll(Collection)} in case
+     * more than half of the rows are removed.
+     * Should not be called while iterating over this alignment.
+     */
+    public synchronized void compact() {
+        Map<Integer, Map<String, Object>> newExtensionColumn = new HashMap<>();
+        Map<Integer, String> newIdentifierColumn = new HashMap<>();
+        int newRow = 0;
+        for(int row = 0; row < rowCount; row++){
+            if(relations[row] == REMOVED)
+                continue;
+            sources[newRow] = sources[row];
+            targets[newRow] = targets[row];
+            confidences[newRow] = confidences[row];
+            relations[newRow] = relations[row];
+            Map<String, Object> extension = extensionColumn.get(row);
+            if(extension != null)
+                newExtensionColumn.put(newRow, extension);
+            String identifier = identifierColumn.get(row);
+            if(identifier != null)
+                newIdentifierColumn.put(newRow, identifier);
+            newRow++;
+        }
+        this.rowCount = newRow;
+        this.extensionColumn = newExtensionColumn;
+        this.identifierColumn = newIdentifierColumn;
+
+        int capacity = Math.max(16, newRow);
+        this.sources = Arrays.copyOf(sources, capacity);
+        this.targets = Arrays.copyOf(targets, capacity);
+        this.confidences = Arrays.copyOf(confidences, capacity);
+        this.relations = Arrays.copyOf(relations, capacity);
+        this.nextBySource = new int[capacity];
+        this.nextByTarget = new int[capacity];
+        Arrays.fill(headBySource, NONE);
+        Arrays.fill(headByTarget, NONE);
+        for(int row = 0; row < rowCount; row++){
+            nextBySource[row] = headBySource[sources[row]];
+            headBySource[sources[row]] = row;
+            nextByTarget[row] = headByTarget[targets[row]];
+            headByTarget[targets[row]] = row;
+        }
+        rebuildKeyTable(liveCount);
+    }
+
+    //////////////////////////////////////////
+    // Row storage
+    //////////////////////////////////////////
+
+    private int addRow(int source, int target, double confidence, byte relation){
+        if((keyTableOccupied + 1) * 2 > keyTable.length){
+            rebuildKeyTable(liveCount + 1);
+        }
+        ensureRowCapacity(rowCount + 1);
+        ensureUriCapacity(dictionary.size());
+        int row = rowCount++;
+        sources[row] = source;
+        targets[row] = target;
+        confidences[row] = confidence;
+        relations[row] = relation;
+        nextBySource[row] = headBySource[source];
+        headBySource[source] = row;
+        nextByTarget[row] = headByTarget[target];
+        headByTarget[target] = row;
+
+        int mask = keyTable.length - 1;
+        int i = hash(source, target, relation) & mask;
+        while(keyTable[i] >= 0){
+            i = (i + 1) & mask;
+        }
+        if(keyTable[i] == NONE)
+            keyTableOccupied++;
+        keyTable[i] = row;
+        liveCount++;
+        return row;
+    }
+
+    private void removeRow(int row){
+        int mask = keyTable.length - 1;
+        int i = hash(sources[row], targets[row], relations[row]) & mask;
+        while(keyTable[i] != row){
+            i = (i + 1) & mask;
+        }
+        keyTable[i] = TOMBSTONE;
+        unlink(headBySource, nextBySource, sources[row], row);
+        unlink(headByTarget, nextByTarget, targets[row], row);
+        relations[row] = REMOVED;
+        extensionColumn.remove(row);
+        identifierColumn.remove(row);
+        liveCount--;
+    }
+
+    private static void unlink(int[] heads, int[] next, int key, int row){
+        if(heads[key] == row){
+            heads[key] = next[row];
+            return;
+        }
+        int previous = heads[key];
+        while(next[previous] != row){
+            previous = next[previous];
+        }
+        next[previous] = next[row];
+    }
+
+    private int findRow(Object o){
+        if(!(o instanceof Correspondence))
+            return NONE;
+        Correspondence c = (Correspondence) o;
+        return findRow(c.getEntityOne(), c.getEntityTwo(), c.getRelation());
+    }
+
+    private int findRow(String source, String target, CorrespondenceRelation relation){
+        if(relation == null)
+            return NONE;
+        int sourceId = dictionary.getId(source);
+        int targetId = dictionary.getId(target);
+        if(sourceId == UriDictionary.NOT_CONTAINED || targetId == UriDictionary.NOT_CONTAINED)
+            return NONE;
+        return findRow(sourceId, targetId, (byte) relation.ordinal());
+    }
+
+    private int findRow(int source, int target, byte relation){
+        int mask = keyTable.length - 1;
+        int i = hash(source, target, relation) & mask;
+        while(true){
+            int row = keyTable[i];
+            if(row == NONE)
+                return NONE;
+            if(row >= 0 && sources[row] == source && targets[row] == target && relations[row] == relation)
+                return row;
+            i = (i + 1) & mask;
+        }
+    }
+
+    private void rebuildKeyTable(int expectedSize){
+        keyTable = newFilledArray(tableSizeFor(Math.max(16, expectedSize * 4)));
+        keyTableOccupied = 0;
+        int mask = keyTable.length - 1;
+        for(int row = 0; row < rowCount; row++){
+            if(relations[row] == REMOVED)
+                continue;
+            int i = hash(sources[row], targets[row], relations[row]) & mask;
+            while(keyTable[i] != NONE){
+                i = (i + 1) & mask;
+            }
+            keyTable[i] = row;
+            keyTableOccupied++;
+        }
+    }
+
+    private synchronized void compactIfSparse(){
+        if(rowCount - liveCount > 1024 && rowCount - liveCount > liveCount)
+            compact();
+    }
+
+    private void ensureRowCapacity(int capacity){
+        if(capacity <= sources.length)
+            return;
+        int newCapacity = Math.max(capacity, sources.length + (sources.length >> 1));
+        sources = Arrays.copyOf(sources, newCapacity);
+        targets = Arrays.copyOf(targets, newCapacity);
+        confidences = Arrays.copyOf(confidences, newCapacity);
+        relations = Arrays.copyOf(relations, newCapacity);
+        nextBySource = Arrays.copyOf(nextBySource, newCapacity);
+        nextByTarget = Arrays.copyOf(nextByTarget, newCapacity);
+    }
+
+    private void ensureUriCapacity(int capacity){
+        if(capacity <= headBySource.length)
+            return;
+        int newCapacity = Math.max(capacity, headBySource.length + (headBySource.length >> 1));
+        headBySource = grow(headBySource, newCapacity);
+        headByTarget = grow(headByTarget, newCapacity);
+    }
+
+    private static int[] grow(int[] array, int newCapacity){
+        int oldLength = array.length;
+        int[] grown = Arrays.copyOf(array, newCapacity);
+        Arrays.fill(grown, oldLength, newCapacity, NONE);
+        return grown;
+    }
+
+    private static int head(int[] heads, int uriId){
+        if(uriId < 0 || uriId >= heads.length)
+            return NONE;
+        return heads[uriId];
+    }
+
+    private static int[] newFilledArray(int size){
+        int[] array = new int[size];
+        Arrays.fill(array, NONE);
+        return array;
+    }
+
+    private static int tableSizeFor(int n){
+        int capacity = 1;
+        while(capacity < n)
+            capacity <<= 1;
+        return capacity;
+    }
+
+    private static int hash(int source, int target, int relation){
+        int h = source * 0x9E3779B9 + target;
+        h = h * 0x9E3779B9 + relation;
+        return h ^ (h >>> 16);
+    }
+
+    private List<String> distinctUris(int[] heads){
+        List<String> distinct = new ArrayList<>();
+        int max = Math.min(heads.length, dictionary.size());
+        for(int id = 0; id < max; id++){
+            if(heads[id] != NONE)
+                distinct.add(dictionary.getUri(id));
+        }
+        return distinct;
+    }
+
+    private void storeSparseColumns(int row, Correspondence c){
+        Map<String, Object> extension = c.getExtensions();
+        if(extension != null && !extension.isEmpty()){
+            //views are bound to another alignment and thus copied
+            extensionColumn.put(row, extension instanceof ExtensionView ? new HashMap<>(extension) : extension);
+        }
+        if(c.getIdentifier() != null)
+            identifierColumn.put(row, c.getIdentifier());
+    }
+
+    private void mergeExtensions(int row, Correspondence c){
+        Map<String, Object> extension = c.getExtensions();
+        if(extension == null || extension.isEmpty())
+            return;
+        Map<String, Object> stored = extensionColumn.get(row);
+        if(stored == null){
+            stored = new HashMap<>();
+            extensionColumn.put(row, stored);
+        }
+        stored.putAll(extension);
+    }
+
+    private Correspondence materialize(int row){
+        return new RowCorrespondence(row);
+    }
+
+    private synchronized List<Correspondence> materializeAll(){
+        List<Correspondence> list = new ArrayList<>(liveCount);
+        for(int row = 0; row < rowCount; row++){
+            if(relations[row] != REMOVED)
+                list.add(materialize(row));
+        }
+        return list;
+    }
+
+    /**
+     * Iterator over all rows which are not removed.
+     */
+    private class RowIterator implements CloseableIterator<Correspondence> {
+
+        private int nextRow = advance(0);
+        private int lastRow = NONE;
+
+        private int advance(int row){
+            synchronized(CompactAlignment.this){
+                while(row < rowCount && relations[row] == REMOVED)
+                    row++;
+                return row;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return advance(nextRow) < rowCount;
+        }
+
+        @Override
+        public Correspondence next() {
+            synchronized(CompactAlignment.this){
+                nextRow = advance(nextRow);
+                if(nextRow >= rowCount)
+                    throw new NoSuchElementException();
+                lastRow = nextRow;
+                nextRow++;
+                return materialize(lastRow);
+            }
+        }
+
+        @Override
+        public void remove() {
+            synchronized(CompactAlignment.this){
+                if(lastRow == NONE || relations[lastRow] == REMOVED)
+                    throw new IllegalStateException();
+                removeRow(lastRow);
+                lastRow = NONE;
+            }
+        }
+
+        @Override
+        public void close() { }
+    }
+
+    /**
+     * Correspondence which is returned by this alignment. All modifications are written back to the row.
+     * It is bound to source, target and relation and not to the row, thus it is stable under compaction.
+     * If the correspondence is removed from the alignment, it behaves like a normal correspondence.
+     */
+    private class RowCorrespondence extends Correspondence {
+
+        private int sourceId;
+        private int targetId;
+        private byte relationId;
+
+        RowCorrespondence(int row) {
+            super(dictionary.getUri(sources[row]), dictionary.getUri(targets[row]), confidences[row],
+                    RELATIONS[relations[row]], null, identifierColumn.get(row));
+            this.sourceId = sources[row];
+            this.targetId = targets[row];
+            this.relationId = relations[row];
+            Map<String, Object> extension = extensionColumn.get(row);
+            this.extensions = extension == null ? new ExtensionView(this) : extension;
+        }
+
+        @Override
+        public void setConfidence(double confidence) {
+            synchronized(CompactAlignment.this){
+                super.setConfidence(confidence);
+                int row = findRow(sourceId, targetId, relationId);
+                if(row != NONE)
+                    confidences[row] = confidence;
+            }
+        }
+
+        @Override
+        public void setIdentifier(String identifier) {
+            synchronized(CompactAlignment.this){
+                super.setIdentifier(identifier);
+                int row = findRow(sourceId, targetId, relationId);
+                if(row != NONE){
+                    if(identifier == null)
+                        identifierColumn.remove(row);
+                    else
+                        identifierColumn.put(row, identifier);
+                }
+            }
+        }
+
+        @Override
+        public void setEntityOne(String entityOne) {
+            synchronized(CompactAlignment.this){
+                super.setEntityOne(entityOne);
+                changeKey();
+            }
+        }
+
+        @Override
+        public void setEntityTwo(String entityTwo) {
+            synchronized(CompactAlignment.this){
+                super.setEntityTwo(entityTwo);
+                changeKey();
+            }
+        }
+
+        @Override
+        public void setRelation(CorrespondenceRelation relation) {
+            synchronized(CompactAlignment.this){
+                super.setRelation(relation);
+                changeKey();
+            }
+        }
+
+        /**
+         * Moves the row to the new source, target and relation of this correspondence (merges it into an existing row with the same key).
+         */
+        private void changeKey(){
+            if(entityOne == null || entityTwo == null || relation == null)
+                return;
+            int newSource = dictionary.getOrCreateId(entityOne);
+            int newTarget = dictionary.getOrCreateId(entityTwo);
+            byte newRelation = (byte) relation.ordinal();
+            if(newSource == sourceId && newTarget == targetId && newRelation == relationId)
+                return;
+            int row = findRow(sourceId, targetId, relationId);
+            sourceId = newSource;
+            targetId = newTarget;
+            relationId = newRelation;
+            if(row == NONE)
+                return; //removed from the alignment: only this instance is changed
+            Map<String, Object> extension = extensionColumn.get(row);
+            String storedIdentifier = identifierColumn.get(row);
+            removeRow(row);
+            int newRow = findRow(sourceId, targetId, relationId);
+            if(newRow == NONE){
+                newRow = addRow(sourceId, targetId, confidence, relationId);
+                if(extension != null)
+                    extensionColumn.put(newRow, extension);
+                if(storedIdentifier != null)
+                    identifierColumn.put(newRow, storedIdentifier);
+            }else{
+                confidences[newRow] = confidence;
+                if(extension != null && !extension.isEmpty()){
+                    Map<String, Object> stored = extensionColumn.get(newRow);
+                    if(stored == null)
+                        extensionColumn.put(newRow, extension);
+                    else
+                        stored.putAll(extension);
+                }
+                if(storedIdentifier != null && !identifierColumn.containsKey(newRow))
+                    identifierColumn.put(newRow, storedIdentifier);
+            }
+            Map<String, Object> stored = extensionColumn.get(newRow);
+            this.extensions = stored == null ? new ExtensionView(this) : stored;
+        }
+    }
+
+    /**
+     * Extension map of a correspondence which has no extensions (yet).
+     * All write operations are written back to the extension column of this alignment.
+     * The view uses the current source, target and relation of its correspondence and not the row, thus it is stable under compaction.
+     */
+    private class ExtensionView extends AbstractMap<String, Object> {
+
+        private final RowCorrespondence correspondence;
+        private Map<String, Object> detached;
+
+        ExtensionView(RowCorrespondence correspondence) {
+            this.correspondence = correspondence;
+            this.detached = null;
+        }
+
+        private Map<String, Object> lookup(boolean create){
+            synchronized(CompactAlignment.this){
+                int row = findRow(correspondence.sourceId, correspondence.targetId, correspondence.relationId);
+                if(row == NONE){
+                    //correspondence is removed from the alignment - behave like a normal map
+                    if(detached == null && create)
+                        detached = new HashMap<>();
+                    return detached;
+                }
+                Map<String, Object> stored = extensionColumn.get(row);
+                if(stored == null && create){
+                    stored = new HashMap<>();
+                    extensionColumn.put(row, stored);
+                }
+                return stored;
+            }
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            Map<String, Object> stored = lookup(false);
+            if(stored == null)
+                return Collections.emptySet();
+            return stored.entrySet();
+        }
+
+        @Override
+        public Object get(Object key) {
+            Map<String, Object> stored = lookup(false);
+            return stored == null ? null : stored.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            Map<String, Object> stored = lookup(false);
+            return stored != null && stored.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            Map<String, Object> stored = lookup(false);
+            return stored == null ? 0 : stored.size();
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            return lookup(true).put(key, value);
+        }
+
+        @Override
+        public Object remove(Object key) {
+            Map<String, Object> stored = lookup(false);
+            return stored == null ? null : stored.remove(key);
+        }
+
+        @Override
+        public void clear() {
+            Map<String, Object> stored = lookup(false);
+            if(stored != null)
+                stored.clear();
+        }
+    }
+}
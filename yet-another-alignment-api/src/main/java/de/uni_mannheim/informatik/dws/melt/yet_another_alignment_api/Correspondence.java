@@ -463,10 +463,7 @@ public class Correspondence implements Comparable<Correspondence> {
         if (this == obj) {
             return true;
         }
-        if (obj == null) {
-            return false;
-        }
-        if (getClass() != obj.getClass()) {
+        if (!(obj instanceof Correspondence)) {
             return false;
         }
         final Correspondence other = (Correspondence) obj;
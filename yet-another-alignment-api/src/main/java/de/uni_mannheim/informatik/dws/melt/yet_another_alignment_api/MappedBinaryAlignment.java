@@ -0,0 +1,451 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Read only view on an alignment which is stored in the binary alignment format
+ * (written by {@link AlignmentSerializer#serializeToBinary(Alignment, File)}).
+ * The file is memory mapped, thus opening it is nearly free and only the pages which are actually accessed are loaded by the operating system.
+ * Lookups by source and/or target are executed with a binary search directly on the mapped file without deserializing the whole alignment.
+ * <p>
+ * If a full (modifiable) alignment is needed, call {@link #toAlignment()}.
+ * Instances can be used by multiple threads in parallel because only absolute reads are executed on the mapped buffers.
+ * The file should not be modified as long as this object is in use.
+ * After {@link #close()} is called, all lookups throw an {@link IllegalStateException}
+ * (lookups which already started before are finished on the still mapped buffers).
+ * <p>
+ * Each section of the file is mapped as one buffer and is therefore limited to 2GB
+ * (e.g. at most {@value #MAX_RECORD_COUNT} correspondences).
+ */
+public class MappedBinaryAlignment implements Iterable<Correspondence>, Closeable {
+
+    /**
+     * The maximum number of correspondences (the records section has to fit in one buffer of at most 2GB).
+     */
+    public static final int MAX_RECORD_COUNT = BinaryAlignmentFormat.MAX_RECORD_COUNT;
+
+    private static final CorrespondenceRelation[] RELATIONS = CorrespondenceRelation.values();
+
+    private final File file;
+    private final int uriCount;
+    private final int recordCount;
+    private final int extensionCount;
+
+    /**
+     * The mapped sections or null if this alignment is closed.
+     * Every lookup reads this field once such that a concurrent {@link #close()} cannot change the buffers during a lookup.
+     */
+    private volatile Sections sections;
+    private final Alignment alignmentInfo;
+
+    /**
+     * Opens (memory maps) the given file.
+     * @param file the file which contains the alignment in binary format
+     * @throws IOException in case the file cannot be read, is not in the binary alignment format or a section is larger than 2GB
+     */
+    public MappedBinaryAlignment(File file) throws IOException {
+        this.file = file;
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+            long fileSize = channel.size();
+            if(fileSize < BinaryAlignmentFormat.HEADER_SIZE)
+                throw new IOException("The file " + file + " is not in the binary alignment format (file too small).");
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, BinaryAlignmentFormat.HEADER_SIZE);
+            if(header.getInt() != BinaryAlignmentFormat.MAGIC)
+                throw new IOException("The file " + file + " is not in the binary alignment format (wrong magic number).");
+            int version = header.getInt();
+            if(version != BinaryAlignmentFormat.VERSION)
+                throw new IOException("The binary alignment format version " + version + " of file " + file + " is not supported.");
+            this.uriCount = header.getInt();
+            this.recordCount = header.getInt();
+            this.extensionCount = header.getInt();
+            header.getInt(); //reserved
+            if(uriCount < 0 || recordCount < 0 || extensionCount < 0)
+                throw new IOException("The binary alignment file " + file + " is corrupt (negative count).");
+            long[] positions = new long[8];
+            for(int i = 0; i < 7; i++){
+                positions[i] = header.getLong();
+            }
+            positions[7] = fileSize;
+
+            //the section sizes have to match the counts, thus all positions within a section fit into an int
+            checkSectionSize(positions, 0, (uriCount + 1L) * 8L, "URI offsets");
+            checkSectionSize(positions, 2, (long) recordCount * BinaryAlignmentFormat.RECORD_SIZE, "records");
+            checkSectionSize(positions, 3, recordCount * 4L, "target index");
+            checkSectionSize(positions, 5, (long) extensionCount * BinaryAlignmentFormat.EXTENSION_INDEX_ENTRY_SIZE, "extension index");
+
+            this.sections = new Sections(
+                map(channel, positions[0], positions[1]),
+                map(channel, positions[1], positions[2]),
+                map(channel, positions[2], positions[3]),
+                map(channel, positions[3], positions[4]),
+                map(channel, positions[4], positions[5]),
+                map(channel, positions[5], positions[6]));
+            this.alignmentInfo = BinaryAlignmentFormat.readMetadata(map(channel, positions[6], positions[7]));
+        }
+    }
+
+    private void checkSectionSize(long[] positions, int section, long expectedSize, String name) throws IOException {
+        if(positions[section + 1] - positions[section] != expectedSize)
+            throw new IOException("The binary alignment file " + file + " is corrupt (the size of the " + name +
+                    " section does not match the header).");
+    }
+
+    private static ByteBuffer map(FileChannel channel, long start, long end) throws IOException {
+        long length = end - start;
+        if(length < 0)
+            throw new IOException("The binary alignment file is corrupt (negative section size).");
+        if(length > Integer.MAX_VALUE)
+            throw new IOException("A section of the binary alignment file is larger than 2GB which is not supported.");
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        return buffer;
+    }
+
+    /**
+     * Returns the number of correspondences.
+     * @return the number of correspondences
+     */
+    public int size(){
+        return recordCount;
+    }
+
+    public boolean isEmpty(){
+        return recordCount == 0;
+    }
+
+    /**
+     * Returns the file which is mapped.
+     * @return the file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Returns an alignment which contains only the alignment infos (onto1, onto2, type, level, extensions) but no correspondences.
+     * @return an alignment without correspondences
+     */
+    public Alignment getAlignmentInfo() {
+        return alignmentInfo;
+    }
+
+    /**
+     * Returns all correspondences with the given source.
+     * @param source the source URI
+     * @return list of correspondences sorted by target and relation
+     */
+    public List<Correspondence> getCorrespondencesSource(String source){
+        Sections s = getSections();
+        List<Correspondence> result = new ArrayList<>();
+        int sourceId = getUriId(s, source);
+        if(sourceId < 0)
+            return result;
+        for(int record = lowerBoundSource(s, sourceId, -1); record < recordCount && getSourceId(s, record) == sourceId; record++){
+            result.add(getCorrespondence(s, record));
+        }
+        return result;
+    }
+
+    /**
+     * Returns all correspondences with the given target.
+     * @param target the target URI
+     * @return list of correspondences sorted by source and relation
+     */
+    public List<Correspondence> getCorrespondencesTarget(String target){
+        Sections s = getSections();
+        List<Correspondence> result = new ArrayList<>();
+        int targetId = getUriId(s, target);
+        if(targetId < 0)
+            return result;
+        for(int i = lowerBoundTarget(s, targetId); i < recordCount; i++){
+            int record = getTargetIndexRecord(s, i);
+            if(getTargetId(s, record) != targetId)
+                break;
+            result.add(getCorrespondence(s, record));
+        }
+        return result;
+    }
+
+    /**
+     * Returns all correspondences with the given source and target (with any relation).
+     * @param source the source URI
+     * @param target the target URI
+     * @return list of correspondences sorted by relation
+     */
+    public List<Correspondence> getCorrespondencesSourceTarget(String source, String target){
+        Sections s = getSections();
+        List<Correspondence> result = new ArrayList<>();
+        int sourceId = getUriId(s, source);
+        int targetId = getUriId(s, target);
+        if(sourceId < 0 || targetId < 0)
+            return result;
+        for(int record = lowerBoundSource(s, sourceId, targetId); record < recordCount; record++){
+            if(getSourceId(s, record) != sourceId || getTargetId(s, record) != targetId)
+                break;
+            result.add(getCorrespondence(s, record));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the correspondence with the given source, target and relation.
+     * @param source the source URI
+     * @param target the target URI
+     * @param relation the relation
+     * @return the correspondence or null if not contained
+     */
+    public Correspondence getCorrespondence(String source, String target, CorrespondenceRelation relation){
+        for(Correspondence c : getCorrespondencesSourceTarget(source, target)){
+            if(c.getRelation() == relation)
+                return c;
+        }
+        return null;
+    }
+
+    /**
+     * Checks if the correspondence (only source, target and relation are compared) is contained.
+     * @param c the correspondence to check
+     * @return true if it is contained
+     */
+    public boolean contains(Correspondence c){
+        return getCorrespondence(c.getEntityOne(), c.getEntityTwo(), c.getRelation()) != null;
+    }
+
+    public boolean isSourceContained(String source){
+        Sections s = getSections();
+        int sourceId = getUriId(s, source);
+        if(sourceId < 0)
+            return false;
+        int record = lowerBoundSource(s, sourceId, -1);
+        return record < recordCount && getSourceId(s, record) == sourceId;
+    }
+
+    public boolean isTargetContained(String target){
+        Sections s = getSections();
+        int targetId = getUriId(s, target);
+        if(targetId < 0)
+            return false;
+        int i = lowerBoundTarget(s, targetId);
+        return i < recordCount && getTargetId(s, getTargetIndexRecord(s, i)) == targetId;
+    }
+
+    /**
+     * Iterates over all correspondences sorted by source, target and relation.
+     * The correspondences are created on the fly.
+     * @return iterator over all correspondences
+     */
+    @Override
+    public Iterator<Correspondence> iterator() {
+        return new Iterator<Correspondence>() {
+            private int record = 0;
+
+            @Override
+            public boolean hasNext() {
+                return record < recordCount;
+            }
+
+            @Override
+            public Correspondence next() {
+                if(record >= recordCount)
+                    throw new NoSuchElementException();
+                return getCorrespondence(getSections(), record++);
+            }
+        };
+    }
+
+    /**
+     * Deserializes the whole file into a new {@link Alignment}.
+     * @return a new alignment with all correspondences and alignment infos
+     */
+    public Alignment toAlignment(){
+        return toAlignment(new Alignment());
+    }
+
+    /**
+     * Adds all correspondences to the given alignment and sets the alignment infos.
+     * This allows to choose the alignment implementation e.g. {@link CompactAlignment}.
+     * @param alignment the alignment to fill
+     * @param <T> the type of alignment
+     * @return the given alignment
+     */
+    public <T extends Alignment> T toAlignment(T alignment){
+        alignment.setMethod(alignmentInfo.getMethod());
+        alignment.setType(alignmentInfo.getType());
+        alignment.setLevel(alignmentInfo.getLevel());
+        alignment.setOnto1(alignmentInfo.getOnto1());
+        alignment.setOnto2(alignmentInfo.getOnto2());
+        alignment.setExtensions(alignmentInfo.getExtensions());
+        for(Correspondence c : this){
+            alignment.add(c);
+        }
+        return alignment;
+    }
+
+    /**
+     * Releases the references to the mapped buffers. The mapping itself is released by the garbage collector
+     * (the JDK does not provide a public API to unmap a buffer), thus lookups which run concurrently are finished safely.
+     * Any further lookup throws an {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        this.sections = null;
+    }
+
+    private Sections getSections(){
+        Sections s = this.sections;
+        if(s == null)
+            throw new IllegalStateException("The binary alignment " + file + " is already closed.");
+        return s;
+    }
+
+    private Correspondence getCorrespondence(Sections s, int record){
+        int position = getRecordPosition(record);
+        String source = getUri(s, s.records.getInt(position));
+        String target = getUri(s, s.records.getInt(position + 4));
+        double confidence = s.records.getDouble(position + 8);
+        CorrespondenceRelation relation = RELATIONS[s.records.get(position + 16)];
+        int extensionPosition = findExtension(s, record);
+        if(extensionPosition < 0)
+            return new Correspondence(source, target, confidence, relation);
+        ByteBuffer buffer = s.extensionData.duplicate();
+        buffer.position(extensionPosition);
+        String identifier = BinaryAlignmentFormat.readString(buffer);
+        return new Correspondence(source, target, confidence, relation, BinaryAlignmentFormat.readExtensions(buffer), identifier);
+    }
+
+    /**
+     * Returns the position of the record in the records section.
+     * The computation is done with longs but the result fits into an int because the section size is checked when opening the file.
+     */
+    private static int getRecordPosition(int record){
+        return (int) ((long) record * BinaryAlignmentFormat.RECORD_SIZE);
+    }
+
+    private static int getSourceId(Sections s, int record){
+        return s.records.getInt(getRecordPosition(record));
+    }
+
+    private static int getTargetId(Sections s, int record){
+        return s.records.getInt(getRecordPosition(record) + 4);
+    }
+
+    private static int getTargetIndexRecord(Sections s, int i){
+        return s.targetIndex.getInt((int) (i * 4L));
+    }
+
+    /**
+     * Returns the first record with the given source and a target greater or equal to the given target.
+     */
+    private int lowerBoundSource(Sections s, int sourceId, int targetId){
+        int low = 0;
+        int high = recordCount;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            int source = getSourceId(s, mid);
+            if(source < sourceId || (source == sourceId && getTargetId(s, mid) < targetId))
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Returns the first position in the target index with the given target.
+     */
+    private int lowerBoundTarget(Sections s, int targetId){
+        int low = 0;
+        int high = recordCount;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            if(getTargetId(s, getTargetIndexRecord(s, mid)) < targetId)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Returns the position in the extension data for the given record or -1 if the record has no extensions.
+     */
+    private int findExtension(Sections s, int record){
+        int low = 0;
+        int high = extensionCount - 1;
+        while(low <= high){
+            int mid = (low + high) >>> 1;
+            int position = (int) ((long) mid * BinaryAlignmentFormat.EXTENSION_INDEX_ENTRY_SIZE);
+            int r = s.extensionIndex.getInt(position);
+            if(r < record)
+                low = mid + 1;
+            else if(r > record)
+                high = mid - 1;
+            else
+                return (int) s.extensionIndex.getLong(position + 4);
+        }
+        return -1;
+    }
+
+    private static String getUri(Sections s, int id){
+        int start = (int) s.uriOffsets.getLong((int) (id * 8L));
+        int end = (int) s.uriOffsets.getLong((int) ((id + 1L) * 8L));
+        byte[] bytes = new byte[end - start];
+        ByteBuffer buffer = s.uriData.duplicate();
+        buffer.position(start);
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the ID of the given URI (binary search in the sorted URIs) or -1 if not contained.
+     */
+    private int getUriId(Sections s, String uri){
+        if(uri == null)
+            return -1;
+        int low = 0;
+        int high = uriCount - 1;
+        while(low <= high){
+            int mid = (low + high) >>> 1;
+            int cmp = getUri(s, mid).compareTo(uri);
+            if(cmp < 0)
+                low = mid + 1;
+            else if(cmp > 0)
+                high = mid - 1;
+            else
+                return mid;
+        }
+        return -1;
+    }
+
+    /**
+     * The mapped sections of the file (immutable, thus safely published by the volatile field).
+     */
+    private static final class Sections {
+        private final ByteBuffer uriOffsets;
+        private final ByteBuffer uriData;
+        private final ByteBuffer records;
+        private final ByteBuffer targetIndex;
+        private final ByteBuffer extensionData;
+        private final ByteBuffer extensionIndex;
+
+        Sections(ByteBuffer uriOffsets, ByteBuffer uriData, ByteBuffer records, ByteBuffer targetIndex,
+                 ByteBuffer extensionData, ByteBuffer extensionIndex) {
+            this.uriOffsets = uriOffsets;
+            this.uriData = uriData;
+            this.records = records;
+            this.targetIndex = targetIndex;
+            this.extensionData = extensionData;
+            this.extensionIndex = extensionIndex;
+        }
+    }
+}
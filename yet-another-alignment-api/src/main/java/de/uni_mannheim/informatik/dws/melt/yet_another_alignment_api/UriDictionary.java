@@ -0,0 +1,78 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dictionary which maps URIs (strings) to dense int IDs (starting at zero) and back.
+ * Each distinct URI is only stored once.
+ * This class is not thread safe.
+ */
+class UriDictionary {
+
+    /**
+     * The ID which is returned if a URI is not contained in the dictionary.
+     */
+    static final int NOT_CONTAINED = -1;
+
+    private final Map<String, Integer> uriToId;
+    private String[] idToUri;
+    private int size;
+
+    public UriDictionary() {
+        this(16);
+    }
+
+    public UriDictionary(int initialCapacity) {
+        this.uriToId = new HashMap<>(Math.max(16, (int) (initialCapacity / 0.75f) + 1));
+        this.idToUri = new String[Math.max(16, initialCapacity)];
+        this.size = 0;
+    }
+
+    /**
+     * Returns the ID of the given URI. If the URI is not yet contained, a new ID is assigned.
+     * @param uri the uri
+     * @return the ID of the URI
+     */
+    public int getOrCreateId(String uri){
+        Integer id = uriToId.get(uri);
+        if(id != null)
+            return id;
+        if(size == idToUri.length){
+            idToUri = Arrays.copyOf(idToUri, idToUri.length + (idToUri.length >> 1));
+        }
+        idToUri[size] = uri;
+        uriToId.put(uri, size);
+        return size++;
+    }
+
+    /**
+     * Returns the ID of the given URI or {@link #NOT_CONTAINED} if the URI is not contained.
+     * @param uri the uri
+     * @return the ID of the URI or {@link #NOT_CONTAINED}
+     */
+    public int getId(String uri){
+        Integer id = uriToId.get(uri);
+        if(id == null)
+            return NOT_CONTAINED;
+        return id;
+    }
+
+    /**
+     * Returns the URI for the given ID.
+     * @param id the ID
+     * @return the URI
+     */
+    public String getUri(int id){
+        return idToUri[id];
+    }
+
+    /**
+     * Returns the number of distinct URIs in this dictionary.
+     * @return the number of URIs.
+     */
+    public int size(){
+        return size;
+    }
+}
@@ -111,4 +111,47 @@ class AlignmentParserTest {
         return AlignmentParser.parse(AlignmentParserTest.class.getClassLoader().getResourceAsStream("LogMap-cmt-conference.rdf"));
     }
 
+
+    @Test
+    public void testStreamingParsing() throws SAXException, IOException {
+        File f = new File(AlignmentParserTest.class.getResource("/LogMap-cmt-conference.rdf").getFile());
+        Alignment expected = AlignmentParser.parse(f);
+        
+        Alignment callback = new Alignment();
+        Alignment info = AlignmentParser.parse(f, callback::add);
+        assertEquals(expected, callback);
+        assertEquals(expected.getOnto1().getOntoID(), info.getOnto1().getOntoID());
+        assertEquals(0, info.size());
+        
+        Alignment pulled = new Alignment();
+        try(AlignmentStreamReader reader = new AlignmentStreamReader(f)){
+            while(reader.hasNext()){
+                pulled.add(reader.next());
+            }
+            assertEquals(expected.getOnto2().getOntoID(), reader.getAlignmentInfo().getOnto2().getOntoID());
+        }
+        assertEquals(expected, pulled);
+    }
+    
+    @Test
+    public void testStreamingParsingEarlyClose() throws IOException {
+        Alignment a = AlignmentGenerator.generateRandomAlignment(5000);
+        AlignmentStreamReader reader = new AlignmentStreamReader(new ByteArrayInputStream(a.serialize().getBytes()), 10);
+        assertTrue(reader.hasNext());
+        assertNotNull(reader.next());
+        reader.close();
+        assertFalse(reader.hasNext());
+    }
+    
+    @Test
+    public void testStreamingParsingError() throws IOException {
+        File f = new File(AlignmentParserTest.class.getResource("/unparsable_alignment.rdf").getFile());
+        try(AlignmentStreamReader reader = new AlignmentStreamReader(f)){
+            assertThrows(IllegalStateException.class, () -> {
+                while(reader.hasNext()){
+                    reader.next();
+                }
+            });
+        }
+    }
 }
\ No newline at end of file
@@ -1,5 +1,9 @@
 package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -62,4 +66,39 @@ class AlignmentSerializerTest {
     }
     
 
+    @Test
+    void serializeStreaming() throws Exception {
+        Alignment alignment = AlignmentGenerator.generateRandomAlignment(100);
+        alignment.iterator().next().addExtensionValue("http://www.extension.com#extensionLabel", "MyExtensionValue");
+        alignment.getOnto1().setOntoID("http://cmt");
+        
+        StringWriter xml = new StringWriter();
+        AlignmentSerializer.serialize(alignment, xml);
+        assertEquals(AlignmentSerializer.serialize(alignment), xml.toString());
+        
+        StringWriter streamed = new StringWriter();
+        try(AlignmentStreamReader reader = new AlignmentStreamReader(new ByteArrayInputStream(xml.toString().getBytes(StandardCharsets.UTF_8)));
+            AlignmentStreamWriter writer = new AlignmentStreamWriter(streamed, alignment)){
+            writer.writeAll(reader);
+        }
+        assertEquals(alignment, new Alignment(new ByteArrayInputStream(streamed.toString().getBytes(StandardCharsets.UTF_8))));
+    }
+    
+    @Test
+    void serializeToCSVStreaming() throws Exception {
+        Alignment alignment = new Alignment();
+        alignment.add("http://cmt#Person", "http://conference#Person", 0.5);
+        alignment.add("http://cmt#Paper", "http://conference#Paper", 1.0, CorrespondenceRelation.SUBSUME);
+        StringWriter csv = new StringWriter();
+        AlignmentSerializer.serializeToCSV(alignment, csv);
+        String[] lines = csv.toString().split("\\r?\\n");
+        assertEquals(3, lines.length);
+        assertEquals("source,target,confidence,relation", lines[0]);
+        
+        File file = File.createTempFile("alignment", ".csv");
+        file.deleteOnExit();
+        alignment.serializeToCSV(file);
+        assertEquals(alignment, AlignmentParser.parseCSV(file));
+    }
+
 }
\ No newline at end of file
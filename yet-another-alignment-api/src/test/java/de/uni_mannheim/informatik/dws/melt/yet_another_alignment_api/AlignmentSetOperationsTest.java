@@ -0,0 +1,129 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AlignmentSetOperationsTest {
+
+    @Test
+    public void testSetOperations(){
+        Alignment one = new Alignment();
+        one.add("A", "B", 0.5);
+        one.add("A", "C", 0.6);
+        one.add("D", "E", 0.7);
+        one.add("D", "E", 0.7, CorrespondenceRelation.SUBSUME);
+
+        Alignment two = new Alignment();
+        two.add("A", "B", 0.9);
+        two.add("D", "E", 0.7, CorrespondenceRelation.SUBSUME);
+        two.add("X", "Y", 0.3);
+
+        AlignmentView subtraction = AlignmentSetOperations.subtraction(one, two);
+        assertEquals(2, subtraction.size());
+        assertTrue(subtraction.contains(new Correspondence("A", "C")));
+        assertTrue(subtraction.contains(new Correspondence("D", "E")));
+        assertFalse(subtraction.contains(new Correspondence("A", "B")));
+
+        AlignmentView intersection = AlignmentSetOperations.intersection(one, two);
+        assertEquals(2, intersection.size());
+        assertEquals(0.5, intersection.getCorrespondencesSourceTarget("A", "B").get(0).getConfidence());
+        assertTrue(intersection.contains(new Correspondence("D", "E", CorrespondenceRelation.SUBSUME)));
+
+        AlignmentView union = AlignmentSetOperations.union(one, two);
+        assertEquals(5, union.size());
+        assertEquals(0.5, union.getCorrespondencesSourceTarget("A", "B").get(0).getConfidence());
+        assertEquals(2, union.getCorrespondencesSource("A").size());
+        assertEquals(2, union.getCorrespondencesTarget("E").size());
+        assertEquals(0, union.getCorrespondencesTarget("A").size());
+        assertTrue(union.isSourceContained("X"));
+        assertFalse(union.isSourceContained("Y"));
+        assertTrue(union.isTargetContained("Y"));
+
+        assertEquals(new Alignment(union), union.toAlignment());
+        assertEquals(union.toAlignment(), union.toCompactAlignment());
+    }
+
+    @Test
+    public void testDuplicatesInIterable(){
+        AlignmentView view = AlignmentSetOperations.sort(Arrays.asList(
+                new Correspondence("A", "B", 0.1),
+                new Correspondence("A", "B", 0.2),
+                new Correspondence("A", "A", 0.3)), false);
+        assertEquals(2, view.size());
+        assertEquals(0.3, view.iterator().next().getConfidence());
+        assertEquals(0.1, view.getCorrespondencesSourceTarget("A", "B").get(0).getConfidence());
+    }
+
+    @Test
+    public void testSameResultAsAlignment(){
+        Alignment one = AlignmentGenerator.generateRandomAlignment(3000);
+        Alignment two = new Alignment(one.sample(1000));
+        two.addAll(AlignmentGenerator.generateRandomAlignment(2000));
+
+        for(boolean parallel : new boolean[]{false, true}){
+            assertEquals(referenceSubtraction(one, two), AlignmentSetOperations.subtraction(one, two, parallel).toAlignment());
+            assertEquals(referenceSubtraction(two, one), AlignmentSetOperations.subtraction(two, one, parallel).toAlignment());
+            assertEquals(referenceIntersection(one, two), AlignmentSetOperations.intersection(one, two, parallel).toAlignment());
+            assertEquals(referenceUnion(one, two), AlignmentSetOperations.union(one, two, parallel).toAlignment());
+        }
+
+        //merge in many partitions
+        assertEquals(referenceSubtraction(one, two), AlignmentSetOperations.compute(AlignmentSetOperations.Operation.SUBTRACTION, one, two, true, 100).toAlignment());
+        assertEquals(referenceIntersection(one, two), AlignmentSetOperations.compute(AlignmentSetOperations.Operation.INTERSECTION, one, two, true, 100).toAlignment());
+        assertEquals(referenceUnion(one, two), AlignmentSetOperations.compute(AlignmentSetOperations.Operation.UNION, one, two, true, 100).toAlignment());
+
+        //views can be used as operands again
+        AlignmentView union = AlignmentSetOperations.union(one, two, true);
+        assertEquals(two.size(), AlignmentSetOperations.intersection(union, two).size());
+        assertEquals(0, AlignmentSetOperations.subtraction(one, union).size());
+    }
+
+    @Test
+    public void testNullEntities(){
+        List<Correspondence> one = Arrays.asList(
+                new Correspondence(null, "B", 0.5),
+                new Correspondence("A", null, 0.6),
+                new Correspondence("A", "B", 0.7));
+        List<Correspondence> two = Arrays.asList(
+                new Correspondence(null, "B", 0.5),
+                new Correspondence("X", "Y", 0.3));
+
+        AlignmentView subtraction = AlignmentSetOperations.subtraction(one, two);
+        assertEquals(2, subtraction.size());
+        assertFalse(subtraction.contains(new Correspondence(null, "B")));
+        assertTrue(subtraction.contains(new Correspondence("A", null)));
+
+        AlignmentView intersection = AlignmentSetOperations.intersection(one, two);
+        assertEquals(1, intersection.size());
+        assertTrue(intersection.contains(new Correspondence(null, "B")));
+
+        AlignmentView union = AlignmentSetOperations.union(one, two);
+        assertEquals(4, union.size());
+        assertEquals(1, union.getCorrespondencesSource(null).size());
+        assertEquals(1, union.getCorrespondencesTarget(null).size());
+        assertEquals(2, union.getCorrespondencesSource("A").size());
+    }
+
+    private static Alignment referenceSubtraction(Alignment one, Alignment two){
+        Alignment result = new Alignment();
+        result.addAll(one);
+        result.removeAll(two);
+        return result;
+    }
+
+    private static Alignment referenceIntersection(Alignment one, Alignment two){
+        Alignment result = new Alignment();
+        result.addAll(one);
+        result.retainAll(two);
+        return result;
+    }
+
+    private static Alignment referenceUnion(Alignment one, Alignment two){
+        Alignment result = new Alignment();
+        result.addAll(one);
+        result.addAll(two);
+        return result;
+    }
+}
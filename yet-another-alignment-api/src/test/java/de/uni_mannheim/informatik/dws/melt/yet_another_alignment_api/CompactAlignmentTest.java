@@ -0,0 +1,291 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactAlignmentTest {
+
+    @Test
+    public void testAddAndContains(){
+        CompactAlignment a = new CompactAlignment();
+        assertTrue(a.isEmpty());
+        assertTrue(a.add(new Correspondence("A", "B", 0.5)));
+        assertFalse(a.add(new Correspondence("A", "B", 0.9)));
+        assertTrue(a.add(new Correspondence("A", "B", 0.9, CorrespondenceRelation.SUBSUME)));
+        a.add("A", "C", 0.6);
+        a.add("D", "C", 0.7);
+        assertEquals(4, a.size());
+        assertTrue(a.contains(new Correspondence("A", "B")));
+        assertTrue(a.contains(new Correspondence("A", "B", CorrespondenceRelation.SUBSUME)));
+        assertFalse(a.contains(new Correspondence("A", "B", CorrespondenceRelation.SUBSUMED)));
+        assertFalse(a.contains(new Correspondence("X", "B")));
+        assertEquals(0.5, a.getCorrespondence("A", "B", CorrespondenceRelation.EQUIVALENCE).getConfidence());
+    }
+
+    @Test
+    public void testLookups(){
+        CompactAlignment a = new CompactAlignment();
+        a.add("A", "B", 0.5);
+        a.add("A", "C", 0.6);
+        a.add("D", "C", 0.7);
+        a.add("A", "C", CorrespondenceRelation.SUBSUME);
+
+        assertEquals(3, Alignment.iterableSize(a.getCorrespondencesSource("A")));
+        assertEquals(1, Alignment.iterableSize(a.getCorrespondencesSource("D")));
+        assertEquals(0, Alignment.iterableSize(a.getCorrespondencesSource("C")));
+        assertEquals(3, Alignment.iterableSize(a.getCorrespondencesTarget("C")));
+        assertEquals(2, Alignment.iterableSize(a.getCorrespondencesSourceTarget("A", "C")));
+        assertEquals(1, Alignment.iterableSize(a.getCorrespondencesSourceRelation("A", CorrespondenceRelation.SUBSUME)));
+        assertEquals(2, Alignment.iterableSize(a.getCorrespondencesTargetRelation("C", CorrespondenceRelation.EQUIVALENCE)));
+        assertTrue(a.isSourceContained("D"));
+        assertFalse(a.isSourceContained("C"));
+        assertTrue(a.isTargetContained("C"));
+        assertFalse(a.isTargetContained("A"));
+
+        assertEquals(2, a.getDistinctSourcesAsSet().size());
+        assertEquals(2, a.getDistinctTargetsAsSet().size());
+        assertEquals(2, a.getDistinctRelationsAsSet().size());
+    }
+
+    @Test
+    public void testAddOrUseHighestConfidence(){
+        CompactAlignment a = new CompactAlignment();
+        a.add("A", "B", 0.5);
+        a.addOrUseHighestConfidence("A", "B", 0.3);
+        assertEquals(0.5, a.getCorrespondence("A", "B", CorrespondenceRelation.EQUIVALENCE).getConfidence());
+        a.addOrUseHighestConfidence("A", "B", 0.8);
+        assertEquals(0.8, a.getCorrespondence("A", "B", CorrespondenceRelation.EQUIVALENCE).getConfidence());
+        a.addOrModify(new Correspondence("A", "B", 0.1, CorrespondenceRelation.EQUIVALENCE, "http://example.com#key", "value"));
+        Correspondence c = a.getCorrespondence("A", "B", CorrespondenceRelation.EQUIVALENCE);
+        assertEquals(0.1, c.getConfidence());
+        assertEquals("value", c.getExtensionValue("http://example.com#key"));
+        assertEquals(1, a.size());
+    }
+
+    @Test
+    public void testExtensionsAreWrittenBack(){
+        CompactAlignment a = new CompactAlignment();
+        a.add("A", "B", 0.5);
+        a.add("C", "D", 0.5);
+        for(Correspondence c : a){
+            c.addAdditionalConfidence("test", 0.3);
+        }
+        for(Correspondence c : a){
+            assertEquals(0.3, c.getAdditionalConfidence("test"));
+        }
+        a.removeCorrespondenceExtensions();
+        for(Correspondence c : a){
+            assertTrue(c.getExtensions().isEmpty());
+        }
+    }
+
+    @Test
+    public void testRemove(){
+        CompactAlignment a = new CompactAlignment();
+        for(int i = 0; i < 100; i++){
+            a.add("source" + i, "target" + (i % 10), i / 100.0);
+        }
+        assertEquals(100, a.size());
+        assertTrue(a.remove(new Correspondence("source5", "target5")));
+        assertFalse(a.remove(new Correspondence("source5", "target5")));
+        assertFalse(a.contains(new Correspondence("source5", "target5")));
+        assertEquals(99, a.size());
+        assertEquals(9, Alignment.iterableSize(a.getCorrespondencesTarget("target5")));
+
+        a.removeCorrespondencesTarget("target1");
+        assertEquals(89, a.size());
+        assertFalse(a.isTargetContained("target1"));
+
+        Iterator<Correspondence> iterator = a.iterator();
+        while(iterator.hasNext()){
+            if(iterator.next().getConfidence() >= 0.5)
+                iterator.remove();
+        }
+        for(Correspondence c : a){
+            assertTrue(c.getConfidence() < 0.5);
+        }
+        assertEquals(Alignment.iterableSize(a), a.size());
+
+        a.compact();
+        assertEquals(Alignment.iterableSize(a), a.size());
+        assertTrue(a.contains(new Correspondence("source2", "target2")));
+        assertEquals(5, Alignment.iterableSize(a.getCorrespondencesTarget("target2")));
+    }
+
+    @Test
+    public void testCut(){
+        Alignment a = new CompactAlignment(AlignmentGenerator.generateRandomAlignment(1000));
+        Alignment cutted = a.cut(0.7);
+        assertTrue(cutted instanceof CompactAlignment);
+        for(Correspondence c : cutted){
+            assertTrue(c.getConfidence() >= 0.7);
+        }
+        assertEquals(a.stream().filter(c -> c.getConfidence() >= 0.7).count(), cutted.size());
+    }
+
+    @Test
+    public void testEqualsWithAlignment(){
+        Alignment reference = AlignmentGenerator.generateRandomAlignment(1000);
+        CompactAlignment compact = new CompactAlignment(reference);
+        assertEquals(reference.size(), compact.size());
+        assertEquals(reference, compact);
+        assertEquals(compact, reference);
+
+        Alignment copy = new Alignment(compact);
+        assertEquals(reference, copy);
+        assertEquals(0, Alignment.subtraction(reference, compact).size());
+    }
+
+    @Test
+    public void testParseAndSerialize() throws Exception {
+        CompactAlignment a = new CompactAlignment();
+        Correspondence c = new Correspondence("http://cmt#assignExternalReviewer", "http://conference#invites_co-reviewers", 0.8);
+        c.addExtensionValue("http://www.extension.com#extensionLabel", "MyExtensionValue");
+        a.add(c);
+        a.add("http://cmt#Person", "http://conference#Person", 1.0);
+
+        String serialized = a.serialize();
+        CompactAlignment parsed = new CompactAlignment(new ByteArrayInputStream(serialized.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(a, parsed);
+        assertEquals("MyExtensionValue", parsed.getCorrespondence("http://cmt#assignExternalReviewer",
+                "http://conference#invites_co-reviewers", CorrespondenceRelation.EQUIVALENCE).getExtensionValue("http://www.extension.com#extensionLabel"));
+    }
+
+    @Test
+    public void testLookupsMatchAlignment(){
+        int size = 5000;
+        Random rnd = new Random(1234);
+        Alignment alignment = new Alignment();
+        CompactAlignment compact = new CompactAlignment();
+        for(int i = 0; i < size; i++){
+            String source = "http://left/" + rnd.nextInt(size / 2);
+            String target = "http://right/" + rnd.nextInt(size / 2);
+            double confidence = rnd.nextDouble();
+            alignment.add(source, target, confidence);
+            compact.add(source, target, confidence);
+        }
+        assertEquals(alignment.size(), compact.size());
+        assertEquals(alignment, compact);
+        for(int i = 0; i < size / 2; i++){
+            String source = "http://left/" + i;
+            String target = "http://right/" + i;
+            assertEquals(toSet(alignment.getCorrespondencesSource(source)), toSet(compact.getCorrespondencesSource(source)));
+            assertEquals(toSet(alignment.getCorrespondencesTarget(target)), toSet(compact.getCorrespondencesTarget(target)));
+        }
+    }
+
+    @Test
+    public void testModificationsOfReturnedCorrespondencesAreWrittenBack(){
+        CompactAlignment a = new CompactAlignment();
+        a.add("A", "B", 0.5);
+        a.add("A", "C", 0.3);
+        Correspondence c = a.getCorrespondence("A", "B", CorrespondenceRelation.EQUIVALENCE);
+        c.setConfidence(0.9);
+        c.setIdentifier("myId");
+        assertEquals(0.9, a.getCorrespondence("A", "B", CorrespondenceRelation.EQUIVALENCE).getConfidence());
+        assertEquals("myId", a.getCorrespondence("A", "B", CorrespondenceRelation.EQUIVALENCE).getIdentifier());
+
+        c.addExtensionValue("http://example.com#key", "value");
+        c.setRelation(CorrespondenceRelation.SUBSUME);
+        assertEquals(2, a.size());
+        assertNull(a.getCorrespondence("A", "B", CorrespondenceRelation.EQUIVALENCE));
+        Correspondence moved = a.getCorrespondence("A", "B", CorrespondenceRelation.SUBSUME);
+        assertEquals(0.9, moved.getConfidence());
+        assertEquals("myId", moved.getIdentifier());
+        assertEquals("value", moved.getExtensionValue("http://example.com#key"));
+        assertEquals(1, Alignment.iterableSize(a.getCorrespondencesSourceRelation("A", CorrespondenceRelation.SUBSUME)));
+
+        c.setEntityTwo("D");
+        assertTrue(a.isTargetContained("D"));
+        assertFalse(a.contains(new Correspondence("A", "B", CorrespondenceRelation.SUBSUME)));
+        assertEquals(0.9, a.getCorrespondence("A", "D", CorrespondenceRelation.SUBSUME).getConfidence());
+
+        //changing the key to an already contained correspondence merges both
+        c.setEntityTwo("C");
+        c.setRelation(CorrespondenceRelation.EQUIVALENCE);
+        assertEquals(1, a.size());
+        assertEquals(0.9, a.getCorrespondence("A", "C", CorrespondenceRelation.EQUIVALENCE).getConfidence());
+        assertEquals("value", a.getCorrespondence("A", "C", CorrespondenceRelation.EQUIVALENCE).getExtensionValue("http://example.com#key"));
+
+        //removed correspondences behave like normal correspondences
+        assertTrue(a.remove(c));
+        c.setConfidence(0.1);
+        c.setEntityOne("X");
+        assertTrue(a.isEmpty());
+        assertEquals(0.1, c.getConfidence());
+        assertEquals("X", c.getEntityOne());
+    }
+
+    /**
+     * Compares memory consumption and lookup speed of {@link Alignment} and {@link CompactAlignment}.
+     * It only prints the numbers (they depend on the JVM and machine) and takes some time, thus it is disabled
+     * and can be run manually.
+     */
+    @Test
+    @Disabled
+    public void compareMemoryAndLookup(){
+        int size = 200000;
+        Random rnd = new Random(1234);
+        String[] sources = new String[size];
+        String[] targets = new String[size];
+        for(int i = 0; i < size; i++){
+            sources[i] = "http://exampleLeftWithALongURI/" + rnd.nextInt(size);
+            targets[i] = "http://exampleRightWithALongURI/" + rnd.nextInt(size);
+        }
+
+        long before = usedMemory();
+        Alignment alignment = new Alignment();
+        for(int i = 0; i < size; i++){
+            alignment.add(sources[i], targets[i], rnd.nextDouble());
+        }
+        long alignmentBytes = usedMemory() - before;
+        long alignmentLookup = measureLookup(alignment, sources);
+        int alignmentSize = alignment.size();
+        alignment = null;
+
+        before = usedMemory();
+        CompactAlignment compact = new CompactAlignment();
+        for(int i = 0; i < size; i++){
+            compact.add(sources[i], targets[i], rnd.nextDouble());
+        }
+        long compactBytes = usedMemory() - before;
+        long compactLookup = measureLookup(compact, sources);
+        assertEquals(alignmentSize, compact.size());
+
+        System.out.println("Alignment:        " + (alignmentBytes / alignmentSize) + " bytes per correspondence, lookup " + alignmentLookup + " ns");
+        System.out.println("CompactAlignment: " + (compactBytes / compact.size()) + " bytes per correspondence, lookup " + compactLookup + " ns");
+    }
+
+    private static long measureLookup(Alignment alignment, String[] sources){
+        long startTime = System.nanoTime();
+        long found = 0;
+        for(String source : sources){
+            found += Alignment.iterableSize(alignment.getCorrespondencesSource(source));
+        }
+        assertTrue(found >= sources.length);
+        return System.nanoTime() - startTime;
+    }
+
+    private static long usedMemory(){
+        Runtime runtime = Runtime.getRuntime();
+        for(int i = 0; i < 3; i++){
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static Set<Correspondence> toSet(Iterable<Correspondence> correspondences){
+        Set<Correspondence> set = new HashSet<>();
+        for(Correspondence c : correspondences){
+            set.add(c);
+        }
+        return set;
+    }
+}
@@ -0,0 +1,267 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedBinaryAlignmentTest {
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Alignment a = new Alignment();
+        a.setMethod("TestMethod");
+        a.setOnto1(new OntoInfo("http://cmt", "http://cmt.owl"));
+        a.setOnto2(new OntoInfo("http://conference", "http://conference.owl"));
+        a.addExtensionValue("http://www.extension.com#alignmentExtension", "AlignmentValue");
+        Correspondence c = new Correspondence("http://cmt#assignExternalReviewer", "http://conference#invites_co-reviewers", 0.8);
+        c.addExtensionValue("http://www.extension.com#extensionLabel", "MyExtensionValue");
+        c.addAdditionalConfidence("http://www.extension.com#confidence", 0.3);
+        a.add(c);
+        a.add("http://cmt#Person", "http://conference#Person", 1.0);
+        a.add("http://cmt#Person", "http://conference#Human", 0.4, CorrespondenceRelation.SUBSUME);
+        a.add("http://cmt#Author", "http://conference#Person", 0.6);
+
+        File file = new File(tempDir, "alignment.bin");
+        AlignmentSerializer.serializeToBinary(a, file);
+
+        try(MappedBinaryAlignment mapped = new MappedBinaryAlignment(file)){
+            assertEquals(4, mapped.size());
+            assertEquals("TestMethod", mapped.getAlignmentInfo().getMethod());
+            assertEquals("http://cmt", mapped.getAlignmentInfo().getOnto1().getOntoID());
+            assertEquals("http://conference.owl", mapped.getAlignmentInfo().getOnto2().getOntoLocation());
+            assertEquals("AlignmentValue", mapped.getAlignmentInfo().getExtensionValue("http://www.extension.com#alignmentExtension"));
+
+            assertEquals(2, mapped.getCorrespondencesSource("http://cmt#Person").size());
+            assertEquals(2, mapped.getCorrespondencesTarget("http://conference#Person").size());
+            assertEquals(1, mapped.getCorrespondencesSourceTarget("http://cmt#Person", "http://conference#Human").size());
+            assertEquals(0, mapped.getCorrespondencesSource("http://conference#Person").size());
+            assertEquals(0, mapped.getCorrespondencesSource("http://notContained").size());
+            assertTrue(mapped.isSourceContained("http://cmt#Author"));
+            assertFalse(mapped.isTargetContained("http://cmt#Author"));
+            assertTrue(mapped.contains(new Correspondence("http://cmt#Person", "http://conference#Human", CorrespondenceRelation.SUBSUME)));
+            assertFalse(mapped.contains(new Correspondence("http://cmt#Person", "http://conference#Human")));
+
+            Correspondence parsed = mapped.getCorrespondence("http://cmt#assignExternalReviewer", "http://conference#invites_co-reviewers", CorrespondenceRelation.EQUIVALENCE);
+            assertEquals(0.8, parsed.getConfidence());
+            assertEquals("MyExtensionValue", parsed.getExtensionValue("http://www.extension.com#extensionLabel"));
+            assertEquals(0.3, parsed.getAdditionalConfidence("http://www.extension.com#confidence"));
+
+            assertEquals(a, mapped.toAlignment());
+        }
+        assertEquals(a, AlignmentParser.parseBinary(file));
+    }
+
+    @Test
+    public void testEmptyAlignment() throws IOException {
+        File file = new File(tempDir, "empty.bin");
+        AlignmentSerializer.serializeToBinary(new Alignment(), file);
+        try(MappedBinaryAlignment mapped = new MappedBinaryAlignment(file)){
+            assertTrue(mapped.isEmpty());
+            assertFalse(mapped.iterator().hasNext());
+            assertEquals(0, mapped.getCorrespondencesSource("http://a").size());
+        }
+    }
+
+    @Test
+    public void testNotBinaryFile() throws IOException {
+        File file = new File(tempDir, "wrong.bin");
+        try(FileOutputStream out = new FileOutputStream(file)){
+            for(int i = 0; i < 10; i++){
+                out.write("This is not a binary alignment.".getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        assertThrows(IOException.class, () -> new MappedBinaryAlignment(file));
+    }
+
+    @Test
+    public void testConversion() throws Exception {
+        File xml = new File(tempDir, "alignment.rdf");
+        File binary = new File(tempDir, "alignment.bin");
+        File xmlAgain = new File(tempDir, "alignmentAgain.rdf");
+        File csv = new File(tempDir, "alignment.csv");
+        File binaryFromCsv = new File(tempDir, "alignmentFromCsv.bin");
+
+        Alignment a = AlignmentGenerator.generateRandomAlignment(500);
+        AlignmentSerializer.serialize(a, xml);
+        AlignmentSerializer.convertXmlToBinary(xml, binary);
+        AlignmentSerializer.convertBinaryToXml(binary, xmlAgain);
+        assertEquals(a, AlignmentParser.parse(xmlAgain));
+
+        AlignmentSerializer.convertBinaryToCSV(binary, csv);
+        AlignmentSerializer.convertCSVToBinary(csv, binaryFromCsv);
+        assertEquals(a, AlignmentParser.parseBinary(binaryFromCsv));
+    }
+
+    @Test
+    public void testLookupsMatchXml() throws Exception {
+        File xml = new File(tempDir, "large.rdf");
+        File binary = new File(tempDir, "large.bin");
+        Alignment a = AlignmentGenerator.generateRandomAlignment(20000);
+        AlignmentSerializer.serialize(a, xml);
+        AlignmentSerializer.serializeToBinary(a, binary);
+        assertTrue(binary.length() < xml.length());
+
+        Alignment parsed = AlignmentParser.parse(xml);
+        try(MappedBinaryAlignment mapped = new MappedBinaryAlignment(binary)){
+            assertEquals(parsed.size(), mapped.size());
+            int checked = 0;
+            for(Correspondence c : parsed){
+                assertEquals(Alignment.iterableSize(parsed.getCorrespondencesSource(c.getEntityOne())),
+                        mapped.getCorrespondencesSource(c.getEntityOne()).size());
+                assertEquals(Alignment.iterableSize(parsed.getCorrespondencesTarget(c.getEntityTwo())),
+                        mapped.getCorrespondencesTarget(c.getEntityTwo()).size());
+                assertTrue(mapped.contains(c));
+                if(++checked >= 1000)
+                    break;
+            }
+        }
+    }
+
+    @Test
+    public void testExtensionTypes() throws IOException {
+        Alignment a = new Alignment();
+        Correspondence c = new Correspondence("http://a", "http://b", 0.5);
+        c.addExtensionValue("http://ext#double", 0.25);
+        c.addExtensionValue("http://ext#integer", 3);
+        c.addExtensionValue("http://ext#long", 4L);
+        c.addExtensionValue("http://ext#boolean", true);
+        c.addExtensionValue("http://ext#string", "value");
+        c.addExtensionValue("http://ext#other", new StringBuilder("other"));
+        a.add(c);
+        File file = new File(tempDir, "extensions.bin");
+        AlignmentSerializer.serializeToBinary(a, file);
+
+        try(MappedBinaryAlignment mapped = new MappedBinaryAlignment(file)){
+            Correspondence parsed = mapped.iterator().next();
+            assertEquals(0.25, parsed.getExtensionValue("http://ext#double"));
+            assertEquals(3, parsed.getExtensionValue("http://ext#integer"));
+            assertEquals(4L, parsed.getExtensionValue("http://ext#long"));
+            assertEquals(true, parsed.getExtensionValue("http://ext#boolean"));
+            assertEquals("value", parsed.getExtensionValue("http://ext#string"));
+            //other types are stored as string
+            assertEquals("other", parsed.getExtensionValue("http://ext#other"));
+        }
+    }
+
+    @Test
+    public void testUseAfterClose() throws IOException {
+        Alignment a = new Alignment();
+        a.add("http://a", "http://b", 0.5);
+        File file = new File(tempDir, "closed.bin");
+        AlignmentSerializer.serializeToBinary(a, file);
+
+        MappedBinaryAlignment mapped = new MappedBinaryAlignment(file);
+        Iterator<Correspondence> iterator = mapped.iterator();
+        mapped.close();
+        assertEquals(1, mapped.size());
+        assertThrows(IllegalStateException.class, () -> mapped.getCorrespondencesSource("http://a"));
+        assertThrows(IllegalStateException.class, () -> mapped.isTargetContained("http://b"));
+        assertThrows(IllegalStateException.class, () -> iterator.next());
+    }
+
+    @Test
+    public void testCloseDuringConcurrentLookups() throws Exception {
+        Alignment a = AlignmentGenerator.generateRandomAlignment(2000);
+        File file = new File(tempDir, "concurrent.bin");
+        AlignmentSerializer.serializeToBinary(a, file);
+        List<String> sources = new ArrayList<>();
+        for(Correspondence c : a){
+            sources.add(c.getEntityOne());
+        }
+
+        MappedBinaryAlignment mapped = new MappedBinaryAlignment(file);
+        AtomicReference<Throwable> unexpected = new AtomicReference<>();
+        CountDownLatch started = new CountDownLatch(4);
+        List<Thread> readers = new ArrayList<>();
+        for(int t = 0; t < 4; t++){
+            Thread reader = new Thread(() -> {
+                started.countDown();
+                try{
+                    for(int i = 0; ; i++){
+                        String source = sources.get(i % sources.size());
+                        //a lookup either finishes completely or fails because the alignment is closed
+                        assertEquals(Alignment.iterableSize(a.getCorrespondencesSource(source)), mapped.getCorrespondencesSource(source).size());
+                    }
+                }catch(IllegalStateException ex){
+                    //expected after close
+                }catch(Throwable ex){
+                    unexpected.set(ex);
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        started.await();
+        Thread.sleep(50);
+        mapped.close();
+        for(Thread reader : readers){
+            reader.join(10000);
+            assertFalse(reader.isAlive());
+        }
+        assertNull(unexpected.get());
+    }
+
+    @Test
+    public void testCorruptSectionSize() throws IOException {
+        Alignment a = new Alignment();
+        a.add("http://a", "http://b", 0.5);
+        File file = new File(tempDir, "corrupt.bin");
+        AlignmentSerializer.serializeToBinary(a, file);
+        try(RandomAccessFile raf = new RandomAccessFile(file, "rw")){
+            raf.seek(12); //record count
+            raf.writeInt(200_000_000);
+        }
+        IOException ex = assertThrows(IOException.class, () -> new MappedBinaryAlignment(file));
+        assertTrue(ex.getMessage().contains("records"));
+    }
+
+    /**
+     * Benchmark which compares parsing the XML file with {@link AlignmentParser} (and one lookup) against opening the
+     * binary file (and one lookup). The times are only printed, thus it is disabled and can be run manually.
+     */
+    @Test
+    @Disabled
+    public void compareLoadTime() throws Exception {
+        File xml = new File(tempDir, "benchmark.rdf");
+        File binary = new File(tempDir, "benchmark.bin");
+        Alignment a = AlignmentGenerator.generateRandomAlignment(100000);
+        AlignmentSerializer.serialize(a, xml);
+        AlignmentSerializer.serializeToBinary(a, binary);
+        String source = a.iterator().next().getEntityOne();
+
+        long startTime = System.nanoTime();
+        Alignment parsed = AlignmentParser.parse(xml);
+        long xmlLookup = Alignment.iterableSize(parsed.getCorrespondencesSource(source));
+        long xmlTime = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        long binaryLookup;
+        try(MappedBinaryAlignment mapped = new MappedBinaryAlignment(binary)){
+            binaryLookup = mapped.getCorrespondencesSource(source).size();
+        }
+        long binaryTime = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        Alignment fullyLoaded = AlignmentParser.parseBinary(binary);
+        long binaryFullTime = System.nanoTime() - startTime;
+
+        assertEquals(xmlLookup, binaryLookup);
+        assertEquals(parsed.size(), fullyLoaded.size());
+        System.out.println("XML:    " + xml.length() + " bytes, parse and lookup " + (xmlTime / 1000000) + " ms");
+        System.out.println("Binary: " + binary.length() + " bytes, open and lookup " + (binaryTime / 1000000) + " ms, full load " + (binaryFullTime / 1000000) + " ms");
+    }
+}